@@ -3,6 +3,7 @@ package no.bachelorgroup13.backend;
 import io.github.cdimascio.dotenv.Dotenv;
 import jakarta.annotation.PostConstruct;
 import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
@@ -14,7 +15,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
  * Handles application startup and environment configuration.
  */
 @SpringBootApplication
-@EnableConfigurationProperties(LicensePlateProperties.class)
+@EnableConfigurationProperties({LicensePlateProperties.class, PipelineProperties.class})
 public class Application {
     private static final Logger log = LoggerFactory.getLogger(Application.class);
 
@@ -0,0 +1,54 @@
+package no.bachelorgroup13.backend.common.config;
+
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for background executors.
+ * Keeps long-running work such as license plate recognition off the servlet threads.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Creates the bounded executor used for license plate recognition.
+     * @param poolSize Number of threads available for recognition
+     * @param queueCapacity Number of recognitions that may wait for a thread
+     * @return Executor for license plate recognition
+     */
+    @Bean(name = "licensePlateExecutor")
+    public Executor licensePlateExecutor(
+            @Value("${licenseplate.executor.pool-size:16}") int poolSize,
+            @Value("${licenseplate.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("license-plate-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the executor that runs the user and reservation lookups of identified
+     * plates side by side.
+     * @param poolSize Number of lookups that may run at once
+     * @param queueCapacity Number of lookups that may wait for a thread
+     * @return Executor for plate lookups
+     */
+    @Bean(name = "plateLookupExecutor")
+    public Executor plateLookupExecutor(
+            @Value("${licenseplate.lookup.pool-size:8}") int poolSize,
+            @Value("${licenseplate.lookup.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("plate-lookup-");
+        executor.initialize();
+        return executor;
+    }
+}
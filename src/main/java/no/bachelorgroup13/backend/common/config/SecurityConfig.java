@@ -105,6 +105,11 @@ public class SecurityConfig {
                                                 "/swagger-ui/**",
                                                 "/swagger-ui.html")
                                         .permitAll()
+                                        .requestMatchers(
+                                                "/license-plate/gate/**",
+                                                "/license-plate/jobs/**",
+                                                "/license-plate/cameras/**")
+                                        .authenticated()
                                         .requestMatchers("/license-plate/**")
                                         .permitAll()
                                         .requestMatchers("/api/auth/license-plate/**")
@@ -0,0 +1,90 @@
+package no.bachelorgroup13.backend.features.licenseplate.audit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity representing one plate read by a recognition.
+ * Rows are written in batches by {@link PlateReadRecorder}, the mapping keeps the
+ * table in the schema and lets the reads be queried.
+ */
+@Entity
+@Table(
+        name = "plate_reads",
+        indexes = @Index(name = "plate_reads_read_at_idx", columnList = "read_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlateRead {
+
+    /**
+     * Unique identifier for the read.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * When the recognition finished.
+     */
+    @Column(name = "read_at", nullable = false)
+    private Instant readAt;
+
+    /**
+     * The client or camera the image came from.
+     */
+    @Column(name = "source")
+    private String source;
+
+    /**
+     * The engine that read the plate, or null for cache hits.
+     */
+    @Column(name = "engine", length = 16)
+    private String engine;
+
+    /**
+     * Whether the result was served from the cache.
+     */
+    @Column(name = "cache_hit", nullable = false)
+    private boolean cacheHit;
+
+    /**
+     * Milliseconds from the request to the result.
+     */
+    @Column(name = "latency_ms", nullable = false)
+    private double latencyMs;
+
+    /**
+     * The plate text, or null if the recognition found no plate.
+     */
+    @Column(name = "plate", length = 20)
+    private String plate;
+
+    /**
+     * Name of the plate grammar the text matched.
+     */
+    @Column(name = "format", length = 32)
+    private String format;
+
+    /**
+     * Confidence in the plate after any corrections.
+     */
+    @Column(name = "score")
+    private Double score;
+
+    /**
+     * The bounding box of the plate in image coordinates.
+     */
+    @Column(name = "bbox", columnDefinition = "integer[]")
+    private int[] bbox;
+}
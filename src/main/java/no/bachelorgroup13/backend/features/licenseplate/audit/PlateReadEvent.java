@@ -0,0 +1,27 @@
+package no.bachelorgroup13.backend.features.licenseplate.audit;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One plate read waiting to be written to the audit trail.
+ * @param readAt When the recognition finished
+ * @param source The client or camera the image came from
+ * @param engine The engine that read the plate, or null for cache hits
+ * @param cacheHit true if the result was served from the cache
+ * @param latencyMs Milliseconds from the request to the result
+ * @param plate The plate text, or null if no plate was found
+ * @param format Name of the plate grammar the text matched
+ * @param score Confidence in the plate
+ * @param bbox The bounding box of the plate
+ */
+public record PlateReadEvent(
+        Instant readAt,
+        String source,
+        String engine,
+        boolean cacheHit,
+        double latencyMs,
+        String plate,
+        String format,
+        Double score,
+        List<Integer> bbox) {}
@@ -0,0 +1,224 @@
+package no.bachelorgroup13.backend.features.licenseplate.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every recognition as plate reads for later analysis of throughput and
+ * accuracy.
+ * Recording only puts the reads in a bounded buffer, so a recognition never waits
+ * for the database. A background writer empties the buffer with batch inserts.
+ * When the buffer is full, because the database is slow or down, new reads are
+ * dropped and counted instead of holding up recognition.
+ */
+@Component
+public class PlateReadRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(PlateReadRecorder.class);
+
+    static final String INSERT =
+            "INSERT INTO plate_reads (read_at, source, engine, cache_hit, latency_ms, plate,"
+                    + " format, score, bbox) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final BlockingQueue<PlateReadEvent> buffer;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new PlateReadRecorder.
+     * @param jdbcTemplate Writes the plate reads
+     * @param properties Recognition pipeline configuration properties
+     * @param meterRegistry Registry for the audit trail metrics
+     */
+    public PlateReadRecorder(
+            JdbcTemplate jdbcTemplate, PipelineProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = properties.getAudit().isEnabled();
+        this.batchSize = Math.max(1, properties.getAudit().getBatchSize());
+        this.flushInterval = properties.getAudit().getFlushInterval();
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, properties.getAudit().getBufferSize()));
+        Gauge.builder("licenseplate.audit.buffered", buffer, BlockingQueue::size)
+                .description("Plate reads waiting to be written")
+                .register(meterRegistry);
+        this.writtenCounter = counter(meterRegistry, "written");
+        this.droppedCounter = counter(meterRegistry, "dropped");
+        this.failedCounter = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * Records the plates of one recognition, or a read without a plate if none were
+     * found. Never blocks.
+     * @param source The client or camera the image came from
+     * @param engine The engine that read the plates, or null for cache hits
+     * @param cacheHit true if the result was served from the cache
+     * @param latencyNanos Nanoseconds from the request to the result
+     * @param plates The recognized plates
+     */
+    public void record(
+            String source,
+            String engine,
+            boolean cacheHit,
+            long latencyNanos,
+            List<PlateDto> plates) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        double latencyMs = latencyNanos / 1e6;
+        if (plates.isEmpty()) {
+            offer(
+                    new PlateReadEvent(
+                            now, source, engine, cacheHit, latencyMs, null, null, null, null));
+            return;
+        }
+        for (PlateDto plate : plates) {
+            offer(
+                    new PlateReadEvent(
+                            now,
+                            source,
+                            engine,
+                            cacheHit,
+                            latencyMs,
+                            plate.getText(),
+                            plate.getFormat(),
+                            plate.getScore() != null ? plate.getScore() : plate.getConfidence(),
+                            plate.getBbox()));
+        }
+    }
+
+    /**
+     * Starts the writer once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writer = new Thread(this::run, "plate-read-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer and writes what is left in the buffer.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(flushInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (flush() > 0) {
+            // Keep writing until the buffer is empty.
+        }
+    }
+
+    /**
+     * Writes up to one batch of buffered plate reads.
+     * @return Number of plate reads taken from the buffer
+     */
+    public int flush() {
+        List<PlateReadEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        buffer.drainTo(batch, batchSize);
+        write(batch);
+        return batch.size();
+    }
+
+    private void run() {
+        while (running) {
+            PlateReadEvent first;
+            try {
+                first = buffer.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            // Whatever arrived while the last batch was written goes in this one.
+            List<PlateReadEvent> batch = new ArrayList<>();
+            batch.add(first);
+            buffer.drainTo(batch, batchSize - 1);
+            write(batch);
+        }
+    }
+
+    private void offer(PlateReadEvent event) {
+        if (!buffer.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void write(List<PlateReadEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    INSERT,
+                    batch,
+                    batch.size(),
+                    (statement, event) -> {
+                        statement.setTimestamp(1, Timestamp.from(event.readAt()));
+                        statement.setString(2, event.source());
+                        statement.setString(3, event.engine());
+                        statement.setBoolean(4, event.cacheHit());
+                        statement.setDouble(5, event.latencyMs());
+                        statement.setString(6, event.plate());
+                        statement.setString(7, event.format());
+                        statement.setObject(8, event.score(), Types.DOUBLE);
+                        if (event.bbox() == null) {
+                            statement.setNull(9, Types.ARRAY);
+                        } else {
+                            statement.setArray(
+                                    9,
+                                    statement
+                                            .getConnection()
+                                            .createArrayOf("integer", event.bbox().toArray()));
+                        }
+                    });
+            writtenCounter.increment(batch.size());
+        } catch (DataAccessException e) {
+            failedCounter.increment(batch.size());
+            logger.warn("Could not write {} plate reads: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("licenseplate.audit.reads")
+                .tag("result", result)
+                .description("Plate reads recorded for the audit trail")
+                .register(meterRegistry);
+    }
+}
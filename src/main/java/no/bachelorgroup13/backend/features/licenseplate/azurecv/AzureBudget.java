@@ -0,0 +1,276 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps Azure usage within the transaction quota of the subscription.
+ * The global budget counts every image uploaded to Azure, while each client has
+ * its own budget for the images it asks Azure to read, so one misbehaving camera
+ * cannot spend the quota of the others. Both budgets have a token bucket that caps
+ * the rate and a daily limit that resets at midnight. A limit of 0 means unlimited.
+ * Camera streams are clients whose name starts with {@link #STREAM_PREFIX}, and
+ * they get the stream settings, since a camera sends many more frames than a
+ * person uploads images.
+ * Client budgets that are back where a new one would start are dropped now and
+ * then, and once the configured number of clients have a budget, any further
+ * client shares a single one.
+ */
+@Component
+public class AzureBudget {
+    private static final Duration RATE_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** Prefix of the client names that camera streams are charged as. */
+    public static final String STREAM_PREFIX = "stream:";
+
+    private final Budget global;
+    private final LicensePlateProperties.Budget settings;
+    private final Map<String, Budget> clients = new ConcurrentHashMap<>();
+    private final Budget overflow;
+    private final int maxClients;
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    private final BurnRate burnRate = new BurnRate();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new AzureBudget.
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the budget metrics
+     */
+    public AzureBudget(LicensePlateProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getBudget();
+        this.meterRegistry = meterRegistry;
+        this.global =
+                new Budget(
+                        settings.getGlobalRate(),
+                        settings.getGlobalBurst(),
+                        settings.getGlobalDailyLimit());
+        this.overflow = newClientBudget("");
+        this.maxClients = Math.max(1, settings.getMaxClients());
+        Gauge.builder("licenseplate.azure.budget.clients", clients, Map::size)
+                .description("Clients with a budget of their own")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.budget.remaining", global, Budget::remainingToday)
+                .tag("scope", "global")
+                .description("Azure transactions left in today's budget")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.budget.used", global, Budget::usedToday)
+                .tag("scope", "global")
+                .description("Azure transactions made today")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.budget.burn.rate", burnRate, BurnRate::perMinute)
+                .description("Azure transactions made during the last minute")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request from a client that wants Azure to read an image.
+     * Fails if the client has spent its budget or the global daily budget is gone.
+     * @param client Identifies the caller, such as the user name or address
+     * @throws BudgetExhaustedException if the request may not use Azure
+     */
+    public void admit(String client) throws BudgetExhaustedException {
+        Duration globalWait = global.dailyWait();
+        if (globalWait != null) {
+            throw denied("global", "Daily Azure budget is spent", globalWait);
+        }
+        String name = client == null ? "anonymous" : client;
+        long now = System.nanoTime();
+        long sweepAt = nextSweepNanos.get();
+        if (now - sweepAt >= 0
+                && nextSweepNanos.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+            dropSpareClients();
+        }
+        Duration wait;
+        if (!clients.containsKey(name) && clients.size() >= maxClients) {
+            wait = overflow.take();
+        } else {
+            Duration[] taken = new Duration[1];
+            clients.compute(
+                    name,
+                    (key, budget) -> {
+                        Budget current = budget != null ? budget : newClientBudget(key);
+                        taken[0] = current.take();
+                        return current;
+                    });
+            wait = taken[0];
+        }
+        if (wait != null) {
+            throw denied("client", "Azure budget for " + client + " is spent", wait);
+        }
+    }
+
+    /**
+     * Takes one transaction from the global budget before an image is uploaded.
+     * @throws BudgetExhaustedException if the global budget has no room
+     */
+    public void acquire() throws BudgetExhaustedException {
+        Duration wait = global.take();
+        if (wait != null) {
+            throw denied("global", "Azure budget is spent", wait);
+        }
+        burnRate.record();
+    }
+
+    /**
+     * Drops the client budgets that are back where a new one would start, with a
+     * full bucket and nothing used today, so forgetting them changes nothing.
+     * @return Number of budgets dropped
+     */
+    public int dropSpareClients() {
+        int dropped = 0;
+        for (String name : clients.keySet()) {
+            if (clients.computeIfPresent(name, (key, budget) -> budget.isSpare() ? null : budget)
+                    == null) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private Budget newClientBudget(String name) {
+        if (name.startsWith(STREAM_PREFIX)) {
+            return new Budget(
+                    settings.getStreamRate(),
+                    settings.getStreamBurst(),
+                    settings.getStreamDailyLimit());
+        }
+        return new Budget(
+                settings.getClientRate(),
+                settings.getClientBurst(),
+                settings.getClientDailyLimit());
+    }
+
+    private BudgetExhaustedException denied(String scope, String message, Duration wait) {
+        meterRegistry.counter("licenseplate.azure.budget.denied", "scope", scope).increment();
+        return new BudgetExhaustedException(message, wait);
+    }
+
+    /**
+     * A token bucket together with a daily limit.
+     */
+    private static final class Budget {
+        private final double ratePerNano;
+        private final double capacity;
+        private final long dailyLimit;
+        private double tokens;
+        private long refilledAtNanos = System.nanoTime();
+        private LocalDate day = LocalDate.now();
+        private long used;
+
+        Budget(double ratePerSecond, int burst, long dailyLimit) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.dailyLimit = dailyLimit;
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes one transaction if both the bucket and the daily limit allow it.
+         * @return null if taken, otherwise how long until there is room
+         */
+        synchronized Duration take() {
+            Duration wait = dailyWait();
+            if (wait != null) {
+                return wait;
+            }
+            if (ratePerNano > 0) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * ratePerNano);
+                refilledAtNanos = now;
+                if (tokens < 1) {
+                    return RATE_RETRY_AFTER;
+                }
+                tokens--;
+            }
+            used++;
+            return null;
+        }
+
+        /**
+         * Checks the daily limit without taking anything.
+         * @return null if there is room today, otherwise the time until midnight
+         */
+        synchronized Duration dailyWait() {
+            rollOver();
+            if (dailyLimit <= 0 || used < dailyLimit) {
+                return null;
+            }
+            return Duration.between(LocalDateTime.now(), day.plusDays(1).atStartOfDay());
+        }
+
+        /**
+         * Checks whether the budget is as full as a new one.
+         * @return true if the bucket is full and nothing counts against the daily limit
+         */
+        synchronized boolean isSpare() {
+            rollOver();
+            if (dailyLimit > 0 && used > 0) {
+                return false;
+            }
+            if (ratePerNano <= 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * ratePerNano);
+            refilledAtNanos = now;
+            return tokens >= capacity;
+        }
+
+        synchronized double remainingToday() {
+            rollOver();
+            return dailyLimit <= 0 ? Double.NaN : dailyLimit - used;
+        }
+
+        synchronized double usedToday() {
+            rollOver();
+            return used;
+        }
+
+        private void rollOver() {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(day)) {
+                day = today;
+                used = 0;
+            }
+        }
+    }
+
+    /**
+     * Counts transactions per second over the last minute.
+     */
+    private static final class BurnRate {
+        private final long[] seconds = new long[60];
+        private final long[] counts = new long[60];
+
+        synchronized void record() {
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            int slot = (int) Math.floorMod(now, 60);
+            if (seconds[slot] != now) {
+                seconds[slot] = now;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        synchronized double perMinute() {
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long total = 0;
+            for (int i = 0; i < 60; i++) {
+                if (now - seconds[i] < 60) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps how many Azure read operations are in flight at once.
+ * An operation holds its slot from upload until the final poll, and requests
+ * beyond the cap are refused at once instead of queueing behind a slow Azure.
+ */
+@Component
+public class AzureBulkhead {
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final Counter rejectedCounter;
+
+    /**
+     * Constructs a new AzureBulkhead.
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the bulkhead metrics
+     */
+    public AzureBulkhead(LicensePlateProperties properties, MeterRegistry meterRegistry) {
+        this.maxConcurrent = properties.getResilience().getMaxConcurrent();
+        this.permits = new Semaphore(maxConcurrent);
+        Gauge.builder("licenseplate.azure.inflight", this, AzureBulkhead::getInFlight)
+                .description("Azure read operations in flight")
+                .register(meterRegistry);
+        this.rejectedCounter =
+                Counter.builder("licenseplate.azure.rejected")
+                        .tag("reason", "bulkhead_full")
+                        .description("Azure calls refused without being sent")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Runs an Azure operation if a slot is free.
+     * The slot is released when the returned future completes, also on cancellation.
+     * @param operation Starts the operation
+     * @return Future of the operation, or one failed with AzureUnavailableException
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> operation) {
+        if (!permits.tryAcquire()) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new AzureUnavailableException(
+                            "Too many Azure reads in flight, the limit is " + maxConcurrent,
+                            RETRY_AFTER));
+        }
+        CompletableFuture<T> started;
+        try {
+            started = operation.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        started.whenComplete((result, e) -> permits.release());
+        return started;
+    }
+
+    /**
+     * Gets the number of operations holding a slot.
+     * @return Operations in flight
+     */
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
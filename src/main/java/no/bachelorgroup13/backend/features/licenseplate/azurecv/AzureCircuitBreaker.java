@@ -0,0 +1,134 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops calling Azure for a while once it keeps failing.
+ * After enough consecutive failures, or as soon as Azure asks for a pause with
+ * Retry-After, the breaker opens and every call fails at once. When the pause is
+ * over a single trial call is let through, which closes the breaker again if it
+ * succeeds and reopens it if it fails.
+ */
+@Component
+public class AzureCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(AzureCircuitBreaker.class);
+
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Counter rejectedCounter;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean trialInFlight;
+
+    /**
+     * Constructs a new AzureCircuitBreaker.
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the breaker metrics
+     */
+    public AzureCircuitBreaker(LicensePlateProperties properties, MeterRegistry meterRegistry) {
+        this.failureThreshold = properties.getResilience().getFailureThreshold();
+        this.openDuration = properties.getResilience().getOpenDuration();
+        Gauge.builder("licenseplate.azure.breaker.state", this, b -> b.getState().ordinal())
+                .description("State of the Azure circuit breaker, 0 closed, 1 half open, 2 open")
+                .register(meterRegistry);
+        this.rejectedCounter =
+                Counter.builder("licenseplate.azure.rejected")
+                        .tag("reason", "circuit_open")
+                        .description("Azure calls refused without being sent")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Asks for permission to call Azure.
+     * @throws AzureUnavailableException if the breaker is open
+     */
+    public synchronized void acquire() throws AzureUnavailableException {
+        if (state == State.OPEN) {
+            long remainingNanos = openUntilNanos - System.nanoTime();
+            if (remainingNanos > 0) {
+                rejectedCounter.increment();
+                throw new AzureUnavailableException(
+                        "Azure is unavailable, circuit breaker is open",
+                        Duration.ofNanos(remainingNanos));
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejectedCounter.increment();
+                throw new AzureUnavailableException(
+                        "Azure is unavailable, circuit breaker is testing the connection",
+                        Duration.ofSeconds(1));
+            }
+            trialInFlight = true;
+        }
+    }
+
+    /**
+     * Gives back a permission that was not used, without recording an outcome.
+     */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Records a call that Azure answered normally.
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Azure circuit breaker closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Records a call that failed, was throttled or hit a server error.
+     * @param retryAfter Pause Azure asked for, or null if it did not ask for one
+     */
+    public synchronized void onFailure(Duration retryAfter) {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (retryAfter != null) {
+            open(retryAfter);
+        } else if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open(openDuration);
+        }
+    }
+
+    /**
+     * Gets the current state of the breaker.
+     * @return The state, OPEN until the pause is over
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open(Duration duration) {
+        if (state != State.OPEN) {
+            logger.warn(
+                    "Azure circuit breaker opened for {} ms after {} failures",
+                    duration.toMillis(),
+                    consecutiveFailures);
+        }
+        state = State.OPEN;
+        openUntilNanos = Math.max(openUntilNanos, System.nanoTime() + duration.toNanos());
+    }
+}
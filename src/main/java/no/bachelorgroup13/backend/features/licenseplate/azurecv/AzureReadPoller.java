@@ -0,0 +1,325 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls all outstanding Azure read operations from one scheduler thread.
+ * Pending operations wait in a delay queue and are fetched asynchronously when due,
+ * so no thread sleeps on behalf of a single recognition. Once enough operations have
+ * completed, the first poll is timed at the observed p50 and the second at the p90.
+ */
+@Component
+public class AzureReadPoller {
+    private static final Logger logger = LoggerFactory.getLogger(AzureReadPoller.class);
+
+    private final AzureVisionClient azureVisionClient;
+    private final DelayQueue<PendingRead> queue = new DelayQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final ReadLatencyTracker latencyTracker;
+    private final AtomicLong savedLatencyMs = new AtomicLong();
+    private final AtomicLong savedPolls = new AtomicLong();
+    private final Counter pollCounter;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+    private final boolean adaptive;
+    private final int minSamples;
+    private final long minDelayMs;
+
+    /**
+     * Constructs a new AzureReadPoller and starts its scheduler.
+     * @param azureVisionClient Client for the Azure Computer Vision Read API
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the polling metrics
+     */
+    public AzureReadPoller(
+            AzureVisionClient azureVisionClient,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry) {
+        this.azureVisionClient = azureVisionClient;
+        this.initialBackoffMs = properties.getPolling().getInitialBackoff().toMillis();
+        this.maxBackoffMs = properties.getPolling().getMaxBackoff().toMillis();
+        this.maxAttempts = properties.getPolling().getMaxAttempts();
+        this.adaptive = properties.getPolling().isAdaptive();
+        this.minSamples = properties.getPolling().getMinSamples();
+        this.minDelayMs = properties.getPolling().getMinDelay().toMillis();
+        this.latencyTracker = new ReadLatencyTracker(properties.getPolling().getWindowSize());
+
+        Gauge.builder("licenseplate.azure.polling.estimate", latencyTracker, t -> t.getP50Ms())
+                .tag("quantile", "0.5")
+                .baseUnit("milliseconds")
+                .description("Estimated time for Azure to finish a read operation")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.polling.estimate", latencyTracker, t -> t.getP90Ms())
+                .tag("quantile", "0.9")
+                .baseUnit("milliseconds")
+                .description("Estimated time for Azure to finish a read operation")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.polling.saved.latency", savedLatencyMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Latency saved compared to the fixed 1s/2s/4s poll schedule")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.polling.saved.polls", savedPolls, AtomicLong::get)
+                .description("Polls saved compared to the fixed 1s/2s/4s poll schedule")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.azure.polling.pending", queue, DelayQueue::size)
+                .description("Read operations waiting for their next poll")
+                .register(meterRegistry);
+        this.pollCounter =
+                Counter.builder("licenseplate.azure.polls")
+                        .description("Polls sent to Azure")
+                        .register(meterRegistry);
+
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "azure-read-poller");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        long tickMs = properties.getPolling().getTick().toMillis();
+        scheduler.scheduleWithFixedDelay(this::dispatchDue, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a read operation and polls it until Azure reports a final status.
+     * Cancelling the returned future stops further polls for the operation.
+     * @param operationLocation URL of the read operation
+     * @return Future completed with the final read response
+     */
+    public CompletableFuture<ReadResponse> await(String operationLocation) {
+        PendingRead read = new PendingRead(operationLocation);
+        if (isWarm()) {
+            read.reschedule(Math.max(minDelayMs, latencyTracker.getP50Ms()));
+        }
+        queue.add(read);
+        return read.result;
+    }
+
+    /**
+     * Gets the number of operations waiting for their next poll.
+     * @return Number of pending operations
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Fires a poll for every operation whose delay has expired.
+     */
+    private void dispatchDue() {
+        PendingRead read;
+        while ((read = queue.poll()) != null) {
+            if (read.result.isDone()) {
+                continue;
+            }
+            poll(read);
+        }
+    }
+
+    /**
+     * Fetches the state of one operation and completes or reschedules it.
+     * @param read The pending operation
+     */
+    private void poll(PendingRead read) {
+        read.attempts++;
+        if (read.attempts == 1) {
+            read.firstPollNanos = System.nanoTime();
+        }
+        pollCounter.increment();
+        azureVisionClient
+                .fetchReadResponseAsync(read.operationLocation)
+                .whenComplete(
+                        (response, e) -> {
+                            Throwable cause = e == null ? null : unwrap(e);
+                            if (cause instanceof AzureUnavailableException unavailable
+                                    && read.attempts < maxAttempts) {
+                                // Azure still holds the operation, so wait as asked and ask again.
+                                read.reschedule(retryDelayMs(read, unavailable));
+                                queue.add(read);
+                            } else if (cause != null) {
+                                read.result.completeExceptionally(cause);
+                            } else if (!isRunning(response)) {
+                                recordCompletion(read);
+                                read.result.complete(response);
+                            } else if (read.attempts >= maxAttempts) {
+                                read.result.completeExceptionally(
+                                        new IOException("Max polling attempts reached"));
+                            } else {
+                                read.lastRunningNanos = System.nanoTime();
+                                read.reschedule(nextDelayMs(read));
+                                queue.add(read);
+                            }
+                        });
+    }
+
+    /**
+     * Calculates the wait before the next poll. With enough history the second poll
+     * is timed at the p90 and the backoff grows from the p50 to p90 spread,
+     * otherwise the configured exponential backoff is used.
+     * @param read The pending operation
+     * @return Delay in milliseconds
+     */
+    private long nextDelayMs(PendingRead read) {
+        if (!isWarm()) {
+            return backoffMs(initialBackoffMs, read.attempts);
+        }
+        if (read.attempts == 1) {
+            long untilP90 = latencyTracker.getP90Ms() - read.elapsedMs();
+            return Math.min(maxBackoffMs, Math.max(minDelayMs, untilP90));
+        }
+        long spread = latencyTracker.getP90Ms() - latencyTracker.getP50Ms();
+        return backoffMs(Math.max(minDelayMs, spread), read.attempts - 1);
+    }
+
+    /**
+     * Calculates the wait before polling again after Azure refused a poll.
+     * @param read The pending operation
+     * @param e The refusal, holding the Retry-After that Azure asked for
+     * @return Delay in milliseconds, at least the normal backoff
+     */
+    private long retryDelayMs(PendingRead read, AzureUnavailableException e) {
+        long backoff = backoffMs(initialBackoffMs, read.attempts);
+        return e.getRetryAfter() == null
+                ? backoff
+                : Math.max(backoff, e.getRetryAfter().toMillis());
+    }
+
+    /**
+     * Doubles the base delay for every poll made after the first one.
+     * @param baseMs Delay after the first poll
+     * @param attempts Number of polls made so far
+     * @return Delay in milliseconds, capped by the maximum backoff
+     */
+    private long backoffMs(long baseMs, int attempts) {
+        long delay = baseMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    /**
+     * Checks whether enough completions are recorded to use the adaptive schedule.
+     * @return true if adaptive delays should be used
+     */
+    private boolean isWarm() {
+        return adaptive && latencyTracker.getSampleCount() >= minSamples;
+    }
+
+    /**
+     * Records how long Azure needed for an operation and what the fixed schedule
+     * would have cost. Azure finished somewhere between the last poll that saw it
+     * running and the poll that saw it done, so the midpoint is used as estimate.
+     * If the first poll already saw it done, the delay until that poll is the lower
+     * bound, since taking the submit instead would halve the estimate every time a
+     * read is done by the time the adaptive schedule first looks.
+     * @param read The finished operation
+     */
+    private void recordCompletion(PendingRead read) {
+        long detectedMs = read.elapsedMs();
+        long lowerBoundNanos =
+                read.lastRunningNanos != 0 ? read.lastRunningNanos : read.firstPollNanos;
+        long lowerBoundMs = TimeUnit.NANOSECONDS.toMillis(lowerBoundNanos - read.startNanos);
+        long completionMs = (lowerBoundMs + detectedMs) / 2;
+        latencyTracker.record(completionMs);
+
+        long fixedDetectedMs = 0;
+        int fixedPolls = 1;
+        long backoff = initialBackoffMs;
+        while (fixedDetectedMs < completionMs && fixedPolls < maxAttempts) {
+            fixedDetectedMs += backoff;
+            backoff = Math.min(backoff * 2, maxBackoffMs);
+            fixedPolls++;
+        }
+        savedLatencyMs.addAndGet(fixedDetectedMs - detectedMs);
+        savedPolls.addAndGet(fixedPolls - read.attempts);
+    }
+
+    /**
+     * Gets the rolling estimate of Azure completion times.
+     * @return The latency tracker
+     */
+    public ReadLatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * Checks whether Azure is still working on an operation.
+     * @param response The read response
+     * @return true if the operation has not reached a final status
+     */
+    private static boolean isRunning(ReadResponse response) {
+        return "notStarted".equalsIgnoreCase(response.getStatus())
+                || "running".equalsIgnoreCase(response.getStatus());
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Stops the scheduler and fails all operations that are still pending.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List<PendingRead> remaining = new ArrayList<>(queue);
+        queue.clear();
+        for (PendingRead read : remaining) {
+            read.result.completeExceptionally(new IOException("Azure read poller stopped"));
+        }
+        logger.info("Azure read poller stopped");
+    }
+
+    /**
+     * A read operation waiting for its next poll.
+     */
+    private static final class PendingRead implements Delayed {
+        private final String operationLocation;
+        private final CompletableFuture<ReadResponse> result = new CompletableFuture<>();
+        private final long startNanos = System.nanoTime();
+        private int attempts;
+        private long firstPollNanos;
+        private long lastRunningNanos;
+        private volatile long dueAtNanos = startNanos;
+
+        PendingRead(String operationLocation) {
+            this.operationLocation = operationLocation;
+        }
+
+        long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+        void reschedule(long delayMs) {
+            dueAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(
+                    getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
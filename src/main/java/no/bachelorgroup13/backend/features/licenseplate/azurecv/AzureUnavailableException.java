@@ -0,0 +1,31 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown when a call to Azure is refused, either by Azure itself because of
+ * throttling or an outage, or locally because the circuit breaker is open or the
+ * bulkhead is full. Callers should try again after the given delay.
+ */
+public class AzureUnavailableException extends IOException {
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new AzureUnavailableException.
+     * @param message Description of why the call was refused
+     * @param retryAfter How long to wait before trying again, or null if unknown
+     */
+    public AzureUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets how long to wait before trying again.
+     * @return Delay before the next attempt, or null if unknown
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
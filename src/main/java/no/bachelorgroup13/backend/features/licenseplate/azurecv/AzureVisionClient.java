@@ -0,0 +1,309 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client for the Azure Computer Vision Read API.
+ * Keeps a single pooled HTTP/2 connection to Azure that is shared by all requests,
+ * with a small fixed set of threads handling the responses. Every call passes the
+ * circuit breaker, and throttling or outage responses fail with an
+ * AzureUnavailableException carrying the Retry-After that Azure asked for.
+ */
+@Component
+public class AzureVisionClient {
+    private static final Logger logger = LoggerFactory.getLogger(AzureVisionClient.class);
+    private static final String ANALYZE_PATH = "/vision/v3.2/read/analyze";
+    private static final String SUBSCRIPTION_KEY_HEADER = "Ocp-Apim-Subscription-Key";
+
+    private final String endpoint;
+    private final String subscriptionKey;
+    private final Duration requestTimeout;
+    private final boolean warmUp;
+    private final HttpClient httpClient;
+    private final AzureCircuitBreaker circuitBreaker;
+    private final AzureBudget azureBudget;
+
+    /**
+     * Constructs a new AzureVisionClient with Azure credentials and HTTP settings.
+     * @param properties Azure Cognitive Services configuration properties
+     * @param circuitBreaker Breaker that stops calls while Azure is failing
+     * @param azureBudget Transaction budget every upload is charged to
+     */
+    public AzureVisionClient(
+            LicensePlateProperties properties,
+            AzureCircuitBreaker circuitBreaker,
+            AzureBudget azureBudget) {
+        this.circuitBreaker = circuitBreaker;
+        this.azureBudget = azureBudget;
+        this.endpoint = properties.getEndpoint();
+        this.subscriptionKey = properties.getKey();
+        this.requestTimeout = properties.getHttp().getRequestTimeout();
+        this.warmUp = properties.getHttp().isWarmUp();
+        this.httpClient =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(properties.getHttp().getConnectTimeout())
+                        .followRedirects(HttpClient.Redirect.NEVER)
+                        .executor(
+                                Executors.newFixedThreadPool(
+                                        properties.getHttp().getExecutorThreads(),
+                                        runnable -> {
+                                            Thread thread = new Thread(runnable, "azure-http");
+                                            thread.setDaemon(true);
+                                            return thread;
+                                        }))
+                        .build();
+    }
+
+    /**
+     * Sends an image to the Read API for analysis without blocking the caller.
+     * @param imageFile The image file to send
+     * @return Future with the operation location URL for polling results
+     */
+    public CompletableFuture<String> submitAsync(Path imageFile) {
+        try {
+            return submit(HttpRequest.BodyPublishers.ofFile(imageFile));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends image bytes to the Read API for analysis without blocking the caller.
+     * The bytes are sent as they are, without an intermediate file.
+     * @param image The raw image bytes
+     * @return Future with the operation location URL for polling results
+     */
+    public CompletableFuture<String> submitAsync(byte[] image) {
+        return submit(HttpRequest.BodyPublishers.ofByteArray(image));
+    }
+
+    /**
+     * Posts an image body to the Read API.
+     * @param body Publisher for the image bytes
+     * @return Future with the operation location URL for polling results
+     */
+    private CompletableFuture<String> submit(HttpRequest.BodyPublisher body) {
+        HttpRequest request =
+                HttpRequest.newBuilder(URI.create(endpoint + ANALYZE_PATH))
+                        .timeout(requestTimeout)
+                        .header(SUBSCRIPTION_KEY_HEADER, subscriptionKey)
+                        .header("Content-Type", "application/octet-stream")
+                        .POST(body)
+                        .build();
+
+        return send(request, HttpResponse.BodyHandlers.ofString(), true)
+                .thenApply(
+                        response -> {
+                            if (response.statusCode() != 202) {
+                                throw new CompletionException(
+                                        failure(
+                                                "Failed to send image to Azure.",
+                                                response,
+                                                response.body()));
+                            }
+                            return response.headers()
+                                    .firstValue("Operation-Location")
+                                    .filter(location -> !location.isEmpty())
+                                    .orElseThrow(
+                                            () ->
+                                                    new CompletionException(
+                                                            new IOException(
+                                                                    "Failed to get operation"
+                                                                            + " location from Azure"
+                                                                            + " response")));
+                        });
+    }
+
+    /**
+     * Fetches the current state of a read operation without blocking the caller.
+     * @param operationLocation URL of the read operation
+     * @return Future with the raw JSON body of the read result
+     */
+    public CompletableFuture<String> fetchResultAsync(String operationLocation) {
+        return fetch(operationLocation).thenApply(json -> new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fetches and parses the current state of a read operation without blocking the
+     * caller. The body is parsed straight from its bytes, never decoded into a String,
+     * and fields that recognition does not use are skipped.
+     * @param operationLocation URL of the read operation
+     * @return Future with the read response
+     */
+    public CompletableFuture<ReadResponse> fetchReadResponseAsync(String operationLocation) {
+        return fetch(operationLocation)
+                .thenApply(
+                        json -> {
+                            try {
+                                return ReadResponseParser.parse(json);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        });
+    }
+
+    /**
+     * Gets the raw body of a read operation.
+     * @param operationLocation URL of the read operation
+     * @return Future with the UTF-8 JSON body
+     */
+    private CompletableFuture<byte[]> fetch(String operationLocation) {
+        HttpRequest request =
+                HttpRequest.newBuilder(URI.create(operationLocation))
+                        .timeout(requestTimeout)
+                        .header(SUBSCRIPTION_KEY_HEADER, subscriptionKey)
+                        .GET()
+                        .build();
+
+        return send(request, HttpResponse.BodyHandlers.ofByteArray(), false)
+                .thenApply(
+                        response -> {
+                            if (response.statusCode() != 200) {
+                                throw new CompletionException(
+                                        failure(
+                                                "Error polling read result.",
+                                                response,
+                                                new String(
+                                                        response.body(), StandardCharsets.UTF_8)));
+                            }
+                            return response.body();
+                        });
+    }
+
+    /**
+     * Sends a request through the circuit breaker and reports its outcome to it.
+     * Network errors, throttling and server errors count as failures. Billable
+     * requests are charged to the budget once the breaker has let them through.
+     * @param request The request to send
+     * @param bodyHandler How to receive the response body
+     * @param billable Whether Azure counts the request as a transaction
+     * @return Future with the response, failed at once if the breaker is open or
+     *     the budget is spent
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(
+            HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, boolean billable) {
+        try {
+            circuitBreaker.acquire();
+        } catch (AzureUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (billable) {
+            try {
+                azureBudget.acquire();
+            } catch (BudgetExhaustedException e) {
+                circuitBreaker.release();
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return httpClient
+                .sendAsync(request, bodyHandler)
+                .whenComplete(
+                        (response, e) -> {
+                            if (e != null) {
+                                circuitBreaker.onFailure(null);
+                            } else if (isUnavailable(response.statusCode())) {
+                                circuitBreaker.onFailure(retryAfter(response));
+                            } else {
+                                circuitBreaker.onSuccess();
+                            }
+                        });
+    }
+
+    /**
+     * Builds the exception for an unexpected response.
+     * @param message What the client was trying to do
+     * @param response The response from Azure
+     * @param body The response body as text
+     * @return AzureUnavailableException for throttling and server errors,
+     *     otherwise a plain IOException
+     */
+    private static IOException failure(String message, HttpResponse<?> response, String body) {
+        String detail = message + " HTTP " + response.statusCode() + ": " + body;
+        if (isUnavailable(response.statusCode())) {
+            return new AzureUnavailableException(detail, retryAfter(response));
+        }
+        return new IOException(detail);
+    }
+
+    private static boolean isUnavailable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Reads the Retry-After header, given either in seconds or as an HTTP date.
+     * @param response The response from Azure
+     * @return Delay Azure asked for, or null if the header is missing or invalid
+     */
+    static Duration retryAfter(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, so it should be a date.
+        }
+        try {
+            ZonedDateTime until =
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(until.getZone()), until);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens the connection to Azure once the application has started,
+     * so the first recognition does not pay for the TLS handshake.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp || endpoint == null || endpoint.isBlank()) {
+            return;
+        }
+        HttpRequest request;
+        try {
+            request =
+                    HttpRequest.newBuilder(URI.create(endpoint))
+                            .timeout(requestTimeout)
+                            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                            .build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping Azure connection warm-up, invalid endpoint: {}", endpoint);
+            return;
+        }
+        httpClient
+                .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete(
+                        (response, e) -> {
+                            if (e != null) {
+                                logger.warn("Azure connection warm-up failed: {}", e.getMessage());
+                            } else {
+                                logger.info(
+                                        "Azure connection warmed up using {}", response.version());
+                            }
+                        });
+    }
+}
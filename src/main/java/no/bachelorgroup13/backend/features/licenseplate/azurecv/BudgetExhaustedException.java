@@ -0,0 +1,17 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a call to Azure is refused because a transaction budget is spent.
+ */
+public class BudgetExhaustedException extends AzureUnavailableException {
+    /**
+     * Constructs a new BudgetExhaustedException.
+     * @param message Which budget is spent
+     * @param retryAfter How long until the budget has room again
+     */
+    public BudgetExhaustedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
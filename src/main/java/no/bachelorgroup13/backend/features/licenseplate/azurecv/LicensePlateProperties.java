@@ -1,5 +1,8 @@
 package no.bachelorgroup13.backend.features.licenseplate.azurecv;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,6 +13,18 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class LicensePlateProperties {
     private String endpoint;
     private String key;
+    private String engine = "azure";
+    private final Http http = new Http();
+    private final Polling polling = new Polling();
+    private final Cache cache = new Cache();
+    private final Preprocessing preprocessing = new Preprocessing();
+    private final Detection detection = new Detection();
+    private final Batch batch = new Batch();
+    private final Local local = new Local();
+    private final Hedging hedging = new Hedging();
+    private final Resilience resilience = new Resilience();
+    private final Budget budget = new Budget();
+    private final Plates plates = new Plates();
 
     /**
      * Gets the Azure Cognitive Services endpoint URL.
@@ -42,4 +57,1044 @@ public class LicensePlateProperties {
     public void setKey(String key) {
         this.key = key;
     }
+
+    /**
+     * Gets the name of the engine that reads the plates.
+     * @return Engine name, azure, local or hedged
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the name of the engine that reads the plates.
+     * @param engine Engine name, azure, local or hedged
+     */
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Gets the HTTP client settings used for the Azure Read calls.
+     * @return HTTP client settings
+     */
+    public Http getHttp() {
+        return http;
+    }
+
+    /**
+     * Gets the settings for polling Azure read operations.
+     * @return Polling settings
+     */
+    public Polling getPolling() {
+        return polling;
+    }
+
+    /**
+     * Gets the settings for the recognition result cache.
+     * @return Cache settings
+     */
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the settings for shrinking images before upload.
+     * @return Preprocessing settings
+     */
+    public Preprocessing getPreprocessing() {
+        return preprocessing;
+    }
+
+    /**
+     * Gets the settings for cropping images to plate regions before upload.
+     * @return Detection settings
+     */
+    public Detection getDetection() {
+        return detection;
+    }
+
+    /**
+     * Gets the settings for batch recognition requests.
+     * @return Batch settings
+     */
+    public Batch getBatch() {
+        return batch;
+    }
+
+    /**
+     * Gets the settings for the local OCR engine.
+     * @return Local engine settings
+     */
+    public Local getLocal() {
+        return local;
+    }
+
+    /**
+     * Gets the settings for racing the local engine against Azure.
+     * @return Hedging settings
+     */
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    /**
+     * Gets the circuit breaker and bulkhead settings that protect the Azure calls.
+     * @return Resilience settings
+     */
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    /**
+     * Gets the Azure transaction budgets and what to do once they are spent.
+     * @return Budget settings
+     */
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Gets which plate formats are recognized.
+     * @return Plate settings
+     */
+    public Plates getPlates() {
+        return plates;
+    }
+
+    /**
+     * HTTP client settings for the shared Azure connection.
+     */
+    public static class Http {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private boolean warmUp = true;
+        private int executorThreads = 4;
+
+        /**
+         * Gets the timeout for establishing a connection to Azure.
+         * @return Connect timeout
+         */
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        /**
+         * Sets the timeout for establishing a connection to Azure.
+         * @param connectTimeout Connect timeout
+         */
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        /**
+         * Gets the timeout for a single request to Azure.
+         * @return Request timeout
+         */
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        /**
+         * Sets the timeout for a single request to Azure.
+         * @param requestTimeout Request timeout
+         */
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        /**
+         * Checks whether the connection to Azure is opened at startup.
+         * @return true if the connection is warmed up at startup
+         */
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        /**
+         * Sets whether the connection to Azure is opened at startup.
+         * @param warmUp true to warm up the connection at startup
+         */
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        /**
+         * Gets the number of threads that handle Azure responses.
+         * @return Number of response handler threads
+         */
+        public int getExecutorThreads() {
+            return executorThreads;
+        }
+
+        /**
+         * Sets the number of threads that handle Azure responses.
+         * @param executorThreads Number of response handler threads
+         */
+        public void setExecutorThreads(int executorThreads) {
+            this.executorThreads = executorThreads;
+        }
+    }
+
+    /**
+     * Settings for polling Azure read operations.
+     */
+    public static class Polling {
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        private int maxAttempts = 10;
+        private Duration tick = Duration.ofMillis(25);
+        private boolean adaptive = true;
+        private int windowSize = 200;
+        private int minSamples = 20;
+        private Duration minDelay = Duration.ofMillis(100);
+
+        /**
+         * Gets the wait after the first unfinished poll, doubled after every further poll.
+         * @return Initial backoff
+         */
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        /**
+         * Sets the wait after the first unfinished poll.
+         * @param initialBackoff Initial backoff
+         */
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        /**
+         * Gets the longest wait between two polls.
+         * @return Maximum backoff
+         */
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        /**
+         * Sets the longest wait between two polls.
+         * @param maxBackoff Maximum backoff
+         */
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        /**
+         * Gets the number of polls before an operation is given up.
+         * @return Maximum number of polls
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        /**
+         * Sets the number of polls before an operation is given up.
+         * @param maxAttempts Maximum number of polls
+         */
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * Gets how often the poller checks for operations that are due.
+         * @return Poller tick interval
+         */
+        public Duration getTick() {
+            return tick;
+        }
+
+        /**
+         * Sets how often the poller checks for operations that are due.
+         * @param tick Poller tick interval
+         */
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+
+        /**
+         * Checks whether poll delays are learned from recent completion times.
+         * @return true if adaptive polling is enabled
+         */
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        /**
+         * Sets whether poll delays are learned from recent completion times.
+         * @param adaptive true to enable adaptive polling
+         */
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        /**
+         * Gets the number of recent operations the completion estimates are based on.
+         * @return Window size
+         */
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        /**
+         * Sets the number of recent operations the completion estimates are based on.
+         * @param windowSize Window size
+         */
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Gets the number of completed operations needed before adaptive delays are used.
+         * @return Minimum number of samples
+         */
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        /**
+         * Sets the number of completed operations needed before adaptive delays are used.
+         * @param minSamples Minimum number of samples
+         */
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        /**
+         * Gets the shortest wait the adaptive schedule will use between two polls.
+         * @return Minimum delay
+         */
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        /**
+         * Sets the shortest wait the adaptive schedule will use between two polls.
+         * @param minDelay Minimum delay
+         */
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+    }
+
+    /**
+     * Settings for caching recognition results of identical images.
+     */
+    public static class Cache {
+        private boolean enabled = true;
+        private int maxSize = 1000;
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Checks whether recognition results are cached.
+         * @return true if the cache is enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether recognition results are cached.
+         * @param enabled true to enable the cache
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the number of results kept before the least recently used is evicted.
+         * @return Maximum number of cached results
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * Sets the number of results kept before the least recently used is evicted.
+         * @param maxSize Maximum number of cached results
+         */
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Gets how long a cached result stays valid.
+         * @return Time to live
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        /**
+         * Sets how long a cached result stays valid.
+         * @param ttl Time to live
+         */
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Settings for downscaling and re-encoding images before they are sent to Azure.
+     */
+    public static class Preprocessing {
+        private boolean enabled = true;
+        private int maxDimension = 1600;
+        private float jpegQuality = 0.85f;
+        private long maxPixels = 25_000_000;
+
+        /**
+         * Checks whether images are shrunk before upload.
+         * @return true if preprocessing is enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether images are shrunk before upload.
+         * @param enabled true to enable preprocessing
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the longest side in pixels an uploaded image may have.
+         * @return Maximum width or height
+         */
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        /**
+         * Sets the longest side in pixels an uploaded image may have.
+         * @param maxDimension Maximum width or height
+         */
+        public void setMaxDimension(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        /**
+         * Gets the JPEG quality used when re-encoding, between 0 and 1.
+         * @return JPEG quality
+         */
+        public float getJpegQuality() {
+            return jpegQuality;
+        }
+
+        /**
+         * Sets the JPEG quality used when re-encoding, between 0 and 1.
+         * @param jpegQuality JPEG quality
+         */
+        public void setJpegQuality(float jpegQuality) {
+            this.jpegQuality = jpegQuality;
+        }
+
+        /**
+         * Gets the most pixels an image may have to be decoded at all.
+         * @return Maximum width times height
+         */
+        public long getMaxPixels() {
+            return maxPixels;
+        }
+
+        /**
+         * Sets the most pixels an image may have to be decoded at all.
+         * @param maxPixels Maximum width times height
+         */
+        public void setMaxPixels(long maxPixels) {
+            this.maxPixels = maxPixels;
+        }
+    }
+
+    /**
+     * Settings for the local plate region detector.
+     */
+    public static class Detection {
+        private boolean enabled = false;
+        private int maxRegions = 4;
+        private double minScore = 0.12;
+        private double padding = 0.5;
+        private boolean fullFrameFallback = true;
+
+        /**
+         * Checks whether only detected plate regions are uploaded.
+         * @return true if region detection is enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether only detected plate regions are uploaded.
+         * @param enabled true to enable region detection
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the number of candidate regions uploaded per image.
+         * @return Maximum number of regions
+         */
+        public int getMaxRegions() {
+            return maxRegions;
+        }
+
+        /**
+         * Sets the number of candidate regions uploaded per image.
+         * @param maxRegions Maximum number of regions
+         */
+        public void setMaxRegions(int maxRegions) {
+            this.maxRegions = maxRegions;
+        }
+
+        /**
+         * Gets the share of edge pixels a region needs to count as a plate candidate.
+         * @return Minimum edge density
+         */
+        public double getMinScore() {
+            return minScore;
+        }
+
+        /**
+         * Sets the share of edge pixels a region needs to count as a plate candidate.
+         * @param minScore Minimum edge density
+         */
+        public void setMinScore(double minScore) {
+            this.minScore = minScore;
+        }
+
+        /**
+         * Gets the margin added around a region, as a fraction of its character height.
+         * @return Padding fraction
+         */
+        public double getPadding() {
+            return padding;
+        }
+
+        /**
+         * Sets the margin added around a region, as a fraction of its character height.
+         * @param padding Padding fraction
+         */
+        public void setPadding(double padding) {
+            this.padding = padding;
+        }
+
+        /**
+         * Checks whether the whole frame is sent when the regions contain no plate.
+         * @return true if the full frame is used as fallback
+         */
+        public boolean isFullFrameFallback() {
+            return fullFrameFallback;
+        }
+
+        /**
+         * Sets whether the whole frame is sent when the regions contain no plate.
+         * @param fullFrameFallback true to use the full frame as fallback
+         */
+        public void setFullFrameFallback(boolean fullFrameFallback) {
+            this.fullFrameFallback = fullFrameFallback;
+        }
+    }
+
+    /**
+     * Settings for recognizing several images in one request.
+     */
+    public static class Batch {
+        private int maxImages = 32;
+        private int parallelism = 4;
+        private boolean mosaic = false;
+        private int mosaicMaxSide = 3200;
+        private int tileMaxSide = 1000;
+        private int mosaicGap = 24;
+
+        /**
+         * Gets the number of images accepted in one batch request.
+         * @return Maximum number of images
+         */
+        public int getMaxImages() {
+            return maxImages;
+        }
+
+        /**
+         * Sets the number of images accepted in one batch request.
+         * @param maxImages Maximum number of images
+         */
+        public void setMaxImages(int maxImages) {
+            this.maxImages = maxImages;
+        }
+
+        /**
+         * Gets the number of images of one batch recognized at the same time.
+         * @return Recognitions in flight per batch
+         */
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Sets the number of images of one batch recognized at the same time.
+         * @param parallelism Recognitions in flight per batch
+         */
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        /**
+         * Checks whether the frames of a batch are packed into shared Azure calls.
+         * @return True if frames are packed into composite images
+         */
+        public boolean isMosaic() {
+            return mosaic;
+        }
+
+        /**
+         * Sets whether the frames of a batch are packed into shared Azure calls.
+         * @param mosaic True to pack frames into composite images
+         */
+        public void setMosaic(boolean mosaic) {
+            this.mosaic = mosaic;
+        }
+
+        /**
+         * Gets the longest side of a composite image.
+         * @return Maximum width and height in pixels
+         */
+        public int getMosaicMaxSide() {
+            return mosaicMaxSide;
+        }
+
+        /**
+         * Sets the longest side of a composite image.
+         * @param mosaicMaxSide Maximum width and height in pixels
+         */
+        public void setMosaicMaxSide(int mosaicMaxSide) {
+            this.mosaicMaxSide = mosaicMaxSide;
+        }
+
+        /**
+         * Gets the longest side a single frame or region may have inside a composite.
+         * @return Maximum tile side in pixels
+         */
+        public int getTileMaxSide() {
+            return tileMaxSide;
+        }
+
+        /**
+         * Sets the longest side a single frame or region may have inside a composite.
+         * @param tileMaxSide Maximum tile side in pixels
+         */
+        public void setTileMaxSide(int tileMaxSide) {
+            this.tileMaxSide = tileMaxSide;
+        }
+
+        /**
+         * Gets the empty space between two tiles of a composite.
+         * @return Gap in pixels
+         */
+        public int getMosaicGap() {
+            return mosaicGap;
+        }
+
+        /**
+         * Sets the empty space between two tiles of a composite.
+         * @param mosaicGap Gap in pixels
+         */
+        public void setMosaicGap(int mosaicGap) {
+            this.mosaicGap = mosaicGap;
+        }
+    }
+
+    /**
+     * Settings for the local OCR engine.
+     */
+    public static class Local {
+        private double minConfidence = 0.6;
+
+        /**
+         * Gets the lowest character match score a local read may have to count as a plate.
+         * @return Minimum confidence from 0 to 1
+         */
+        public double getMinConfidence() {
+            return minConfidence;
+        }
+
+        /**
+         * Sets the lowest character match score a local read may have to count as a plate.
+         * @param minConfidence Minimum confidence from 0 to 1
+         */
+        public void setMinConfidence(double minConfidence) {
+            this.minConfidence = minConfidence;
+        }
+    }
+
+    /**
+     * Settings for the hedged engine, which starts the local engine when Azure is slow.
+     */
+    public static class Hedging {
+        private Duration delay = Duration.ofMillis(800);
+        private double minConfidence = 0.8;
+
+        /**
+         * Gets how long Azure may take before the local engine is started as well.
+         * @return Latency budget for Azure
+         */
+        public Duration getDelay() {
+            return delay;
+        }
+
+        /**
+         * Sets how long Azure may take before the local engine is started as well.
+         * @param delay Latency budget for Azure
+         */
+        public void setDelay(Duration delay) {
+            this.delay = delay;
+        }
+
+        /**
+         * Gets the confidence a plate needs for its result to win the race.
+         * @return Minimum confidence from 0 to 1
+         */
+        public double getMinConfidence() {
+            return minConfidence;
+        }
+
+        /**
+         * Sets the confidence a plate needs for its result to win the race.
+         * @param minConfidence Minimum confidence from 0 to 1
+         */
+        public void setMinConfidence(double minConfidence) {
+            this.minConfidence = minConfidence;
+        }
+    }
+
+    /**
+     * Settings for the circuit breaker and bulkhead around the Azure calls.
+     */
+    public static class Resilience {
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int maxConcurrent = 32;
+
+        /**
+         * Gets how many calls in a row may fail before the breaker opens.
+         * @return Consecutive failures that open the breaker
+         */
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        /**
+         * Sets how many calls in a row may fail before the breaker opens.
+         * @param failureThreshold Consecutive failures that open the breaker
+         */
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        /**
+         * Gets how long the breaker stays open when Azure gave no Retry-After.
+         * @return Time before a trial call is let through
+         */
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        /**
+         * Sets how long the breaker stays open when Azure gave no Retry-After.
+         * @param openDuration Time before a trial call is let through
+         */
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        /**
+         * Gets how many Azure read operations may be in flight at once.
+         * @return Maximum operations in flight
+         */
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        /**
+         * Sets how many Azure read operations may be in flight at once.
+         * @param maxConcurrent Maximum operations in flight
+         */
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    /**
+     * Settings for the Azure transaction budgets. A limit or rate of 0 is unlimited.
+     */
+    public static class Budget {
+        private long globalDailyLimit;
+        private double globalRate;
+        private int globalBurst = 20;
+        private long clientDailyLimit;
+        private double clientRate;
+        private int clientBurst = 10;
+        private long streamDailyLimit;
+        private double streamRate = 5;
+        private int streamBurst = 10;
+        private int maxClients = 10_000;
+        private String fallback = "local";
+
+        /**
+         * Gets how many images may be uploaded to Azure per day in total.
+         * @return Daily transaction limit
+         */
+        public long getGlobalDailyLimit() {
+            return globalDailyLimit;
+        }
+
+        /**
+         * Sets how many images may be uploaded to Azure per day in total.
+         * @param globalDailyLimit Daily transaction limit
+         */
+        public void setGlobalDailyLimit(long globalDailyLimit) {
+            this.globalDailyLimit = globalDailyLimit;
+        }
+
+        /**
+         * Gets how many images may be uploaded to Azure per second in total.
+         * @return Sustained transaction rate
+         */
+        public double getGlobalRate() {
+            return globalRate;
+        }
+
+        /**
+         * Sets how many images may be uploaded to Azure per second in total.
+         * @param globalRate Sustained transaction rate
+         */
+        public void setGlobalRate(double globalRate) {
+            this.globalRate = globalRate;
+        }
+
+        /**
+         * Gets how many uploads may exceed the global rate in a burst.
+         * @return Size of the global token bucket
+         */
+        public int getGlobalBurst() {
+            return globalBurst;
+        }
+
+        /**
+         * Sets how many uploads may exceed the global rate in a burst.
+         * @param globalBurst Size of the global token bucket
+         */
+        public void setGlobalBurst(int globalBurst) {
+            this.globalBurst = globalBurst;
+        }
+
+        /**
+         * Gets how many images one client may send to Azure per day.
+         * @return Daily limit per client
+         */
+        public long getClientDailyLimit() {
+            return clientDailyLimit;
+        }
+
+        /**
+         * Sets how many images one client may send to Azure per day.
+         * @param clientDailyLimit Daily limit per client
+         */
+        public void setClientDailyLimit(long clientDailyLimit) {
+            this.clientDailyLimit = clientDailyLimit;
+        }
+
+        /**
+         * Gets how many images one client may send to Azure per second.
+         * @return Sustained rate per client
+         */
+        public double getClientRate() {
+            return clientRate;
+        }
+
+        /**
+         * Sets how many images one client may send to Azure per second.
+         * @param clientRate Sustained rate per client
+         */
+        public void setClientRate(double clientRate) {
+            this.clientRate = clientRate;
+        }
+
+        /**
+         * Gets how many images one client may send above its rate in a burst.
+         * @return Size of the token bucket per client
+         */
+        public int getClientBurst() {
+            return clientBurst;
+        }
+
+        /**
+         * Sets how many images one client may send above its rate in a burst.
+         * @param clientBurst Size of the token bucket per client
+         */
+        public void setClientBurst(int clientBurst) {
+            this.clientBurst = clientBurst;
+        }
+
+        /**
+         * Gets how many frames one camera stream may send to Azure per day.
+         * @return Daily limit per stream
+         */
+        public long getStreamDailyLimit() {
+            return streamDailyLimit;
+        }
+
+        /**
+         * Sets how many frames one camera stream may send to Azure per day.
+         * @param streamDailyLimit Daily limit per stream
+         */
+        public void setStreamDailyLimit(long streamDailyLimit) {
+            this.streamDailyLimit = streamDailyLimit;
+        }
+
+        /**
+         * Gets how many frames one camera stream may send to Azure per second.
+         * Streams sampled faster than this fall back for the frames over the rate.
+         * @return Sustained rate per stream
+         */
+        public double getStreamRate() {
+            return streamRate;
+        }
+
+        /**
+         * Sets how many frames one camera stream may send to Azure per second.
+         * @param streamRate Sustained rate per stream
+         */
+        public void setStreamRate(double streamRate) {
+            this.streamRate = streamRate;
+        }
+
+        /**
+         * Gets how many frames one camera stream may send beyond its rate in a burst.
+         * @return Size of the token bucket per stream
+         */
+        public int getStreamBurst() {
+            return streamBurst;
+        }
+
+        /**
+         * Sets how many frames one camera stream may send beyond its rate in a burst.
+         * @param streamBurst Size of the token bucket per stream
+         */
+        public void setStreamBurst(int streamBurst) {
+            this.streamBurst = streamBurst;
+        }
+
+        /**
+         * Gets how many clients get a budget of their own. Clients beyond that share one.
+         * @return Maximum number of client budgets
+         */
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        /**
+         * Sets how many clients get a budget of their own. Clients beyond that share one.
+         * @param maxClients Maximum number of client budgets
+         */
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        /**
+         * Gets what happens to requests once a budget is spent.
+         * @return local to read them with the local engine, cache to answer only cache hits
+         */
+        public String getFallback() {
+            return fallback;
+        }
+
+        /**
+         * Sets what happens to requests once a budget is spent.
+         * @param fallback local to read them with the local engine, cache to answer only cache hits
+         */
+        public void setFallback(String fallback) {
+            this.fallback = fallback;
+        }
+    }
+
+    /**
+     * Plate formats recognized in the text read from images.
+     */
+    public static class Plates {
+        private List<String> grammars =
+                new ArrayList<>(List.of("electric", "diplomatic", "standard"));
+        private List<String> electricPrefixes =
+                new ArrayList<>(List.of("EL", "EK", "EV", "EB", "EC", "ED", "EE", "EF"));
+        private int maxCorrections = 2;
+        private double correctionPenalty = 0.1;
+
+        /**
+         * Gets the enabled plate grammars, in the order they are tried.
+         * @return Grammar names, from standard, electric, diplomatic, personalised and eu
+         */
+        public List<String> getGrammars() {
+            return grammars;
+        }
+
+        /**
+         * Sets the enabled plate grammars, in the order they are tried.
+         * @param grammars Grammar names, from standard, electric, diplomatic, personalised and eu
+         */
+        public void setGrammars(List<String> grammars) {
+            this.grammars = grammars;
+        }
+
+        /**
+         * Gets the letter pairs used on electric vehicle plates.
+         * @return Electric vehicle prefixes
+         */
+        public List<String> getElectricPrefixes() {
+            return electricPrefixes;
+        }
+
+        /**
+         * Sets the letter pairs used on electric vehicle plates.
+         * @param electricPrefixes Electric vehicle prefixes
+         */
+        public void setElectricPrefixes(List<String> electricPrefixes) {
+            this.electricPrefixes = electricPrefixes;
+        }
+
+        /**
+         * Gets the most confused characters, such as 0 read as O, repaired in one plate.
+         * @return Maximum corrections, 0 if repairs are off
+         */
+        public int getMaxCorrections() {
+            return maxCorrections;
+        }
+
+        /**
+         * Sets the most confused characters, such as 0 read as O, repaired in one plate.
+         * @param maxCorrections Maximum corrections, 0 to turn repairs off
+         */
+        public void setMaxCorrections(int maxCorrections) {
+            this.maxCorrections = maxCorrections;
+        }
+
+        /**
+         * Gets how much each repaired character lowers the score of a plate.
+         * @return Score penalty per correction
+         */
+        public double getCorrectionPenalty() {
+            return correctionPenalty;
+        }
+
+        /**
+         * Sets how much each repaired character lowers the score of a plate.
+         * @param correctionPenalty Score penalty per correction
+         */
+        public void setCorrectionPenalty(double correctionPenalty) {
+            this.correctionPenalty = correctionPenalty;
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of the time Azure needed to finish recent read operations.
+ * Keeps the p50 and p90 of the window up to date for the poll scheduler.
+ */
+public class ReadLatencyTracker {
+    private final long[] window;
+    private int next;
+    private int size;
+    private volatile long p50Ms = -1;
+    private volatile long p90Ms = -1;
+
+    /**
+     * Constructs a new ReadLatencyTracker.
+     * @param windowSize Number of recent operations to keep
+     */
+    public ReadLatencyTracker(int windowSize) {
+        this.window = new long[Math.max(1, windowSize)];
+    }
+
+    /**
+     * Records the completion time of one operation and refreshes the estimates.
+     * @param completionMs Estimated time from submit to completion in milliseconds
+     */
+    public synchronized void record(long completionMs) {
+        window[next] = Math.max(0, completionMs);
+        next = (next + 1) % window.length;
+        size = Math.min(size + 1, window.length);
+
+        long[] sorted = Arrays.copyOf(window, size);
+        Arrays.sort(sorted);
+        p50Ms = sorted[quantileIndex(0.5)];
+        p90Ms = sorted[quantileIndex(0.9)];
+    }
+
+    /**
+     * Gets the number of operations currently in the window.
+     * @return Number of samples
+     */
+    public synchronized int getSampleCount() {
+        return size;
+    }
+
+    /**
+     * Gets the median completion time of the window.
+     * @return p50 in milliseconds, or -1 if nothing has been recorded
+     */
+    public long getP50Ms() {
+        return p50Ms;
+    }
+
+    /**
+     * Gets the 90th percentile completion time of the window.
+     * @return p90 in milliseconds, or -1 if nothing has been recorded
+     */
+    public long getP90Ms() {
+        return p90Ms;
+    }
+
+    private int quantileIndex(double quantile) {
+        return Math.min(size - 1, (int) Math.ceil(quantile * size) - 1);
+    }
+}
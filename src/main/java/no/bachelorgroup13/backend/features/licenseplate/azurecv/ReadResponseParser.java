@@ -0,0 +1,176 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.AnalyzeResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Word;
+
+/**
+ * Reads Azure Read API results token by token.
+ * Parsing stops right after the status unless the read has succeeded. For a finished
+ * read, only the text, bounding boxes and word confidences are kept, and every other
+ * field, such as page sizes, angles and appearance data, is skipped without being
+ * built.
+ */
+public final class ReadResponseParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private ReadResponseParser() {}
+
+    /**
+     * Parses a read result.
+     * @param json Raw UTF-8 JSON body from Azure
+     * @return The parsed read response
+     * @throws IOException If the body is not a valid read result
+     */
+    public static ReadResponse parse(byte[] json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Parses a read result from a stream, reading no further than needed.
+     * @param json Stream with the raw JSON body from Azure
+     * @return The parsed read response
+     * @throws IOException If the body is not a valid read result
+     */
+    public static ReadResponse parse(InputStream json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readResponse(parser);
+        }
+    }
+
+    private static ReadResponse readResponse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Azure read result is not a JSON object");
+        }
+        ReadResponse response = new ReadResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "status" -> {
+                    response.setStatus(parser.getValueAsString());
+                    if (!"succeeded".equalsIgnoreCase(response.getStatus())) {
+                        // Running and failed reads carry nothing else we need.
+                        return response;
+                    }
+                }
+                case "analyzeResult" -> response.setAnalyzeResult(readAnalyzeResult(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return response;
+    }
+
+    private static AnalyzeResult readAnalyzeResult(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        AnalyzeResult analyzeResult = new AnalyzeResult();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("readResults".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                List<ReadResult> readResults = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readResults.add(readReadResult(parser));
+                }
+                analyzeResult.setReadResults(readResults);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return analyzeResult;
+    }
+
+    private static ReadResult readReadResult(JsonParser parser) throws IOException {
+        ReadResult readResult = new ReadResult();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("lines".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                List<Line> lines = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    lines.add(readLine(parser));
+                }
+                readResult.setLines(lines);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return readResult;
+    }
+
+    private static Line readLine(JsonParser parser) throws IOException {
+        Line line = new Line();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "text" -> line.setText(parser.getValueAsString());
+                case "boundingBox" -> line.setBoundingBox(readInts(parser));
+                case "words" -> {
+                    if (parser.currentToken() == JsonToken.START_ARRAY) {
+                        List<Word> words = new ArrayList<>();
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            words.add(readWord(parser));
+                        }
+                        line.setWords(words);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return line;
+    }
+
+    private static Word readWord(JsonParser parser) throws IOException {
+        Word word = new Word();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "text" -> word.setText(parser.getValueAsString());
+                case "boundingBox" -> word.setBoundingBox(readInts(parser));
+                case "confidence" -> word.setConfidence(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Reads an array of numbers, rounding any fractions down.
+     * @param parser Parser positioned on the start of the array
+     * @return The numbers, or null if the value is not an array
+     */
+    private static int[] readInts(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        int[] values = new int[8];
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = parser.getValueAsInt();
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+}
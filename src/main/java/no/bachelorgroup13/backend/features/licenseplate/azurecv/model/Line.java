@@ -2,6 +2,7 @@ package no.bachelorgroup13.backend.features.licenseplate.azurecv.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
 
 /**
  * Represents a line of text detected in an image by Azure Computer Vision.
@@ -14,6 +15,8 @@ public class Line {
     @JsonProperty("boundingBox")
     private int[] boundingBox;
 
+    private List<Word> words;
+
     /**
      * Gets the detected text content.
      * @return Text content
@@ -45,4 +48,20 @@ public class Line {
     public void setBoundingBox(int[] boundingBox) {
         this.boundingBox = boundingBox;
     }
+
+    /**
+     * Gets the words of the line.
+     * @return List of words
+     */
+    public List<Word> getWords() {
+        return words;
+    }
+
+    /**
+     * Sets the words of the line.
+     * @param words List of words
+     */
+    public void setWords(List<Word> words) {
+        this.words = words;
+    }
 }
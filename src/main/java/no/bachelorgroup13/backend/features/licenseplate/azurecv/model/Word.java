@@ -0,0 +1,66 @@
+package no.bachelorgroup13.backend.features.licenseplate.azurecv.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents a single word of a detected line.
+ * Contains the word text, its bounding box and Azure's confidence in it.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Word {
+    private String text;
+
+    @JsonProperty("boundingBox")
+    private int[] boundingBox;
+
+    private double confidence;
+
+    /**
+     * Gets the word text.
+     * @return Word text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Sets the word text.
+     * @param text Word text
+     */
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Gets the bounding box coordinates of the word.
+     * @return Array of coordinates [x1, y1, x2, y2, x3, y3, x4, y4]
+     */
+    public int[] getBoundingBox() {
+        return boundingBox;
+    }
+
+    /**
+     * Sets the bounding box coordinates of the word.
+     * @param boundingBox Array of coordinates [x1, y1, x2, y2, x3, y3, x4, y4]
+     */
+    public void setBoundingBox(int[] boundingBox) {
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * Gets Azure's confidence in the recognized word.
+     * @return Confidence between 0 and 1
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Sets Azure's confidence in the recognized word.
+     * @param confidence Confidence between 0 and 1
+     */
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+}
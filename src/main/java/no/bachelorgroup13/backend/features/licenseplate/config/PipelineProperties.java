@@ -0,0 +1,763 @@
+package no.bachelorgroup13.backend.features.licenseplate.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the recognition pipeline around the engines.
+ * Covers camera streams, the motion gate and plate tracking, the gate socket, the
+ * recognition job queue and the plate read audit trail.
+ */
+@ConfigurationProperties(prefix = "licenseplate")
+public class PipelineProperties {
+    private final Tracking tracking = new Tracking();
+    private final Motion motion = new Motion();
+    private final Ingestion ingestion = new Ingestion();
+    private final Gate gate = new Gate();
+    private final Jobs jobs = new Jobs();
+    private final Audit audit = new Audit();
+
+    /**
+     * Gets how reads from camera streams are fused into one event per vehicle.
+     * @return Tracking settings
+     */
+    public Tracking getTracking() {
+        return tracking;
+    }
+
+    /**
+     * Gets how unchanged camera frames are dropped before recognition.
+     * @return Motion gate settings
+     */
+    public Motion getMotion() {
+        return motion;
+    }
+
+    /**
+     * Gets the camera streams that are read continuously.
+     * @return Ingestion settings
+     */
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    /**
+     * Gets the settings of the socket gate devices stream frames over.
+     * @return Gate socket settings
+     */
+    public Gate getGate() {
+        return gate;
+    }
+
+    /**
+     * Gets the settings of the recognition job queue shared by all replicas.
+     * @return Job queue settings
+     */
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Gets the settings of the plate read audit trail.
+     * @return Audit trail settings
+     */
+    public Audit getAudit() {
+        return audit;
+    }
+
+    /**
+     * Settings for fusing the reads of consecutive camera frames.
+     */
+    public static class Tracking {
+        private int window = 8;
+        private int minReads = 3;
+        private int maxDistance = 2;
+        private Duration idleTimeout = Duration.ofSeconds(3);
+        private int maxCameras = 256;
+
+        /**
+         * Gets how many of the latest reads of a vehicle take part in the vote.
+         * @return Window size in reads
+         */
+        public int getWindow() {
+            return window;
+        }
+
+        /**
+         * Sets how many of the latest reads of a vehicle take part in the vote.
+         * @param window Window size in reads
+         */
+        public void setWindow(int window) {
+            this.window = window;
+        }
+
+        /**
+         * Gets how many reads of a vehicle are needed before its event is published.
+         * @return Reads needed for an event
+         */
+        public int getMinReads() {
+            return minReads;
+        }
+
+        /**
+         * Sets how many reads of a vehicle are needed before its event is published.
+         * @param minReads Reads needed for an event
+         */
+        public void setMinReads(int minReads) {
+            this.minReads = minReads;
+        }
+
+        /**
+         * Gets how many characters a read may differ by and still be the same vehicle.
+         * @return Maximum edit distance
+         */
+        public int getMaxDistance() {
+            return maxDistance;
+        }
+
+        /**
+         * Sets how many characters a read may differ by and still be the same vehicle.
+         * @param maxDistance Maximum edit distance
+         */
+        public void setMaxDistance(int maxDistance) {
+            this.maxDistance = maxDistance;
+        }
+
+        /**
+         * Gets how long a camera may see no plate before the vehicle is taken as gone.
+         * @return Idle timeout
+         */
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        /**
+         * Sets how long a camera may see no plate before the vehicle is taken as gone.
+         * @param idleTimeout Idle timeout
+         */
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        /**
+         * Gets how many cameras may be tracked at once.
+         * @return Maximum number of cameras
+         */
+        public int getMaxCameras() {
+            return maxCameras;
+        }
+
+        /**
+         * Sets how many cameras may be tracked at once.
+         * @param maxCameras Maximum number of cameras
+         */
+        public void setMaxCameras(int maxCameras) {
+            this.maxCameras = maxCameras;
+        }
+    }
+
+    /**
+     * Settings for the motion gate in front of camera frame recognition.
+     */
+    public static class Motion {
+        private boolean enabled = true;
+        private int thumbnailWidth = 64;
+        private int pixelThreshold = 24;
+        private double minChangedFraction = 0.02;
+        private Duration heartbeat = Duration.ofSeconds(10);
+        private int maxCameras = 256;
+        private Duration idleTimeout = Duration.ofMinutes(1);
+
+        /**
+         * Gets whether unchanged camera frames are dropped.
+         * @return true if the motion gate is on
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether unchanged camera frames are dropped.
+         * @param enabled true to turn the motion gate on
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the width of the grey thumbnails frames are compared at.
+         * @return Thumbnail width in pixels
+         */
+        public int getThumbnailWidth() {
+            return thumbnailWidth;
+        }
+
+        /**
+         * Sets the width of the grey thumbnails frames are compared at.
+         * @param thumbnailWidth Thumbnail width in pixels
+         */
+        public void setThumbnailWidth(int thumbnailWidth) {
+            this.thumbnailWidth = thumbnailWidth;
+        }
+
+        /**
+         * Gets how much a thumbnail pixel must change, from 0 to 255, to count as changed.
+         * @return Pixel threshold
+         */
+        public int getPixelThreshold() {
+            return pixelThreshold;
+        }
+
+        /**
+         * Sets how much a thumbnail pixel must change, from 0 to 255, to count as changed.
+         * @param pixelThreshold Pixel threshold
+         */
+        public void setPixelThreshold(int pixelThreshold) {
+            this.pixelThreshold = pixelThreshold;
+        }
+
+        /**
+         * Gets the share of thumbnail pixels that must change for a frame to pass.
+         * @return Changed fraction from 0 to 1
+         */
+        public double getMinChangedFraction() {
+            return minChangedFraction;
+        }
+
+        /**
+         * Sets the share of thumbnail pixels that must change for a frame to pass.
+         * @param minChangedFraction Changed fraction from 0 to 1
+         */
+        public void setMinChangedFraction(double minChangedFraction) {
+            this.minChangedFraction = minChangedFraction;
+        }
+
+        /**
+         * Gets how long a camera may go without a frame let through.
+         * @return Heartbeat interval
+         */
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        /**
+         * Sets how long a camera may go without a frame let through.
+         * @param heartbeat Heartbeat interval
+         */
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        /**
+         * Gets how many cameras the gate keeps a reference frame for. Frames from
+         * further cameras pass unchecked.
+         * @return Maximum number of cameras
+         */
+        public int getMaxCameras() {
+            return maxCameras;
+        }
+
+        /**
+         * Sets how many cameras the gate keeps a reference frame for.
+         * @param maxCameras Maximum number of cameras
+         */
+        public void setMaxCameras(int maxCameras) {
+            this.maxCameras = maxCameras;
+        }
+
+        /**
+         * Gets how long a camera may send no frames before its reference frame is
+         * dropped.
+         * @return Idle timeout
+         */
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        /**
+         * Sets how long a camera may send no frames before its reference frame is
+         * dropped.
+         * @param idleTimeout Idle timeout
+         */
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /**
+     * Settings for reading MJPEG camera streams continuously.
+     */
+    public static class Ingestion {
+        private List<Stream> streams = new ArrayList<>();
+        private int maxInFlight = 2;
+        private int maxFrameBytes = 8 * 1024 * 1024;
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        /**
+         * Gets the streams read at startup.
+         * @return Camera streams
+         */
+        public List<Stream> getStreams() {
+            return streams;
+        }
+
+        /**
+         * Sets the streams read at startup.
+         * @param streams Camera streams
+         */
+        public void setStreams(List<Stream> streams) {
+            this.streams = streams;
+        }
+
+        /**
+         * Gets how many frames of one stream may be in recognition at once.
+         * @return Maximum frames in flight per stream
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Sets how many frames of one stream may be in recognition at once.
+         * @param maxInFlight Maximum frames in flight per stream
+         */
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        /**
+         * Gets the largest frame accepted from a stream.
+         * @return Maximum frame size in bytes
+         */
+        public int getMaxFrameBytes() {
+            return maxFrameBytes;
+        }
+
+        /**
+         * Sets the largest frame accepted from a stream.
+         * @param maxFrameBytes Maximum frame size in bytes
+         */
+        public void setMaxFrameBytes(int maxFrameBytes) {
+            this.maxFrameBytes = maxFrameBytes;
+        }
+
+        /**
+         * Gets how long to wait before reconnecting to a live stream that failed.
+         * @return Reconnect delay
+         */
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        /**
+         * Sets how long to wait before reconnecting to a live stream that failed.
+         * @param reconnectDelay Reconnect delay
+         */
+        public void setReconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+    }
+
+    /**
+     * One MJPEG camera stream.
+     */
+    public static class Stream {
+        private String camera;
+        private String source;
+        private double fps = 2;
+        private double sourceFps;
+
+        /**
+         * Gets the camera the frames are tracked under.
+         * @return Camera identifier
+         */
+        public String getCamera() {
+            return camera;
+        }
+
+        /**
+         * Sets the camera the frames are tracked under.
+         * @param camera Camera identifier
+         */
+        public void setCamera(String camera) {
+            this.camera = camera;
+        }
+
+        /**
+         * Gets where the stream is read from.
+         * @return tcp://host:port, an http(s) URL or the path of a recorded file
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Sets where the stream is read from.
+         * @param source tcp://host:port, an http(s) URL or the path of a recorded file
+         */
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        /**
+         * Gets how many frames per second are sampled for recognition.
+         * @return Sample rate
+         */
+        public double getFps() {
+            return fps;
+        }
+
+        /**
+         * Sets how many frames per second are sampled for recognition.
+         * @param fps Sample rate
+         */
+        public void setFps(double fps) {
+            this.fps = fps;
+        }
+
+        /**
+         * Gets the frame rate a recording was made at, which dates its frames.
+         * @return Recorded frame rate, or 0 to date frames by when they arrive
+         */
+        public double getSourceFps() {
+            return sourceFps;
+        }
+
+        /**
+         * Sets the frame rate a recording was made at, which dates its frames.
+         * @param sourceFps Recorded frame rate, or 0 to date frames by when they arrive
+         */
+        public void setSourceFps(double sourceFps) {
+            this.sourceFps = sourceFps;
+        }
+    }
+
+    /**
+     * Settings for the socket gate devices stream frames over.
+     */
+    public static class Gate {
+        private int window = 4;
+        private int capacity;
+        private Duration idleTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Gets how many frames one device may have sent and not had answered.
+         * @return Frames per connection
+         */
+        public int getWindow() {
+            return window;
+        }
+
+        /**
+         * Sets how many frames one device may have sent and not had answered.
+         * @param window Frames per connection
+         */
+        public void setWindow(int window) {
+            this.window = window;
+        }
+
+        /**
+         * Gets how many frames all devices together may have sent and not had answered.
+         * @return Frames over all connections, or 0 to use azure.cognitiveservices.resilience.max-concurrent
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Sets how many frames all devices together may have sent and not had answered.
+         * @param capacity Frames over all connections, or 0 to use azure.cognitiveservices.resilience.max-concurrent
+         */
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Gets how long a device may hold credit without sending a frame before it
+         * is taken back for the other devices.
+         * @return Idle time after which credit is reclaimed
+         */
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        /**
+         * Sets how long a device may hold credit without sending a frame before it
+         * is taken back for the other devices.
+         * @param idleTimeout Idle time after which credit is reclaimed
+         */
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /**
+     * Settings for the recognition job queue shared by all replicas.
+     */
+    public static class Jobs {
+        private boolean enabled = true;
+        private int concurrency = 0;
+        private Duration pollInterval = Duration.ofMillis(500);
+        private Duration lease = Duration.ofMinutes(2);
+        private int maxAttempts = 3;
+        private Duration retention = Duration.ofHours(1);
+        private Duration maxWait = Duration.ofSeconds(30);
+        private int awaitThreads = 2;
+        private int maxWaiting = 1000;
+        private int maxQueued = 1000;
+        private int maxQueuedPerClient = 20;
+
+        /**
+         * Gets whether this replica works on queued jobs.
+         * @return true to claim and recognize jobs, false to only accept them
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether this replica works on queued jobs.
+         * @param enabled true to claim and recognize jobs, false to only accept them
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets how many jobs this replica recognizes at once.
+         * @return Jobs at once, or 0 to use azure.cognitiveservices.resilience.max-concurrent
+         */
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        /**
+         * Sets how many jobs this replica recognizes at once.
+         * @param concurrency Jobs at once, or 0 to use azure.cognitiveservices.resilience.max-concurrent
+         */
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * Gets how long to wait before looking for jobs again when the queue is empty.
+         * @return Delay between looks at an empty queue
+         */
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        /**
+         * Sets how long to wait before looking for jobs again when the queue is empty.
+         * @param pollInterval Delay between looks at an empty queue
+         */
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        /**
+         * Gets how long a claimed job is reserved for its replica before others may take it over.
+         * @return Time a replica has to finish a claimed job
+         */
+        public Duration getLease() {
+            return lease;
+        }
+
+        /**
+         * Sets how long a claimed job is reserved for its replica before others may take it over.
+         * @param lease Time a replica has to finish a claimed job
+         */
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        /**
+         * Gets how many times a job is tried before it is failed.
+         * @return Most attempts per job
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        /**
+         * Sets how many times a job is tried before it is failed.
+         * @param maxAttempts Most attempts per job
+         */
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * Gets how long finished jobs are kept for clients to fetch.
+         * @return Time finished jobs are kept
+         */
+        public Duration getRetention() {
+            return retention;
+        }
+
+        /**
+         * Sets how long finished jobs are kept for clients to fetch.
+         * @param retention Time finished jobs are kept
+         */
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        /**
+         * Gets the longest a client may wait for a job to finish in one request.
+         * @return Longest wait per request
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        /**
+         * Sets the longest a client may wait for a job to finish in one request.
+         * @param maxWait Longest wait per request
+         */
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        /**
+         * Gets how many threads look up the jobs that clients wait for.
+         * @return Threads polling for waiting clients
+         */
+        public int getAwaitThreads() {
+            return awaitThreads;
+        }
+
+        /**
+         * Sets how many threads look up the jobs that clients wait for.
+         * @param awaitThreads Threads polling for waiting clients
+         */
+        public void setAwaitThreads(int awaitThreads) {
+            this.awaitThreads = awaitThreads;
+        }
+
+        /**
+         * Gets how many requests may wait for a job at once. Further requests get the
+         * job as it is without waiting.
+         * @return Most waiting requests
+         */
+        public int getMaxWaiting() {
+            return maxWaiting;
+        }
+
+        /**
+         * Sets how many requests may wait for a job at once.
+         * @param maxWaiting Most waiting requests
+         */
+        public void setMaxWaiting(int maxWaiting) {
+            this.maxWaiting = maxWaiting;
+        }
+
+        /**
+         * Gets how many jobs may be queued before new ones are refused.
+         * @return Most queued jobs, or 0 for no limit
+         */
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        /**
+         * Sets how many jobs may be queued before new ones are refused.
+         * @param maxQueued Most queued jobs, or 0 for no limit
+         */
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        /**
+         * Gets how many unfinished jobs one client may have before its new ones are refused.
+         * @return Most unfinished jobs per client, or 0 for no limit
+         */
+        public int getMaxQueuedPerClient() {
+            return maxQueuedPerClient;
+        }
+
+        /**
+         * Sets how many unfinished jobs one client may have before its new ones are refused.
+         * @param maxQueuedPerClient Most unfinished jobs per client, or 0 for no limit
+         */
+        public void setMaxQueuedPerClient(int maxQueuedPerClient) {
+            this.maxQueuedPerClient = maxQueuedPerClient;
+        }
+    }
+
+    /**
+     * Settings for the audit trail of plate reads.
+     */
+    public static class Audit {
+        private boolean enabled = true;
+        private int bufferSize = 10000;
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * Gets whether every recognition is recorded as plate reads.
+         * @return true to record plate reads
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether every recognition is recorded as plate reads.
+         * @param enabled true to record plate reads
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets how many plate reads may wait to be written before new ones are dropped.
+         * @return Most plate reads waiting to be written
+         */
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        /**
+         * Sets how many plate reads may wait to be written before new ones are dropped.
+         * @param bufferSize Most plate reads waiting to be written
+         */
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Gets how many plate reads are written with one batch insert.
+         * @return Most plate reads per insert
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Sets how many plate reads are written with one batch insert.
+         * @param batchSize Most plate reads per insert
+         */
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Gets how long the writer waits for plate reads before checking whether it should stop.
+         * @return Longest wait for new plate reads
+         */
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * Sets how long the writer waits for plate reads before checking whether it should stop.
+         * @param flushInterval Longest wait for new plate reads
+         */
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+}
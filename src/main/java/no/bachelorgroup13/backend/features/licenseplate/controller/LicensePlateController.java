@@ -2,15 +2,33 @@ package no.bachelorgroup13.backend.features.licenseplate.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.io.File;
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.Getter;
 import lombok.Setter;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.BatchItemDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.IdentifiedPlateDto;
 import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
 import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.service.PlateIdentificationService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -26,35 +44,213 @@ import org.springframework.web.multipart.MultipartFile;
 @Tag(name = "License Plate", description = "Endpoints for license plate recognition.")
 public class LicensePlateController {
     private final LicensePlateService computerVisionService;
+    private final PlateTracker plateTracker;
+    private final MotionGate motionGate;
+    private final PlateIdentificationService plateIdentificationService;
+    private final int maxBatchImages;
 
     /**
      * Constructs a new LicensePlateController.
      * @param computerVisionService Service for license plate recognition
+     * @param plateTracker Fuses the reads of camera streams into plate events
+     * @param motionGate Drops camera frames that show nothing new
+     * @param plateIdentificationService Resolves plates to their user and reservation
+     * @param properties Azure Cognitive Services configuration properties
      */
-    public LicensePlateController(LicensePlateService computerVisionService) {
+    public LicensePlateController(
+            LicensePlateService computerVisionService,
+            PlateTracker plateTracker,
+            MotionGate motionGate,
+            PlateIdentificationService plateIdentificationService,
+            LicensePlateProperties properties) {
         this.computerVisionService = computerVisionService;
+        this.plateTracker = plateTracker;
+        this.motionGate = motionGate;
+        this.plateIdentificationService = plateIdentificationService;
+        this.maxBatchImages = properties.getBatch().getMaxImages();
     }
 
     /**
      * Recognizes license plates from an uploaded image.
+     * The request thread is released while the recognition is in flight.
      * @param image Multipart image file
-     * @return List of recognized license plates or error message
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request, whose address identifies anonymous callers
+     * @return Future with the list of recognized license plates or error message
      */
     @Operation(summary = "Recognize license plate from image")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> recognizePlate(@RequestParam("image") MultipartFile image) {
+    public CompletableFuture<ResponseEntity<?>> recognizePlate(
+            @RequestParam("image") MultipartFile image,
+            Principal principal,
+            HttpServletRequest request) {
+        byte[] bytes;
         try {
-            File tempFile = File.createTempFile("image", ".jpg");
-            image.transferTo(tempFile);
+            bytes = image.getBytes();
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+
+        return computerVisionService
+                .getLicensePlatesAsync(bytes, clientOf(principal, request))
+                .<ResponseEntity<?>>thenApply(
+                        plates -> ResponseEntity.ok(new LicensePlatesResponse(plates)))
+                .exceptionally(this::errorResponse);
+    }
+
+    /**
+     * Recognizes license plates in several uploaded images with one request.
+     * Every multipart file is one image and its result is keyed by the part name.
+     * Parts that share a name are keyed as name[0], name[1] and so on.
+     * @param parts Multipart files keyed by part name
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request, whose address identifies anonymous callers
+     * @return Future with the result of every image or an error message
+     */
+    @Operation(summary = "Recognize license plates in several images")
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<?>> recognizePlates(
+            @RequestParam MultiValueMap<String, MultipartFile> parts,
+            Principal principal,
+            HttpServletRequest request) {
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, List<MultipartFile>> part : parts.entrySet()) {
+                List<MultipartFile> files = part.getValue();
+                for (int i = 0; i < files.size(); i++) {
+                    String name = files.size() == 1 ? part.getKey() : part.getKey() + "[" + i + "]";
+                    images.put(name, files.get(i).getBytes());
+                }
+            }
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+        if (images.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("No images in request"));
+        }
+        if (images.size() > maxBatchImages) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest()
+                            .body("Too many images in request, the limit is " + maxBatchImages));
+        }
+
+        return computerVisionService
+                .getLicensePlatesBatchAsync(images, clientOf(principal, request))
+                .<ResponseEntity<?>>thenApply(
+                        results -> ResponseEntity.ok(new BatchResponse(results)))
+                .exceptionally(this::errorResponse);
+    }
+
+    /**
+     * Recognizes license plates in one frame of a camera stream.
+     * The reads of consecutive frames are fused per camera, and the response holds
+     * the plate event once the camera has seen a vehicle well enough. Clients that
+     * look up the vehicle should act on the event rather than on every frame.
+     * Frames that show nothing new since the last recognized frame of the camera
+     * are skipped without being recognized.
+     * @param camera Identifier of the camera
+     * @param image Multipart image file
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request, whose address identifies anonymous callers
+     * @return Future with the plates in the frame and any plate event
+     */
+    @Operation(summary = "Recognize license plates in a camera frame")
+    @PostMapping(value = "/cameras/{camera}/frames", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<?>> recognizeFrame(
+            @PathVariable String camera,
+            @RequestParam("image") MultipartFile image,
+            Principal principal,
+            HttpServletRequest request) {
+        byte[] bytes;
+        try {
+            bytes = image.getBytes();
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+        if (!motionGate.admit(camera, bytes)) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.ok(new FrameResponse(List.of(), null, true)));
+        }
+
+        return computerVisionService
+                .getLicensePlatesAsync(bytes, clientOf(principal, request))
+                .<ResponseEntity<?>>thenApply(
+                        plates ->
+                                ResponseEntity.ok(
+                                        new FrameResponse(
+                                                plates,
+                                                plateTracker.observe(camera, plates),
+                                                false)))
+                .exceptionally(this::errorResponse);
+    }
+
+    /**
+     * Recognizes license plates from an uploaded image and resolves every plate to
+     * the user it belongs to and its reservation for today, so a gate needs a single
+     * request per vehicle. The lookups of all plates run side by side.
+     * @param image Multipart image file
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request, whose address identifies anonymous callers
+     * @return Future with the identified plates or error message
+     */
+    @Operation(summary = "Recognize license plates and look up their owner and reservation")
+    @PostMapping(value = "/identify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<?>> identifyPlate(
+            @RequestParam("image") MultipartFile image,
+            Principal principal,
+            HttpServletRequest request) {
+        byte[] bytes;
+        try {
+            bytes = image.getBytes();
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
 
-            List<PlateDto> plates = computerVisionService.getLicensePlates(tempFile);
+        return computerVisionService
+                .getLicensePlatesAsync(bytes, clientOf(principal, request))
+                .thenCompose(plateIdentificationService::identify)
+                .<ResponseEntity<?>>thenApply(
+                        plates -> ResponseEntity.ok(new IdentifyResponse(plates)))
+                .exceptionally(this::errorResponse);
+    }
 
-            return ResponseEntity.ok(new LicensePlatesResponse(plates));
+    /**
+     * Identifies the caller that a recognition is charged to.
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request
+     * @return User name of the caller, or its address if it is not logged in
+     */
+    private static String clientOf(Principal principal, HttpServletRequest request) {
+        return principal != null ? principal.getName() : request.getRemoteAddr();
+    }
 
-        } catch (IOException | IllegalStateException | InterruptedException e) {
-            return ResponseEntity.status(500)
-                    .body("Error recognizing license plate:" + e.getMessage());
+    /**
+     * Builds the error response returned when recognition fails.
+     * Requests shed because Azure is unavailable get status 503, and requests over
+     * budget get status 429, both with a Retry-After header so clients know to back
+     * off rather than retry at once.
+     * A CompletionException is unwrapped to the failure it carries.
+     * @param e The cause of the failure
+     * @return Response with status 429, 503 or 500 and the error message
+     */
+    private ResponseEntity<?> errorResponse(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
         }
+        if (e instanceof AzureUnavailableException unavailable) {
+            ResponseEntity.BodyBuilder response =
+                    ResponseEntity.status(
+                            e instanceof BudgetExhaustedException
+                                    ? HttpStatus.TOO_MANY_REQUESTS
+                                    : HttpStatus.SERVICE_UNAVAILABLE);
+            if (unavailable.getRetryAfter() != null) {
+                long seconds = Math.max(1, (unavailable.getRetryAfter().toMillis() + 999) / 1000);
+                response.header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            }
+            return response.body("License plate recognition is unavailable:" + e.getMessage());
+        }
+        return ResponseEntity.status(500).body("Error recognizing license plate:" + e.getMessage());
     }
 
     /**
@@ -76,4 +272,78 @@ public class LicensePlateController {
             this.license_plates = plates;
         }
     }
+
+    /**
+     * Response wrapper for identified license plates.
+     */
+    @Setter
+    @Getter
+    static class IdentifyResponse {
+        /**
+         *  Gets and sets the recognized plates with their user and reservation.
+         */
+        private List<IdentifiedPlateDto> license_plates;
+
+        /**
+         * Creates a new IdentifyResponse.
+         * @param plates Recognized plates with their user and reservation
+         */
+        public IdentifyResponse(List<IdentifiedPlateDto> plates) {
+            this.license_plates = plates;
+        }
+    }
+
+    /**
+     * Response wrapper for camera frame results.
+     */
+    @Setter
+    @Getter
+    static class FrameResponse {
+        /**
+         *  Gets and sets the list of license plates recognized in the frame.
+         */
+        private List<PlateDto> license_plates;
+
+        /**
+         *  Gets and sets the plate event this frame completed, or null if there is none.
+         */
+        private PlateEvent event;
+
+        /**
+         *  Gets and sets whether the frame was skipped because nothing moved.
+         */
+        private boolean skipped;
+
+        /**
+         * Creates a new FrameResponse.
+         * @param plates List of license plates recognized in the frame
+         * @param event The plate event this frame completed, or null
+         * @param skipped true if the frame was not recognized because nothing moved
+         */
+        public FrameResponse(List<PlateDto> plates, PlateEvent event, boolean skipped) {
+            this.license_plates = plates;
+            this.event = event;
+            this.skipped = skipped;
+        }
+    }
+
+    /**
+     * Response wrapper for batch recognition results.
+     */
+    @Setter
+    @Getter
+    static class BatchResponse {
+        /**
+         *  Gets and sets the result of every image keyed by part name.
+         */
+        private Map<String, BatchItemDto> results;
+
+        /**
+         * Creates a new BatchResponse.
+         * @param results Result of every image keyed by part name
+         */
+        public BatchResponse(Map<String, BatchItemDto> results) {
+            this.results = results;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package no.bachelorgroup13.backend.features.licenseplate.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJob;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJobService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Controller for queued license plate recognition.
+ * Images are submitted as jobs that any replica may recognize, and clients fetch
+ * the result by job ID, optionally waiting for it.
+ */
+@RestController
+@RequestMapping("/license-plate/jobs")
+@Tag(name = "License Plate", description = "Endpoints for license plate recognition.")
+public class RecognitionJobController {
+    private final RecognitionJobService jobService;
+    private final Duration maxWait;
+
+    /**
+     * Constructs a new RecognitionJobController.
+     * @param jobService Service for the recognition job queue
+     * @param properties Recognition pipeline configuration properties
+     */
+    public RecognitionJobController(
+            RecognitionJobService jobService, PipelineProperties properties) {
+        this.jobService = jobService;
+        this.maxWait = properties.getJobs().getMaxWait();
+    }
+
+    /**
+     * Queues an uploaded image for recognition.
+     * @param image Multipart image file
+     * @param principal The authenticated caller, if any
+     * @param request The HTTP request, whose address identifies anonymous callers
+     * @return The queued job with status 202 and its location, or 429 with a
+     *     Retry-After header if the queue or the client has too many jobs
+     */
+    @Operation(summary = "Queue an image for license plate recognition")
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitJob(
+            @RequestParam("image") MultipartFile image,
+            Principal principal,
+            HttpServletRequest request) {
+        byte[] bytes;
+        try {
+            bytes = image.getBytes();
+        } catch (IOException e) {
+            return ResponseEntity.status(500)
+                    .body("Error recognizing license plate:" + e.getMessage());
+        }
+        RecognitionJob job;
+        try {
+            job =
+                    jobService.submit(
+                            bytes,
+                            principal != null ? principal.getName() : request.getRemoteAddr());
+        } catch (BudgetExhaustedException e) {
+            long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                    .body("License plate recognition is unavailable:" + e.getMessage());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/license-plate/jobs/" + job.getId()))
+                .body(jobService.toDto(job));
+    }
+
+    /**
+     * Retrieves a job, waiting up to the given number of seconds for it to finish.
+     * @param id The ID of the job
+     * @param wait Seconds to wait for the job to finish, capped by the configured
+     *     maximum
+     * @return Future with the job, or 404 if there is no such job
+     */
+    @Operation(summary = "Get a queued recognition by ID")
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> getJob(
+            @PathVariable UUID id, @RequestParam(defaultValue = "0") long wait) {
+        Duration duration = Duration.ofSeconds(Math.max(0, wait));
+        return jobService
+                .await(id, duration.compareTo(maxWait) > 0 ? maxWait : duration)
+                .thenApply(
+                        job ->
+                                job.<ResponseEntity<?>>map(
+                                                found -> ResponseEntity.ok(jobService.toDto(found)))
+                                        .orElse(ResponseEntity.notFound().build()));
+    }
+}
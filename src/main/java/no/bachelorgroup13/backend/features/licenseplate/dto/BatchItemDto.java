@@ -0,0 +1,44 @@
+package no.bachelorgroup13.backend.features.licenseplate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for the result of one image in a batch recognition.
+ * Holds either the recognized plates or the reason the image failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemDto {
+    @Schema(description = "The license plates recognized in the image.")
+    @JsonProperty("license_plates")
+    private List<PlateDto> licensePlates;
+
+    @Schema(description = "Why the image could not be recognized, if it failed.")
+    private String error;
+
+    /**
+     * Creates the result for a recognized image.
+     * @param plates The recognized plates
+     * @return Successful batch item
+     */
+    public static BatchItemDto success(List<PlateDto> plates) {
+        return new BatchItemDto(plates, null);
+    }
+
+    /**
+     * Creates the result for an image that failed.
+     * @param error Reason for the failure
+     * @return Failed batch item
+     */
+    public static BatchItemDto failure(String error) {
+        return new BatchItemDto(null, error);
+    }
+}
@@ -0,0 +1,92 @@
+package no.bachelorgroup13.backend.features.licenseplate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+
+/**
+ * Data transfer object for the messages a gate device receives over its socket.
+ * A credit message allows the device to send more frames, a result message holds
+ * what was read in a frame and an error message tells why a frame failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GateMessageDto {
+    /** Type of messages that allow more frames. */
+    public static final String CREDIT = "credit";
+
+    /** Type of messages with the plates of a frame. */
+    public static final String RESULT = "result";
+
+    /** Type of messages for frames that failed. */
+    public static final String ERROR = "error";
+
+    @Schema(description = "The kind of message, credit, result or error.")
+    private String type;
+
+    @Schema(description = "Number of the frame on the connection, counted from 0.")
+    private Long frame;
+
+    @Schema(description = "How many more frames the device may send.")
+    private Integer credits;
+
+    @Schema(description = "The license plates recognized in the frame.")
+    @JsonProperty("license_plates")
+    private List<PlateDto> licensePlates;
+
+    @Schema(description = "The plate event the frame completed, if any.")
+    private PlateEvent event;
+
+    @Schema(description = "Whether the frame was skipped because nothing moved.")
+    private Boolean skipped;
+
+    @Schema(description = "HTTP status code matching the failure.")
+    private Integer status;
+
+    @Schema(description = "Why the frame could not be recognized.")
+    private String error;
+
+    @Schema(description = "Seconds to wait before sending frames again.")
+    private Long retryAfter;
+
+    /**
+     * Creates a message that allows more frames.
+     * @param credits How many more frames the device may send
+     * @return Credit message
+     */
+    public static GateMessageDto credit(int credits) {
+        return new GateMessageDto(CREDIT, null, credits, null, null, null, null, null, null);
+    }
+
+    /**
+     * Creates the result of a frame.
+     * @param frame Number of the frame
+     * @param plates The recognized plates
+     * @param event The plate event the frame completed, or null
+     * @param skipped true if the frame was not recognized because nothing moved
+     * @return Result message
+     */
+    public static GateMessageDto result(
+            long frame, List<PlateDto> plates, PlateEvent event, boolean skipped) {
+        return new GateMessageDto(RESULT, frame, null, plates, event, skipped, null, null, null);
+    }
+
+    /**
+     * Creates the message for a frame that failed.
+     * @param frame Number of the frame
+     * @param status HTTP status code matching the failure
+     * @param error Reason for the failure
+     * @param retryAfter Seconds to wait before sending frames again, or null
+     * @return Error message
+     */
+    public static GateMessageDto failure(long frame, int status, String error, Long retryAfter) {
+        return new GateMessageDto(ERROR, frame, null, null, null, null, status, error, retryAfter);
+    }
+}
@@ -0,0 +1,28 @@
+package no.bachelorgroup13.backend.features.licenseplate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import no.bachelorgroup13.backend.features.reservation.dto.ReservationDto;
+import no.bachelorgroup13.backend.features.user.dto.UserDto;
+
+/**
+ * Data transfer object for a recognized license plate together with the user it
+ * belongs to and its reservation for today.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IdentifiedPlateDto {
+    @JsonUnwrapped private PlateDto plate;
+
+    @Schema(description = "The user with this license plate, if any.")
+    private UserDto user;
+
+    @Schema(description = "Today's reservation for this license plate, if any.")
+    private ReservationDto reservation;
+}
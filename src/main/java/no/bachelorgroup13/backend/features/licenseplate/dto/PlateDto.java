@@ -1,5 +1,6 @@
 package no.bachelorgroup13.backend.features.licenseplate.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -8,7 +9,9 @@ import lombok.NoArgsConstructor;
 
 /**
  * Data transfer object for license plate recognition results.
- * Contains the recognized text and bounding box coordinates.
+ * Contains the recognized text, bounding box coordinates and, when the engine
+ * reports one, how confident it is in the text, plus the plate format and a score
+ * that accounts for corrected characters.
  */
 @Data
 @NoArgsConstructor
@@ -17,6 +20,51 @@ public class PlateDto {
     @Schema(description = "The recognized license plate text.")
     private String text;
 
-    @Schema(description = "The confidence score of the recognition.")
+    @Schema(description = "The bounding box of the plate as x1, y1, x2, y2, ...")
     private List<Integer> bbox;
+
+    @Schema(description = "The confidence score of the recognition, from 0 to 1.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double confidence;
+
+    @Schema(description = "The plate format the text matched, such as standard or electric.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String format;
+
+    @Schema(
+            description =
+                    "How likely the text is the plate, from 0 to 1, lowered for every"
+                            + " character that was corrected.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
+
+    /**
+     * Creates a plate without a confidence score.
+     * @param text The recognized license plate text
+     * @param bbox The bounding box of the plate
+     */
+    public PlateDto(String text, List<Integer> bbox) {
+        this(text, bbox, null);
+    }
+
+    /**
+     * Creates a plate without a known format.
+     * @param text The recognized license plate text
+     * @param bbox The bounding box of the plate
+     * @param confidence The confidence score of the recognition, or null if unknown
+     */
+    public PlateDto(String text, List<Integer> bbox, Double confidence) {
+        this(text, bbox, confidence, null);
+    }
+
+    /**
+     * Creates a plate without a score.
+     * @param text The recognized license plate text
+     * @param bbox The bounding box of the plate
+     * @param confidence The confidence score of the recognition, or null if unknown
+     * @param format The plate format the text matched, or null if unknown
+     */
+    public PlateDto(String text, List<Integer> bbox, Double confidence, String format) {
+        this(text, bbox, confidence, format, null);
+    }
 }
@@ -0,0 +1,43 @@
+package no.bachelorgroup13.backend.features.licenseplate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object for a queued license plate recognition.
+ * Holds the plates once the job is done and the error once it has failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecognitionJobDto {
+    @Schema(description = "The ID of the job.")
+    private UUID id;
+
+    @Schema(description = "The state of the job, queued, running, done or failed.")
+    private String status;
+
+    @Schema(description = "The license plates recognized in the image, once done.")
+    @JsonProperty("license_plates")
+    private List<PlateDto> licensePlates;
+
+    @Schema(description = "Why the job failed.")
+    private String error;
+
+    @Schema(description = "HTTP status code matching the failure.")
+    private Integer errorStatus;
+
+    @Schema(description = "When the job was submitted.")
+    private Instant createdAt;
+
+    @Schema(description = "When the job was finished.")
+    private Instant finishedAt;
+}
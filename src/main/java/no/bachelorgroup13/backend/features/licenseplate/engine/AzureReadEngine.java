@@ -0,0 +1,286 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBulkhead;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureReadPoller;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.AnalyzeResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Word;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PreparedImage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recognizes plates with the Azure Computer Vision Read API.
+ * Images are shrunk or cropped before upload, and no thread is held while Azure
+ * is working on the image.
+ */
+@Component
+public class AzureReadEngine implements PlateRecognitionEngine {
+    /** Name the engine is selected by. */
+    public static final String NAME = "azure";
+
+    private final AzureVisionClient azureVisionClient;
+    private final AzureReadPoller azureReadPoller;
+    private final AzureBulkhead azureBulkhead;
+    private final ImagePreprocessor imagePreprocessor;
+    private final PlateMatcher plateMatcher;
+    private final Executor executor;
+
+    /**
+     * Constructs a new AzureReadEngine.
+     * @param azureVisionClient Client for the Azure Computer Vision Read API
+     * @param azureReadPoller Poller for outstanding Azure read operations
+     * @param azureBulkhead Caps the Azure read operations in flight
+     * @param imagePreprocessor Shrinks images before they are uploaded
+     * @param plateMatcher Picks the plates out of the recognized text
+     * @param executor Executor that extracts plates off the polling threads
+     */
+    public AzureReadEngine(
+            AzureVisionClient azureVisionClient,
+            AzureReadPoller azureReadPoller,
+            AzureBulkhead azureBulkhead,
+            ImagePreprocessor imagePreprocessor,
+            PlateMatcher plateMatcher,
+            @Qualifier("licensePlateExecutor") Executor executor) {
+        this.azureVisionClient = azureVisionClient;
+        this.azureReadPoller = azureReadPoller;
+        this.azureBulkhead = azureBulkhead;
+        this.imagePreprocessor = imagePreprocessor;
+        this.plateMatcher = plateMatcher;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Shrinks or crops an image, sends it to Azure and waits for the result.
+     * If the cropped regions hold no plate, the whole frame is sent instead.
+     * Cancelling the returned future stops polling Azure for the result.
+     * @param image The raw image bytes
+     * @return Future completed with the detected license plates, or failed at once
+     *     if the executor is full
+     */
+    @Override
+    public CompletableFuture<Recognition> recognize(byte[] image) {
+        CompletableFuture<PreparedImage> preparation;
+        try {
+            preparation =
+                    CompletableFuture.supplyAsync(() -> imagePreprocessor.prepare(image), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Recognition> result = new CompletableFuture<>();
+        preparation
+                .thenCompose(
+                        prepared ->
+                                submit(prepared, result)
+                                        .thenCompose(
+                                                recognition ->
+                                                        fallBackToFullFrame(
+                                                                image,
+                                                                prepared,
+                                                                recognition,
+                                                                result)))
+                .whenComplete(
+                        (recognition, e) -> {
+                            if (e != null) {
+                                result.completeExceptionally(e);
+                            } else {
+                                result.complete(recognition);
+                            }
+                        });
+        return result;
+    }
+
+    /**
+     * Sends the whole frame if the cropped regions did not contain a plate.
+     * @param image The raw image bytes
+     * @param prepared The image that was uploaded first
+     * @param recognition The plates found in it
+     * @param caller The future handed to the caller, whose cancellation stops polling
+     * @return Future completed with the final recognition
+     */
+    private CompletableFuture<Recognition> fallBackToFullFrame(
+            byte[] image,
+            PreparedImage prepared,
+            Recognition recognition,
+            CompletableFuture<Recognition> caller) {
+        if (caller.isDone()
+                || !imagePreprocessor.shouldRetryFullFrame(prepared, recognition.plates().size())) {
+            return CompletableFuture.completedFuture(recognition);
+        }
+        return CompletableFuture.supplyAsync(
+                        () -> imagePreprocessor.prepareFullFrame(image), executor)
+                .thenCompose(full -> submit(full, caller));
+    }
+
+    /**
+     * Uploads a prepared image and maps the plates Azure finds back to the original.
+     * The upload is refused at once if too many reads are already in flight.
+     * @param prepared The image to upload
+     * @param caller The future handed to the caller, whose cancellation stops polling
+     * @return Future completed with the detected license plates
+     */
+    private CompletableFuture<Recognition> submit(
+            PreparedImage prepared, CompletableFuture<Recognition> caller) {
+        return azureBulkhead
+                .call(
+                        () ->
+                                azureVisionClient
+                                        .submitAsync(prepared.bytes())
+                                        .thenCompose(
+                                                operationLocation -> {
+                                                    CompletableFuture<ReadResponse> polling =
+                                                            azureReadPoller.await(
+                                                                    operationLocation);
+                                                    caller.whenComplete(
+                                                            (recognition, e) -> {
+                                                                if (caller.isCancelled()) {
+                                                                    polling.cancel(false);
+                                                                }
+                                                            });
+                                                    return polling;
+                                                }))
+                .thenApplyAsync(response -> toResult(response, prepared), executor);
+    }
+
+    /**
+     * Extracts plates from a finished read and maps them to original coordinates.
+     * The result is final if the read succeeded and no full-frame retry is due.
+     * @param response The final read response
+     * @param prepared The image that was uploaded
+     * @return The detected license plates
+     */
+    private Recognition toResult(ReadResponse response, PreparedImage prepared) {
+        List<PlateDto> plates = new ArrayList<>();
+        for (PlateDto plate : extractPlatesFromResponse(response)) {
+            plate.setBbox(prepared.toOriginal(plate.getBbox()));
+            plates.add(plate);
+        }
+        boolean cacheable =
+                "succeeded".equalsIgnoreCase(response.getStatus())
+                        && !imagePreprocessor.shouldRetryFullFrame(prepared, plates.size());
+        return new Recognition(plates, cacheable, NAME);
+    }
+
+    /**
+     * Extracts license plates from the Azure API response using the plate grammars.
+     * A line that is not a plate is joined with the next one when they sit side by
+     * side, since Azure sometimes splits a plate at the gap between the letters and
+     * the digits.
+     * @param readResponse The response from Azure Computer Vision API
+     * @return List of detected license plates with their bounding boxes
+     */
+    private List<PlateDto> extractPlatesFromResponse(ReadResponse readResponse) {
+        List<PlateDto> plates = new ArrayList<>();
+
+        if ("succeeded".equalsIgnoreCase(readResponse.getStatus())
+                && readResponse.getAnalyzeResult() != null) {
+
+            AnalyzeResult analyzeResult = readResponse.getAnalyzeResult();
+            if (analyzeResult.getReadResults() != null) {
+                for (ReadResult readResult : analyzeResult.getReadResults()) {
+                    List<Line> lines = readResult.getLines();
+                    if (lines != null) {
+                        for (int i = 0; i < lines.size(); i++) {
+                            Line line = lines.get(i);
+                            if (plateMatcher.matches(line.getText())) {
+                                plates.add(
+                                        plateMatcher.match(
+                                                line.getText(),
+                                                line.getBoundingBox(),
+                                                confidenceOf(line.getWords())));
+                            } else if (i + 1 < lines.size()
+                                    && isSameRow(line, lines.get(i + 1))
+                                    && plateMatcher.matches(
+                                            line.getText(), lines.get(i + 1).getText())) {
+                                plates.add(joinedPlate(line, lines.get(++i)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return plates;
+    }
+
+    /**
+     * Builds the plate for two lines that are a plate together.
+     * @param left The line on the left
+     * @param right The line on the right
+     * @return The plate
+     */
+    private PlateDto joinedPlate(Line left, Line right) {
+        int[] a = left.getBoundingBox();
+        int[] b = right.getBoundingBox();
+        // Top left and bottom left of the left line, top right and bottom right of the right.
+        int[] bbox = {a[0], a[1], b[2], b[3], b[4], b[5], a[6], a[7]};
+        Double confidence =
+                hasWords(left) || hasWords(right)
+                        ? Math.min(
+                                lowestConfidence(left.getWords()),
+                                lowestConfidence(right.getWords()))
+                        : null;
+        return plateMatcher.match(left.getText(), right.getText(), bbox, confidence);
+    }
+
+    /**
+     * Checks whether a line continues another on its right, at the same height and
+     * with no more than a character and a half between them.
+     * @param left The first line
+     * @param right The line that may continue it
+     * @return true if the lines sit side by side
+     */
+    private static boolean isSameRow(Line left, Line right) {
+        int[] a = left.getBoundingBox();
+        int[] b = right.getBoundingBox();
+        if (a == null || b == null || a.length < 8 || b.length < 8) {
+            return false;
+        }
+        int height = a[7] - a[1];
+        int otherHeight = b[7] - b[1];
+        int gap = b[0] - a[2];
+        return height > 0
+                && Math.abs(height - otherHeight) * 2 <= height
+                && Math.abs((a[1] + a[7]) - (b[1] + b[7])) <= height
+                && gap * 2 >= -height
+                && gap * 2 <= height * 3;
+    }
+
+    /**
+     * Gets the confidence of a line as the lowest confidence of its words.
+     * @param words Words of the line
+     * @return Confidence from 0 to 1, or null if Azure reported no words
+     */
+    public static Double confidenceOf(List<Word> words) {
+        return words == null || words.isEmpty() ? null : lowestConfidence(words);
+    }
+
+    private static boolean hasWords(Line line) {
+        return line.getWords() != null && !line.getWords().isEmpty();
+    }
+
+    private static double lowestConfidence(List<Word> words) {
+        double lowest = 1.0;
+        if (words != null) {
+            for (Word word : words) {
+                lowest = Math.min(lowest, word.getConfidence());
+            }
+        }
+        return lowest;
+    }
+}
@@ -0,0 +1,179 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classifies single character images by template matching.
+ * Templates are rendered once from the fonts closest to the ones used on Norwegian
+ * plates, and every glyph is compared on a small normalized grid, so classifying
+ * the characters of a plate costs far less than decoding the frame.
+ */
+final class GlyphClassifier {
+    /** Width of the normalized glyph grid. */
+    static final int GRID_WIDTH = 16;
+
+    /** Height of the normalized glyph grid. */
+    static final int GRID_HEIGHT = 24;
+
+    static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    static final String DIGITS = "0123456789";
+
+    private static final String[] FONTS = {Font.SANS_SERIF, Font.DIALOG, Font.MONOSPACED};
+    private static final int RENDER_SIZE = 64;
+
+    private final List<Template> templates = new ArrayList<>();
+
+    GlyphClassifier() {
+        for (String font : FONTS) {
+            for (int style : new int[] {Font.BOLD, Font.PLAIN}) {
+                for (char symbol : (LETTERS + DIGITS).toCharArray()) {
+                    float[] grid = render(new Font(font, style, RENDER_SIZE), symbol);
+                    if (grid != null) {
+                        templates.add(new Template(symbol, grid));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the best matching symbol among a set of allowed symbols.
+     * @param glyph Normalized glyph grid
+     * @param allowed Symbols the glyph may be
+     * @return Best symbol and its score from 0 to 1
+     */
+    Match classify(float[] glyph, String allowed) {
+        Match best = new Match('?', 0.0);
+        for (Template template : templates) {
+            if (allowed.indexOf(template.symbol()) < 0) {
+                continue;
+            }
+            double score = correlation(glyph, template.grid());
+            if (score > best.score()) {
+                best = new Match(template.symbol(), score);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scales the ink of a glyph onto the normalized grid.
+     * The glyph is scaled to the grid height and centred horizontally, so that narrow
+     * characters such as 1 keep their shape instead of being stretched.
+     * @param ink Ink mask of the whole image, row by row
+     * @param stride Width of the whole image
+     * @param left Left edge of the glyph
+     * @param top Top edge of the glyph
+     * @param width Width of the glyph
+     * @param height Height of the glyph
+     * @return Ink coverage of every grid cell from 0 to 1
+     */
+    static float[] normalize(boolean[] ink, int stride, int left, int top, int width, int height) {
+        float[] grid = new float[GRID_WIDTH * GRID_HEIGHT];
+        double scale = (double) GRID_HEIGHT / height;
+        int scaledWidth = Math.max(1, Math.min(GRID_WIDTH, (int) Math.round(width * scale)));
+        int offset = (GRID_WIDTH - scaledWidth) / 2;
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            int y0 = top + gy * height / GRID_HEIGHT;
+            int y1 = Math.max(y0 + 1, top + (gy + 1) * height / GRID_HEIGHT);
+            for (int gx = 0; gx < scaledWidth; gx++) {
+                int x0 = left + gx * width / scaledWidth;
+                int x1 = Math.max(x0 + 1, left + (gx + 1) * width / scaledWidth);
+                int covered = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        if (ink[y * stride + x]) {
+                            covered++;
+                        }
+                    }
+                }
+                grid[gy * GRID_WIDTH + offset + gx] = (float) covered / ((y1 - y0) * (x1 - x0));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Renders one symbol and normalizes its ink.
+     * @return Normalized grid, or null if the font has no ink for the symbol
+     */
+    private static float[] render(Font font, char symbol) {
+        int size = RENDER_SIZE * 2;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, size, size);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(font);
+        FontMetrics metrics = graphics.getFontMetrics();
+        graphics.drawString(String.valueOf(symbol), RENDER_SIZE / 2, metrics.getAscent());
+        graphics.dispose();
+
+        boolean[] ink = new boolean[size * size];
+        int minX = size;
+        int minY = size;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if ((image.getRaster().getSample(x, y, 0)) < 128) {
+                    ink[y * size + x] = true;
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX < 0) {
+            return null;
+        }
+        return normalize(ink, size, minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Gets the Pearson correlation of two grids, clamped to 0 to 1.
+     */
+    private static double correlation(float[] a, float[] b) {
+        double meanA = 0;
+        double meanB = 0;
+        for (int i = 0; i < a.length; i++) {
+            meanA += a[i];
+            meanB += b[i];
+        }
+        meanA /= a.length;
+        meanB /= b.length;
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            double da = a[i] - meanA;
+            double db = b[i] - meanB;
+            dot += da * db;
+            normA += da * da;
+            normB += db * db;
+        }
+        if (normA == 0 || normB == 0) {
+            return 0.0;
+        }
+        return Math.max(0.0, dot / Math.sqrt(normA * normB));
+    }
+
+    /**
+     * The best symbol for a glyph.
+     * @param symbol The symbol
+     * @param score How well the glyph matches it, from 0 to 1
+     */
+    record Match(char symbol, double score) {}
+
+    private record Template(char symbol, float[] grid) {}
+}
@@ -0,0 +1,214 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * Races the local engine against Azure to cap tail latency.
+ * Azure is asked first. If it has not answered within the latency budget, or fails,
+ * the local engine is started as well, and the first result holding a confident
+ * plate wins while the other branch is cancelled. Most requests therefore cost a
+ * single Azure read, and only slow ones pay for a local read on top. A local answer
+ * is never cached, so the next request for the same image goes to Azure again.
+ */
+@Component
+public class HedgedEngine implements PlateRecognitionEngine {
+    /** Name the engine is selected by. */
+    public static final String NAME = "hedged";
+
+    private final AzureReadEngine primary;
+    private final LocalOcrEngine hedge;
+    private final long delayMs;
+    private final double minConfidence;
+    private final MeterRegistry meterRegistry;
+    private final Counter hedgeCounter;
+
+    /**
+     * Constructs a new HedgedEngine.
+     * @param primary The Azure engine, asked first
+     * @param hedge The local engine, started when Azure is slow or fails
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the hedging metrics
+     */
+    public HedgedEngine(
+            AzureReadEngine primary,
+            LocalOcrEngine hedge,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.hedge = hedge;
+        this.delayMs = properties.getHedging().getDelay().toMillis();
+        this.minConfidence = properties.getHedging().getMinConfidence();
+        this.meterRegistry = meterRegistry;
+        this.hedgeCounter =
+                Counter.builder("licenseplate.hedge.started")
+                        .description("Local reads started because Azure was slow or failed")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Recognizes an image with Azure, hedged by the local engine.
+     * Cancelling the returned future cancels both branches.
+     * @param image The raw image bytes
+     * @return Future completed with the winning recognition
+     */
+    @Override
+    public CompletableFuture<Recognition> recognize(byte[] image) {
+        Race race = new Race(image);
+        race.startPrimary();
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(race::startHedge);
+        return race.result;
+    }
+
+    /**
+     * Checks whether a recognition holds a plate good enough to end the race.
+     * Plates without a confidence score passed the plate pattern, which is all
+     * Azure can tell us about them.
+     * @param recognition The recognition
+     * @return true if any plate is confident
+     */
+    private boolean isConfident(Recognition recognition) {
+        for (PlateDto plate : recognition.plates()) {
+            if (plate.getConfidence() == null || plate.getConfidence() >= minConfidence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The two branches of one recognition and what each has produced so far.
+     */
+    private final class Race {
+        private final byte[] image;
+        private final CompletableFuture<Recognition> result = new CompletableFuture<>();
+        private CompletableFuture<Recognition> primaryRun;
+        private CompletableFuture<Recognition> hedgeRun;
+        private boolean primaryDone;
+        private Recognition primaryResult;
+        private Throwable primaryError;
+        private boolean hedgeDone;
+        private Recognition hedgeResult;
+        private boolean decided;
+
+        Race(byte[] image) {
+            this.image = image;
+            result.whenComplete(
+                    (recognition, e) -> {
+                        if (result.isCancelled()) {
+                            cancelBranches();
+                        }
+                    });
+        }
+
+        void startPrimary() {
+            CompletableFuture<Recognition> run = primary.recognize(image);
+            synchronized (this) {
+                primaryRun = run;
+            }
+            run.whenComplete(this::primaryFinished);
+        }
+
+        void startHedge() {
+            CompletableFuture<Recognition> run;
+            synchronized (this) {
+                if (result.isDone() || hedgeRun != null) {
+                    return;
+                }
+                hedgeCounter.increment();
+                run = hedge.recognize(image);
+                hedgeRun = run;
+            }
+            run.whenComplete(this::hedgeFinished);
+        }
+
+        private void primaryFinished(Recognition recognition, Throwable e) {
+            boolean startHedge;
+            synchronized (this) {
+                if (decided || result.isDone()) {
+                    return;
+                }
+                primaryDone = true;
+                primaryResult = recognition;
+                primaryError = e;
+                if (e == null && isConfident(recognition)) {
+                    win(recognition, "primary");
+                    return;
+                }
+                // A failed Azure read is worth hedging at once rather than at the deadline.
+                startHedge = e != null && hedgeRun == null;
+                if (!startHedge && (hedgeRun == null || hedgeDone)) {
+                    settle();
+                    return;
+                }
+            }
+            if (startHedge) {
+                startHedge();
+            }
+        }
+
+        private synchronized void hedgeFinished(Recognition recognition, Throwable e) {
+            if (decided || result.isDone()) {
+                return;
+            }
+            hedgeDone = true;
+            hedgeResult = e == null ? recognition : null;
+            if (e == null && isConfident(recognition)) {
+                win(recognition, "hedge");
+            } else if (primaryDone) {
+                settle();
+            }
+        }
+
+        /**
+         * Ends the race without a confident winner. Azure's answer is preferred, then
+         * the local one, and Azure's error is reported if neither produced anything.
+         */
+        private void settle() {
+            if (primaryResult != null) {
+                finish(primaryResult, "primary");
+            } else if (hedgeResult != null) {
+                finish(hedgeResult, "hedge");
+            } else {
+                meterRegistry.counter("licenseplate.hedge.outcome", "winner", "none").increment();
+                result.completeExceptionally(primaryError);
+            }
+        }
+
+        private void win(Recognition recognition, String winner) {
+            // The loser is cancelled before the caller sees the result.
+            decided = true;
+            cancelBranches();
+            finish(recognition, winner);
+        }
+
+        private void finish(Recognition recognition, String winner) {
+            Recognition answer =
+                    "hedge".equals(winner)
+                            ? new Recognition(recognition.plates(), false, recognition.engine())
+                            : recognition;
+            if (result.complete(answer)) {
+                meterRegistry.counter("licenseplate.hedge.outcome", "winner", winner).increment();
+            }
+        }
+
+        private synchronized void cancelBranches() {
+            if (primaryRun != null) {
+                primaryRun.cancel(true);
+            }
+            if (hedgeRun != null) {
+                hedgeRun.cancel(true);
+            }
+        }
+    }
+}
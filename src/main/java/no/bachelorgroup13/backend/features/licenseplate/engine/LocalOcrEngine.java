@@ -0,0 +1,318 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads plates on the local CPU without calling any service.
+ * Plate regions are found by the region detector, binarised with Otsu's threshold,
+ * split into characters by connected components and matched against rendered
+ * templates. Norwegian plates have two letters followed by five digits, so the
+ * characters are matched against letters or digits by position.
+ */
+@Component
+public class LocalOcrEngine implements PlateRecognitionEngine {
+    /** Name the engine is selected by. */
+    public static final String NAME = "local";
+
+    private static final int PLATE_LENGTH = 7;
+    private static final int LETTER_COUNT = 2;
+    private static final int MIN_CHAR_HEIGHT = 8;
+
+    private final PlateRegionDetector plateRegionDetector;
+    private final ImagePreprocessor imagePreprocessor;
+    private final PlateMatcher plateMatcher;
+    private final Executor executor;
+    private final double minConfidence;
+    private final GlyphClassifier classifier = new GlyphClassifier();
+
+    /**
+     * Constructs a new LocalOcrEngine.
+     * @param plateRegionDetector Finds plate-shaped regions to read
+     * @param imagePreprocessor Decodes the uploaded images
+     * @param plateMatcher Checks the characters read against the plate grammars
+     * @param properties Azure Cognitive Services configuration properties
+     * @param executor Executor the reads run on
+     */
+    public LocalOcrEngine(
+            PlateRegionDetector plateRegionDetector,
+            ImagePreprocessor imagePreprocessor,
+            PlateMatcher plateMatcher,
+            LicensePlateProperties properties,
+            @Qualifier("licensePlateExecutor") Executor executor) {
+        this.plateRegionDetector = plateRegionDetector;
+        this.imagePreprocessor = imagePreprocessor;
+        this.plateMatcher = plateMatcher;
+        this.executor = executor;
+        this.minConfidence = properties.getLocal().getMinConfidence();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Reads an image on the recognition executor.
+     * @param image The raw image bytes
+     * @return Future completed with the detected license plates, or failed at once
+     *     if the executor is full
+     */
+    @Override
+    public CompletableFuture<Recognition> recognize(byte[] image) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> new Recognition(read(image), true, NAME), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Reads every plate in an image.
+     * @param image The raw image bytes
+     * @return Plates in image coordinates, empty if the image cannot be decoded
+     */
+    List<PlateDto> read(byte[] image) {
+        BufferedImage frame = imagePreprocessor.decode(image);
+        if (frame == null) {
+            return List.of();
+        }
+        List<PlateDto> plates = new ArrayList<>();
+        for (Rectangle region : plateRegionDetector.detect(frame)) {
+            PlateDto plate = readRegion(frame, region);
+            if (plate != null
+                    && plates.stream().noneMatch(p -> p.getText().equals(plate.getText()))) {
+                plates.add(plate);
+            }
+        }
+        return plates;
+    }
+
+    /**
+     * Reads the plate in one region, trying dark text on a light plate first.
+     * @param frame The decoded frame
+     * @param region Region of the frame that may hold a plate
+     * @return The plate, or null if the region does not read as one
+     */
+    private PlateDto readRegion(BufferedImage frame, Rectangle region) {
+        int[] grey = grey(frame, region);
+        int threshold = otsu(grey);
+        PlateDto best = null;
+        for (boolean darkText : new boolean[] {true, false}) {
+            boolean[] ink = new boolean[grey.length];
+            for (int i = 0; i < grey.length; i++) {
+                ink[i] = darkText ? grey[i] < threshold : grey[i] >= threshold;
+            }
+            PlateDto plate = readCharacters(ink, region);
+            if (plate != null && (best == null || plate.getConfidence() > best.getConfidence())) {
+                best = plate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Segments the characters of a binarised region and classifies them.
+     * @param ink Ink mask of the region
+     * @param region The region in frame coordinates
+     * @return The plate, or null if no plate-length run of characters matches well
+     */
+    private PlateDto readCharacters(boolean[] ink, Rectangle region) {
+        List<Rectangle> characters = characterRow(components(ink, region.width, region.height));
+        if (characters.size() < PLATE_LENGTH) {
+            return null;
+        }
+        List<float[]> glyphs = new ArrayList<>();
+        for (Rectangle character : characters) {
+            glyphs.add(
+                    GlyphClassifier.normalize(
+                            ink,
+                            region.width,
+                            character.x,
+                            character.y,
+                            character.width,
+                            character.height));
+        }
+
+        PlateDto best = null;
+        for (int start = 0; start + PLATE_LENGTH <= glyphs.size(); start++) {
+            StringBuilder text = new StringBuilder();
+            double total = 0;
+            for (int i = 0; i < PLATE_LENGTH; i++) {
+                String allowed =
+                        i < LETTER_COUNT ? GlyphClassifier.LETTERS : GlyphClassifier.DIGITS;
+                GlyphClassifier.Match match = classifier.classify(glyphs.get(start + i), allowed);
+                text.append(match.symbol());
+                total += match.score();
+            }
+            double confidence = total / PLATE_LENGTH;
+            if (confidence >= minConfidence
+                    && (best == null || confidence > best.getConfidence())) {
+                List<Integer> bbox =
+                        enclosingBox(characters.subList(start, start + PLATE_LENGTH), region);
+                PlateDto plate = plateMatcher.match(text, bbox, confidence);
+                if (plate != null) {
+                    best = plate;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the largest group of components with the same height on the same baseline,
+     * which is the row of characters on a plate.
+     * @param components Component boxes in region coordinates
+     * @return The characters from left to right
+     */
+    private static List<Rectangle> characterRow(List<Rectangle> components) {
+        List<Rectangle> row = List.of();
+        for (Rectangle reference : components) {
+            List<Rectangle> aligned = new ArrayList<>();
+            for (Rectangle other : components) {
+                if (Math.abs(other.height - reference.height) <= reference.height * 0.2
+                        && Math.abs(other.getCenterY() - reference.getCenterY())
+                                <= reference.height * 0.3) {
+                    aligned.add(other);
+                }
+            }
+            if (aligned.size() > row.size()) {
+                row = aligned;
+            }
+        }
+        List<Rectangle> sorted = new ArrayList<>(row);
+        sorted.sort(Comparator.comparingInt(r -> r.x));
+        return sorted;
+    }
+
+    /**
+     * Collects the 8-connected ink blobs that could be characters.
+     * Blobs touching the region border belong to the surroundings and are skipped.
+     * @param ink Ink mask of the region
+     * @param width Width of the region
+     * @param height Height of the region
+     * @return Bounding boxes of character-shaped blobs
+     */
+    private static List<Rectangle> components(boolean[] ink, int width, int height) {
+        List<Rectangle> found = new ArrayList<>();
+        boolean[] visited = new boolean[ink.length];
+        int[] stack = new int[ink.length];
+        for (int start = 0; start < ink.length; start++) {
+            if (!ink[start] || visited[start]) {
+                continue;
+            }
+            int minX = width;
+            int minY = height;
+            int maxX = -1;
+            int maxY = -1;
+            int top = 0;
+            stack[top++] = start;
+            visited[start] = true;
+            while (top > 0) {
+                int index = stack[--top];
+                int x = index % width;
+                int y = index / width;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int nx = x + dx;
+                        int ny = y + dy;
+                        if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                            continue;
+                        }
+                        int next = ny * width + nx;
+                        if (ink[next] && !visited[next]) {
+                            visited[next] = true;
+                            stack[top++] = next;
+                        }
+                    }
+                }
+            }
+            Rectangle box = new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+            boolean touchesBorder =
+                    minX == 0 || minY == 0 || maxX == width - 1 || maxY == height - 1;
+            if (!touchesBorder
+                    && box.height >= MIN_CHAR_HEIGHT
+                    && box.width <= box.height * 1.2
+                    && box.height <= box.width * 8) {
+                found.add(box);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets Otsu's threshold, which best separates the two brightness classes.
+     */
+    private static int otsu(int[] grey) {
+        int[] histogram = new int[256];
+        for (int value : grey) {
+            histogram[value]++;
+        }
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += (long) i * histogram[i];
+        }
+        long sumBelow = 0;
+        int countBelow = 0;
+        double bestVariance = -1;
+        int threshold = 128;
+        for (int t = 0; t < 256; t++) {
+            countBelow += histogram[t];
+            if (countBelow == 0) {
+                continue;
+            }
+            int countAbove = grey.length - countBelow;
+            if (countAbove == 0) {
+                break;
+            }
+            sumBelow += (long) t * histogram[t];
+            double meanBelow = (double) sumBelow / countBelow;
+            double meanAbove = (double) (sum - sumBelow) / countAbove;
+            double variance = (double) countBelow * countAbove * Math.pow(meanBelow - meanAbove, 2);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = t + 1;
+            }
+        }
+        return threshold;
+    }
+
+    private static int[] grey(BufferedImage frame, Rectangle region) {
+        int[] rgb =
+                frame.getRGB(
+                        region.x, region.y, region.width, region.height, null, 0, region.width);
+        int[] grey = new int[rgb.length];
+        for (int i = 0; i < rgb.length; i++) {
+            int r = (rgb[i] >> 16) & 0xFF;
+            int g = (rgb[i] >> 8) & 0xFF;
+            int b = rgb[i] & 0xFF;
+            grey[i] = (r * 299 + g * 587 + b * 114) / 1000;
+        }
+        return grey;
+    }
+
+    private static List<Integer> enclosingBox(List<Rectangle> characters, Rectangle region) {
+        int left = characters.stream().mapToInt(r -> r.x).min().orElse(0) + region.x;
+        int top = characters.stream().mapToInt(r -> r.y).min().orElse(0) + region.y;
+        int right = characters.stream().mapToInt(r -> r.x + r.width).max().orElse(0) + region.x;
+        int bottom = characters.stream().mapToInt(r -> r.y + r.height).max().orElse(0) + region.y;
+        return List.of(left, top, right, top, right, bottom, left, bottom);
+    }
+}
@@ -0,0 +1,30 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+/**
+ * A license plate format that normalized text can be checked against.
+ */
+public interface PlateGrammar {
+    /**
+     * Gets the name the grammar is enabled by and reported as.
+     * @return Grammar name
+     */
+    String getName();
+
+    /**
+     * Checks whether normalized text has this format. Must not allocate.
+     * @param plate Text packed by {@link PlateText#encode}
+     * @return true if the text is a plate of this format
+     */
+    boolean matches(long plate);
+
+    /**
+     * Repairs characters that Azure confuses, such as 0 and O, where the format
+     * expects the other kind. Must not allocate.
+     * @param plate Text packed by {@link PlateText#encode}
+     * @return The repaired text with as few changes as possible, or
+     *     {@link PlateText#INVALID} if the text cannot be repaired into this format
+     */
+    default long correct(long plate) {
+        return PlateText.INVALID;
+    }
+}
@@ -0,0 +1,200 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The plate grammars that can be enabled by name.
+ * Most are written as shapes, where @ is a letter from A to Z, # is a digit,
+ * * is any letter or digit and every other character must appear as it is.
+ */
+public final class PlateGrammars {
+    /** Norwegian plates with two letters and five digits, such as AB 12345. */
+    public static final String STANDARD = "standard";
+
+    /** Norwegian electric vehicle plates, such as EL 12345 and EK 12345. */
+    public static final String ELECTRIC = "electric";
+
+    /** Norwegian diplomatic plates, CD followed by five digits. */
+    public static final String DIPLOMATIC = "diplomatic";
+
+    /** Norwegian personalised plates of two to seven letters and digits. */
+    public static final String PERSONALISED = "personalised";
+
+    /** Common plate formats from other EU countries. */
+    public static final String EU = "eu";
+
+    private PlateGrammars() {}
+
+    /**
+     * Creates a grammar by name.
+     * @param name Name of the grammar
+     * @param electricPrefixes Letter pairs used on electric vehicle plates
+     * @return The grammar
+     * @throws IllegalArgumentException if no grammar has the name
+     */
+    public static PlateGrammar byName(String name, List<String> electricPrefixes) {
+        return switch (name) {
+            case STANDARD -> new ShapeGrammar(STANDARD, List.of("@@#####"));
+            case ELECTRIC -> new ShapeGrammar(
+                    ELECTRIC, electricPrefixes.stream().map(prefix -> prefix + "#####").toList());
+            case DIPLOMATIC -> new ShapeGrammar(DIPLOMATIC, List.of("CD#####"));
+            case PERSONALISED -> new PersonalisedGrammar();
+            case EU -> new ShapeGrammar(EU, euShapes());
+            default -> throw new IllegalArgumentException("Unknown plate grammar: " + name);
+        };
+    }
+
+    /**
+     * Gets the EU shapes: Swedish and Finnish plates with three letters and three
+     * characters, and German plates with two to five letters and one to four digits.
+     */
+    private static List<String> euShapes() {
+        List<String> shapes = new ArrayList<>(List.of("@@@###", "@@@##@", "@@@##", "@@###"));
+        for (int letters = 2; letters <= 5; letters++) {
+            for (int digits = 1; digits <= 4 && letters + digits <= 8; digits++) {
+                shapes.add("@".repeat(letters) + "#".repeat(digits));
+            }
+        }
+        return shapes;
+    }
+
+    /**
+     * A grammar made of fixed-length shapes.
+     */
+    static final class ShapeGrammar implements PlateGrammar {
+        private final String name;
+        private final String[] shapes;
+
+        ShapeGrammar(String name, List<String> shapes) {
+            this.name = name;
+            this.shapes = shapes.stream().distinct().toArray(String[]::new);
+            for (String shape : this.shapes) {
+                if (shape.length() > PlateText.MAX_LENGTH) {
+                    throw new IllegalArgumentException("Plate shape is too long: " + shape);
+                }
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean matches(long plate) {
+            int length = PlateText.length(plate);
+            for (String shape : shapes) {
+                if (shape.length() == length && matchesShape(plate, shape)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long correct(long plate) {
+            int length = PlateText.length(plate);
+            long best = PlateText.INVALID;
+            int bestChanges = Integer.MAX_VALUE;
+            for (String shape : shapes) {
+                if (shape.length() != length) {
+                    continue;
+                }
+                long corrected = correctShape(plate, shape);
+                if (corrected != PlateText.INVALID) {
+                    int changes = PlateText.differences(plate, corrected);
+                    if (changes < bestChanges) {
+                        best = corrected;
+                        bestChanges = changes;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Repairs text into a shape. A repair may fix single characters but never
+         * makes up all of the letters or all of the digits, so a number on a sign
+         * does not become a plate.
+         */
+        private static long correctShape(long plate, String shape) {
+            long corrected = plate;
+            boolean wantsLetter = false;
+            boolean wantsDigit = false;
+            boolean hasLetter = false;
+            boolean hasDigit = false;
+            for (int i = 0; i < shape.length(); i++) {
+                int symbol = PlateText.symbolAt(plate, i);
+                int wanted =
+                        switch (shape.charAt(i)) {
+                            case '@' -> {
+                                wantsLetter = true;
+                                hasLetter |= PlateText.isAsciiLetter(symbol);
+                                int letter = PlateText.asLetter(symbol);
+                                yield PlateText.isAsciiLetter(letter) ? letter : -1;
+                            }
+                            case '#' -> {
+                                wantsDigit = true;
+                                hasDigit |= PlateText.isDigit(symbol);
+                                yield PlateText.asDigit(symbol);
+                            }
+                            case '*' -> symbol;
+                            default -> {
+                                int literal = PlateText.symbolOf(shape.charAt(i));
+                                yield PlateText.confusable(symbol, literal) ? literal : -1;
+                            }
+                        };
+                if (wanted < 0) {
+                    return PlateText.INVALID;
+                }
+                corrected = PlateText.withSymbol(corrected, i, wanted);
+            }
+            return wantsLetter != hasLetter || wantsDigit != hasDigit
+                    ? PlateText.INVALID
+                    : corrected;
+        }
+
+        private static boolean matchesShape(long plate, String shape) {
+            for (int i = 0; i < shape.length(); i++) {
+                int symbol = PlateText.symbolAt(plate, i);
+                boolean ok =
+                        switch (shape.charAt(i)) {
+                            case '@' -> PlateText.isAsciiLetter(symbol);
+                            case '#' -> PlateText.isDigit(symbol);
+                            case '*' -> true;
+                            default -> PlateText.symbolOf(shape.charAt(i)) == symbol;
+                        };
+                if (!ok) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Personalised plates have two to seven letters, including Æ, Ø and Å, and
+     * digits. At least one letter is required so that numbers on signs do not match.
+     */
+    static final class PersonalisedGrammar implements PlateGrammar {
+        @Override
+        public String getName() {
+            return PERSONALISED;
+        }
+
+        @Override
+        public boolean matches(long plate) {
+            int length = PlateText.length(plate);
+            if (length < 2 || length > 7) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (PlateText.isLetter(PlateText.symbolAt(plate, i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
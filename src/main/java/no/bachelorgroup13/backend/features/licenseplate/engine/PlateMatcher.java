@@ -0,0 +1,174 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a line of recognized text is a license plate.
+ * The line is normalized in one pass over its characters and checked against the
+ * enabled grammars in order, and the first match wins. Text that matches no grammar
+ * as it is gets a second chance with characters Azure often confuses, such as 0
+ * and O, swapped to what the grammar expects at each position. Nothing is
+ * allocated for a line that is not a plate.
+ */
+@Component
+public class PlateMatcher {
+    private static final int NOT_FOUND = -1;
+
+    private final PlateGrammar[] grammars;
+    private final int maxCorrections;
+    private final double correctionPenalty;
+
+    /**
+     * Constructs a new PlateMatcher with the configured grammars.
+     * @param properties Azure Cognitive Services configuration properties
+     */
+    public PlateMatcher(LicensePlateProperties properties) {
+        this(
+                properties.getPlates().getGrammars().stream()
+                        .map(
+                                name ->
+                                        PlateGrammars.byName(
+                                                name, properties.getPlates().getElectricPrefixes()))
+                        .toList(),
+                properties.getPlates().getMaxCorrections(),
+                properties.getPlates().getCorrectionPenalty());
+    }
+
+    /**
+     * Constructs a new PlateMatcher.
+     * @param grammars Grammars to check, in order
+     * @param maxCorrections Most confused characters repaired in one plate, 0 to turn
+     *     repairs off
+     * @param correctionPenalty How much each repaired character lowers the score
+     */
+    public PlateMatcher(List<PlateGrammar> grammars, int maxCorrections, double correctionPenalty) {
+        this.grammars = grammars.toArray(PlateGrammar[]::new);
+        this.maxCorrections = maxCorrections;
+        this.correctionPenalty = correctionPenalty;
+    }
+
+    /**
+     * Normalizes a line of text and matches it against the plate grammars.
+     * @param text The recognized text
+     * @param bbox Bounding box of the text
+     * @param confidence Confidence of the engine in the text, or null if unknown
+     * @return The plate, or null if the text is not a plate
+     */
+    public PlateDto match(CharSequence text, List<Integer> bbox, Double confidence) {
+        long plate = encode(text);
+        int found = find(plate);
+        return found == NOT_FOUND ? null : plate(plate, found, bbox, confidence);
+    }
+
+    /**
+     * Normalizes a line of text and matches it against the plate grammars.
+     * The bounding box is only copied into a list for lines that are plates.
+     * @param text The recognized text
+     * @param bbox Bounding box of the text
+     * @param confidence Confidence of the engine in the text, or null if unknown
+     * @return The plate, or null if the text is not a plate
+     */
+    public PlateDto match(CharSequence text, int[] bbox, Double confidence) {
+        long plate = encode(text);
+        int found = find(plate);
+        if (found == NOT_FOUND) {
+            return null;
+        }
+        return plate(plate, found, box(bbox), confidence);
+    }
+
+    /**
+     * Matches two lines read as one, without joining their text.
+     * @param left The line on the left
+     * @param right The line on the right
+     * @param bbox Bounding box of both lines
+     * @param confidence Confidence of the engine in the text, or null if unknown
+     * @return The plate, or null if the lines together are not a plate
+     */
+    public PlateDto match(CharSequence left, CharSequence right, int[] bbox, Double confidence) {
+        long plate = PlateText.join(encode(left), encode(right));
+        int found = find(plate);
+        return found == NOT_FOUND ? null : plate(plate, found, box(bbox), confidence);
+    }
+
+    /**
+     * Checks a line against the plate grammars without building the plate.
+     * @param text The recognized text
+     * @return true if the text is a plate
+     */
+    public boolean matches(CharSequence text) {
+        return find(encode(text)) != NOT_FOUND;
+    }
+
+    /**
+     * Checks two lines read as one against the plate grammars without joining them.
+     * @param left The line on the left
+     * @param right The line on the right
+     * @return true if the lines together are a plate
+     */
+    public boolean matches(CharSequence left, CharSequence right) {
+        return find(PlateText.join(encode(left), encode(right))) != NOT_FOUND;
+    }
+
+    private static List<Integer> box(int[] bbox) {
+        List<Integer> box = new ArrayList<>(bbox == null ? 0 : bbox.length);
+        if (bbox != null) {
+            for (int value : bbox) {
+                box.add(value);
+            }
+        }
+        return box;
+    }
+
+    private static long encode(CharSequence text) {
+        return text == null ? PlateText.INVALID : PlateText.encode(text);
+    }
+
+    /**
+     * Finds the first grammar the text matches as it is, or else the first one it
+     * matches after repairing at most the allowed number of confused characters.
+     * @param plate Packed text
+     * @return Index of the grammar, offset by the number of grammars if the text had
+     *     to be repaired, or NOT_FOUND if the text is not a plate
+     */
+    private int find(long plate) {
+        if (plate == PlateText.INVALID) {
+            return NOT_FOUND;
+        }
+        for (int i = 0; i < grammars.length; i++) {
+            if (grammars[i].matches(plate)) {
+                return i;
+            }
+        }
+        if (maxCorrections == 0) {
+            return NOT_FOUND;
+        }
+        for (int i = 0; i < grammars.length; i++) {
+            long corrected = grammars[i].correct(plate);
+            if (corrected != PlateText.INVALID
+                    && PlateText.differences(plate, corrected) <= maxCorrections) {
+                return grammars.length + i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Builds the plate for a match. Every repaired character lowers the score by the
+     * correction penalty, starting from the confidence of the engine, or 1 if unknown.
+     */
+    private PlateDto plate(long plate, int found, List<Integer> bbox, Double confidence) {
+        PlateGrammar grammar = grammars[found % grammars.length];
+        long text = found < grammars.length ? plate : grammar.correct(plate);
+        int corrections = PlateText.differences(plate, text);
+        double score =
+                Math.max(
+                        0.0,
+                        (confidence == null ? 1.0 : confidence) - corrections * correctionPenalty);
+        return new PlateDto(PlateText.toString(text), bbox, confidence, grammar.getName(), score);
+    }
+}
@@ -0,0 +1,24 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads license plates from an image.
+ * Implementations may call out to a remote service or work entirely on the local CPU,
+ * and are selected by name through azure.cognitiveservices.engine.
+ */
+public interface PlateRecognitionEngine {
+
+    /**
+     * Gets the name the engine is selected by.
+     * @return Engine name
+     */
+    String getName();
+
+    /**
+     * Recognizes the license plates in an image.
+     * @param image The raw image bytes
+     * @return Future completed with the plates in original image coordinates
+     */
+    CompletableFuture<Recognition> recognize(byte[] image);
+}
@@ -0,0 +1,245 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+/**
+ * Normalized plate text packed into a single long, so that lines can be checked
+ * against the plate grammars without creating any objects.
+ * Every symbol takes 6 bits, digits first, then A to Z, then Æ, Ø and Å. The top
+ * 4 bits hold the number of symbols, which is at most {@link #MAX_LENGTH}.
+ */
+public final class PlateText {
+    /** Most symbols a plate may have. */
+    public static final int MAX_LENGTH = 10;
+
+    /** Returned by {@link #encode} for text that cannot be a plate. */
+    public static final long INVALID = -1L;
+
+    private static final int BITS = 6;
+    private static final int FIRST_LETTER = 10;
+    private static final int LAST_ASCII_LETTER = FIRST_LETTER + 25;
+    private static final String EXTRA_LETTERS = "ÆØÅ";
+
+    // Characters Azure often reads as each other, as digit and letter pairs.
+    private static final String CONFUSABLE_DIGITS = "0000112568";
+    private static final String CONFUSABLE_LETTERS = "ODQØILZSGB";
+
+    private PlateText() {}
+
+    /**
+     * Normalizes text in a single pass. Whitespace, dashes and colons are dropped and
+     * letters are upper-cased.
+     * @param text The recognized text
+     * @return The packed symbols, or {@link #INVALID} if the text holds other
+     *     characters or is too long
+     */
+    public static long encode(CharSequence text) {
+        long symbols = 0;
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '-' || c == ':' || (c >= '\t' && c <= '\r')) {
+                continue;
+            }
+            int symbol = symbolOf(c);
+            if (symbol < 0 || length == MAX_LENGTH) {
+                return INVALID;
+            }
+            symbols |= (long) symbol << (BITS * length);
+            length++;
+        }
+        return symbols | ((long) length << (BITS * MAX_LENGTH));
+    }
+
+    /**
+     * Joins two packed texts, as if their text had been encoded together.
+     * @param left Packed symbols that come first
+     * @param right Packed symbols that follow
+     * @return The packed symbols of both, or {@link #INVALID} if either is invalid or
+     *     they are too long together
+     */
+    public static long join(long left, long right) {
+        if (left == INVALID || right == INVALID) {
+            return INVALID;
+        }
+        int length = length(left);
+        int total = length + length(right);
+        if (total > MAX_LENGTH) {
+            return INVALID;
+        }
+        long mask = (1L << (BITS * MAX_LENGTH)) - 1;
+        return (left & mask)
+                | ((right & mask) << (BITS * length))
+                | ((long) total << (BITS * MAX_LENGTH));
+    }
+
+    /**
+     * Gets the number of symbols.
+     * @param plate Packed symbols
+     * @return Number of symbols
+     */
+    public static int length(long plate) {
+        return (int) (plate >>> (BITS * MAX_LENGTH));
+    }
+
+    /**
+     * Gets one symbol.
+     * @param plate Packed symbols
+     * @param index Position of the symbol
+     * @return Symbol code
+     */
+    public static int symbolAt(long plate, int index) {
+        return (int) (plate >>> (BITS * index)) & ((1 << BITS) - 1);
+    }
+
+    /**
+     * Checks whether a symbol is a digit.
+     * @param symbol Symbol code
+     * @return true for 0 to 9
+     */
+    public static boolean isDigit(int symbol) {
+        return symbol < FIRST_LETTER;
+    }
+
+    /**
+     * Checks whether a symbol is one of the letters A to Z.
+     * @param symbol Symbol code
+     * @return true for A to Z, false for digits and Æ, Ø and Å
+     */
+    public static boolean isAsciiLetter(int symbol) {
+        return symbol >= FIRST_LETTER && symbol <= LAST_ASCII_LETTER;
+    }
+
+    /**
+     * Checks whether a symbol is a letter, including Æ, Ø and Å.
+     * @param symbol Symbol code
+     * @return true for letters
+     */
+    public static boolean isLetter(int symbol) {
+        return symbol >= FIRST_LETTER;
+    }
+
+    /**
+     * Reads a symbol as a letter, swapping digits for the letter they are most often
+     * read for. Use {@link #confusable} where a particular letter is expected.
+     * @param symbol Symbol code
+     * @return Letter symbol code, or -1 if the symbol does not look like a letter
+     */
+    public static int asLetter(int symbol) {
+        if (isLetter(symbol)) {
+            return symbol;
+        }
+        int index = CONFUSABLE_DIGITS.indexOf(charOf(symbol));
+        return index < 0 ? -1 : symbolOf(CONFUSABLE_LETTERS.charAt(index));
+    }
+
+    /**
+     * Reads a symbol as a digit, swapping letters that look like a digit.
+     * @param symbol Symbol code
+     * @return Digit symbol code, or -1 if the symbol does not look like a digit
+     */
+    public static int asDigit(int symbol) {
+        if (isDigit(symbol)) {
+            return symbol;
+        }
+        int index = CONFUSABLE_LETTERS.indexOf(charOf(symbol));
+        return index < 0 ? -1 : symbolOf(CONFUSABLE_DIGITS.charAt(index));
+    }
+
+    /**
+     * Checks whether a symbol may have been read for another, such as 0 for O, D or
+     * Q, or 8 for B.
+     * @param symbol Symbol code that was read
+     * @param expected Symbol code that was expected
+     * @return true if the symbols are the same or a confusable digit and letter
+     */
+    public static boolean confusable(int symbol, int expected) {
+        if (symbol == expected) {
+            return true;
+        }
+        char read = charOf(symbol);
+        char wanted = charOf(expected);
+        for (int i = 0; i < CONFUSABLE_DIGITS.length(); i++) {
+            char digit = CONFUSABLE_DIGITS.charAt(i);
+            char letter = CONFUSABLE_LETTERS.charAt(i);
+            if ((read == digit && wanted == letter) || (read == letter && wanted == digit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces one symbol.
+     * @param plate Packed symbols
+     * @param index Position of the symbol
+     * @param symbol New symbol code
+     * @return The packed symbols with the replacement
+     */
+    public static long withSymbol(long plate, int index, int symbol) {
+        int shift = BITS * index;
+        return (plate & ~(((1L << BITS) - 1) << shift)) | ((long) symbol << shift);
+    }
+
+    /**
+     * Counts the positions where two texts of the same length differ.
+     * @param a Packed symbols
+     * @param b Packed symbols
+     * @return Number of differing symbols
+     */
+    public static int differences(long a, long b) {
+        int count = 0;
+        for (int i = 0; i < length(a); i++) {
+            if (symbolAt(a, i) != symbolAt(b, i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the code of a character.
+     * @param c The character, in either case
+     * @return Symbol code, or -1 if the character cannot be on a plate
+     */
+    public static int symbolOf(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return FIRST_LETTER + c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return FIRST_LETTER + c - 'a';
+        }
+        int extra = EXTRA_LETTERS.indexOf(Character.toUpperCase(c));
+        return extra < 0 ? -1 : LAST_ASCII_LETTER + 1 + extra;
+    }
+
+    /**
+     * Gets the character of a symbol code.
+     * @param symbol Symbol code
+     * @return The upper-case character
+     */
+    public static char charOf(int symbol) {
+        if (isDigit(symbol)) {
+            return (char) ('0' + symbol);
+        }
+        if (isAsciiLetter(symbol)) {
+            return (char) ('A' + symbol - FIRST_LETTER);
+        }
+        return EXTRA_LETTERS.charAt(symbol - LAST_ASCII_LETTER - 1);
+    }
+
+    /**
+     * Unpacks the symbols into text.
+     * @param plate Packed symbols
+     * @return The normalized text
+     */
+    public static String toString(long plate) {
+        int length = length(plate);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charOf(symbolAt(plate, i));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,21 @@
+package no.bachelorgroup13.backend.features.licenseplate.engine;
+
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+
+/**
+ * The outcome of one engine run.
+ * @param plates The plates found, in original image coordinates
+ * @param cacheable true if the result is final and may be served again for the same image
+ * @param engine Name of the engine that read the plates, or null if unknown
+ */
+public record Recognition(List<PlateDto> plates, boolean cacheable, String engine) {
+    /**
+     * Creates a recognition without naming the engine.
+     * @param plates The plates found, in original image coordinates
+     * @param cacheable true if the result is final and may be served again for the same image
+     */
+    public Recognition(List<PlateDto> plates, boolean cacheable) {
+        this(plates, cacheable, null);
+    }
+}
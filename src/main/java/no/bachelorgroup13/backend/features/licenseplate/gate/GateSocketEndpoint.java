@@ -0,0 +1,458 @@
+package no.bachelorgroup13.backend.features.licenseplate.gate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.GateMessageDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Socket that gate devices keep open to stream camera frames and get the plates
+ * back on, without a new request per frame.
+ * Every binary message is one JPEG frame. It goes through the motion gate,
+ * recognition and the plate tracker, and the device gets a JSON result or error
+ * message for it, tagged with the number of the frame on the connection.
+ * Devices may only send frames they have credit for. Credits are handed out from
+ * one pool sized to what recognition can take at once, so a device can never have
+ * more than its window of frames unanswered and all devices together never more
+ * than the pool. A finished frame returns its credit to the pool, which goes to
+ * the connections waiting for credit in turn.
+ * Credit is only handed out on demand: a device starts without credit and its
+ * first frame, taken from the pool if there is room, asks for its window. Credit a
+ * device has not used for the idle timeout is taken back with a negative credit
+ * message, and its next frame asks again. Connected but quiet devices therefore
+ * hold no credit the busy ones could use.
+ */
+@Component
+public class GateSocketEndpoint extends Endpoint {
+    private static final Logger logger = LoggerFactory.getLogger(GateSocketEndpoint.class);
+
+    /** Path of the socket, with the camera of the gate as the last segment. */
+    public static final String PATH = "/license-plate/gate/{camera}";
+
+    /** Prefix of the client name gate frames are charged to. */
+    public static final String CLIENT_PREFIX = "gate:";
+
+    private static final String CONNECTION = GateSocketEndpoint.class.getName();
+
+    private final LicensePlateService licensePlateService;
+    private final MotionGate motionGate;
+    private final PlateTracker plateTracker;
+    private final ObjectMapper objectMapper;
+    private final int window;
+    private final int capacity;
+    private final int maxFrameBytes;
+    private final Semaphore credits;
+    private final Queue<Connection> waiting = new ConcurrentLinkedQueue<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new GateSocketEndpoint.
+     * @param licensePlateService Service for license plate recognition
+     * @param motionGate Drops frames that show nothing new
+     * @param plateTracker Fuses the reads of each camera into plate events
+     * @param objectMapper Writes the messages sent to the devices
+     * @param pipeline Recognition pipeline configuration properties
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the gate metrics
+     */
+    public GateSocketEndpoint(
+            LicensePlateService licensePlateService,
+            MotionGate motionGate,
+            PlateTracker plateTracker,
+            ObjectMapper objectMapper,
+            PipelineProperties pipeline,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry) {
+        this.licensePlateService = licensePlateService;
+        this.motionGate = motionGate;
+        this.plateTracker = plateTracker;
+        this.objectMapper = objectMapper;
+        this.window = Math.max(1, pipeline.getGate().getWindow());
+        this.capacity =
+                Math.max(
+                        1,
+                        pipeline.getGate().getCapacity() > 0
+                                ? pipeline.getGate().getCapacity()
+                                : properties.getResilience().getMaxConcurrent());
+        this.maxFrameBytes = pipeline.getIngestion().getMaxFrameBytes();
+        this.credits = new Semaphore(capacity);
+        this.idleTimeoutNanos = pipeline.getGate().getIdleTimeout().toNanos();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("licenseplate.gate.connections", connections, Set::size)
+                .description("Gate devices connected")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.gate.credits", this, GateSocketEndpoint::getCreditsInUse)
+                .description("Frame credits held by gate devices or in recognition")
+                .register(meterRegistry);
+
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "gate-credits");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        long sweepMs = Math.max(100, pipeline.getGate().getIdleTimeout().toMillis() / 4);
+        scheduler.scheduleWithFixedDelay(
+                () -> reclaimIdle(System.nanoTime()), sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the sweep for idle credit.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        Connection connection = new Connection(session, session.getPathParameters().get("camera"));
+        session.setMaxBinaryMessageBufferSize(maxFrameBytes);
+        session.getUserProperties().put(CONNECTION, connection);
+        session.addMessageHandler(byte[].class, (MessageHandler.Whole<byte[]>) connection::onFrame);
+        connections.add(connection);
+        logger.info("Gate {} connected", connection.camera);
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        Connection connection = (Connection) session.getUserProperties().get(CONNECTION);
+        if (connection == null) {
+            return;
+        }
+        connections.remove(connection);
+        waiting.remove(connection);
+        int unused;
+        synchronized (connection) {
+            connection.closed = true;
+            unused = connection.credits;
+            connection.credits = 0;
+        }
+        // Frames still in recognition give their credit back when they finish.
+        credits.release(unused);
+        logger.info("Gate {} disconnected: {}", connection.camera, closeReason.getReasonPhrase());
+        grantWaiting();
+    }
+
+    @Override
+    public void onError(Session session, Throwable e) {
+        logger.debug("Gate socket failed: {}", e.getMessage());
+    }
+
+    /**
+     * Gets the number of credits held by devices or by frames in recognition.
+     * @return Credits not in the pool
+     */
+    public int getCreditsInUse() {
+        return capacity - credits.availablePermits();
+    }
+
+    /**
+     * Takes back the credit of connections that have not sent a frame for the idle
+     * timeout and hands it to the connections waiting for credit.
+     * @param nowNanos Current time from System.nanoTime
+     * @return Number of credits taken back
+     */
+    public int reclaimIdle(long nowNanos) {
+        int total = 0;
+        for (Connection connection : connections) {
+            int reclaimed = 0;
+            boolean parked = false;
+            synchronized (connection) {
+                if (!connection.closed
+                        && !connection.idle
+                        && connection.inFlight == 0
+                        && nowNanos - connection.lastFrameNanos >= idleTimeoutNanos) {
+                    reclaimed = connection.credits;
+                    connection.credits = 0;
+                    connection.idle = true;
+                    connection.queued = false;
+                    parked = true;
+                }
+            }
+            if (parked) {
+                waiting.remove(connection);
+            }
+            if (reclaimed > 0) {
+                credits.release(reclaimed);
+                connection.send(GateMessageDto.credit(-reclaimed));
+                total += reclaimed;
+            }
+        }
+        if (total > 0) {
+            grantWaiting();
+        }
+        return total;
+    }
+
+    /**
+     * Tops a connection up to its window from the pool, as far as the pool allows,
+     * and queues it for more if the pool ran dry. Idle connections get nothing until
+     * they send a frame.
+     */
+    private void grant(Connection connection) {
+        int granted = 0;
+        synchronized (connection) {
+            if (connection.idle) {
+                return;
+            }
+            while (!connection.closed
+                    && connection.credits + connection.inFlight < window
+                    && credits.tryAcquire()) {
+                connection.credits++;
+                granted++;
+            }
+            if (!connection.closed
+                    && connection.credits + connection.inFlight < window
+                    && !connection.queued) {
+                connection.queued = true;
+                waiting.add(connection);
+            }
+        }
+        if (granted > 0) {
+            connection.send(GateMessageDto.credit(granted));
+        }
+    }
+
+    /**
+     * Hands free credits to the waiting connections, longest waiting first.
+     */
+    private void grantWaiting() {
+        Connection connection;
+        while (credits.availablePermits() > 0 && (connection = waiting.poll()) != null) {
+            synchronized (connection) {
+                connection.queued = false;
+            }
+            grant(connection);
+        }
+    }
+
+    /**
+     * Returns the credit of a finished frame to the pool, where connections that were
+     * already waiting come first.
+     */
+    private void finish(Connection connection) {
+        synchronized (connection) {
+            connection.inFlight--;
+        }
+        credits.release();
+        grantWaiting();
+        grant(connection);
+    }
+
+    private Counter counter(String camera, String result) {
+        return Counter.builder("licenseplate.gate.frames")
+                .tag("camera", camera)
+                .tag("result", result)
+                .description("Frames received from gate devices")
+                .register(meterRegistry);
+    }
+
+    private static GateMessageDto failure(long frame, Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof AzureUnavailableException unavailable) {
+            Long seconds =
+                    unavailable.getRetryAfter() == null
+                            ? null
+                            : Math.max(1, (unavailable.getRetryAfter().toMillis() + 999) / 1000);
+            return GateMessageDto.failure(
+                    frame,
+                    e instanceof BudgetExhaustedException ? 429 : 503,
+                    "License plate recognition is unavailable:" + e.getMessage(),
+                    seconds);
+        }
+        return GateMessageDto.failure(
+                frame, 500, "Error recognizing license plate:" + e.getMessage(), null);
+    }
+
+    /**
+     * State of one connected gate device.
+     */
+    private final class Connection {
+        private final Session session;
+        private final String camera;
+        private final String client;
+        private final Object sendLock = new Object();
+        private final Queue<String> outbox = new ArrayDeque<>();
+        private boolean sending;
+        private long nextFrame;
+        private long lastFrameNanos;
+        private int credits;
+        private int inFlight;
+        private boolean idle = true;
+        private boolean queued;
+        private boolean closed;
+
+        private Connection(Session session, String camera) {
+            this.session = session;
+            this.camera = camera;
+            this.client =
+                    session.getUserPrincipal() != null
+                            ? session.getUserPrincipal().getName()
+                            : CLIENT_PREFIX + camera;
+        }
+
+        /**
+         * Takes a frame if the device had credit for it and starts recognition.
+         * The frame of an idle device asks for credit: it is taken if the pool has
+         * room, and otherwise the device waits for credit like any other.
+         */
+        private void onFrame(byte[] frame) {
+            long number;
+            boolean waking = false;
+            boolean accepted = false;
+            synchronized (this) {
+                number = nextFrame++;
+                lastFrameNanos = System.nanoTime();
+                if (credits == 0 && idle) {
+                    idle = false;
+                    waking = true;
+                    if (GateSocketEndpoint.this.credits.tryAcquire()) {
+                        credits++;
+                    }
+                }
+                if (credits == 0) {
+                    counter(camera, "rejected").increment();
+                    send(GateMessageDto.failure(number, 429, "Frame sent without credit", null));
+                } else {
+                    credits--;
+                    inFlight++;
+                    accepted = true;
+                }
+            }
+            if (waking) {
+                grant(this);
+            }
+            if (accepted) {
+                process(number, frame).whenComplete((v, e) -> finish(this));
+            }
+        }
+
+        /**
+         * Sends one frame through the motion gate, recognition and the tracker.
+         * @return Future completed when the result has been sent, also if it failed
+         */
+        private CompletableFuture<Void> process(long number, byte[] frame) {
+            if (!motionGate.admit(camera, frame)) {
+                counter(camera, "skipped").increment();
+                send(GateMessageDto.result(number, List.of(), null, true));
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<List<PlateDto>> plates;
+            try {
+                plates = licensePlateService.getLicensePlatesAsync(frame, client);
+            } catch (RuntimeException e) {
+                plates = CompletableFuture.failedFuture(e);
+            }
+            return plates.handle(
+                    (result, e) -> {
+                        if (e != null) {
+                            counter(camera, "failed").increment();
+                            send(failure(number, e));
+                            return null;
+                        }
+                        counter(camera, "recognized").increment();
+                        PlateEvent event = plateTracker.observe(camera, result);
+                        send(GateMessageDto.result(number, result, event, false));
+                        return null;
+                    });
+        }
+
+        /**
+         * Sends a message without blocking the calling thread. A session may only
+         * send one message at a time, so messages queue up behind the one in flight.
+         */
+        private void send(GateMessageDto message) {
+            if (!session.isOpen()) {
+                return;
+            }
+            String text;
+            try {
+                text = objectMapper.writeValueAsString(message);
+            } catch (JsonProcessingException e) {
+                logger.error("Could not write gate message: {}", e.getMessage());
+                return;
+            }
+            synchronized (sendLock) {
+                if (sending) {
+                    outbox.add(text);
+                    return;
+                }
+                sending = true;
+            }
+            sendAsync(text);
+        }
+
+        /**
+         * Sends a message and, once it is written, the next one in the outbox.
+         */
+        private void sendAsync(String text) {
+            try {
+                session.getAsyncRemote()
+                        .sendText(
+                                text,
+                                result -> {
+                                    if (!result.isOK()) {
+                                        logger.debug(
+                                                "Could not send to gate {}: {}",
+                                                camera,
+                                                result.getException().getMessage());
+                                    }
+                                    String next;
+                                    synchronized (sendLock) {
+                                        next = outbox.poll();
+                                        sending = next != null;
+                                    }
+                                    if (next != null) {
+                                        sendAsync(next);
+                                    }
+                                });
+            } catch (RuntimeException e) {
+                // The session closed, nothing more can be sent on it.
+                logger.debug("Could not send to gate {}: {}", camera, e.getMessage());
+                synchronized (sendLock) {
+                    outbox.clear();
+                    sending = false;
+                }
+            }
+        }
+    }
+}
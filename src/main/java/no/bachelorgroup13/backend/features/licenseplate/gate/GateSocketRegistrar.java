@@ -0,0 +1,66 @@
+package no.bachelorgroup13.backend.features.licenseplate.gate;
+
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.ServletContextAware;
+
+/**
+ * Registers the gate socket with the WebSocket container of the embedded server,
+ * using the Spring managed endpoint for every connection.
+ */
+@Component
+public class GateSocketRegistrar implements ServletContextAware, SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(GateSocketRegistrar.class);
+
+    private final GateSocketEndpoint endpoint;
+    private ServletContext servletContext;
+
+    /**
+     * Constructs a new GateSocketRegistrar.
+     * @param endpoint The gate socket endpoint
+     */
+    public GateSocketRegistrar(GateSocketEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ServerContainer container =
+                servletContext == null
+                        ? null
+                        : (ServerContainer)
+                                servletContext.getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            logger.warn("No WebSocket container, gate socket is not available");
+            return;
+        }
+        ServerEndpointConfig config =
+                ServerEndpointConfig.Builder.create(
+                                GateSocketEndpoint.class, GateSocketEndpoint.PATH)
+                        .configurator(
+                                new ServerEndpointConfig.Configurator() {
+                                    @Override
+                                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                                        return endpointClass.cast(endpoint);
+                                    }
+                                })
+                        .build();
+        try {
+            container.addEndpoint(config);
+        } catch (DeploymentException e) {
+            throw new IllegalStateException("Could not register gate socket", e);
+        }
+        logger.info("Gate socket listening on {}", GateSocketEndpoint.PATH);
+    }
+}
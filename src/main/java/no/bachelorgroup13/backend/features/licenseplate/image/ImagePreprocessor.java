@@ -0,0 +1,287 @@
+package no.bachelorgroup13.backend.features.licenseplate.image;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shrinks uploaded photos before they are sent to Azure.
+ * Images larger than the configured dimension are downscaled and re-encoded as JPEG,
+ * which cuts upload size without losing the few hundred pixels a plate needs. With
+ * region detection enabled, only a mosaic of the plate-shaped regions is uploaded.
+ */
+@Component
+public class ImagePreprocessor {
+    private static final Logger logger = LoggerFactory.getLogger(ImagePreprocessor.class);
+
+    private static final int MOSAIC_GAP = 16;
+
+    private final PlateRegionDetector plateRegionDetector;
+    private final boolean enabled;
+    private final boolean detectRegions;
+    private final boolean fullFrameFallback;
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final DistributionSummary originalBytes;
+    private final DistributionSummary uploadedBytes;
+
+    /**
+     * Constructs a new ImagePreprocessor.
+     * @param plateRegionDetector Finds plate-shaped regions to crop to
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the upload size metrics
+     */
+    public ImagePreprocessor(
+            PlateRegionDetector plateRegionDetector,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry) {
+        this.plateRegionDetector = plateRegionDetector;
+        this.enabled = properties.getPreprocessing().isEnabled();
+        this.detectRegions = properties.getDetection().isEnabled();
+        this.fullFrameFallback = properties.getDetection().isFullFrameFallback();
+        this.maxDimension = properties.getPreprocessing().getMaxDimension();
+        this.jpegQuality = properties.getPreprocessing().getJpegQuality();
+        this.maxPixels = properties.getPreprocessing().getMaxPixels();
+        this.originalBytes =
+                DistributionSummary.builder("licenseplate.upload.size")
+                        .tag("stage", "original")
+                        .baseUnit("bytes")
+                        .description("Size of images before and after preprocessing")
+                        .register(meterRegistry);
+        this.uploadedBytes =
+                DistributionSummary.builder("licenseplate.upload.size")
+                        .tag("stage", "uploaded")
+                        .baseUnit("bytes")
+                        .description("Size of images before and after preprocessing")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Crops an image to its plate regions if detection is enabled, then downscales
+     * and re-encodes it if that makes it smaller. Images that cannot be decoded, or
+     * are already small enough, are sent unchanged.
+     * @param image The original image bytes
+     * @return The image to upload and how to map its coordinates back
+     */
+    public PreparedImage prepare(byte[] image) {
+        return prepare(image, detectRegions);
+    }
+
+    /**
+     * Downscales and re-encodes the whole frame, skipping region detection.
+     * Used when the cropped regions did not contain a plate.
+     * @param image The original image bytes
+     * @return The image to upload and how to map its coordinates back
+     */
+    public PreparedImage prepareFullFrame(byte[] image) {
+        return prepare(image, false);
+    }
+
+    /**
+     * Checks whether a cropped upload without plates should be retried on the whole frame.
+     * @param prepared The image that was uploaded
+     * @param plateCount Number of plates found in it
+     * @return true if the whole frame should be sent
+     */
+    public boolean shouldRetryFullFrame(PreparedImage prepared, int plateCount) {
+        return fullFrameFallback && prepared.isCropped() && plateCount == 0;
+    }
+
+    /**
+     * Decodes an image. The size is read from the header first, so that an upload
+     * claiming a huge image is refused before any pixel memory is allocated.
+     * @param image The original image bytes
+     * @return The decoded image, or null if the bytes are not a supported image or
+     *     the image has more pixels than allowed
+     */
+    public BufferedImage decode(byte[] image) {
+        try (ImageInputStream input =
+                ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.debug(
+                            "Not decoding {}x{} image over {} pixels",
+                            reader.getWidth(0),
+                            reader.getHeight(0),
+                            maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not decode image: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Downscales a decoded frame to the configured maximum dimension.
+     * @param frame The decoded frame
+     * @return The frame itself if preprocessing is off or it is small enough, else a smaller copy
+     */
+    public BufferedImage fit(BufferedImage frame) {
+        int longestSide = Math.max(frame.getWidth(), frame.getHeight());
+        if (!enabled || longestSide <= maxDimension) {
+            return frame;
+        }
+        double scale = (double) longestSide / maxDimension;
+        return resize(
+                frame,
+                Math.max(1, (int) Math.round(frame.getWidth() / scale)),
+                Math.max(1, (int) Math.round(frame.getHeight() / scale)));
+    }
+
+    /**
+     * Finds the plate regions of a frame if detection is enabled.
+     * @param frame The decoded frame
+     * @return Detected plate regions, or none if detection is off or finds none
+     */
+    public List<Rectangle> detectRegions(BufferedImage frame) {
+        return detectRegions ? plateRegionDetector.detect(frame) : List.of();
+    }
+
+    /**
+     * Encodes an image as JPEG at the configured quality.
+     * @param image The image to encode
+     * @return JPEG bytes
+     * @throws IOException If encoding fails
+     */
+    public byte[] encode(BufferedImage image) throws IOException {
+        return encodeJpeg(image);
+    }
+
+    /**
+     * Prepares an image and records the upload size.
+     * @param image The original image bytes
+     * @param crop true to upload only the detected plate regions
+     * @return The prepared image
+     */
+    private PreparedImage prepare(byte[] image, boolean crop) {
+        PreparedImage prepared =
+                enabled || crop ? shrink(image, crop) : PreparedImage.unchanged(image);
+        originalBytes.record(image.length);
+        uploadedBytes.record(prepared.bytes().length);
+        return prepared;
+    }
+
+    /**
+     * Decodes, optionally crops, resizes and re-encodes an image.
+     * @param image The original image bytes
+     * @param crop true to upload only the detected plate regions
+     * @return The prepared image
+     */
+    private PreparedImage shrink(byte[] image, boolean crop) {
+        BufferedImage decoded = decode(image);
+        if (decoded == null) {
+            return PreparedImage.unchanged(image);
+        }
+
+        Mosaic mosaic = null;
+        BufferedImage source = decoded;
+        if (crop) {
+            List<Rectangle> regions = plateRegionDetector.detect(decoded);
+            if (!regions.isEmpty()) {
+                mosaic = Mosaic.stack(regions, MOSAIC_GAP);
+                source = mosaic.render(decoded);
+            }
+        }
+
+        int longestSide = Math.max(source.getWidth(), source.getHeight());
+        double scale = Math.max(1.0, (double) longestSide / maxDimension);
+        int width = Math.max(1, (int) Math.round(source.getWidth() / scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() / scale));
+
+        try {
+            byte[] encoded = encodeJpeg(resize(source, width, height));
+            if (encoded.length >= image.length) {
+                return PreparedImage.unchanged(image);
+            }
+            return new PreparedImage(encoded, (double) source.getWidth() / width, mosaic);
+        } catch (IOException e) {
+            logger.debug("Could not re-encode image, sending it unchanged: {}", e.getMessage());
+            return PreparedImage.unchanged(image);
+        }
+    }
+
+    /**
+     * Resizes an image by halving it step by step and finishing with one bilinear pass.
+     * Halving keeps thin strokes like plate characters sharper than a single large step.
+     * @param source The decoded image
+     * @param width Target width
+     * @param height Target height
+     * @return RGB image of the target size
+     */
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step =
+                    new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    /**
+     * Encodes an image as JPEG at the configured quality.
+     * @param image The image to encode
+     * @return JPEG bytes
+     * @throws IOException If no JPEG writer is available or encoding fails
+     */
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
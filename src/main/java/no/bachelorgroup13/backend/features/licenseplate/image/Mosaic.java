@@ -0,0 +1,277 @@
+package no.bachelorgroup13.backend.features.licenseplate.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Layout of image regions packed into one picture, so several crops or frames can
+ * be recognized in a single Azure call. Coordinates found in the packed picture can
+ * be mapped back to the image and region each tile was taken from.
+ */
+public final class Mosaic {
+    /** Azure rejects images smaller than 50 pixels in either direction. */
+    private static final int MIN_SIDE = 50;
+
+    private final List<Tile> tiles;
+    private final int width;
+    private final int height;
+    private final int gap;
+
+    private Mosaic(List<Tile> tiles, int width, int height, int gap) {
+        this.tiles = List.copyOf(tiles);
+        this.width = Math.max(MIN_SIDE, width);
+        this.height = Math.max(MIN_SIDE, height);
+        this.gap = gap;
+    }
+
+    /**
+     * Stacks regions of one image on top of each other at full resolution.
+     * @param regions Regions of the source image to pack
+     * @param gap Empty pixels between two tiles
+     * @return Layout of the packed regions
+     */
+    public static Mosaic stack(List<Rectangle> regions, int gap) {
+        List<Tile> tiles = new ArrayList<>();
+        int y = 0;
+        int width = 0;
+        for (Rectangle region : regions) {
+            tiles.add(new Tile(0, new Rectangle(region), 0, y, region.width, region.height));
+            y += region.height + gap;
+            width = Math.max(width, region.width);
+        }
+        return new Mosaic(tiles, width, Math.max(0, y - gap), gap);
+    }
+
+    /**
+     * Packs pieces of several images into as few pictures as possible.
+     * Pieces are placed on shelves from the tallest down, and a new picture is started
+     * when the current one would exceed the maximum side length.
+     * @param pieces Regions to pack, each with the source image it belongs to
+     * @param maxSide Longest side a packed picture may have
+     * @param gap Empty pixels between two tiles
+     * @return Layouts that together hold every piece
+     */
+    public static List<Mosaic> pack(List<Piece> pieces, int maxSide, int gap) {
+        List<Tile> sized = new ArrayList<>();
+        for (Piece piece : pieces) {
+            Rectangle region = piece.region();
+            double scale =
+                    Math.max(
+                            Math.max(1.0, piece.scale()),
+                            (double) Math.max(region.width, region.height) / maxSide);
+            int tileWidth = Math.max(1, (int) Math.round(region.width / scale));
+            int tileHeight = Math.max(1, (int) Math.round(region.height / scale));
+            sized.add(new Tile(piece.source(), new Rectangle(region), 0, 0, tileWidth, tileHeight));
+        }
+        sized.sort(Comparator.comparingInt(Tile::height).reversed());
+
+        List<Mosaic> mosaics = new ArrayList<>();
+        List<Tile> placed = new ArrayList<>();
+        int x = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int usedWidth = 0;
+        for (Tile tile : sized) {
+            if (x > 0 && x + tile.width() > maxSide) {
+                shelfY += shelfHeight + gap;
+                x = 0;
+                shelfHeight = 0;
+            }
+            if (!placed.isEmpty() && shelfY + tile.height() > maxSide) {
+                mosaics.add(new Mosaic(placed, usedWidth, shelfY - gap, gap));
+                placed = new ArrayList<>();
+                x = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+                usedWidth = 0;
+            }
+            placed.add(
+                    new Tile(tile.source(), tile.region(), x, shelfY, tile.width(), tile.height()));
+            x += tile.width() + gap;
+            usedWidth = Math.max(usedWidth, x - gap);
+            shelfHeight = Math.max(shelfHeight, tile.height());
+        }
+        if (!placed.isEmpty()) {
+            mosaics.add(new Mosaic(placed, usedWidth, shelfY + shelfHeight, gap));
+        }
+        return mosaics;
+    }
+
+    /**
+     * Draws the packed regions of a single image.
+     * @param source The image the regions were taken from
+     * @return RGB picture with every region at its tile position
+     */
+    public BufferedImage render(BufferedImage source) {
+        return render(List.of(source));
+    }
+
+    /**
+     * Draws the packed regions of several images.
+     * @param sources The images the pieces were taken from, indexed by piece source
+     * @return RGB picture with every region at its tile position
+     */
+    public BufferedImage render(List<BufferedImage> sources) {
+        BufferedImage packed = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = packed.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setColor(Color.GRAY);
+        graphics.fillRect(0, 0, width, height);
+        for (Tile tile : tiles) {
+            Rectangle region = tile.region();
+            graphics.drawImage(
+                    sources.get(tile.source()),
+                    tile.x(),
+                    tile.y(),
+                    tile.x() + tile.width(),
+                    tile.y() + tile.height(),
+                    region.x,
+                    region.y,
+                    region.x + region.width,
+                    region.y + region.height,
+                    null);
+        }
+        graphics.dispose();
+        return packed;
+    }
+
+    /**
+     * Maps a bounding box in the packed picture back to the source image.
+     * The tile containing the centre of the box decides the mapping.
+     * @param bbox Points as x1, y1, x2, y2, ... in packed coordinates
+     * @return Points in source coordinates, or the box unchanged if it lies in no tile
+     */
+    public List<Integer> toSource(List<Integer> bbox) {
+        if (bbox == null || bbox.size() < 2) {
+            return bbox;
+        }
+        Tile tile = tileAt(centre(bbox, 0), centre(bbox, 1), 0);
+        return tile == null ? bbox : tile.toSource(bbox);
+    }
+
+    /**
+     * Finds the source of a bounding box that lies within a single tile.
+     * Boxes that reach into a neighbouring tile, for example text Azure joined across
+     * two frames, are not mapped.
+     * @param bbox Points as x1, y1, x2, y2, ... in packed coordinates
+     * @return Source index and box in source coordinates, or null if not in one tile
+     */
+    public Located locate(List<Integer> bbox) {
+        if (bbox == null || bbox.size() < 2) {
+            return null;
+        }
+        Tile tile = tileAt(centre(bbox, 0), centre(bbox, 1), 0);
+        if (tile == null) {
+            return null;
+        }
+        double slack = gap / 2.0;
+        for (int i = 0; i + 1 < bbox.size(); i += 2) {
+            if (!tile.contains(bbox.get(i), bbox.get(i + 1), slack)) {
+                return null;
+            }
+        }
+        return new Located(tile.source(), tiles.indexOf(tile), tile.toSource(bbox));
+    }
+
+    /**
+     * Gets the tiles of the layout.
+     * @return Tiles in packing order
+     */
+    public List<Tile> getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Gets the width of the packed picture.
+     * @return Width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the packed picture.
+     * @return Height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    private Tile tileAt(double x, double y, double slack) {
+        for (Tile tile : tiles) {
+            if (tile.contains(x, y, slack)) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    private static double centre(List<Integer> bbox, int axis) {
+        double sum = 0;
+        int count = 0;
+        for (int i = axis; i < bbox.size(); i += 2) {
+            sum += bbox.get(i);
+            count++;
+        }
+        return sum / count;
+    }
+
+    /**
+     * A region of a source image to be packed.
+     * @param source Index of the source image
+     * @param region Region of the source image
+     * @param scale Source pixels per packed pixel, at least 1
+     */
+    public record Piece(int source, Rectangle region, double scale) {}
+
+    /**
+     * A region of a source image and where it is placed in the packed picture.
+     * @param source Index of the source image
+     * @param region Region of the source image
+     * @param x Left edge of the tile in the packed picture
+     * @param y Top edge of the tile in the packed picture
+     * @param width Width of the tile in the packed picture
+     * @param height Height of the tile in the packed picture
+     */
+    public record Tile(int source, Rectangle region, int x, int y, int width, int height) {
+
+        boolean contains(double px, double py, double slack) {
+            return px >= x - slack
+                    && px < x + width + slack
+                    && py >= y - slack
+                    && py < y + height + slack;
+        }
+
+        List<Integer> toSource(List<Integer> bbox) {
+            double scaleX = (double) region.width / width;
+            double scaleY = (double) region.height / height;
+            List<Integer> mapped = new ArrayList<>(bbox.size());
+            for (int i = 0; i < bbox.size(); i++) {
+                boolean isX = i % 2 == 0;
+                double local =
+                        isX
+                                ? (bbox.get(i) - x) * scaleX + region.x
+                                : (bbox.get(i) - y) * scaleY + region.y;
+                int low = isX ? region.x : region.y;
+                int high = low + (isX ? region.width : region.height);
+                mapped.add((int) Math.max(low, Math.min(high, Math.round(local))));
+            }
+            return mapped;
+        }
+    }
+
+    /**
+     * A bounding box mapped back to the image it was found in.
+     * @param source Index of the source image
+     * @param tile Index of the tile the box was found in
+     * @param bbox Points in source coordinates
+     */
+    public record Located(int source, int tile, List<Integer> bbox) {}
+}
@@ -0,0 +1,268 @@
+package no.bachelorgroup13.backend.features.licenseplate.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops camera frames that show nothing new since the last frame let through.
+ * Each frame is decoded with subsampling into a small grey thumbnail, which is
+ * compared with the thumbnail of the last frame that went on to recognition. A
+ * frame only passes if enough pixels changed by more than the threshold, after
+ * removing any change in overall brightness, or if the camera has had no frame
+ * through for the heartbeat interval. Cameras that send nothing for the idle
+ * timeout lose their reference frame, and frames from cameras beyond the
+ * camera limit pass unchecked and are counted apart from the checked ones.
+ */
+@Component
+public class MotionGate {
+    private final boolean enabled;
+    private final int thumbnailWidth;
+    private final int pixelThreshold;
+    private final double minChangedFraction;
+    private final long heartbeatNanos;
+    private final int maxCameras;
+    private final long idleTimeoutNanos;
+    private final Map<String, Reference> references = new ConcurrentHashMap<>();
+    private final Counter passedCounter;
+    private final Counter droppedCounter;
+    private final Counter untrackedCounter;
+    private final Timer latencyTimer;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new MotionGate.
+     * @param properties Recognition pipeline configuration properties
+     * @param meterRegistry Registry for the gate metrics
+     */
+    public MotionGate(PipelineProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.getMotion().isEnabled();
+        this.thumbnailWidth = Math.max(8, properties.getMotion().getThumbnailWidth());
+        this.pixelThreshold = properties.getMotion().getPixelThreshold();
+        this.minChangedFraction = properties.getMotion().getMinChangedFraction();
+        this.heartbeatNanos = properties.getMotion().getHeartbeat().toNanos();
+        this.maxCameras = properties.getMotion().getMaxCameras();
+        this.idleTimeoutNanos = properties.getMotion().getIdleTimeout().toNanos();
+
+        this.passedCounter =
+                Counter.builder("licenseplate.motion.frames")
+                        .tag("result", "passed")
+                        .description("Camera frames checked by the motion gate")
+                        .register(meterRegistry);
+        this.droppedCounter =
+                Counter.builder("licenseplate.motion.frames")
+                        .tag("result", "dropped")
+                        .description("Camera frames checked by the motion gate")
+                        .register(meterRegistry);
+        this.untrackedCounter =
+                Counter.builder("licenseplate.motion.frames")
+                        .tag("result", "untracked")
+                        .description("Camera frames checked by the motion gate")
+                        .register(meterRegistry);
+        Gauge.builder("licenseplate.motion.cameras", references, Map::size)
+                .description("Cameras the motion gate keeps a reference frame for")
+                .register(meterRegistry);
+        Gauge.builder("licenseplate.motion.drop.ratio", this, MotionGate::getDropRatio)
+                .description("Share of camera frames dropped by the motion gate")
+                .register(meterRegistry);
+        this.latencyTimer =
+                Timer.builder("licenseplate.motion.latency")
+                        .description("Time the motion gate spends on a frame")
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry);
+
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "motion-gate");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        long sweepMs = Math.max(100, properties.getMotion().getIdleTimeout().toMillis() / 4);
+        scheduler.scheduleWithFixedDelay(
+                () -> sweep(System.nanoTime()), sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks whether a frame has changed enough to be recognized.
+     * @param camera The camera the frame came from
+     * @param image The raw image bytes
+     * @return true if the frame should be recognized
+     */
+    public boolean admit(String camera, byte[] image) {
+        return admit(camera, image, System.nanoTime());
+    }
+
+    /**
+     * Checks whether a frame has changed enough to be recognized at a given time.
+     * @param camera The camera the frame came from
+     * @param image The raw image bytes
+     * @param nowNanos Time of the frame from System.nanoTime
+     * @return true if the frame should be recognized
+     */
+    public boolean admit(String camera, byte[] image, long nowNanos) {
+        if (!enabled) {
+            return true;
+        }
+        long start = System.nanoTime();
+        Verdict verdict = check(camera, image, nowNanos);
+        latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        switch (verdict) {
+            case PASSED -> passedCounter.increment();
+            case DROPPED -> droppedCounter.increment();
+            case UNTRACKED -> untrackedCounter.increment();
+        }
+        return verdict != Verdict.DROPPED;
+    }
+
+    /**
+     * Forgets the reference frames of cameras that have sent no frame for the idle
+     * timeout, making room for other cameras.
+     * @param nowNanos Current time from System.nanoTime
+     */
+    public void sweep(long nowNanos) {
+        references
+                .values()
+                .removeIf(reference -> nowNanos - reference.seenAtNanos >= idleTimeoutNanos);
+    }
+
+    /**
+     * Stops checking for cameras that have gone quiet.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Gets the share of checked frames dropped since startup. Frames from cameras
+     * over the camera limit are not checked and not part of the ratio.
+     * @return Drop ratio from 0 to 1
+     */
+    public double getDropRatio() {
+        double dropped = droppedCounter.count();
+        double total = dropped + passedCounter.count();
+        return total == 0 ? 0 : dropped / total;
+    }
+
+    private Verdict check(String camera, byte[] image, long nowNanos) {
+        Reference previous = references.get(camera);
+        if (previous == null && references.size() >= maxCameras) {
+            return Verdict.UNTRACKED;
+        }
+        Thumbnail thumbnail = thumbnailOf(image);
+        if (thumbnail == null) {
+            // Let the recognition pipeline report frames it cannot read.
+            return Verdict.PASSED;
+        }
+        if (previous != null
+                && nowNanos - previous.passedAtNanos < heartbeatNanos
+                && !changed(previous.thumbnail, thumbnail)) {
+            references.put(camera, previous.seenAt(nowNanos));
+            return Verdict.DROPPED;
+        }
+        references.put(camera, new Reference(thumbnail, nowNanos, nowNanos));
+        return Verdict.PASSED;
+    }
+
+    /**
+     * Compares two thumbnails, ignoring a uniform change in brightness.
+     */
+    private boolean changed(Thumbnail before, Thumbnail after) {
+        if (before.width != after.width || before.height != after.height) {
+            return true;
+        }
+        int pixels = before.grey.length;
+        long shift = 0;
+        for (int i = 0; i < pixels; i++) {
+            shift += after.grey[i] - before.grey[i];
+        }
+        int meanShift = (int) (shift / pixels);
+        int changed = 0;
+        for (int i = 0; i < pixels; i++) {
+            if (Math.abs(after.grey[i] - before.grey[i] - meanShift) > pixelThreshold) {
+                changed++;
+            }
+        }
+        return changed >= minChangedFraction * pixels;
+    }
+
+    /**
+     * Decodes an image at a fraction of its resolution and averages it down to a
+     * grey thumbnail of the configured width.
+     * @return The thumbnail, or null if the bytes are not a supported image
+     */
+    private Thumbnail thumbnailOf(byte[] image) {
+        BufferedImage frame;
+        try (ImageInputStream input =
+                ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, reader.getWidth(0) / (thumbnailWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                frame = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+
+        int width = Math.min(thumbnailWidth, frame.getWidth());
+        int height = Math.max(1, frame.getHeight() * width / frame.getWidth());
+        int[] sums = new int[width * height];
+        int[] counts = new int[width * height];
+        for (int y = 0; y < frame.getHeight(); y++) {
+            int row = Math.min(height - 1, y * height / frame.getHeight()) * width;
+            for (int x = 0; x < frame.getWidth(); x++) {
+                int rgb = frame.getRGB(x, y);
+                int cell = row + Math.min(width - 1, x * width / frame.getWidth());
+                sums[cell] +=
+                        (((rgb >> 16) & 0xff) * 77 + ((rgb >> 8) & 0xff) * 150 + (rgb & 0xff) * 29)
+                                >> 8;
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = counts[i] == 0 ? 0 : sums[i] / counts[i];
+        }
+        return new Thumbnail(width, height, sums);
+    }
+
+    private enum Verdict {
+        PASSED,
+        DROPPED,
+        UNTRACKED
+    }
+
+    private record Thumbnail(int width, int height, int[] grey) {}
+
+    private record Reference(Thumbnail thumbnail, long passedAtNanos, long seenAtNanos) {
+        Reference seenAt(long nowNanos) {
+            return new Reference(thumbnail, passedAtNanos, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package no.bachelorgroup13.backend.features.licenseplate.image;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds plate-shaped regions in a frame without calling out to any service.
+ * Plate characters produce many short vertical edges in a narrow horizontal band.
+ * Vertical edges are joined across the small gaps between characters, and every
+ * joined blob with the size and aspect ratio of a plate becomes a candidate, ranked
+ * by how dense its edges are.
+ */
+@Component
+public class PlateRegionDetector {
+    /** Frames are analysed at this width at most, which keeps detection cheap. */
+    private static final int WORK_WIDTH = 800;
+
+    private static final int EDGE_THRESHOLD = 40;
+    private static final double MIN_ASPECT = 1.5;
+    private static final double MAX_ASPECT = 8.0;
+
+    private final int maxRegions;
+    private final double minScore;
+    private final double padding;
+
+    /**
+     * Constructs a new PlateRegionDetector.
+     * @param properties Azure Cognitive Services configuration properties
+     */
+    public PlateRegionDetector(LicensePlateProperties properties) {
+        this.maxRegions = properties.getDetection().getMaxRegions();
+        this.minScore = properties.getDetection().getMinScore();
+        this.padding = properties.getDetection().getPadding();
+    }
+
+    /**
+     * Finds the regions of a frame most likely to contain a plate.
+     * @param frame The decoded frame
+     * @return Padded regions in frame coordinates, best candidate first
+     */
+    public List<Rectangle> detect(BufferedImage frame) {
+        double scale = Math.max(1.0, (double) frame.getWidth() / WORK_WIDTH);
+        int width = Math.max(1, (int) Math.round(frame.getWidth() / scale));
+        int height = Math.max(1, (int) Math.round(frame.getHeight() / scale));
+        boolean[] edges = verticalEdges(grey(frame, width, height), width, height);
+        boolean[] joined = closeRows(edges, width, height, Math.max(2, width / 50));
+
+        List<Candidate> candidates = new ArrayList<>();
+        boolean[] visited = new boolean[width * height];
+        int[] stack = new int[width * height];
+        for (int start = 0; start < joined.length; start++) {
+            if (!joined[start] || visited[start]) {
+                continue;
+            }
+            Rectangle blob = component(joined, visited, stack, width, height, start);
+            if (isPlateShaped(blob, height)) {
+                double score = density(edges, width, blob);
+                if (score >= minScore) {
+                    candidates.add(new Candidate(blob, score));
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        List<Rectangle> regions = new ArrayList<>();
+        for (Candidate candidate : candidates.subList(0, Math.min(maxRegions, candidates.size()))) {
+            regions.add(toFrame(candidate.window(), scale, frame.getWidth(), frame.getHeight()));
+        }
+        return regions;
+    }
+
+    /**
+     * Checks whether a blob has the size and proportions of a plate.
+     */
+    private static boolean isPlateShaped(Rectangle blob, int frameHeight) {
+        double aspect = (double) blob.width / blob.height;
+        return aspect >= MIN_ASPECT
+                && aspect <= MAX_ASPECT
+                && blob.height >= Math.max(4, frameHeight / 80)
+                && blob.height <= frameHeight / 5;
+    }
+
+    /**
+     * Marks pixels with a strong horizontal intensity change.
+     */
+    private static boolean[] verticalEdges(byte[] grey, int width, int height) {
+        boolean[] edges = new boolean[width * height];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 1; x < width - 1; x++) {
+                int left = grey[row + x - 1] & 0xFF;
+                int right = grey[row + x + 1] & 0xFF;
+                edges[row + x] = Math.abs(right - left) > EDGE_THRESHOLD;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Fills horizontal gaps between edge pixels, joining the characters of a plate.
+     */
+    private static boolean[] closeRows(boolean[] edges, int width, int height, int maxGap) {
+        boolean[] joined = edges.clone();
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int last = -1;
+            for (int x = 0; x < width; x++) {
+                if (!edges[row + x]) {
+                    continue;
+                }
+                if (last >= 0 && x - last <= maxGap) {
+                    for (int fill = last + 1; fill < x; fill++) {
+                        joined[row + fill] = true;
+                    }
+                }
+                last = x;
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Collects the 4-connected blob around a pixel and returns its bounding box.
+     */
+    private static Rectangle component(
+            boolean[] mask, boolean[] visited, int[] stack, int width, int height, int start) {
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        int top = 0;
+        stack[top++] = start;
+        visited[start] = true;
+        while (top > 0) {
+            int index = stack[--top];
+            int x = index % width;
+            int y = index / width;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            if (x > 0 && mask[index - 1] && !visited[index - 1]) {
+                visited[index - 1] = true;
+                stack[top++] = index - 1;
+            }
+            if (x < width - 1 && mask[index + 1] && !visited[index + 1]) {
+                visited[index + 1] = true;
+                stack[top++] = index + 1;
+            }
+            if (y > 0 && mask[index - width] && !visited[index - width]) {
+                visited[index - width] = true;
+                stack[top++] = index - width;
+            }
+            if (y < height - 1 && mask[index + width] && !visited[index + width]) {
+                visited[index + width] = true;
+                stack[top++] = index + width;
+            }
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Gets the share of edge pixels inside a region.
+     */
+    private static double density(boolean[] edges, int width, Rectangle region) {
+        int count = 0;
+        for (int y = region.y; y < region.y + region.height; y++) {
+            for (int x = region.x; x < region.x + region.width; x++) {
+                if (edges[y * width + x]) {
+                    count++;
+                }
+            }
+        }
+        return (double) count / (region.width * region.height);
+    }
+
+    private static byte[] grey(BufferedImage frame, int width, int height) {
+        BufferedImage grey = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = grey.createGraphics();
+        graphics.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(frame, 0, 0, width, height, null);
+        graphics.dispose();
+        byte[] pixels = new byte[width * height];
+        grey.getRaster().getDataElements(0, 0, width, height, pixels);
+        return pixels;
+    }
+
+    /**
+     * Scales a window back to frame coordinates and pads it so the plate border fits.
+     * The margin follows the character height, which is what the border scales with.
+     */
+    private Rectangle toFrame(Rectangle window, double scale, int frameWidth, int frameHeight) {
+        double pad = window.height * padding;
+        int left = Math.max(0, (int) Math.floor((window.x - pad) * scale));
+        int top = Math.max(0, (int) Math.floor((window.y - pad) * scale));
+        int right = Math.min(frameWidth, (int) Math.ceil((window.getMaxX() + pad) * scale));
+        int bottom = Math.min(frameHeight, (int) Math.ceil((window.getMaxY() + pad) * scale));
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    private record Candidate(Rectangle window, double score) {}
+}
@@ -0,0 +1,58 @@
+package no.bachelorgroup13.backend.features.licenseplate.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An image ready to be sent for recognition.
+ * @param bytes Encoded image to upload
+ * @param scale Factor from the uploaded image back to the original, 1 if unchanged
+ * @param mosaic Layout of the cropped regions, or null if the whole frame is uploaded
+ */
+public record PreparedImage(byte[] bytes, double scale, Mosaic mosaic) {
+
+    /**
+     * Creates a prepared image of the whole frame.
+     * @param bytes Encoded image to upload
+     * @param scale Factor from the uploaded image back to the original
+     */
+    public PreparedImage(byte[] bytes, double scale) {
+        this(bytes, scale, null);
+    }
+
+    /**
+     * Wraps an image that is sent as it is.
+     * @param bytes The original image bytes
+     * @return Prepared image with a scale of 1
+     */
+    public static PreparedImage unchanged(byte[] bytes) {
+        return new PreparedImage(bytes, 1.0);
+    }
+
+    /**
+     * Checks whether only regions of the frame are uploaded.
+     * @return true if the image is a mosaic of crops
+     */
+    public boolean isCropped() {
+        return mosaic != null;
+    }
+
+    /**
+     * Maps a bounding box from the uploaded image back to original coordinates.
+     * @param bbox Coordinates in the uploaded image
+     * @return Coordinates in the original image
+     */
+    public List<Integer> toOriginal(List<Integer> bbox) {
+        if (bbox == null) {
+            return null;
+        }
+        List<Integer> mapped = bbox;
+        if (scale != 1.0) {
+            mapped = new ArrayList<>(bbox.size());
+            for (Integer coordinate : bbox) {
+                mapped.add((int) Math.round(coordinate * scale));
+            }
+        }
+        return mosaic != null ? mosaic.toSource(mapped) : mapped;
+    }
+}
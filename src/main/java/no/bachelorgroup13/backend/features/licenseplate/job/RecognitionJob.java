@@ -0,0 +1,125 @@
+package no.bachelorgroup13.backend.features.licenseplate.job;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Entity representing a queued license plate recognition.
+ * Any replica may claim a job, and holds it for a lease so that a job whose
+ * replica dies is taken over by another once the lease runs out.
+ */
+@Entity
+@Table(
+        name = "recognition_jobs",
+        indexes = @Index(name = "recognition_jobs_claim_idx", columnList = "status, available_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecognitionJob {
+
+    /**
+     * State of a job.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED;
+
+        /**
+         * Checks whether a job in this state is finished.
+         * @return true for done and failed jobs
+         */
+        public boolean isFinished() {
+            return this == DONE || this == FAILED;
+        }
+    }
+
+    /**
+     * Unique identifier for the job.
+     */
+    @Id
+    @Column(name = "id")
+    private UUID id;
+
+    /**
+     * Where the job is in the queue.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    /**
+     * The image to recognize, dropped once the job is finished.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(name = "image")
+    private byte[] image;
+
+    /**
+     * The client the recognition is charged to.
+     */
+    @Column(name = "client")
+    private String client;
+
+    /**
+     * How many times the job has been claimed.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * When a queued job may be claimed, or when the lease of a running job runs out.
+     */
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    /**
+     * The replica working on the job.
+     */
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    /**
+     * The recognized plates as JSON, once the job is done.
+     */
+    @Column(name = "result", columnDefinition = "text")
+    private String result;
+
+    /**
+     * Why the job failed.
+     */
+    @Column(name = "error", columnDefinition = "text")
+    private String error;
+
+    /**
+     * HTTP status code matching the failure.
+     */
+    @Column(name = "error_status")
+    private Integer errorStatus;
+
+    /**
+     * When the job was submitted.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * When the job was finished.
+     */
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,70 @@
+package no.bachelorgroup13.backend.features.licenseplate.job;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the recognition job queue.
+ * Provides the queries replicas use to claim and finish jobs.
+ */
+@Repository
+public interface RecognitionJobRepository extends JpaRepository<RecognitionJob, UUID> {
+    /**
+     * Locks the oldest jobs that may be claimed, queued jobs that are due and
+     * running jobs whose lease has run out. Rows locked by another replica are
+     * skipped, so replicas claiming at the same time get different jobs.
+     * @param now The current time
+     * @param limit Most jobs to lock
+     * @return The locked jobs, oldest first
+     */
+    @Query(
+            value =
+                    "SELECT * FROM recognition_jobs"
+                            + " WHERE status IN ('QUEUED', 'RUNNING') AND available_at <= :now"
+                            + " ORDER BY available_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<RecognitionJob> findClaimable(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Finds a job and locks it until the transaction ends.
+     * @param id The ID of the job
+     * @return Optional containing the job if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM RecognitionJob j WHERE j.id = :id")
+    Optional<RecognitionJob> findForUpdate(@Param("id") UUID id);
+
+    /**
+     * Counts the jobs in a state.
+     * @param status The state to count
+     * @return Number of jobs in the state
+     */
+    long countByStatus(RecognitionJob.Status status);
+
+    /**
+     * Counts the jobs of a client in any of the given states.
+     * @param client The client the jobs are charged to
+     * @param statuses The states to count
+     * @return Number of jobs of the client in the states
+     */
+    long countByClientAndStatusIn(String client, Collection<RecognitionJob.Status> statuses);
+
+    /**
+     * Deletes the jobs that finished before a point in time.
+     * @param before Jobs finished before this are deleted
+     * @return Number of deleted jobs
+     */
+    @Modifying
+    @Query("DELETE FROM RecognitionJob j WHERE j.finishedAt < :before")
+    int deleteFinishedBefore(@Param("before") Instant before);
+}
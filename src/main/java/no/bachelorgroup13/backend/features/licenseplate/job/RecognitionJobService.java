@@ -0,0 +1,395 @@
+package no.bachelorgroup13.backend.features.licenseplate.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.RecognitionJobDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the queue of recognition jobs in the database, so that any replica can
+ * take a job submitted to another and jobs outlive the replica that took them.
+ * A replica claims a job for a lease, and its result only counts while it still
+ * holds that claim. A job whose replica stops is claimed again once the lease
+ * runs out, until it has been tried the configured number of times.
+ * New jobs are refused once the queue, or the unfinished jobs of their client,
+ * reach the configured limits. Requests waiting for a job are served by a few
+ * threads of their own that look the job up every poll interval.
+ */
+@Service
+public class RecognitionJobService {
+    private static final Logger logger = LoggerFactory.getLogger(RecognitionJobService.class);
+
+    private static final TypeReference<List<PlateDto>> PLATES = new TypeReference<>() {};
+    private static final EnumSet<RecognitionJob.Status> UNFINISHED =
+            EnumSet.of(RecognitionJob.Status.QUEUED, RecognitionJob.Status.RUNNING);
+
+    private final RecognitionJobRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final int maxAttempts;
+    private final int maxWaiting;
+    private final int maxQueued;
+    private final int maxQueuedPerClient;
+    private final String node;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new RecognitionJobService.
+     * @param repository Repository for the job queue
+     * @param objectMapper Stores the recognized plates as JSON
+     * @param properties Recognition pipeline configuration properties
+     * @param meterRegistry Registry for the queue metrics
+     */
+    public RecognitionJobService(
+            RecognitionJobRepository repository,
+            ObjectMapper objectMapper,
+            PipelineProperties properties,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.lease = properties.getJobs().getLease();
+        this.pollInterval = properties.getJobs().getPollInterval();
+        this.retention = properties.getJobs().getRetention();
+        this.maxAttempts = Math.max(1, properties.getJobs().getMaxAttempts());
+        this.maxWaiting = properties.getJobs().getMaxWaiting();
+        this.maxQueued = properties.getJobs().getMaxQueued();
+        this.maxQueuedPerClient = properties.getJobs().getMaxQueuedPerClient();
+        this.scheduler =
+                Executors.newScheduledThreadPool(
+                        Math.max(1, properties.getJobs().getAwaitThreads()),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "job-await");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        this.node = ManagementFactory.getRuntimeMXBean().getName();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("licenseplate.jobs.queued", queueDepth, AtomicLong::get)
+                .description("Recognition jobs waiting for a replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds an image to the queue.
+     * @param image The image to recognize
+     * @param client The client the recognition is charged to
+     * @return The queued job
+     * @throws BudgetExhaustedException if the queue or the client has too many jobs
+     */
+    public RecognitionJob submit(byte[] image, String client) throws BudgetExhaustedException {
+        if (maxQueued > 0 && refreshQueueDepth() >= maxQueued) {
+            count("refused");
+            throw new BudgetExhaustedException("Recognition queue is full", pollInterval);
+        }
+        if (maxQueuedPerClient > 0
+                && repository.countByClientAndStatusIn(client, UNFINISHED) >= maxQueuedPerClient) {
+            count("refused");
+            throw new BudgetExhaustedException(
+                    "Too many unfinished jobs for " + client, pollInterval);
+        }
+        Instant now = Instant.now();
+        RecognitionJob job = new RecognitionJob();
+        job.setId(UUID.randomUUID());
+        job.setStatus(RecognitionJob.Status.QUEUED);
+        job.setImage(image);
+        job.setClient(client);
+        job.setAvailableAt(now);
+        job.setCreatedAt(now);
+        return repository.save(job);
+    }
+
+    /**
+     * Retrieves a job.
+     * @param id The ID of the job
+     * @return Optional containing the job if found
+     */
+    public Optional<RecognitionJob> getJob(UUID id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * Waits for a job to finish. The job is looked up again every poll interval,
+     * since any replica may be the one finishing it. Once the most requests are
+     * waiting, the job is returned as it is.
+     * @param id The ID of the job
+     * @param wait Longest time to wait
+     * @return Future with the job as it is when finished or when the wait is over,
+     *     or empty if there is no such job
+     */
+    public CompletableFuture<Optional<RecognitionJob>> await(UUID id, Duration wait) {
+        Optional<RecognitionJob> job = repository.findById(id);
+        if (job.isEmpty() || job.get().getStatus().isFinished() || !wait.isPositive()) {
+            return CompletableFuture.completedFuture(job);
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return CompletableFuture.completedFuture(job);
+        }
+        CompletableFuture<Optional<RecognitionJob>> result = new CompletableFuture<>();
+        result.whenComplete((found, e) -> waiting.decrementAndGet());
+        schedulePoll(id, System.nanoTime() + wait.toNanos(), result);
+        return result;
+    }
+
+    private void schedulePoll(
+            UUID id, long deadlineNanos, CompletableFuture<Optional<RecognitionJob>> result) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        try {
+            scheduler.schedule(
+                    () -> poll(id, deadlineNanos, result),
+                    Math.max(0, Math.min(pollInterval.toNanos(), remainingNanos)),
+                    TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void poll(
+            UUID id, long deadlineNanos, CompletableFuture<Optional<RecognitionJob>> result) {
+        try {
+            Optional<RecognitionJob> job = repository.findById(id);
+            if (job.isEmpty()
+                    || job.get().getStatus().isFinished()
+                    || deadlineNanos - System.nanoTime() <= 0) {
+                result.complete(job);
+            } else {
+                schedulePoll(id, deadlineNanos, result);
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the threads polling for waiting requests.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Claims the oldest jobs that are due for this replica.
+     * Jobs that have already been tried too often are failed instead.
+     * @param limit Most jobs to claim
+     * @return The claimed jobs
+     */
+    @Transactional
+    public List<RecognitionJob> claim(int limit) {
+        Instant now = Instant.now();
+        List<RecognitionJob> locked = repository.findClaimable(now, limit);
+        List<RecognitionJob> claimed = new ArrayList<>(locked.size());
+        for (RecognitionJob job : locked) {
+            if (job.getAttempts() >= maxAttempts) {
+                // Every replica that took the job stopped before finishing it.
+                logger.warn("Recognition job {} abandoned {} times", job.getId(), maxAttempts);
+                finish(
+                        job,
+                        RecognitionJob.Status.FAILED,
+                        null,
+                        "Recognition gave up after " + maxAttempts + " attempts",
+                        500,
+                        now);
+                continue;
+            }
+            job.setStatus(RecognitionJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(node);
+            job.setAvailableAt(now.plus(lease));
+            claimed.add(job);
+        }
+        repository.saveAll(locked);
+        return claimed;
+    }
+
+    /**
+     * Stores the plates of a job this replica claimed.
+     * The result is dropped if the claim has been taken over by another replica.
+     * @param claimed The job as it was claimed
+     * @param plates The recognized plates
+     */
+    @Transactional
+    public void complete(RecognitionJob claimed, List<PlateDto> plates) {
+        String result;
+        try {
+            result = objectMapper.writeValueAsString(plates);
+        } catch (JsonProcessingException e) {
+            fail(claimed, e);
+            return;
+        }
+        stillClaimed(claimed)
+                .ifPresent(
+                        job -> {
+                            finish(
+                                    job,
+                                    RecognitionJob.Status.DONE,
+                                    result,
+                                    null,
+                                    null,
+                                    Instant.now());
+                            repository.save(job);
+                        });
+    }
+
+    /**
+     * Records that a job this replica claimed could not be recognized.
+     * Jobs refused because Azure is unavailable go back in the queue until Azure
+     * is expected to take them again, as long as they have attempts left.
+     * @param claimed The job as it was claimed
+     * @param e The cause of the failure
+     */
+    @Transactional
+    public void fail(RecognitionJob claimed, Throwable e) {
+        stillClaimed(claimed)
+                .ifPresent(
+                        job -> {
+                            Instant now = Instant.now();
+                            if (e instanceof AzureUnavailableException unavailable
+                                    && job.getAttempts() < maxAttempts) {
+                                job.setStatus(RecognitionJob.Status.QUEUED);
+                                job.setLockedBy(null);
+                                job.setAvailableAt(
+                                        now.plus(
+                                                unavailable.getRetryAfter() != null
+                                                        ? unavailable.getRetryAfter()
+                                                        : pollInterval));
+                                count("retried");
+                            } else if (e instanceof AzureUnavailableException) {
+                                finish(
+                                        job,
+                                        RecognitionJob.Status.FAILED,
+                                        null,
+                                        "License plate recognition is unavailable:"
+                                                + e.getMessage(),
+                                        e instanceof BudgetExhaustedException ? 429 : 503,
+                                        now);
+                            } else {
+                                finish(
+                                        job,
+                                        RecognitionJob.Status.FAILED,
+                                        null,
+                                        "Error recognizing license plate:" + e.getMessage(),
+                                        500,
+                                        now);
+                            }
+                            repository.save(job);
+                        });
+    }
+
+    /**
+     * Counts the queued jobs again for the queue depth gauge.
+     * @return Number of queued jobs
+     */
+    public long refreshQueueDepth() {
+        long depth = repository.countByStatus(RecognitionJob.Status.QUEUED);
+        queueDepth.set(depth);
+        return depth;
+    }
+
+    /**
+     * Deletes finished jobs older than the retention.
+     * @return Number of deleted jobs
+     */
+    @Transactional
+    public int purge() {
+        return repository.deleteFinishedBefore(Instant.now().minus(retention));
+    }
+
+    /**
+     * Converts a job to a DTO.
+     * @param job The job to convert
+     * @return The corresponding DTO
+     */
+    public RecognitionJobDto toDto(RecognitionJob job) {
+        List<PlateDto> plates = null;
+        if (job.getResult() != null) {
+            try {
+                plates = objectMapper.readValue(job.getResult(), PLATES);
+            } catch (JsonProcessingException e) {
+                logger.error("Could not read result of job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        return new RecognitionJobDto(
+                job.getId(),
+                job.getStatus().name().toLowerCase(),
+                plates,
+                job.getError(),
+                job.getErrorStatus(),
+                job.getCreatedAt(),
+                job.getFinishedAt());
+    }
+
+    /**
+     * Locks a job and checks that the claim of this replica still holds.
+     */
+    private Optional<RecognitionJob> stillClaimed(RecognitionJob claimed) {
+        Optional<RecognitionJob> job =
+                repository
+                        .findForUpdate(claimed.getId())
+                        .filter(
+                                current ->
+                                        current.getStatus() == RecognitionJob.Status.RUNNING
+                                                && current.getAttempts() == claimed.getAttempts());
+        if (job.isEmpty()) {
+            logger.warn("Recognition job {} was taken over before it finished", claimed.getId());
+        }
+        return job;
+    }
+
+    private void finish(
+            RecognitionJob job,
+            RecognitionJob.Status status,
+            String result,
+            String error,
+            Integer errorStatus,
+            Instant now) {
+        job.setStatus(status);
+        job.setResult(result);
+        job.setError(error);
+        job.setErrorStatus(errorStatus);
+        job.setImage(null);
+        job.setLockedBy(null);
+        job.setFinishedAt(now);
+        count(status.name().toLowerCase());
+    }
+
+    private void count(String result) {
+        Counter.builder("licenseplate.jobs")
+                .tag("result", result)
+                .description("Recognition job attempts by outcome")
+                .register(meterRegistry)
+                .increment();
+    }
+}
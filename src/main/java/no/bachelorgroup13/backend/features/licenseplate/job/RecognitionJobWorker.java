@@ -0,0 +1,176 @@
+package no.bachelorgroup13.backend.features.licenseplate.job;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works on the recognition job queue from this replica.
+ * It claims as many jobs as it has room for, so every replica pulls work at its
+ * own pace and the load spreads over all of them. Once a second it counts the
+ * queue for the queue depth gauge, and once a minute it deletes old jobs.
+ */
+@Component
+public class RecognitionJobWorker {
+    private static final Logger logger = LoggerFactory.getLogger(RecognitionJobWorker.class);
+
+    private static final long DEPTH_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long PURGE_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final RecognitionJobService jobService;
+    private final LicensePlateService licensePlateService;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final Semaphore permits;
+    private final Object wakeup = new Object();
+    private Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new RecognitionJobWorker.
+     * @param jobService Service for the job queue
+     * @param licensePlateService Service for license plate recognition
+     * @param pipeline Recognition pipeline configuration properties
+     * @param properties Azure Cognitive Services configuration properties
+     */
+    public RecognitionJobWorker(
+            RecognitionJobService jobService,
+            LicensePlateService licensePlateService,
+            PipelineProperties pipeline,
+            LicensePlateProperties properties) {
+        this.jobService = jobService;
+        this.licensePlateService = licensePlateService;
+        this.enabled = pipeline.getJobs().isEnabled();
+        this.pollInterval = pipeline.getJobs().getPollInterval();
+        this.permits =
+                new Semaphore(
+                        Math.max(
+                                1,
+                                pipeline.getJobs().getConcurrency() > 0
+                                        ? pipeline.getJobs().getConcurrency()
+                                        : properties.getResilience().getMaxConcurrent()));
+    }
+
+    /**
+     * Starts working on the queue once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        thread = new Thread(this::run, "recognition-jobs");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops claiming jobs. Jobs still in recognition are taken over by another
+     * replica if they do not finish.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Claims as many jobs as there is room for and starts recognizing them.
+     * @return Number of jobs claimed
+     */
+    public int poll() {
+        int free = permits.availablePermits();
+        if (free == 0) {
+            return 0;
+        }
+        List<RecognitionJob> jobs = jobService.claim(free);
+        for (RecognitionJob job : jobs) {
+            permits.acquireUninterruptibly();
+            process(job);
+        }
+        return jobs.size();
+    }
+
+    private void run() {
+        long nextDepthNanos = System.nanoTime();
+        long nextPurgeNanos = System.nanoTime();
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = poll();
+                long now = System.nanoTime();
+                if (now - nextDepthNanos >= 0) {
+                    jobService.refreshQueueDepth();
+                    nextDepthNanos = now + DEPTH_INTERVAL_NANOS;
+                }
+                if (now - nextPurgeNanos >= 0) {
+                    jobService.purge();
+                    nextPurgeNanos = now + PURGE_INTERVAL_NANOS;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not work on recognition jobs: {}", e.getMessage());
+            }
+            if (claimed == 0 || permits.availablePermits() == 0) {
+                // Sleep until a job finishes or it is time to look at the queue again.
+                synchronized (wakeup) {
+                    try {
+                        wakeup.wait(pollInterval.toMillis());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recognizes a claimed job and stores the outcome.
+     */
+    private void process(RecognitionJob job) {
+        CompletableFuture<List<PlateDto>> plates;
+        try {
+            plates = licensePlateService.getLicensePlatesAsync(job.getImage(), job.getClient());
+        } catch (RuntimeException e) {
+            plates = CompletableFuture.failedFuture(e);
+        }
+        plates.whenComplete(
+                (result, e) -> {
+                    try {
+                        if (e == null) {
+                            jobService.complete(job, result);
+                        } else {
+                            jobService.fail(
+                                    job,
+                                    e instanceof CompletionException && e.getCause() != null
+                                            ? e.getCause()
+                                            : e);
+                        }
+                    } catch (RuntimeException storeFailure) {
+                        // The lease runs out and another attempt is made.
+                        logger.warn(
+                                "Could not store outcome of recognition job {}: {}",
+                                job.getId(),
+                                storeFailure.getMessage());
+                    } finally {
+                        permits.release();
+                        synchronized (wakeup) {
+                            wakeup.notifyAll();
+                        }
+                    }
+                });
+    }
+}
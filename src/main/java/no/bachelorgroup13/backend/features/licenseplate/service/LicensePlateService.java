@@ -1,204 +1,538 @@
 package no.bachelorgroup13.backend.features.licenseplate.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.BufferedReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.bachelorgroup13.backend.features.licenseplate.audit.PlateReadRecorder;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
 import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
-import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.AnalyzeResult;
-import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
-import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
-import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResult;
+import no.bachelorgroup13.backend.features.licenseplate.dto.BatchItemDto;
 import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.AzureReadEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.LocalOcrEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateRecognitionEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.Recognition;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for license plate recognition using Azure Computer Vision API.
- * Handles image processing, API communication, and license plate text extraction.
+ * Service for license plate recognition.
+ * Answers repeated images from the cache, shares work between identical concurrent
+ * requests and hands the rest to the configured recognition engine. Requests that
+ * would use Azure are admitted against the caller's transaction budget, and once a
+ * budget is spent they are read by the local engine or answered from the cache only.
+ * Every cache hit and engine run is recorded for the audit trail.
  */
 @Service
 public class LicensePlateService {
+    private static final Logger logger = LoggerFactory.getLogger(LicensePlateService.class);
 
-    // Regex for plates (AB12345)
-    private static final Pattern PLATE_REGEX = Pattern.compile("(?i)^[A-Z]{2}[- ]?\\d{5}$");
-
-    private final String endpoint;
-    private final String subscriptionKey;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlateRecognitionEngine engine;
+    private final PlateRecognitionEngine fallbackEngine;
+    private final boolean usesAzure;
+    private final AzureBudget azureBudget;
+    private final MeterRegistry meterRegistry;
+    private final RecognitionCache recognitionCache;
+    private final ImagePreprocessor imagePreprocessor;
+    private final MosaicRecognizer mosaicRecognizer;
+    private final PlateReadRecorder plateReadRecorder;
+    private final Executor executor;
+    private final int batchParallelism;
+    private final boolean mosaicBatches;
+    private final Map<String, CompletableFuture<List<PlateDto>>> inFlight =
+            new ConcurrentHashMap<>();
 
     /**
-     * Constructs a new LicensePlateService with Azure credentials.
+     * Constructs a new LicensePlateService.
+     * @param engines Available recognition engines, one is selected by name
+     * @param recognitionCache Cache of results for previously seen images
+     * @param imagePreprocessor Decodes the frames of mosaic batches
+     * @param mosaicRecognizer Recognizes the frames of a batch in shared Azure calls
+     * @param azureBudget Transaction budgets that requests to Azure are admitted against
+     * @param plateReadRecorder Records the plates of every recognition
      * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the fallback metrics
+     * @param executor Executor for batch preparation off the request threads
      */
-    public LicensePlateService(LicensePlateProperties properties) {
-        this.endpoint = properties.getEndpoint();
-        this.subscriptionKey = properties.getKey();
+    public LicensePlateService(
+            List<PlateRecognitionEngine> engines,
+            RecognitionCache recognitionCache,
+            ImagePreprocessor imagePreprocessor,
+            MosaicRecognizer mosaicRecognizer,
+            AzureBudget azureBudget,
+            PlateReadRecorder plateReadRecorder,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry,
+            @Qualifier("licensePlateExecutor") Executor executor) {
+        this.engine =
+                engines.stream()
+                        .filter(candidate -> candidate.getName().equals(properties.getEngine()))
+                        .findFirst()
+                        .orElseThrow(
+                                () ->
+                                        new IllegalStateException(
+                                                "Unknown recognition engine: "
+                                                        + properties.getEngine()));
+        this.usesAzure = !LocalOcrEngine.NAME.equals(engine.getName());
+        this.fallbackEngine =
+                "local".equals(properties.getBudget().getFallback())
+                        ? engines.stream()
+                                .filter(
+                                        candidate ->
+                                                candidate.getName().equals(LocalOcrEngine.NAME))
+                                .findFirst()
+                                .orElse(null)
+                        : null;
+        this.azureBudget = azureBudget;
+        this.meterRegistry = meterRegistry;
+        this.recognitionCache = recognitionCache;
+        this.imagePreprocessor = imagePreprocessor;
+        this.mosaicRecognizer = mosaicRecognizer;
+        this.plateReadRecorder = plateReadRecorder;
+        this.executor = executor;
+        this.batchParallelism = Math.max(1, properties.getBatch().getParallelism());
+        // Composite images are an Azure optimization, other engines read frame by frame.
+        this.mosaicBatches =
+                properties.getBatch().isMosaic() && AzureReadEngine.NAME.equals(engine.getName());
     }
 
     /**
-     * Processes an image file to detect and extract license plates.
+     * Processes an image file asynchronously to detect and extract license plates.
+     * Kept for callers that already have the image on disk.
      * @param imageFile The image file to analyze
-     * @return List of detected license plates with their bounding boxes
-     * @throws IOException If there are issues with file handling or API communication
-     * @throws InterruptedException If the polling operation is interrupted
+     * @return Future completed with the detected license plates
      */
-    public List<PlateDto> getLicensePlates(File imageFile)
-            throws IOException, InterruptedException {
-        String operationLocation = sendImageAndGetOperationLocation(imageFile);
-
-        ReadResponse readResponse = pollReadResult(operationLocation);
+    public CompletableFuture<List<PlateDto>> getLicensePlatesAsync(File imageFile) {
+        try {
+            return getLicensePlatesAsync(Files.readAllBytes(imageFile.toPath()));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        return extractPlatesFromResponse(readResponse);
+    /**
+     * Processes image bytes asynchronously to detect and extract license plates.
+     * Images that were recognized recently are answered from the cache, and requests
+     * for an image that is already being recognized share the same engine run.
+     * Only final results are cached.
+     * @param image The raw image bytes
+     * @return Future completed with the detected license plates
+     */
+    public CompletableFuture<List<PlateDto>> getLicensePlatesAsync(byte[] image) {
+        return getLicensePlatesAsync(image, null);
     }
 
     /**
-     * Sends an image to Azure Computer Vision API for analysis.
-     * @param imageFile The image file to send
-     * @return Operation location URL for polling results
-     * @throws IOException If there are issues with file handling or API communication
+     * Processes image bytes asynchronously on behalf of a client.
+     * Images that were recognized recently are answered from the cache, and requests
+     * for an image that is already being recognized share the same engine run. Only
+     * final results are cached. Recognitions that need Azure are charged to the
+     * client's budget. A request that joins a recognition already in flight is not
+     * recorded again, the engine run is recorded once for the request that started it.
+     * @param image The raw image bytes
+     * @param client Identifies the caller for its budget, or null if unknown
+     * @return Future completed with the detected license plates
      */
-    private String sendImageAndGetOperationLocation(File imageFile) throws IOException {
-        URI analyzeUri = URI.create(endpoint + "/vision/v3.2/read/analyze");
-        HttpURLConnection connection = (HttpURLConnection) analyzeUri.toURL().openConnection();
-
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Ocp-Apim-Subscription-Key", subscriptionKey);
-        connection.setRequestProperty("Content-Type", "application/octet-stream");
-        connection.setDoOutput(true);
-
-        try (FileInputStream inputStream = new FileInputStream(imageFile);
-                OutputStream outputStream = connection.getOutputStream()) {
-            byte[] buffer = new byte[4096];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, read);
-            }
+    public CompletableFuture<List<PlateDto>> getLicensePlatesAsync(byte[] image, String client) {
+        long startNanos = System.nanoTime();
+        String key = RecognitionCache.keyOf(image);
+        List<PlateDto> cached = recognitionCache.get(key);
+        if (cached != null) {
+            plateReadRecorder.record(client, null, true, System.nanoTime() - startNanos, cached);
+            return CompletableFuture.completedFuture(cached);
         }
 
-        int responseCode = connection.getResponseCode();
-        if (responseCode != 202) {
-            String errorMessage = readStream(connection.getErrorStream());
-            throw new IOException(
-                    "Failed to send image to Azure. HTTP " + responseCode + ": " + errorMessage);
+        CompletableFuture<List<PlateDto>> flight = new CompletableFuture<>();
+        CompletableFuture<List<PlateDto>> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.copy();
         }
-
-        String operationLocation = connection.getHeaderField("Operation-Location");
-        if (operationLocation == null || operationLocation.isEmpty()) {
-            throw new IOException("Failed to get operation location from Azure response");
+        CompletableFuture<Recognition> run;
+        try {
+            run = recognize(image, client);
+        } catch (RuntimeException e) {
+            // Whoever joined this flight meanwhile must not wait forever.
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            return flight.copy();
         }
-        return operationLocation;
+        run.whenComplete(
+                (recognition, e) -> {
+                    if (e == null && recognition.cacheable()) {
+                        recognitionCache.put(key, recognition.plates());
+                    }
+                    inFlight.remove(key, flight);
+                    if (e != null) {
+                        flight.completeExceptionally(unwrap(e));
+                        return;
+                    }
+                    flight.complete(recognition.plates());
+                    // Recording must never hold up or break the callers.
+                    try {
+                        plateReadRecorder.record(
+                                client,
+                                recognition.engine() != null
+                                        ? recognition.engine()
+                                        : engine.getName(),
+                                false,
+                                System.nanoTime() - startNanos,
+                                recognition.plates());
+                    } catch (RuntimeException recordError) {
+                        logger.warn("Could not record plate read", recordError);
+                    }
+                });
+        // Each caller gets its own copy so that one cancelled request does not
+        // cancel the recognition for the others.
+        return flight.copy();
     }
 
     /**
-     * Polls the Azure API for analysis results with exponential backoff.
-     * @param operationLocation URL to poll for results
-     * @return Analysis results from Azure
-     * @throws IOException If there are issues with API communication
-     * @throws InterruptedException If the polling operation is interrupted
+     * Runs the configured engine if the client may use Azure, and falls back once
+     * a budget is spent, either before the request or while it was in flight.
+     * @param image The raw image bytes
+     * @param client Identifies the caller for its budget
+     * @return Future completed with the recognition
      */
-    private ReadResponse pollReadResult(String operationLocation)
-            throws IOException, InterruptedException {
-        int maxAttempts = 10;
-        int attempt = 0;
-        long backoffMs = 1000;
-
-        while (attempt < maxAttempts) {
-            URI operationUri = URI.create(operationLocation);
-            HttpURLConnection connection =
-                    (HttpURLConnection) operationUri.toURL().openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Ocp-Apim-Subscription-Key", subscriptionKey);
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 200) {
-                String errorMessage = readStream(connection.getErrorStream());
-                throw new IOException(
-                        "Error polling read result. HTTP " + responseCode + ": " + errorMessage);
-            }
+    private CompletableFuture<Recognition> recognize(byte[] image, String client) {
+        if (!usesAzure) {
+            return engine.recognize(image);
+        }
+        try {
+            azureBudget.admit(client);
+        } catch (BudgetExhaustedException e) {
+            return fallBack(image, e);
+        }
+        return engine.recognize(image)
+                .exceptionallyCompose(
+                        e ->
+                                unwrap(e) instanceof BudgetExhaustedException exhausted
+                                        ? fallBack(image, exhausted)
+                                        : CompletableFuture.failedFuture(unwrap(e)));
+    }
 
-            String json = readStream(connection.getInputStream());
-            ReadResponse response = objectMapper.readValue(json, ReadResponse.class);
+    /**
+     * Reads an image without Azure because a budget is spent. The local read is not
+     * cached, so the image goes to Azure again once the budget has room.
+     * @param image The raw image bytes
+     * @param e Which budget is spent
+     * @return Future with the local recognition, or failed with the budget error
+     *     if only cache hits may be answered
+     */
+    private CompletableFuture<Recognition> fallBack(byte[] image, BudgetExhaustedException e) {
+        String mode = fallbackEngine == null ? "cache" : "local";
+        meterRegistry.counter("licenseplate.budget.fallback", "mode", mode).increment();
+        if (fallbackEngine == null) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return fallbackEngine
+                .recognize(image)
+                .thenApply(
+                        recognition ->
+                                new Recognition(recognition.plates(), false, recognition.engine()));
+    }
 
-            if (!"notStarted".equalsIgnoreCase(response.getStatus())
-                    && !"running".equalsIgnoreCase(response.getStatus())) {
-                return response;
+    /**
+     * Recognizes several images with a bounded number of recognitions in flight.
+     * With mosaic batching enabled, the frames are instead packed into as few Azure
+     * calls as possible. A failing image does not fail the batch, its entry holds the
+     * error instead. Every image is charged to the client's budget.
+     * @param images Image bytes keyed by name, results keep this order
+     * @param client Identifies the caller for its budget, or null if unknown
+     * @return Future completed with the result of every image keyed by name
+     */
+    public CompletableFuture<Map<String, BatchItemDto>> getLicensePlatesBatchAsync(
+            Map<String, byte[]> images, String client) {
+        if (mosaicBatches && images.size() > 1) {
+            try {
+                return CompletableFuture.supplyAsync(
+                                () -> startMosaicBatch(images, client), executor)
+                        .thenCompose(LicensePlateService::collectBatch);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
             }
+        }
+        return new BatchRun(images, client).start();
+    }
 
-            attempt++;
-            if (attempt < maxAttempts) {
-                Thread.sleep(backoffMs);
-                backoffMs = Math.min(backoffMs * 2, 10000);
+    /**
+     * Starts a mosaic batch. Cached images are answered from the cache, images that
+     * are already being recognized join that recognition, images that cannot be
+     * decoded or are over the client's budget go through the single-image path, and
+     * the rest are packed. Packed images are registered as in flight like single
+     * images are. A frame is read again on its own only if its composite failed, or
+     * if the detector found a plate region in it that the composite read nothing in,
+     * since the plate may only have been too small there. Any other frame is final
+     * and cached, with or without plates, so frames without a plate cost no more
+     * than their share of the composite.
+     * @param images Image bytes keyed by name
+     * @param client Identifies the caller for its budget
+     * @return Pending recognition of every image keyed by name
+     */
+    private Map<String, CompletableFuture<List<PlateDto>>> startMosaicBatch(
+            Map<String, byte[]> images, String client) {
+        long startNanos = System.nanoTime();
+        Map<String, CompletableFuture<List<PlateDto>>> pending = new LinkedHashMap<>();
+        List<Map.Entry<String, byte[]>> packedImages = new ArrayList<>();
+        List<String> packedKeys = new ArrayList<>();
+        List<CompletableFuture<List<PlateDto>>> flights = new ArrayList<>();
+        List<MosaicRecognizer.Frame> frames = new ArrayList<>();
+        for (Map.Entry<String, byte[]> image : images.entrySet()) {
+            String key = RecognitionCache.keyOf(image.getValue());
+            List<PlateDto> cached = recognitionCache.get(key);
+            if (cached != null) {
+                plateReadRecorder.record(
+                        client, null, true, System.nanoTime() - startNanos, cached);
+                pending.put(image.getKey(), CompletableFuture.completedFuture(cached));
+                continue;
+            }
+            CompletableFuture<List<PlateDto>> existing = inFlight.get(key);
+            if (existing != null) {
+                pending.put(image.getKey(), existing.copy());
+                continue;
+            }
+            BufferedImage decoded = imagePreprocessor.decode(image.getValue());
+            if (decoded == null || !admit(client)) {
+                pending.put(image.getKey(), getLicensePlatesAsync(image.getValue(), client));
+                continue;
             }
+            CompletableFuture<List<PlateDto>> flight = new CompletableFuture<>();
+            existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                pending.put(image.getKey(), existing.copy());
+                continue;
+            }
+            BufferedImage fitted = imagePreprocessor.fit(decoded);
+            frames.add(
+                    new MosaicRecognizer.Frame(
+                            fitted,
+                            (double) decoded.getWidth() / fitted.getWidth(),
+                            imagePreprocessor.detectRegions(fitted)));
+            packedImages.add(image);
+            packedKeys.add(key);
+            flights.add(flight);
+            pending.put(image.getKey(), flight.copy());
+        }
+
+        List<CompletableFuture<List<PlateDto>>> recognized;
+        try {
+            recognized = frames.isEmpty() ? List.of() : mosaicRecognizer.recognize(frames);
+        } catch (RuntimeException e) {
+            recognized =
+                    flights.stream()
+                            .map(flight -> CompletableFuture.<List<PlateDto>>failedFuture(e))
+                            .toList();
+        }
+        for (int i = 0; i < recognized.size(); i++) {
+            byte[] image = packedImages.get(i).getValue();
+            String key = packedKeys.get(i);
+            CompletableFuture<List<PlateDto>> flight = flights.get(i);
+            boolean detected = !frames.get(i).regions().isEmpty();
+            recognized
+                    .get(i)
+                    .whenComplete(
+                            (plates, e) -> {
+                                inFlight.remove(key, flight);
+                                if (e != null || (plates.isEmpty() && detected)) {
+                                    getLicensePlatesAsync(image, client)
+                                            .whenComplete(
+                                                    (read, readError) -> {
+                                                        if (readError != null) {
+                                                            flight.completeExceptionally(
+                                                                    unwrap(readError));
+                                                        } else {
+                                                            flight.complete(read);
+                                                        }
+                                                    });
+                                    return;
+                                }
+                                recognitionCache.put(key, plates);
+                                flight.complete(plates);
+                                try {
+                                    plateReadRecorder.record(
+                                            client,
+                                            AzureReadEngine.NAME,
+                                            false,
+                                            System.nanoTime() - startNanos,
+                                            plates);
+                                } catch (RuntimeException recordError) {
+                                    logger.warn("Could not record plate read", recordError);
+                                }
+                            });
+        }
+        return pending;
+    }
+
+    /**
+     * Charges one image to the client's budget.
+     * @param client Identifies the caller
+     * @return true if the image may be sent to Azure
+     */
+    private boolean admit(String client) {
+        try {
+            azureBudget.admit(client);
+            return true;
+        } catch (BudgetExhaustedException e) {
+            return false;
         }
-        throw new IOException("Max polling attempts reached");
     }
 
     /**
-     * Extracts license plates from the Azure API response using regex pattern matching.
-     * @param readResponse The response from Azure Computer Vision API
+     * Waits for every image of a batch and turns each outcome into a batch entry.
+     * @param pending Pending recognition of every image keyed by name
+     * @return Future completed with the result of every image keyed by name
+     */
+    private static CompletableFuture<Map<String, BatchItemDto>> collectBatch(
+            Map<String, CompletableFuture<List<PlateDto>>> pending) {
+        Map<String, CompletableFuture<BatchItemDto>> items = new LinkedHashMap<>();
+        pending.forEach(
+                (name, plates) ->
+                        items.put(
+                                name,
+                                plates.handle(
+                                        (found, e) ->
+                                                e == null
+                                                        ? BatchItemDto.success(found)
+                                                        : BatchItemDto.failure(
+                                                                unwrap(e).getMessage()))));
+        return CompletableFuture.allOf(items.values().toArray(CompletableFuture[]::new))
+                .thenApply(
+                        done -> {
+                            Map<String, BatchItemDto> byName = new LinkedHashMap<>();
+                            items.forEach((name, item) -> byName.put(name, item.join()));
+                            return byName;
+                        });
+    }
+
+    /**
+     * Processes an image file to detect and extract license plates.
+     * @param imageFile The image file to analyze
      * @return List of detected license plates with their bounding boxes
+     * @throws IOException If there are issues with file handling or API communication
+     * @throws InterruptedException If the polling operation is interrupted
      */
-    private List<PlateDto> extractPlatesFromResponse(ReadResponse readResponse) {
-        List<PlateDto> plates = new ArrayList<>();
-
-        if ("succeeded".equalsIgnoreCase(readResponse.getStatus())
-                && readResponse.getAnalyzeResult() != null) {
-
-            AnalyzeResult analyzeResult = readResponse.getAnalyzeResult();
-            if (analyzeResult.getReadResults() != null) {
-                for (ReadResult readResult : analyzeResult.getReadResults()) {
-                    if (readResult.getLines() != null) {
-                        for (Line line : readResult.getLines()) {
-                            String candidate = line.getText();
-                            candidate = candidate.replaceAll("\\s+", "");
-                            candidate = candidate.replaceAll("-", "");
-                            candidate = candidate.replaceAll(":", "");
-
-                            if (PLATE_REGEX.matcher(candidate).matches()) {
-                                plates.add(
-                                        new PlateDto(
-                                                candidate,
-                                                Arrays.stream(line.getBoundingBox())
-                                                        .boxed()
-                                                        .collect(Collectors.toList())));
-                            }
-                        }
-                    }
-                }
+    public List<PlateDto> getLicensePlates(File imageFile)
+            throws IOException, InterruptedException {
+        return join(getLicensePlatesAsync(imageFile));
+    }
+
+    /**
+     * Processes image bytes to detect and extract license plates.
+     * @param image The raw image bytes
+     * @return List of detected license plates with their bounding boxes
+     * @throws IOException If there are issues with API communication
+     * @throws InterruptedException If the polling operation is interrupted
+     */
+    public List<PlateDto> getLicensePlates(byte[] image) throws IOException, InterruptedException {
+        return join(getLicensePlatesAsync(image));
+    }
+
+    /**
+     * Waits for a recognition and rethrows its failure as thrown by the blocking API.
+     * @param result The pending recognition
+     * @return List of detected license plates
+     * @throws IOException If the recognition failed with an I/O error
+     * @throws InterruptedException If the wait is interrupted
+     */
+    private static List<PlateDto> join(CompletableFuture<List<PlateDto>> result)
+            throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause =
+                    e.getCause() instanceof CompletionException
+                            ? e.getCause().getCause()
+                            : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new IOException(cause);
         }
+    }
 
-        return plates;
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     /**
-     * Reads the contents of an InputStream into a String.
-     * @param inputStream The input stream to read
-     * @return The contents of the stream as a String
-     * @throws IOException If there are issues reading the stream
+     * One batch request, started a few images at a time. Each finished image starts
+     * the next one, so at most the configured parallelism is in flight.
      */
-    private String readStream(InputStream inputStream) throws IOException {
-        if (inputStream == null) {
-            return "";
-        }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            StringBuilder builder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                builder.append(line);
+    private final class BatchRun {
+        private final List<Map.Entry<String, byte[]>> entries;
+        private final String client;
+        private final BatchItemDto[] results;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Map<String, BatchItemDto>> done = new CompletableFuture<>();
+
+        BatchRun(Map<String, byte[]> images, String client) {
+            this.entries = new ArrayList<>(images.entrySet());
+            this.client = client;
+            this.results = new BatchItemDto[entries.size()];
+            this.remaining = new AtomicInteger(entries.size());
+        }
+
+        CompletableFuture<Map<String, BatchItemDto>> start() {
+            if (entries.isEmpty()) {
+                done.complete(Map.of());
+            }
+            for (int i = 0; i < Math.min(batchParallelism, entries.size()); i++) {
+                startNext();
+            }
+            return done;
+        }
+
+        private void startNext() {
+            int index = nextIndex.getAndIncrement();
+            if (index >= entries.size()) {
+                return;
+            }
+            CompletableFuture<List<PlateDto>> recognition;
+            try {
+                recognition = getLicensePlatesAsync(entries.get(index).getValue(), client);
+            } catch (RuntimeException e) {
+                recognition = CompletableFuture.failedFuture(e);
+            }
+            recognition.whenComplete(
+                    (plates, e) -> {
+                        results[index] =
+                                e == null
+                                        ? BatchItemDto.success(plates)
+                                        : BatchItemDto.failure(unwrap(e).getMessage());
+                        if (remaining.decrementAndGet() == 0) {
+                            finish();
+                        } else {
+                            startNext();
+                        }
+                    });
+        }
+
+        private void finish() {
+            Map<String, BatchItemDto> byName = new LinkedHashMap<>();
+            for (int i = 0; i < results.length; i++) {
+                byName.put(entries.get(i).getKey(), results[i]);
             }
-            return builder.toString();
+            done.complete(byName);
         }
     }
 }
@@ -0,0 +1,333 @@
+package no.bachelorgroup13.backend.features.licenseplate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBulkhead;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureReadPoller;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Word;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.AzureReadEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.Mosaic;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recognizes several frames with as few Azure calls as possible.
+ * The frames, or their plate regions, are packed into composite images, each
+ * composite is read once, and every line Azure finds is mapped back to its frame.
+ */
+@Component
+public class MosaicRecognizer {
+    private final AzureVisionClient azureVisionClient;
+    private final AzureReadPoller azureReadPoller;
+    private final AzureBulkhead azureBulkhead;
+    private final ImagePreprocessor imagePreprocessor;
+    private final PlateMatcher plateMatcher;
+    private final Executor executor;
+    private final int maxSide;
+    private final int tileMaxSide;
+    private final int gap;
+    private final Counter frameCounter;
+    private final Counter callCounter;
+
+    /**
+     * Constructs a new MosaicRecognizer.
+     * @param azureVisionClient Client for the Azure Computer Vision Read API
+     * @param azureReadPoller Poller for outstanding Azure read operations
+     * @param azureBulkhead Caps the Azure read operations in flight
+     * @param imagePreprocessor Finds regions and encodes the composite images
+     * @param plateMatcher Picks the plates out of the recognized text
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the mosaic metrics
+     * @param executor Executor for rendering and encoding the composites
+     */
+    public MosaicRecognizer(
+            AzureVisionClient azureVisionClient,
+            AzureReadPoller azureReadPoller,
+            AzureBulkhead azureBulkhead,
+            ImagePreprocessor imagePreprocessor,
+            PlateMatcher plateMatcher,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry,
+            @Qualifier("licensePlateExecutor") Executor executor) {
+        this.azureVisionClient = azureVisionClient;
+        this.azureReadPoller = azureReadPoller;
+        this.azureBulkhead = azureBulkhead;
+        this.imagePreprocessor = imagePreprocessor;
+        this.plateMatcher = plateMatcher;
+        this.executor = executor;
+        this.maxSide = properties.getBatch().getMosaicMaxSide();
+        this.tileMaxSide = properties.getBatch().getTileMaxSide();
+        this.gap = properties.getBatch().getMosaicGap();
+        this.frameCounter =
+                Counter.builder("licenseplate.mosaic.frames")
+                        .description("Frames recognized through a composite image")
+                        .register(meterRegistry);
+        this.callCounter =
+                Counter.builder("licenseplate.mosaic.calls")
+                        .description("Azure calls made for composite images")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Recognizes plates in several frames.
+     * A frame fails if any composite holding one of its regions fails, including
+     * when the executor is too full to render it.
+     * @param frames The decoded frames
+     * @return One future per frame, completed with the plates in original coordinates
+     */
+    public List<CompletableFuture<List<PlateDto>>> recognize(List<Frame> frames) {
+        List<BufferedImage> images = frames.stream().map(Frame::image).toList();
+        List<Mosaic.Piece> pieces = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            for (Rectangle region : frames.get(i).regionsToSend()) {
+                double scale =
+                        Math.max(1.0, (double) Math.max(region.width, region.height) / tileMaxSide);
+                pieces.add(new Mosaic.Piece(i, region, scale));
+            }
+        }
+        List<Mosaic> mosaics = Mosaic.pack(pieces, maxSide, gap);
+
+        List<FrameResult> results = new ArrayList<>();
+        for (int i = 0; i < frames.size(); i++) {
+            results.add(new FrameResult());
+        }
+        for (Mosaic mosaic : mosaics) {
+            mosaic.getTiles().stream()
+                    .map(Mosaic.Tile::source)
+                    .distinct()
+                    .forEach(source -> results.get(source).pendingMosaics++);
+        }
+        frameCounter.increment(frames.size());
+        callCounter.increment(mosaics.size());
+
+        for (Mosaic mosaic : mosaics) {
+            CompletableFuture<byte[]> rendering;
+            try {
+                rendering = CompletableFuture.supplyAsync(() -> render(mosaic, images), executor);
+            } catch (RejectedExecutionException e) {
+                rendering = CompletableFuture.failedFuture(e);
+            }
+            rendering
+                    .thenCompose(
+                            bytes ->
+                                    azureBulkhead.call(
+                                            () ->
+                                                    azureVisionClient
+                                                            .submitAsync(bytes)
+                                                            .thenCompose(azureReadPoller::await)))
+                    .whenComplete((response, e) -> collect(mosaic, response, e, frames, results));
+        }
+        return results.stream().map(result -> result.plates).collect(Collectors.toList());
+    }
+
+    /**
+     * Draws and encodes one composite image.
+     * @param mosaic Layout of the composite
+     * @param frames The decoded frames
+     * @return JPEG bytes of the composite
+     */
+    private byte[] render(Mosaic mosaic, List<BufferedImage> frames) {
+        try {
+            return imagePreprocessor.encode(mosaic.render(frames));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Hands the plates found in one composite to the frames they belong to.
+     * @param mosaic Layout of the composite
+     * @param response The final read response, or null on failure
+     * @param error The failure, or null on success
+     * @param frames The frames, for their scale
+     * @param results Results of all frames
+     */
+    private void collect(
+            Mosaic mosaic,
+            ReadResponse response,
+            Throwable error,
+            List<Frame> frames,
+            List<FrameResult> results) {
+        Throwable failure = error;
+        if (failure == null && !"succeeded".equalsIgnoreCase(response.getStatus())) {
+            failure = new IOException("Azure read ended with status " + response.getStatus());
+        }
+        Map<Integer, List<PlateDto>> found =
+                failure == null ? platesBySource(mosaic, response) : Map.of();
+        for (int source : mosaic.getTiles().stream().map(Mosaic.Tile::source).distinct().toList()) {
+            List<PlateDto> plates = new ArrayList<>();
+            for (PlateDto plate : found.getOrDefault(source, List.of())) {
+                plate.setBbox(frames.get(source).toOriginal(plate.getBbox()));
+                plates.add(plate);
+            }
+            results.get(source).add(plates, failure);
+        }
+    }
+
+    /**
+     * Maps every line of a read result back to its frame and keeps the plates.
+     * Lines Azure joined across two tiles are split into their words per tile.
+     * @param mosaic Layout of the composite
+     * @param response The read response
+     * @return Plates keyed by frame index
+     */
+    private Map<Integer, List<PlateDto>> platesBySource(Mosaic mosaic, ReadResponse response) {
+        Map<Integer, List<PlateDto>> plates = new LinkedHashMap<>();
+        if (response.getAnalyzeResult() == null
+                || response.getAnalyzeResult().getReadResults() == null) {
+            return plates;
+        }
+        for (ReadResult readResult : response.getAnalyzeResult().getReadResults()) {
+            if (readResult.getLines() == null) {
+                continue;
+            }
+            for (Line line : readResult.getLines()) {
+                Mosaic.Located located = mosaic.locate(box(line.getBoundingBox()));
+                if (located != null) {
+                    addPlate(
+                            plates,
+                            located.source(),
+                            line.getText(),
+                            located.bbox(),
+                            AzureReadEngine.confidenceOf(line.getWords()));
+                } else if (line.getWords() != null) {
+                    splitByTile(mosaic, line.getWords(), plates);
+                }
+            }
+        }
+        return plates;
+    }
+
+    /**
+     * Regroups the words of a line that spans several tiles into one line per tile.
+     * @param mosaic Layout of the composite
+     * @param words Words of the line
+     * @param plates Plates keyed by frame index, added to
+     */
+    private void splitByTile(Mosaic mosaic, List<Word> words, Map<Integer, List<PlateDto>> plates) {
+        Map<Integer, List<Mosaic.Located>> byTile = new LinkedHashMap<>();
+        Map<Integer, List<Word>> wordsByTile = new LinkedHashMap<>();
+        for (Word word : words) {
+            Mosaic.Located located = mosaic.locate(box(word.getBoundingBox()));
+            if (located == null) {
+                continue;
+            }
+            byTile.computeIfAbsent(located.tile(), tile -> new ArrayList<>()).add(located);
+            wordsByTile.computeIfAbsent(located.tile(), tile -> new ArrayList<>()).add(word);
+        }
+        for (Map.Entry<Integer, List<Mosaic.Located>> tile : byTile.entrySet()) {
+            List<Mosaic.Located> parts = tile.getValue();
+            List<Word> tileWords = wordsByTile.get(tile.getKey());
+            addPlate(
+                    plates,
+                    parts.get(0).source(),
+                    tileWords.stream().map(Word::getText).collect(Collectors.joining(" ")),
+                    enclosingBox(parts),
+                    AzureReadEngine.confidenceOf(tileWords));
+        }
+    }
+
+    private void addPlate(
+            Map<Integer, List<PlateDto>> plates,
+            int source,
+            String text,
+            List<Integer> bbox,
+            Double confidence) {
+        PlateDto plate = plateMatcher.match(text, bbox, confidence);
+        if (plate != null) {
+            plates.computeIfAbsent(source, s -> new ArrayList<>()).add(plate);
+        }
+    }
+
+    private static List<Integer> enclosingBox(List<Mosaic.Located> parts) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (Mosaic.Located part : parts) {
+            List<Integer> bbox = part.bbox();
+            for (int i = 0; i + 1 < bbox.size(); i += 2) {
+                minX = Math.min(minX, bbox.get(i));
+                maxX = Math.max(maxX, bbox.get(i));
+                minY = Math.min(minY, bbox.get(i + 1));
+                maxY = Math.max(maxY, bbox.get(i + 1));
+            }
+        }
+        return List.of(minX, minY, maxX, minY, maxX, maxY, minX, maxY);
+    }
+
+    private static List<Integer> box(int[] boundingBox) {
+        return boundingBox == null ? null : Arrays.stream(boundingBox).boxed().toList();
+    }
+
+    /**
+     * A decoded frame, possibly downscaled from the uploaded image.
+     * @param image The frame to pack
+     * @param scale Original pixels per frame pixel, at least 1
+     * @param regions Detected plate regions in frame pixels, or none to pack the whole frame
+     */
+    public record Frame(BufferedImage image, double scale, List<Rectangle> regions) {
+
+        List<Rectangle> regionsToSend() {
+            return regions.isEmpty()
+                    ? List.of(new Rectangle(0, 0, image.getWidth(), image.getHeight()))
+                    : regions;
+        }
+
+        List<Integer> toOriginal(List<Integer> bbox) {
+            if (scale == 1.0) {
+                return bbox;
+            }
+            return bbox.stream().map(value -> (int) Math.round(value * scale)).toList();
+        }
+    }
+
+    /**
+     * Plates collected for one frame while its composites are being read.
+     */
+    private static final class FrameResult {
+        private final CompletableFuture<List<PlateDto>> plates = new CompletableFuture<>();
+        private final List<PlateDto> found = new ArrayList<>();
+        private int pendingMosaics;
+        private Throwable failure;
+
+        synchronized void add(List<PlateDto> mosaicPlates, Throwable mosaicFailure) {
+            found.addAll(mosaicPlates);
+            if (mosaicFailure != null && failure == null) {
+                failure =
+                        mosaicFailure instanceof CompletionException
+                                        && mosaicFailure.getCause() != null
+                                ? mosaicFailure.getCause()
+                                : mosaicFailure;
+            }
+            if (--pendingMosaics == 0) {
+                if (failure != null) {
+                    plates.completeExceptionally(failure);
+                } else {
+                    plates.complete(List.copyOf(found));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package no.bachelorgroup13.backend.features.licenseplate.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import no.bachelorgroup13.backend.features.licenseplate.dto.IdentifiedPlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.reservation.dto.ReservationDto;
+import no.bachelorgroup13.backend.features.reservation.mapper.ReservationMapper;
+import no.bachelorgroup13.backend.features.reservation.service.ReservationService;
+import no.bachelorgroup13.backend.features.user.dto.UserDto;
+import no.bachelorgroup13.backend.features.user.mapper.UserMapper;
+import no.bachelorgroup13.backend.features.user.service.UserService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves recognized license plates to their user and today's reservation.
+ * Every lookup runs on its own, so the user and reservation of all plates in an
+ * image are fetched side by side, and a plate read twice is looked up once.
+ */
+@Service
+public class PlateIdentificationService {
+    private final UserService userService;
+    private final ReservationService reservationService;
+    private final UserMapper userMapper;
+    private final ReservationMapper reservationMapper;
+    private final Executor executor;
+
+    /**
+     * Constructs a new PlateIdentificationService.
+     * @param userService Service for user lookups
+     * @param reservationService Service for reservation lookups
+     * @param userMapper Mapper for user DTOs
+     * @param reservationMapper Mapper for reservation DTOs
+     * @param executor Executor the lookups run on
+     */
+    public PlateIdentificationService(
+            UserService userService,
+            ReservationService reservationService,
+            UserMapper userMapper,
+            ReservationMapper reservationMapper,
+            @Qualifier("plateLookupExecutor") Executor executor) {
+        this.userService = userService;
+        this.reservationService = reservationService;
+        this.userMapper = userMapper;
+        this.reservationMapper = reservationMapper;
+        this.executor = executor;
+    }
+
+    /**
+     * Looks up the user and today's reservation of every plate.
+     * @param plates The recognized plates
+     * @return Future with the plates in the same order, each with its user and
+     *     reservation where found
+     */
+    public CompletableFuture<List<IdentifiedPlateDto>> identify(List<PlateDto> plates) {
+        LocalDate today = LocalDate.now();
+        Map<String, CompletableFuture<UserDto>> users = new HashMap<>();
+        Map<String, CompletableFuture<ReservationDto>> reservations = new HashMap<>();
+        for (PlateDto plate : plates) {
+            users.computeIfAbsent(
+                    plate.getText(),
+                    text ->
+                            lookup(
+                                    () ->
+                                            userService
+                                                    .getUserByLicensePlate(text)
+                                                    .map(userMapper::toDto)
+                                                    .orElse(null)));
+            reservations.computeIfAbsent(
+                    plate.getText(),
+                    text ->
+                            lookup(
+                                    () ->
+                                            reservationService
+                                                    .getReservationByLicensePlateAndDate(
+                                                            text, today)
+                                                    .map(reservationMapper::toDto)
+                                                    .orElse(null)));
+        }
+        List<CompletableFuture<?>> lookups = new ArrayList<>(users.values());
+        lookups.addAll(reservations.values());
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+                .thenApply(
+                        v -> {
+                            List<IdentifiedPlateDto> identified = new ArrayList<>(plates.size());
+                            for (PlateDto plate : plates) {
+                                identified.add(
+                                        new IdentifiedPlateDto(
+                                                plate,
+                                                users.get(plate.getText()).join(),
+                                                reservations.get(plate.getText()).join()));
+                            }
+                            return identified;
+                        });
+    }
+
+    /**
+     * Runs a lookup on the lookup executor.
+     * @param lookup The lookup to run
+     * @return Future with the result, or failed if the executor is full
+     */
+    private <T> CompletableFuture<T> lookup(Supplier<T> lookup) {
+        try {
+            return CompletableFuture.supplyAsync(lookup, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
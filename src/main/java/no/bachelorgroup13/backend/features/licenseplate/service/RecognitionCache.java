@@ -0,0 +1,157 @@
+package no.bachelorgroup13.backend.features.licenseplate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of recognition results keyed by the SHA-256 of the image bytes.
+ * Entries expire after the configured TTL and the least recently used entry is
+ * evicted when the cache is full, so repeated uploads of the same frame skip Azure.
+ */
+@Component
+public class RecognitionCache {
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter sizeEvictionCounter;
+    private final Counter expiredEvictionCounter;
+
+    /**
+     * Constructs a new RecognitionCache.
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the cache metrics
+     */
+    public RecognitionCache(LicensePlateProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.getCache().isEnabled();
+        this.maxSize = Math.max(1, properties.getCache().getMaxSize());
+        this.ttlNanos = properties.getCache().getTtl().toNanos();
+
+        this.hitCounter =
+                Counter.builder("licenseplate.cache.hits")
+                        .description("Recognitions answered from the cache")
+                        .register(meterRegistry);
+        this.missCounter =
+                Counter.builder("licenseplate.cache.misses")
+                        .description("Recognitions that had to be sent to Azure")
+                        .register(meterRegistry);
+        this.sizeEvictionCounter =
+                Counter.builder("licenseplate.cache.evictions")
+                        .tag("cause", "size")
+                        .description("Cached results removed from the cache")
+                        .register(meterRegistry);
+        this.expiredEvictionCounter =
+                Counter.builder("licenseplate.cache.evictions")
+                        .tag("cause", "expired")
+                        .description("Cached results removed from the cache")
+                        .register(meterRegistry);
+        Gauge.builder("licenseplate.cache.size", this, RecognitionCache::size)
+                .description("Results currently held in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Computes the cache key for an image.
+     * @param image Raw image bytes
+     * @return Hex encoded SHA-256 of the image
+     */
+    public static String keyOf(byte[] image) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Looks up the result for an image and counts the hit or miss.
+     * @param key Cache key of the image
+     * @return The cached plates, or null if there is no live entry
+     */
+    public List<PlateDto> get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                expiredEvictionCounter.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                missCounter.increment();
+                return null;
+            }
+            hitCounter.increment();
+            return entry.plates;
+        }
+    }
+
+    /**
+     * Stores the result for an image, evicting expired and least recently used entries.
+     * @param key Cache key of the image
+     * @param plates The recognized plates
+     */
+    public void put(String key, List<PlateDto> plates) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (entries) {
+            entries.put(key, new Entry(List.copyOf(plates), now + ttlNanos));
+            if (entries.size() > maxSize) {
+                removeExpired(now);
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictionCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the cache, including expired ones not yet removed.
+     * @return Number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes every expired entry.
+     * @param now Current time from System.nanoTime()
+     */
+    private void removeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                expiredEvictionCounter.increment();
+            }
+        }
+    }
+
+    private record Entry(List<PlateDto> plates, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
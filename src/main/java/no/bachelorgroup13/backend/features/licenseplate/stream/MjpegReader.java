@@ -0,0 +1,153 @@
+package no.bachelorgroup13.backend.features.licenseplate.stream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits an MJPEG stream into JPEG frames.
+ * Works on bare concatenated JPEGs, as recorded to file, and on multipart HTTP
+ * camera streams, since anything between frames, such as part headers, is skipped.
+ * Frames are found by walking the JPEG markers rather than searching for the end
+ * marker, so thumbnails embedded in a frame do not cut it short.
+ */
+public final class MjpegReader implements Closeable {
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+
+    private final InputStream input;
+    private final int maxFrameBytes;
+
+    /**
+     * Constructs a new MjpegReader.
+     * @param input The MJPEG stream
+     * @param maxFrameBytes Largest frame accepted
+     */
+    public MjpegReader(InputStream input, int maxFrameBytes) {
+        this.input = new BufferedInputStream(input, 64 * 1024);
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Reads the next frame.
+     * @return The JPEG bytes of the frame, or null at the end of the stream
+     * @throws IOException If the stream fails or a frame is larger than allowed
+     */
+    public byte[] next() throws IOException {
+        if (!skipToStart()) {
+            return null;
+        }
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(64 * 1024);
+        frame.write(0xFF);
+        frame.write(SOI);
+        try {
+            int marker = readMarker(frame);
+            while (marker != EOI) {
+                if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                    marker = readMarker(frame);
+                    continue;
+                }
+                int length = (read() << 8) | read();
+                frame.write(length >> 8);
+                frame.write(length);
+                copy(length - 2, frame);
+                marker = marker == SOS ? readScan(frame) : readMarker(frame);
+            }
+        } catch (EOFException e) {
+            // A frame cut off by the end of a recording is dropped.
+            return null;
+        }
+        return frame.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Skips to just after the next start of image marker.
+     * @return false if the stream ended first
+     */
+    private boolean skipToStart() throws IOException {
+        int previous = -1;
+        int b;
+        while ((b = input.read()) != -1) {
+            if (previous == 0xFF && b == SOI) {
+                return true;
+            }
+            previous = b;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next marker, skipping fill bytes.
+     */
+    private int readMarker(ByteArrayOutputStream frame) throws IOException {
+        if (read() != 0xFF) {
+            throw new IOException("Corrupt JPEG frame, expected a marker");
+        }
+        int marker;
+        do {
+            marker = read();
+        } while (marker == 0xFF);
+        frame.write(0xFF);
+        frame.write(marker);
+        return marker;
+    }
+
+    /**
+     * Copies entropy-coded data up to the marker that ends it.
+     * @return The marker after the scan
+     */
+    private int readScan(ByteArrayOutputStream frame) throws IOException {
+        while (true) {
+            int b = read();
+            if (b != 0xFF) {
+                write(frame, b);
+                continue;
+            }
+            int next;
+            do {
+                next = read();
+            } while (next == 0xFF);
+            frame.write(0xFF);
+            write(frame, next);
+            // Stuffed zero bytes and restart markers are part of the scan.
+            if (next != 0x00 && (next < 0xD0 || next > 0xD7)) {
+                return next;
+            }
+        }
+    }
+
+    private void copy(int count, ByteArrayOutputStream frame) throws IOException {
+        if (count < 0 || frame.size() + count > maxFrameBytes) {
+            throw new IOException("JPEG frame larger than " + maxFrameBytes + " bytes");
+        }
+        byte[] bytes = input.readNBytes(count);
+        if (bytes.length < count) {
+            throw new EOFException();
+        }
+        frame.write(bytes);
+    }
+
+    private void write(ByteArrayOutputStream frame, int b) throws IOException {
+        if (frame.size() >= maxFrameBytes) {
+            throw new IOException("JPEG frame larger than " + maxFrameBytes + " bytes");
+        }
+        frame.write(b);
+    }
+
+    private int read() throws IOException {
+        int b = input.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
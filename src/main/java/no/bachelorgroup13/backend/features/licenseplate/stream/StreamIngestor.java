@@ -0,0 +1,302 @@
+package no.bachelorgroup13.backend.features.licenseplate.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the configured MJPEG camera streams continuously and feeds their frames
+ * through the motion gate, recognition and the plate tracker, which publishes the
+ * plate events.
+ * Frames are sampled at the configured rate and only a few per stream are in
+ * recognition at once. A live stream sheds sampled frames while recognition is
+ * behind, so it always works on recent frames, while a recorded file waits so that
+ * a replay sees every sampled frame.
+ */
+@Component
+public class StreamIngestor {
+    private static final Logger logger = LoggerFactory.getLogger(StreamIngestor.class);
+
+    /** Prefix of the client name stream frames are charged to. */
+    public static final String CLIENT_PREFIX = AzureBudget.STREAM_PREFIX;
+
+    private final LicensePlateService licensePlateService;
+    private final MotionGate motionGate;
+    private final PlateTracker plateTracker;
+    private final List<PipelineProperties.Stream> streams;
+    private final int maxInFlight;
+    private final int maxFrameBytes;
+    private final Duration reconnectDelay;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final LicensePlateProperties.Budget budget;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final Map<String, Closeable> openStreams = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new StreamIngestor.
+     * @param licensePlateService Service for license plate recognition
+     * @param motionGate Drops frames that show nothing new
+     * @param plateTracker Fuses the reads of each camera into plate events
+     * @param pipeline Recognition pipeline configuration properties
+     * @param properties Azure Cognitive Services configuration properties
+     * @param meterRegistry Registry for the stream metrics
+     */
+    public StreamIngestor(
+            LicensePlateService licensePlateService,
+            MotionGate motionGate,
+            PlateTracker plateTracker,
+            PipelineProperties pipeline,
+            LicensePlateProperties properties,
+            MeterRegistry meterRegistry) {
+        this.licensePlateService = licensePlateService;
+        this.motionGate = motionGate;
+        this.plateTracker = plateTracker;
+        this.streams = pipeline.getIngestion().getStreams();
+        this.maxInFlight = Math.max(1, pipeline.getIngestion().getMaxInFlight());
+        this.maxFrameBytes = pipeline.getIngestion().getMaxFrameBytes();
+        this.reconnectDelay = pipeline.getIngestion().getReconnectDelay();
+        this.connectTimeout = properties.getHttp().getConnectTimeout();
+        this.readTimeout = properties.getHttp().getRequestTimeout();
+        this.budget = properties.getBudget();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts one reader thread per configured stream once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (PipelineProperties.Stream stream : streams) {
+            if (exceedsBudget(stream)) {
+                logger.warn(
+                        "Camera {} samples {} fps, but a stream may send {} frames per second"
+                                + " to Azure, so frames beyond that go to the {} fallback",
+                        stream.getCamera(),
+                        stream.getFps(),
+                        budget.getStreamRate(),
+                        budget.getFallback());
+            }
+            Thread thread = new Thread(() -> run(stream), "camera-stream-" + stream.getCamera());
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+            logger.info("Reading camera {} from {}", stream.getCamera(), stream.getSource());
+        }
+    }
+
+    /**
+     * Checks whether a stream samples more frames per second than the stream budget
+     * lets through to Azure. The motion gate drops frames that show nothing new, so
+     * this only means that busy moments are partly read by the fallback.
+     * @param stream The stream settings
+     * @return true if the sampling rate is above the stream rate
+     */
+    public boolean exceedsBudget(PipelineProperties.Stream stream) {
+        double rate = budget.getStreamRate();
+        return rate > 0 && (stream.getFps() <= 0 || stream.getFps() > rate);
+    }
+
+    /**
+     * Reads frames from a stream until it ends, then waits for the frames still in
+     * recognition.
+     * @param stream The stream settings
+     * @param input The MJPEG stream
+     * @param replay true to wait for recognition instead of shedding frames
+     * @return Number of frames sent on to recognition
+     * @throws IOException If the stream fails
+     */
+    public int ingest(PipelineProperties.Stream stream, InputStream input, boolean replay)
+            throws IOException {
+        String camera = stream.getCamera();
+        Counter received = counter(camera, "received");
+        Counter shed = counter(camera, "shed");
+        MjpegReader reader = new MjpegReader(input, maxFrameBytes);
+        Semaphore permits = new Semaphore(maxInFlight);
+        long intervalNanos = stream.getFps() > 0 ? (long) (1e9 / stream.getFps()) : 0;
+        long startNanos = System.nanoTime();
+        long nextNanos = Long.MIN_VALUE;
+        long index = 0;
+        int sampled = 0;
+        try {
+            byte[] frame;
+            while (running && (frame = reader.next()) != null) {
+                received.increment();
+                // Recordings are dated by their frame rate so a replay samples the
+                // same frames however fast it runs.
+                long atNanos =
+                        stream.getSourceFps() > 0
+                                ? startNanos + (long) (index++ * 1e9 / stream.getSourceFps())
+                                : System.nanoTime();
+                if (atNanos < nextNanos) {
+                    continue;
+                }
+                nextNanos = atNanos + intervalNanos;
+                if (replay) {
+                    permits.acquireUninterruptibly();
+                } else if (!permits.tryAcquire()) {
+                    shed.increment();
+                    continue;
+                }
+                sampled++;
+                process(camera, frame, atNanos).whenComplete((v, e) -> permits.release());
+            }
+        } finally {
+            permits.acquireUninterruptibly(maxInFlight);
+        }
+        return sampled;
+    }
+
+    /**
+     * Stops all streams.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Closeable stream : openStreams.values()) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                logger.debug("Could not close camera stream: {}", e.getMessage());
+            }
+        }
+        threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Reads a stream until the application stops, reconnecting to live streams that
+     * fail or end. A recorded file is read once.
+     */
+    private void run(PipelineProperties.Stream stream) {
+        boolean replay = isRecording(stream.getSource());
+        while (running) {
+            try (InputStream input = open(stream.getSource())) {
+                openStreams.put(stream.getCamera(), input);
+                int sampled = ingest(stream, input, replay);
+                if (replay) {
+                    logger.info(
+                            "Replayed {} frames of camera {} from {}",
+                            sampled,
+                            stream.getCamera(),
+                            stream.getSource());
+                    return;
+                }
+                logger.warn("Stream of camera {} ended", stream.getCamera());
+            } catch (IOException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Stream of camera {} failed: {}", stream.getCamera(), e.getMessage());
+                if (replay) {
+                    return;
+                }
+            } finally {
+                openStreams.remove(stream.getCamera());
+            }
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends one sampled frame through the motion gate, recognition and the tracker.
+     * @return Future completed when the frame is done, also if it failed
+     */
+    private CompletableFuture<Void> process(String camera, byte[] frame, long atNanos) {
+        if (!motionGate.admit(camera, frame, atNanos)) {
+            counter(camera, "skipped").increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done;
+        try {
+            done =
+                    licensePlateService
+                            .getLicensePlatesAsync(frame, CLIENT_PREFIX + camera)
+                            .thenAccept(plates -> plateTracker.observe(camera, plates, atNanos));
+        } catch (RuntimeException e) {
+            done = CompletableFuture.failedFuture(e);
+        }
+        return done.handle(
+                (v, e) -> {
+                    if (e != null) {
+                        counter(camera, "failed").increment();
+                        logger.debug("Frame of camera {} failed: {}", camera, e.getMessage());
+                    } else {
+                        counter(camera, "recognized").increment();
+                    }
+                    return null;
+                });
+    }
+
+    private Counter counter(String camera, String result) {
+        return Counter.builder("licenseplate.stream.frames")
+                .tag("camera", camera)
+                .tag("result", result)
+                .description("Frames read from camera streams")
+                .register(meterRegistry);
+    }
+
+    private static boolean isRecording(String source) {
+        return !source.startsWith("tcp://")
+                && !source.startsWith("http://")
+                && !source.startsWith("https://");
+    }
+
+    private InputStream open(String source) throws IOException {
+        if (source.startsWith("tcp://")) {
+            URI uri = URI.create(source);
+            Socket socket = new Socket();
+            try {
+                socket.connect(
+                        new InetSocketAddress(uri.getHost(), uri.getPort()),
+                        (int) connectTimeout.toMillis());
+                socket.setSoTimeout((int) readTimeout.toMillis());
+                return socket.getInputStream();
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+        if (!isRecording(source)) {
+            URLConnection connection = URI.create(source).toURL().openConnection();
+            connection.setConnectTimeout((int) connectTimeout.toMillis());
+            connection.setReadTimeout((int) readTimeout.toMillis());
+            return connection.getInputStream();
+        }
+        return Files.newInputStream(
+                Path.of(source.startsWith("file:") ? URI.create(source).getPath() : source));
+    }
+}
@@ -0,0 +1,25 @@
+package no.bachelorgroup13.backend.features.licenseplate.tracking;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One vehicle seen by a camera, published once per passage by the plate tracker.
+ * @param camera The camera that saw the vehicle
+ * @param text The plate text the reads agreed on
+ * @param format The plate format of the text, or null if unknown
+ * @param bbox Bounding box of the plate in the latest frame it was read in
+ * @param agreement How much of the vote went to the chosen characters, from 0 to 1
+ * @param reads Number of frames the plate was read in before the event
+ * @param firstSeen When the plate was first read
+ * @param lastSeen When the plate was last read
+ */
+public record PlateEvent(
+        String camera,
+        String text,
+        String format,
+        List<Integer> bbox,
+        double agreement,
+        int reads,
+        Instant firstSeen,
+        Instant lastSeen) {}
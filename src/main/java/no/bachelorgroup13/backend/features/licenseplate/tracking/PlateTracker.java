@@ -0,0 +1,355 @@
+package no.bachelorgroup13.backend.features.licenseplate.tracking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fuses the reads of consecutive frames from each camera into one event per vehicle.
+ * Reads that are within a few characters of each other belong to the same passage.
+ * The latest reads of a passage vote on every character, weighted by their score,
+ * and a PlateEvent is published once, as soon as enough reads agree or, for a
+ * vehicle that was only read a few times, when the camera stops seeing it.
+ */
+@Component
+public class PlateTracker {
+    private static final Logger logger = LoggerFactory.getLogger(PlateTracker.class);
+
+    private final int window;
+    private final int minReads;
+    private final int maxDistance;
+    private final long idleTimeoutNanos;
+    private final int maxCameras;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, Passage> passages = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter readCounter;
+    private final Counter votedCounter;
+    private final Counter idleCounter;
+    private final Counter untrackedCounter;
+
+    /**
+     * Constructs a new PlateTracker and starts checking for vehicles that have left.
+     * @param properties Recognition pipeline configuration properties
+     * @param eventPublisher Publisher for the plate events
+     * @param meterRegistry Registry for the tracking metrics
+     */
+    public PlateTracker(
+            PipelineProperties properties,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.window = Math.max(1, properties.getTracking().getWindow());
+        this.minReads = Math.max(1, properties.getTracking().getMinReads());
+        this.maxDistance = properties.getTracking().getMaxDistance();
+        this.idleTimeoutNanos = properties.getTracking().getIdleTimeout().toNanos();
+        this.maxCameras = properties.getTracking().getMaxCameras();
+        this.eventPublisher = eventPublisher;
+
+        this.readCounter =
+                Counter.builder("licenseplate.tracker.reads")
+                        .description("Plate reads from camera frames")
+                        .register(meterRegistry);
+        this.votedCounter =
+                Counter.builder("licenseplate.tracker.events")
+                        .tag("trigger", "votes")
+                        .description("Vehicle passages published as plate events")
+                        .register(meterRegistry);
+        this.idleCounter =
+                Counter.builder("licenseplate.tracker.events")
+                        .tag("trigger", "idle")
+                        .description("Vehicle passages published as plate events")
+                        .register(meterRegistry);
+        this.untrackedCounter =
+                Counter.builder("licenseplate.tracker.untracked")
+                        .description("Frames from cameras over the tracking limit")
+                        .register(meterRegistry);
+        Gauge.builder("licenseplate.tracker.active", passages, Map::size)
+                .description("Vehicle passages being tracked")
+                .register(meterRegistry);
+
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "plate-tracker");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        long sweepMs = Math.max(100, properties.getTracking().getIdleTimeout().toMillis() / 4);
+        scheduler.scheduleWithFixedDelay(
+                () -> sweep(System.nanoTime()), sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the plates read in one frame from a camera.
+     * @param camera The camera the frame came from
+     * @param plates Plates read in the frame
+     * @return The event published because of this frame, or null if there is none
+     */
+    public PlateEvent observe(String camera, List<PlateDto> plates) {
+        return observe(camera, plates, System.nanoTime());
+    }
+
+    /**
+     * Adds the plates read in one frame from a camera at a given time.
+     * @param camera The camera the frame came from
+     * @param plates Plates read in the frame
+     * @param nowNanos Time of the frame from System.nanoTime
+     * @return The event published because of this frame, or null if there is none
+     */
+    public PlateEvent observe(String camera, List<PlateDto> plates, long nowNanos) {
+        if (plates.isEmpty()) {
+            return null;
+        }
+        if (!passages.containsKey(camera) && passages.size() >= maxCameras) {
+            untrackedCounter.increment();
+            return null;
+        }
+        PlateEvent[] events = new PlateEvent[2];
+        passages.compute(
+                camera,
+                (key, passage) -> {
+                    Passage current = passage;
+                    PlateDto read = current == null ? best(plates) : current.closest(plates);
+                    if (read == null) {
+                        // A different vehicle has arrived before the last one timed out.
+                        events[0] = current.close(idleCounter);
+                        read = best(plates);
+                        current = null;
+                    }
+                    if (current == null) {
+                        current = new Passage(camera);
+                    }
+                    readCounter.increment();
+                    events[1] = current.add(read, nowNanos);
+                    return current;
+                });
+        publish(events[0]);
+        publish(events[1]);
+        return events[1] != null ? events[1] : events[0];
+    }
+
+    /**
+     * Ends the passages of cameras that have not read a plate for the idle timeout,
+     * publishing the event of any that has none yet.
+     * @param nowNanos Current time from System.nanoTime
+     */
+    public void sweep(long nowNanos) {
+        for (String camera : List.copyOf(passages.keySet())) {
+            PlateEvent[] event = new PlateEvent[1];
+            passages.computeIfPresent(
+                    camera,
+                    (key, passage) -> {
+                        if (nowNanos - passage.lastSeenNanos < idleTimeoutNanos) {
+                            return passage;
+                        }
+                        event[0] = passage.close(idleCounter);
+                        return null;
+                    });
+            publish(event[0]);
+        }
+    }
+
+    /**
+     * Stops checking for vehicles that have left.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void publish(PlateEvent event) {
+        if (event != null) {
+            logger.debug(
+                    "Camera {} saw {} in {} reads with agreement {}",
+                    event.camera(),
+                    event.text(),
+                    event.reads(),
+                    event.agreement());
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private static PlateDto best(List<PlateDto> plates) {
+        PlateDto best = plates.get(0);
+        for (PlateDto plate : plates) {
+            if (weightOf(plate) > weightOf(best)) {
+                best = plate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the weight of a read in the vote, its score if it has one, else its
+     * confidence, else 1.
+     */
+    private static double weightOf(PlateDto plate) {
+        if (plate.getScore() != null) {
+            return plate.getScore();
+        }
+        return plate.getConfidence() != null ? plate.getConfidence() : 1.0;
+    }
+
+    /**
+     * Counts the single character edits between two texts.
+     */
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * The reads of one vehicle in front of one camera. Only used inside the compute
+     * functions of the passage map, which hold the lock for the camera.
+     */
+    private final class Passage {
+        private final String camera;
+        private final ArrayDeque<PlateDto> window = new ArrayDeque<>();
+        private final Instant firstSeen = Instant.now();
+        private Instant lastSeen = firstSeen;
+        private long lastSeenNanos;
+        private int reads;
+        private boolean published;
+
+        Passage(String camera) {
+            this.camera = camera;
+        }
+
+        /**
+         * Finds the read in a frame that is most likely this vehicle.
+         * @return The read, or null if every read is a different plate
+         */
+        PlateDto closest(List<PlateDto> plates) {
+            String consensus = vote().text();
+            PlateDto closest = null;
+            int closestDistance = Integer.MAX_VALUE;
+            for (PlateDto plate : plates) {
+                int d = distance(consensus, plate.getText());
+                if (d <= maxDistance && d < closestDistance) {
+                    closest = plate;
+                    closestDistance = d;
+                }
+            }
+            return closest;
+        }
+
+        PlateEvent add(PlateDto read, long nowNanos) {
+            window.addLast(read);
+            if (window.size() > PlateTracker.this.window) {
+                window.removeFirst();
+            }
+            reads++;
+            lastSeenNanos = nowNanos;
+            lastSeen = Instant.now();
+            if (published || reads < minReads) {
+                return null;
+            }
+            published = true;
+            votedCounter.increment();
+            return vote();
+        }
+
+        PlateEvent close(Counter counter) {
+            if (published) {
+                return null;
+            }
+            published = true;
+            counter.increment();
+            return vote();
+        }
+
+        /**
+         * Votes on every character among the reads of the most common length, each
+         * read weighted by its score.
+         */
+        PlateEvent vote() {
+            Map<Integer, Double> lengths = new HashMap<>();
+            for (PlateDto read : window) {
+                lengths.merge(read.getText().length(), weightOf(read), Double::sum);
+            }
+            int length = 0;
+            double lengthWeight = -1;
+            for (Map.Entry<Integer, Double> entry : lengths.entrySet()) {
+                if (entry.getValue() > lengthWeight) {
+                    length = entry.getKey();
+                    lengthWeight = entry.getValue();
+                }
+            }
+
+            List<PlateDto> voters = new ArrayList<>();
+            for (PlateDto read : window) {
+                if (read.getText().length() == length) {
+                    voters.add(read);
+                }
+            }
+            char[] text = new char[length];
+            double agreement = 0;
+            for (int i = 0; i < length; i++) {
+                Map<Character, Double> votes = new HashMap<>();
+                double total = 0;
+                for (PlateDto read : voters) {
+                    double weight = Math.max(weightOf(read), Double.MIN_VALUE);
+                    votes.merge(read.getText().charAt(i), weight, Double::sum);
+                    total += weight;
+                }
+                double winning = -1;
+                for (Map.Entry<Character, Double> vote : votes.entrySet()) {
+                    if (vote.getValue() > winning) {
+                        text[i] = vote.getKey();
+                        winning = vote.getValue();
+                    }
+                }
+                agreement += winning / total;
+            }
+
+            String consensus = new String(text);
+            PlateDto latest = window.peekLast();
+            String format = null;
+            for (PlateDto read : window) {
+                if (read.getText().equals(consensus)) {
+                    format = read.getFormat();
+                }
+            }
+            return new PlateEvent(
+                    camera,
+                    consensus,
+                    format,
+                    latest.getBbox(),
+                    length == 0 ? 0 : agreement / length,
+                    reads,
+                    firstSeen,
+                    lastSeen);
+        }
+    }
+}
@@ -34,6 +34,14 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
      */
     List<Reservation> findByLicensePlate(String licensePlate);
 
+    /**
+     * Finds the reservations of a license plate on a specific date.
+     * @param licensePlate The license plate number
+     * @param date The reservation date
+     * @return List of reservations for the license plate on the date
+     */
+    List<Reservation> findByLicensePlateAndReservationDate(String licensePlate, LocalDate date);
+
     /**
      * Checks if a user has a reservation for a specific date.
      * @param userId The ID of the user
@@ -68,6 +68,20 @@ public class ReservationService {
         return reservationRepository.findByLicensePlate(licensePlate);
     }
 
+    /**
+     * Retrieves the reservation of a license plate on a specific date.
+     * @param licensePlate The license plate number
+     * @param date The reservation date
+     * @return Optional containing the reservation if found
+     */
+    public Optional<Reservation> getReservationByLicensePlateAndDate(
+            String licensePlate, LocalDate date) {
+        return reservationRepository
+                .findByLicensePlateAndReservationDate(licensePlate, date)
+                .stream()
+                .findFirst();
+    }
+
     /**
      * Retrieves all reservations for a specific parking spot.
      * @param spotNumber The parking spot number
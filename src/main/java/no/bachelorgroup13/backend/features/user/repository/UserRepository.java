@@ -1,5 +1,6 @@
 package no.bachelorgroup13.backend.features.user.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import no.bachelorgroup13.backend.features.user.entity.User;
@@ -36,10 +37,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
     /**
-     * Finds a user by either their primary or secondary license plate.
+     * Finds the users with a license plate as either their primary or secondary plate.
      * @param licensePlate The license plate to search for
-     * @return Optional containing the user if found
+     * @return List of matching users
      */
     @Query("SELECT u FROM User u WHERE u.licensePlate = :plate OR u.secondLicensePlate = :plate")
-    Optional<User> findByAnyLicensePlate(@Param("plate") String licensePlate);
+    List<User> findByAnyLicensePlate(@Param("plate") String licensePlate);
 }
@@ -39,16 +39,17 @@ public class UserService {
 
     /**
      * Retrieves a user by their license plate.
-     * Checks both primary and secondary license plates.
+     * Checks both primary and secondary license plates with a single query, and
+     * prefers a user with the plate as their primary plate.
      * @param licensePlate The license plate to search for
      * @return Optional containing the user if found
      */
     public Optional<User> getUserByLicensePlate(String licensePlate) {
-        Optional<User> user = userRepository.findByLicensePlate(licensePlate);
-        if (user.isPresent()) {
-            return user;
-        }
-        return userRepository.findBySecondLicensePlate(licensePlate);
+        List<User> users = userRepository.findByAnyLicensePlate(licensePlate);
+        return users.stream()
+                .filter(user -> licensePlate.equals(user.getLicensePlate()))
+                .findFirst()
+                .or(() -> users.stream().findFirst());
     }
 
     /**
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS recognition_jobs (
+    id UUID PRIMARY KEY,
+    status VARCHAR(16) NOT NULL,
+    image BYTEA,
+    client VARCHAR(255),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    locked_by VARCHAR(255),
+    result TEXT,
+    error TEXT,
+    error_status INTEGER,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS recognition_jobs_claim_idx ON recognition_jobs (status, available_at);
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS plate_reads (
+    id BIGSERIAL PRIMARY KEY,
+    read_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    source VARCHAR(255),
+    engine VARCHAR(16),
+    cache_hit BOOLEAN NOT NULL,
+    latency_ms DOUBLE PRECISION NOT NULL,
+    plate VARCHAR(20),
+    format VARCHAR(32),
+    score DOUBLE PRECISION,
+    bbox INTEGER[]
+);
+
+CREATE INDEX IF NOT EXISTS plate_reads_read_at_idx ON plate_reads (read_at);
@@ -0,0 +1,137 @@
+package no.bachelorgroup13.backend.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.audit.PlateReadEvent;
+import no.bachelorgroup13.backend.features.licenseplate.audit.PlateReadRecorder;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+class PlateReadRecorderTest {
+    private PipelineProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<List<PlateReadEvent>> batches = new ArrayList<>();
+    private ParameterizedPreparedStatementSetter<PlateReadEvent> setter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new PipelineProperties();
+        properties.getAudit().setBufferSize(3);
+        properties.getAudit().setBatchSize(2);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(jdbcTemplate.batchUpdate(
+                        anyString(),
+                        any(Collection.class),
+                        anyInt(),
+                        any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(
+                        invocation -> {
+                            batches.add(new ArrayList<>(invocation.getArgument(1)));
+                            setter = invocation.getArgument(3);
+                            return new int[0][];
+                        });
+    }
+
+    @Test
+    void testRecord_buffersWithoutWritingAndDropsWhenFull() throws Exception {
+        PlateReadRecorder recorder = new PlateReadRecorder(jdbcTemplate, properties, meterRegistry);
+
+        recorder.record(
+                "gate-1",
+                "azure",
+                false,
+                12_500_000,
+                List.of(
+                        new PlateDto("AB12345", List.of(1, 2, 3, 4), 0.9),
+                        new PlateDto("CD67890", List.of(5, 6, 7, 8))));
+        recorder.record("gate-1", null, true, 100_000, List.of());
+        recorder.record("gate-2", null, true, 100_000, List.of());
+
+        // The caller never waits on the database, and the fourth read did not fit.
+        assertEquals(0, batches.size());
+        assertEquals(1, count("dropped"));
+
+        assertEquals(2, recorder.flush());
+        assertEquals(1, recorder.flush());
+        assertEquals(0, recorder.flush());
+        assertEquals(2, batches.size());
+        assertEquals(3, count("written"));
+        PlateReadEvent first = batches.get(0).get(0);
+        assertEquals("AB12345", first.plate());
+        assertEquals(0.9, first.score());
+        assertEquals(12.5, first.latencyMs());
+        PlateReadEvent empty = batches.get(1).get(0);
+        assertNull(empty.plate());
+        assertTrue(empty.cacheHit());
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        Array array = mock(Array.class);
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf("integer", new Object[] {1, 2, 3, 4})).thenReturn(array);
+        setter.setValues(statement, first);
+        setter.setValues(statement, empty);
+        verify(statement).setString(6, "AB12345");
+        verify(statement).setArray(9, array);
+        verify(statement).setNull(9, Types.ARRAY);
+        verify(jdbcTemplate)
+                .batchUpdate(
+                        eq(
+                                "INSERT INTO plate_reads (read_at, source, engine, cache_hit,"
+                                        + " latency_ms, plate, format, score, bbox)"
+                                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+                        eq(List.of(empty)),
+                        eq(1),
+                        any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_countsFailedWritesWithoutThrowing() {
+        when(jdbcTemplate.batchUpdate(
+                        anyString(),
+                        any(Collection.class),
+                        anyInt(),
+                        any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        PlateReadRecorder recorder = new PlateReadRecorder(jdbcTemplate, properties, meterRegistry);
+        recorder.record("gate-1", "local", false, 1_000_000, List.of());
+
+        assertEquals(1, recorder.flush());
+        assertEquals(1, count("failed"));
+        assertEquals(0, count("written"));
+    }
+
+    private double count(String result) {
+        return meterRegistry
+                .get("licenseplate.audit.reads")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
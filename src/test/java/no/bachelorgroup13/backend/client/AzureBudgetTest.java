@@ -0,0 +1,122 @@
+package no.bachelorgroup13.backend.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AzureBudgetTest {
+    private LicensePlateProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LicensePlateProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testAdmit_clientBucketLimitsBurstWithoutAffectingOthers() throws Exception {
+        properties.getBudget().setClientRate(0.001);
+        properties.getBudget().setClientBurst(3);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            budget.admit("camera-1");
+        }
+        BudgetExhaustedException e =
+                assertThrows(BudgetExhaustedException.class, () -> budget.admit("camera-1"));
+        budget.admit("camera-2");
+
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("licenseplate.azure.budget.denied")
+                        .tag("scope", "client")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testAdmit_streamsHaveABudgetOfTheirOwn() throws Exception {
+        properties.getBudget().setClientRate(0.001);
+        properties.getBudget().setClientBurst(1);
+        properties.getBudget().setStreamRate(0.001);
+        properties.getBudget().setStreamBurst(5);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            budget.admit(AzureBudget.STREAM_PREFIX + "gate-1");
+        }
+        budget.admit("gate-1");
+
+        assertThrows(
+                BudgetExhaustedException.class,
+                () -> budget.admit(AzureBudget.STREAM_PREFIX + "gate-1"));
+        assertThrows(BudgetExhaustedException.class, () -> budget.admit("gate-1"));
+    }
+
+    @Test
+    void testAdmit_clientsBeyondTheLimitShareOneBudget() throws Exception {
+        properties.getBudget().setClientRate(0.001);
+        properties.getBudget().setClientBurst(1);
+        properties.getBudget().setMaxClients(2);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        budget.admit("camera-1");
+        budget.admit("camera-2");
+        budget.admit("camera-3");
+
+        assertThrows(BudgetExhaustedException.class, () -> budget.admit("camera-4"));
+        assertEquals(2, meterRegistry.get("licenseplate.azure.budget.clients").gauge().value());
+    }
+
+    @Test
+    void testDropSpareClients_dropsRefilledBuckets() throws Exception {
+        properties.getBudget().setClientRate(1000);
+        properties.getBudget().setClientBurst(1);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        budget.admit("camera-1");
+        budget.admit("camera-2");
+        Thread.sleep(5);
+
+        assertEquals(2, budget.dropSpareClients());
+        assertEquals(0, meterRegistry.get("licenseplate.azure.budget.clients").gauge().value());
+    }
+
+    @Test
+    void testDropSpareClients_keepsClientsWithDailyUsage() throws Exception {
+        properties.getBudget().setClientDailyLimit(5);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        budget.admit("camera-1");
+
+        assertEquals(0, budget.dropSpareClients());
+        assertEquals(1, meterRegistry.get("licenseplate.azure.budget.clients").gauge().value());
+    }
+
+    @Test
+    void testAcquire_globalDailyLimitStopsUploadsUntilMidnight() throws Exception {
+        properties.getBudget().setGlobalDailyLimit(2);
+        AzureBudget budget = new AzureBudget(properties, meterRegistry);
+
+        budget.acquire();
+        budget.acquire();
+        BudgetExhaustedException e = assertThrows(BudgetExhaustedException.class, budget::acquire);
+
+        assertTrue(e.getRetryAfter().compareTo(Duration.ofDays(1)) <= 0);
+        // Spent daily budget also turns away new requests before they reach Azure.
+        assertThrows(BudgetExhaustedException.class, () -> budget.admit("camera-1"));
+        assertEquals(0, meterRegistry.get("licenseplate.azure.budget.remaining").gauge().value());
+        assertEquals(2, meterRegistry.get("licenseplate.azure.budget.burn.rate").gauge().value());
+    }
+}
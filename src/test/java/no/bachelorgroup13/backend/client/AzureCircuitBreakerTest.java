@@ -0,0 +1,98 @@
+package no.bachelorgroup13.backend.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBulkhead;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureCircuitBreaker;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AzureCircuitBreakerTest {
+    private LicensePlateProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LicensePlateProperties();
+        properties.getResilience().setFailureThreshold(3);
+        properties.getResilience().setOpenDuration(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testBreaker_opensAfterConsecutiveFailuresAndShedsCalls() throws Exception {
+        AzureCircuitBreaker breaker = new AzureCircuitBreaker(properties, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.acquire();
+            breaker.onFailure(null);
+        }
+
+        assertEquals(AzureCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(AzureUnavailableException.class, breaker::acquire);
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("licenseplate.azure.rejected")
+                        .tag("reason", "circuit_open")
+                        .counter()
+                        .count());
+        assertEquals(2, meterRegistry.get("licenseplate.azure.breaker.state").gauge().value());
+    }
+
+    @Test
+    void testBreaker_letsOneTrialThroughAfterPauseAndClosesOnSuccess() throws Exception {
+        AzureCircuitBreaker breaker = new AzureCircuitBreaker(properties, meterRegistry);
+        breaker.onFailure(Duration.ofMillis(50));
+        assertThrows(AzureUnavailableException.class, breaker::acquire);
+
+        Thread.sleep(80);
+        breaker.acquire();
+        assertEquals(AzureCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(AzureUnavailableException.class, breaker::acquire);
+
+        breaker.onSuccess();
+        assertEquals(AzureCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+    }
+
+    @Test
+    void testBreaker_failedTrialReopens() throws Exception {
+        AzureCircuitBreaker breaker = new AzureCircuitBreaker(properties, meterRegistry);
+        breaker.onFailure(Duration.ZERO);
+
+        breaker.acquire();
+        breaker.onFailure(null);
+
+        assertEquals(AzureCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(AzureUnavailableException.class, breaker::acquire);
+    }
+
+    @Test
+    void testBulkhead_refusesOperationsBeyondLimitUntilOneCompletes() throws Exception {
+        properties.getResilience().setMaxConcurrent(2);
+        AzureBulkhead bulkhead = new AzureBulkhead(properties, meterRegistry);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        bulkhead.call(() -> first);
+        bulkhead.call(() -> second);
+        CompletableFuture<String> shed =
+                bulkhead.call(() -> CompletableFuture.completedFuture("x"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, shed::get);
+        assertEquals(AzureUnavailableException.class, e.getCause().getClass());
+        assertEquals(2, bulkhead.getInFlight());
+
+        first.cancel(true);
+        assertEquals("y", bulkhead.call(() -> CompletableFuture.completedFuture("y")).get());
+        assertEquals(1, bulkhead.getInFlight());
+    }
+}
@@ -0,0 +1,227 @@
+package no.bachelorgroup13.backend.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureCircuitBreaker;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureReadPoller;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AzureReadPollerTest {
+    private static final int OPERATIONS = 1000;
+    private static final int POLLS_UNTIL_DONE = 3;
+    private static final long AZURE_LATENCY_MS = 300;
+
+    private HttpServer server;
+    private String endpoint;
+    private final ConcurrentHashMap<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> submittedAt = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext(
+                "/operations/",
+                exchange -> {
+                    int count =
+                            polls.computeIfAbsent(
+                                            exchange.getRequestURI().getPath(),
+                                            path -> new AtomicInteger())
+                                    .incrementAndGet();
+                    String status = count < POLLS_UNTIL_DONE ? "running" : "succeeded";
+                    byte[] body =
+                            ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.createContext(
+                "/timed/",
+                exchange -> {
+                    long age =
+                            System.currentTimeMillis()
+                                    - submittedAt.get(exchange.getRequestURI().getPath());
+                    String status = age < AZURE_LATENCY_MS ? "running" : "succeeded";
+                    byte[] body =
+                            ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.createContext(
+                "/done/",
+                exchange -> {
+                    byte[] body = "{\"status\":\"succeeded\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.createContext(
+                "/throttled/",
+                exchange -> {
+                    int count =
+                            polls.computeIfAbsent(
+                                            exchange.getRequestURI().getPath(),
+                                            path -> new AtomicInteger())
+                                    .incrementAndGet();
+                    if (count == 1) {
+                        exchange.getResponseHeaders().add("Retry-After", "0");
+                        exchange.sendResponseHeaders(429, -1);
+                        exchange.close();
+                        return;
+                    }
+                    byte[] body = "{\"status\":\"succeeded\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testAwait_completesManyOperationsWithoutThreadPerOperation() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(endpoint);
+        properties.setKey("test-key");
+        properties.getPolling().setInitialBackoff(Duration.ofMillis(50));
+        properties.getPolling().setTick(Duration.ofMillis(10));
+        AzureReadPoller poller =
+                new AzureReadPoller(client(properties), properties, new SimpleMeterRegistry());
+        int threadsBefore = Thread.activeCount();
+
+        List<CompletableFuture<ReadResponse>> results = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            results.add(poller.await(endpoint + "/operations/" + i));
+        }
+        CompletableFuture<Void> all =
+                CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
+        int peakThreads = threadsBefore;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!all.isDone() && System.nanoTime() < deadline) {
+            peakThreads = Math.max(peakThreads, Thread.activeCount());
+            Thread.sleep(20);
+        }
+        all.get(1, TimeUnit.SECONDS);
+
+        for (CompletableFuture<ReadResponse> result : results) {
+            assertEquals("succeeded", result.get().getStatus());
+        }
+        assertEquals(OPERATIONS, polls.size());
+        polls.values().forEach(count -> assertEquals(POLLS_UNTIL_DONE, count.get()));
+        // On a single-CPU host the HttpClient hands completions to short-lived threads
+        // instead of the common pool, so only assert that no thread is held per operation.
+        assertTrue(peakThreads - threadsBefore < OPERATIONS / 4);
+        assertEquals(0, poller.getPendingCount());
+        poller.shutdown();
+    }
+
+    @Test
+    void testAwait_adaptsFirstPollToObservedLatency() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(endpoint);
+        properties.setKey("test-key");
+        properties.getPolling().setMinSamples(3);
+        properties.getPolling().setTick(Duration.ofMillis(10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AzureReadPoller poller = new AzureReadPoller(client(properties), properties, meterRegistry);
+
+        long lastLatencyMs = 0;
+        for (int i = 0; i < 8; i++) {
+            String path = "/timed/" + i;
+            submittedAt.put(path, System.currentTimeMillis());
+            long start = System.nanoTime();
+            assertEquals(
+                    "succeeded",
+                    poller.await(endpoint + path).get(10, TimeUnit.SECONDS).getStatus());
+            lastLatencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        assertTrue(lastLatencyMs < 900, "latency after warm-up was " + lastLatencyMs + " ms");
+        assertTrue(poller.getLatencyTracker().getP50Ms() < 1000);
+        assertTrue(
+                meterRegistry.get("licenseplate.azure.polling.saved.latency").gauge().value() > 0);
+        poller.shutdown();
+    }
+
+    @Test
+    void testAwait_readsDoneAtFirstPollKeepTheEstimate() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(endpoint);
+        properties.setKey("test-key");
+        properties.getPolling().setMinSamples(3);
+        properties.getPolling().setTick(Duration.ofMillis(10));
+        AzureReadPoller poller =
+                new AzureReadPoller(client(properties), properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            String path = "/timed/" + i;
+            submittedAt.put(path, System.currentTimeMillis());
+            poller.await(endpoint + path).get(10, TimeUnit.SECONDS);
+        }
+        long warmP50Ms = poller.getLatencyTracker().getP50Ms();
+
+        // Warm, the first poll waits for the p50, and these reads are done by then.
+        for (int i = 0; i < 6; i++) {
+            poller.await(endpoint + "/done/" + i).get(10, TimeUnit.SECONDS);
+        }
+
+        long p50Ms = poller.getLatencyTracker().getP50Ms();
+        assertTrue(p50Ms >= warmP50Ms * 3 / 4, "p50 went from " + warmP50Ms + " to " + p50Ms);
+        poller.shutdown();
+    }
+
+    @Test
+    void testAwait_throttledPollIsRetriedAfterRetryAfter() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(endpoint);
+        properties.setKey("test-key");
+        properties.getPolling().setInitialBackoff(Duration.ofMillis(50));
+        properties.getPolling().setTick(Duration.ofMillis(10));
+        AzureReadPoller poller =
+                new AzureReadPoller(client(properties), properties, new SimpleMeterRegistry());
+
+        ReadResponse response = poller.await(endpoint + "/throttled/1").get(10, TimeUnit.SECONDS);
+
+        assertEquals("succeeded", response.getStatus());
+        assertEquals(2, polls.get("/throttled/1").get());
+        poller.shutdown();
+    }
+
+    private static AzureVisionClient client(LicensePlateProperties properties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new AzureVisionClient(
+                properties,
+                new AzureCircuitBreaker(properties, meterRegistry),
+                new AzureBudget(properties, meterRegistry));
+    }
+}
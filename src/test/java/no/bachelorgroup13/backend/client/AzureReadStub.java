@@ -0,0 +1,144 @@
+package no.bachelorgroup13.backend.client;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Azure Read API, used by the latency benchmarks.
+ * Callers reach it through a proxy that can hold back every new connection,
+ * like a TCP and TLS handshake to a remote region would, and cap the upload
+ * bandwidth so that the size of an image shows up in the latency.
+ */
+public class AzureReadStub implements AutoCloseable {
+    public static final String RESULT_JSON =
+            "{\"status\":\"succeeded\",\"analyzeResult\":{\"readResults\":[{\"lines\":"
+                    + "[{\"text\":\"AB 12345\",\"boundingBox\":[1,2,3,4,5,6,7,8]}]}]}}";
+
+    private final HttpServer server;
+    private final ServerSocket proxy;
+    private final long handshakeDelayMs;
+    private final long uploadBytesPerSecond;
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+
+    /**
+     * Starts the stub server and the proxy in front of it.
+     * @param handshakeDelayMs How long every new connection waits before it is relayed
+     * @param uploadBytesPerSecond Upload bandwidth of the proxy, or 0 for no limit
+     * @throws IOException If a socket could not be opened
+     */
+    public AzureReadStub(long handshakeDelayMs, long uploadBytesPerSecond) throws IOException {
+        this.handshakeDelayMs = handshakeDelayMs;
+        this.uploadBytesPerSecond = uploadBytesPerSecond;
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        proxy = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        String endpoint = endpoint();
+        server.createContext(
+                "/vision/v3.2/read/analyze",
+                exchange -> {
+                    uploadedBytes.addAndGet(exchange.getRequestBody().readAllBytes().length);
+                    exchange.getResponseHeaders()
+                            .add("Operation-Location", endpoint + "/operations/1");
+                    exchange.sendResponseHeaders(202, -1);
+                    exchange.close();
+                });
+        server.createContext(
+                "/operations/1",
+                exchange -> {
+                    byte[] body = RESULT_JSON.getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.start();
+
+        Thread acceptor =
+                new Thread(
+                        () -> {
+                            while (!proxy.isClosed()) {
+                                try {
+                                    Socket client = proxy.accept();
+                                    connections.incrementAndGet();
+                                    Thread.ofPlatform().daemon().start(() -> relay(client));
+                                } catch (IOException e) {
+                                    return;
+                                }
+                            }
+                        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return The base URL to configure as the Azure endpoint
+     */
+    public String endpoint() {
+        return "http://127.0.0.1:" + proxy.getLocalPort();
+    }
+
+    /**
+     * @return Image bytes received by the analyze endpoint so far
+     */
+    public long uploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    /**
+     * @return Connections opened through the proxy so far
+     */
+    public long connections() {
+        return connections.get();
+    }
+
+    private void relay(Socket client) {
+        InetSocketAddress target = server.getAddress();
+        try (client;
+                Socket upstream = new Socket(target.getAddress(), target.getPort())) {
+            client.setTcpNoDelay(true);
+            upstream.setTcpNoDelay(true);
+            Thread.sleep(handshakeDelayMs);
+            Thread pump = Thread.ofPlatform().daemon().start(() -> copy(upstream, client, 0));
+            copy(client, upstream, uploadBytesPerSecond);
+            pump.join();
+        } catch (IOException | InterruptedException e) {
+            // Connection closed by either side
+        }
+    }
+
+    private static void copy(Socket from, Socket to, long bytesPerSecond) {
+        try {
+            InputStream in = from.getInputStream();
+            OutputStream out = to.getOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+                if (bytesPerSecond > 0) {
+                    Thread.sleep(read * 1000L / bytesPerSecond);
+                }
+            }
+            to.shutdownOutput();
+        } catch (IOException | InterruptedException e) {
+            // Connection closed by either side
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        proxy.close();
+        server.stop(0);
+    }
+}
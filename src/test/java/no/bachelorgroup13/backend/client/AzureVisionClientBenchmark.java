@@ -0,0 +1,126 @@
+package no.bachelorgroup13.backend.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureCircuitBreaker;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the latency of a submit and fetch through the pooled client with the
+ * HttpURLConnection calls it replaced, eight callers at a time against a local
+ * stub of the Read API. The handshake delay stands in for opening a TLS
+ * connection to Azure, which the pooled client only pays once per connection.
+ * Only compiled with the jmh profile. Run it with
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=no.bachelorgroup13.backend.client.AzureVisionClientBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class AzureVisionClientBenchmark {
+    @Param({"0", "50"})
+    public long handshakeDelayMs;
+
+    private AzureReadStub stub;
+    private AzureVisionClient client;
+    private byte[] image;
+
+    @Setup
+    public void setUp() {
+        try {
+            stub = new AzureReadStub(handshakeDelayMs, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub server", e);
+        }
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(stub.endpoint());
+        properties.setKey("test-key");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        client =
+                new AzureVisionClient(
+                        properties,
+                        new AzureCircuitBreaker(properties, meterRegistry),
+                        new AzureBudget(properties, meterRegistry));
+        image = new byte[64 * 1024];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stub.close();
+    }
+
+    @Benchmark
+    public String pooledClient() throws InterruptedException, ExecutionException {
+        return client.submitAsync(image).thenCompose(client::fetchResultAsync).get();
+    }
+
+    @Benchmark
+    public String urlConnection() throws IOException {
+        return legacyFetchResult(legacySubmit());
+    }
+
+    private String legacySubmit() throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection)
+                        URI.create(stub.endpoint() + "/vision/v3.2/read/analyze")
+                                .toURL()
+                                .openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Ocp-Apim-Subscription-Key", "test-key");
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(image);
+        }
+        connection.getResponseCode();
+        return connection.getHeaderField("Operation-Location");
+    }
+
+    private static String legacyFetchResult(String operationLocation) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) URI.create(operationLocation).toURL().openConnection();
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Ocp-Apim-Subscription-Key", "test-key");
+        connection.getResponseCode();
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(AzureVisionClientBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,264 @@
+package no.bachelorgroup13.backend.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureCircuitBreaker;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AzureVisionClientTest {
+    private static final String RESULT_JSON =
+            "{\"status\":\"succeeded\",\"analyzeResult\":{\"readResults\":[{\"lines\":"
+                    + "[{\"text\":\"AB 12345\",\"boundingBox\":[1,2,3,4,5,6,7,8]}]}]}}";
+    private static final int BURSTS = 10;
+    private static final int CONCURRENCY = 8;
+
+    @TempDir Path tempDir;
+
+    private HttpServer server;
+    private String endpoint;
+    private volatile byte[] lastUpload;
+    private final AtomicInteger throttledCalls = new AtomicInteger();
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(
+                "/vision/v3.2/read/analyze",
+                exchange -> {
+                    lastUpload = exchange.getRequestBody().readAllBytes();
+                    exchange.getResponseHeaders()
+                            .add("Operation-Location", endpoint + "/operations/1");
+                    exchange.sendResponseHeaders(202, -1);
+                    exchange.close();
+                });
+        server.createContext(
+                "/operations/1",
+                exchange -> {
+                    byte[] body = RESULT_JSON.getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.createContext(
+                "/throttled/vision/v3.2/read/analyze",
+                exchange -> {
+                    exchange.getRequestBody().readAllBytes();
+                    throttledCalls.incrementAndGet();
+                    byte[] body = "quota".getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Retry-After", "30");
+                    exchange.sendResponseHeaders(429, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testSubmitAndFetchResult() throws Exception {
+        AzureVisionClient client = client(endpoint);
+
+        String operationLocation = client.submitAsync(writeImage()).get();
+
+        assertEquals(endpoint + "/operations/1", operationLocation);
+        assertEquals(RESULT_JSON, client.fetchResultAsync(operationLocation).get());
+    }
+
+    @Test
+    void testSubmitBytes_sendsImageWithoutFile() throws Exception {
+        AzureVisionClient client = client(endpoint);
+        byte[] image = "fake-image-content".getBytes(StandardCharsets.UTF_8);
+
+        String operationLocation = client.submitAsync(image).get();
+
+        assertEquals(endpoint + "/operations/1", operationLocation);
+        assertArrayEquals(image, lastUpload);
+    }
+
+    @Test
+    void testSubmit_errorStatus() throws Exception {
+        AzureVisionClient client = client(endpoint + "/throttled");
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class, () -> client.submitAsync(writeImage()).get());
+
+        assertTrue(e.getCause() instanceof IOException);
+        assertTrue(e.getCause().getMessage().contains("HTTP 429"));
+    }
+
+    @Test
+    void testSubmit_throttlingOpensBreakerForRetryAfter() throws Exception {
+        AzureVisionClient client = client(endpoint + "/throttled");
+
+        ExecutionException throttled =
+                assertThrows(
+                        ExecutionException.class, () -> client.submitAsync(writeImage()).get());
+        ExecutionException shed =
+                assertThrows(
+                        ExecutionException.class, () -> client.submitAsync(writeImage()).get());
+
+        AzureUnavailableException first = (AzureUnavailableException) throttled.getCause();
+        assertEquals(Duration.ofSeconds(30), first.getRetryAfter());
+        AzureUnavailableException second = (AzureUnavailableException) shed.getCause();
+        assertTrue(second.getMessage().contains("circuit breaker is open"));
+        assertTrue(second.getRetryAfter().compareTo(Duration.ofSeconds(25)) > 0);
+        assertEquals(1, throttledCalls.get());
+    }
+
+    /**
+     * Sends bursts of concurrent submit plus poll round trips through a proxy that
+     * counts the connections the client opens.
+     */
+    @Test
+    void testRoundTrips_reuseConnectionsAcrossBursts() throws Exception {
+        try (ConnectionCountingProxy proxy = new ConnectionCountingProxy(server.getAddress())) {
+            AzureVisionClient client = client("http://127.0.0.1:" + proxy.port());
+            Path image = writeImage();
+
+            ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+            try {
+                for (int burst = 0; burst < BURSTS; burst++) {
+                    List<Callable<String>> calls = new ArrayList<>();
+                    for (int i = 0; i < CONCURRENCY; i++) {
+                        calls.add(
+                                () ->
+                                        client.submitAsync(image)
+                                                .thenCompose(client::fetchResultAsync)
+                                                .get());
+                    }
+                    for (Future<String> result : pool.invokeAll(calls)) {
+                        assertEquals(RESULT_JSON, result.get());
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            assertTrue(
+                    proxy.connections.get() < BURSTS * CONCURRENCY,
+                    proxy.connections.get() + " connections");
+        }
+    }
+
+    private AzureVisionClient client(String endpoint) {
+        LicensePlateProperties properties = properties(endpoint);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new AzureVisionClient(
+                properties,
+                new AzureCircuitBreaker(properties, meterRegistry),
+                new AzureBudget(properties, meterRegistry));
+    }
+
+    private LicensePlateProperties properties(String endpoint) {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(endpoint);
+        properties.setKey("test-key");
+        return properties;
+    }
+
+    private Path writeImage() throws IOException {
+        Path image = tempDir.resolve("image.jpg");
+        Files.write(image, new byte[64 * 1024]);
+        return image;
+    }
+
+    /**
+     * TCP proxy that counts the sockets it accepts for the stub server.
+     */
+    private static class ConnectionCountingProxy implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+
+        ConnectionCountingProxy(InetSocketAddress target) throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor =
+                    new Thread(
+                            () -> {
+                                while (!serverSocket.isClosed()) {
+                                    try {
+                                        Socket client = serverSocket.accept();
+                                        connections.incrementAndGet();
+                                        Thread.ofPlatform()
+                                                .daemon()
+                                                .start(() -> relay(client, target));
+                                    } catch (IOException e) {
+                                        return;
+                                    }
+                                }
+                            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void relay(Socket client, InetSocketAddress target) {
+            try (client;
+                    Socket upstream = new Socket(target.getAddress(), target.getPort())) {
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                Thread pump = Thread.ofVirtual().start(() -> copy(upstream, client));
+                copy(client, upstream);
+                pump.join();
+            } catch (IOException | InterruptedException e) {
+                // Connection closed by either side
+            }
+        }
+
+        private void copy(Socket from, Socket to) {
+            try {
+                from.getInputStream().transferTo(to.getOutputStream());
+                to.shutdownOutput();
+            } catch (IOException e) {
+                // Connection closed by either side
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package no.bachelorgroup13.backend.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.ReadResponseParser;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the streaming parser with binding the whole body from a String with an
+ * ObjectMapper, as the poller did before, on a dense read result.
+ * Only compiled with the jmh profile. Run it with
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=no.bachelorgroup13.backend.client.ReadResponseParserBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadResponseParserBenchmark {
+    private final byte[] json =
+            ReadResponseParserTest.denseResult(400).getBytes(StandardCharsets.UTF_8);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public ReadResponse streaming() throws IOException {
+        return ReadResponseParser.parse(json);
+    }
+
+    @Benchmark
+    public ReadResponse dataBinding() throws IOException {
+        return objectMapper.readValue(new String(json, StandardCharsets.UTF_8), ReadResponse.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(ReadResponseParserBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,84 @@
+package no.bachelorgroup13.backend.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.ReadResponseParser;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import org.junit.jupiter.api.Test;
+
+class ReadResponseParserTest {
+    @Test
+    void testParse_keepsLinesAndWordsAndSkipsTheRest() throws Exception {
+        ReadResponse response =
+                ReadResponseParser.parse(denseResult(1).getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("succeeded", response.getStatus());
+        Line line = response.getAnalyzeResult().getReadResults().get(0).getLines().get(0);
+        assertEquals("AB 12345", line.getText());
+        assertArrayEquals(new int[] {10, 20, 110, 20, 110, 50, 10, 50}, line.getBoundingBox());
+        assertEquals(2, line.getWords().size());
+        assertEquals("12345", line.getWords().get(1).getText());
+        assertEquals(0.87, line.getWords().get(1).getConfidence());
+    }
+
+    @Test
+    void testParse_runningReadStopsAfterStatus() throws Exception {
+        // Anything after the status of a running read is never looked at.
+        byte[] json =
+                "{\"status\":\"running\",\"createdDateTime\":\"2024-01-01T00:00:00Z\",broken"
+                        .getBytes(StandardCharsets.UTF_8);
+
+        ReadResponse response = ReadResponseParser.parse(new ByteArrayInputStream(json));
+
+        assertEquals("running", response.getStatus());
+        assertNull(response.getAnalyzeResult());
+    }
+
+    @Test
+    void testParse_denseResultMatchesDataBinding() throws Exception {
+        byte[] json = denseResult(400).getBytes(StandardCharsets.UTF_8);
+
+        ReadResponse bound = new ObjectMapper().readValue(json, ReadResponse.class);
+        ReadResponse streamed = ReadResponseParser.parse(json);
+
+        Line boundLine = bound.getAnalyzeResult().getReadResults().get(0).getLines().get(399);
+        Line streamedLine = streamed.getAnalyzeResult().getReadResults().get(0).getLines().get(399);
+        assertEquals(
+                bound.getAnalyzeResult().getReadResults().get(0).getLines().size(),
+                streamed.getAnalyzeResult().getReadResults().get(0).getLines().size());
+        assertEquals(boundLine.getText(), streamedLine.getText());
+        assertArrayEquals(boundLine.getBoundingBox(), streamedLine.getBoundingBox());
+        assertEquals(boundLine.getWords().size(), streamedLine.getWords().size());
+    }
+
+    static String denseResult(int lines) {
+        StringBuilder json =
+                new StringBuilder(
+                        "{\"status\":\"succeeded\",\"createdDateTime\":\"2024-01-01T00:00:00Z\","
+                                + "\"lastUpdatedDateTime\":\"2024-01-01T00:00:01Z\","
+                                + "\"analyzeResult\":{\"version\":\"3.2.0\","
+                                + "\"modelVersion\":\"2022-04-30\",\"readResults\":[{\"page\":1,"
+                                + "\"angle\":0.12,\"width\":1600,\"height\":1200,"
+                                + "\"unit\":\"pixel\",\"lines\":[");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(
+                    "{\"boundingBox\":[10,20,110,20,110,50,10,50],\"text\":\"AB 12345\","
+                            + "\"appearance\":{\"style\":{\"name\":\"other\","
+                            + "\"confidence\":0.97}},\"words\":["
+                            + "{\"boundingBox\":[10,20,40,20,40,50,10,50],\"text\":\"AB\","
+                            + "\"confidence\":0.99},"
+                            + "{\"boundingBox\":[50,20,110,20,110,50,50,50],\"text\":\"12345\","
+                            + "\"confidence\":0.87}]}");
+        }
+        return json.append("]}]}}").toString();
+    }
+}
@@ -1,31 +1,73 @@
 package no.bachelorgroup13.backend.controller;
 
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import no.bachelorgroup13.backend.features.auth.security.JwtAuthenticationFilter;
+import no.bachelorgroup13.backend.features.auth.security.JwtTokenProvider;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
 import no.bachelorgroup13.backend.features.licenseplate.controller.LicensePlateController;
+import no.bachelorgroup13.backend.features.licenseplate.dto.BatchItemDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.IdentifiedPlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
 import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.service.PlateIdentificationService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import no.bachelorgroup13.backend.features.reservation.dto.ReservationDto;
+import no.bachelorgroup13.backend.features.user.dto.UserDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(LicensePlateController.class)
+@AutoConfigureMockMvc(addFilters = false)
 class LicensePlateControllerTest {
 
     @Autowired private MockMvc mockMvc;
 
     @MockitoBean private LicensePlateService computerVisionService;
 
+    @MockitoBean private PlateTracker plateTracker;
+
+    @MockitoBean private MotionGate motionGate;
+
+    @MockitoBean private PlateIdentificationService plateIdentificationService;
+
+    @MockitoBean private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean private JwtAuthenticationFilter jwtAuthenticationFilter;
+
     @Test
     void testRecognizePlate_success() throws Exception {
-        // when(computerVisionService.getLicensePlates(any()))
-        // .thenReturn(Arrays.asList("AB12345", "SD34567"));
+        List<PlateDto> plates =
+                Arrays.asList(
+                        new PlateDto("AB12345", List.of(1, 2, 3, 4, 5, 6, 7, 8)),
+                        new PlateDto("SD34567", List.of(1, 2, 3, 4, 5, 6, 7, 8)));
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(CompletableFuture.completedFuture(plates));
 
         MockMultipartFile mockFile =
                 new MockMultipartFile(
@@ -34,18 +76,158 @@ class LicensePlateControllerTest {
                         MediaType.IMAGE_JPEG_VALUE,
                         "fake-image-content".getBytes());
 
-        mockMvc.perform(multipart("/license-plate").file(mockFile))
+        MvcResult result =
+                mockMvc.perform(multipart("/license-plate").file(mockFile))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.license_plates[0].text").value("AB12345"))
+                .andExpect(jsonPath("$.license_plates[1].text").value("SD34567"));
+
+        verify(computerVisionService, times(1))
+                .getLicensePlatesAsync(aryEq("fake-image-content".getBytes()), any());
+    }
+
+    @Test
+    void testIdentifyPlate_returnsPlatesWithUserAndReservation() throws Exception {
+        PlateDto known = new PlateDto("AB12345", List.of(1, 2, 3, 4));
+        PlateDto unknown = new PlateDto("CD67890", List.of(5, 6, 7, 8));
+        UserDto user = new UserDto();
+        user.setName("Ola Nordmann");
+        ReservationDto reservation = new ReservationDto();
+        reservation.setSpotNumber("12A");
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(known, unknown)));
+        when(plateIdentificationService.identify(List.of(known, unknown)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                List.of(
+                                        new IdentifiedPlateDto(known, user, reservation),
+                                        new IdentifiedPlateDto(unknown, null, null))));
+
+        MvcResult result =
+                mockMvc.perform(
+                                multipart("/license-plate/identify")
+                                        .file(
+                                                new MockMultipartFile(
+                                                        "image",
+                                                        "car.jpg",
+                                                        MediaType.IMAGE_JPEG_VALUE,
+                                                        "car".getBytes())))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.license_plates[0].text").value("AB12345"))
+                .andExpect(jsonPath("$.license_plates[0].user.name").value("Ola Nordmann"))
+                .andExpect(jsonPath("$.license_plates[0].reservation.spotNumber").value("12A"))
+                .andExpect(jsonPath("$.license_plates[1].text").value("CD67890"))
+                .andExpect(jsonPath("$.license_plates[1].user").doesNotExist())
+                .andExpect(jsonPath("$.license_plates[1].reservation").doesNotExist());
+    }
+
+    @Test
+    void testRecognizeFrame_returnsPlatesAndEventOfCamera() throws Exception {
+        List<PlateDto> plates = List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4)));
+        PlateEvent event =
+                new PlateEvent(
+                        "gate-1",
+                        "AB12345",
+                        "standard",
+                        List.of(1, 2, 3, 4),
+                        0.95,
+                        3,
+                        Instant.EPOCH,
+                        Instant.EPOCH);
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(CompletableFuture.completedFuture(plates));
+        when(plateTracker.observe("gate-1", plates)).thenReturn(event);
+        when(motionGate.admit(eq("gate-1"), any(byte[].class))).thenReturn(true);
+
+        MvcResult result =
+                mockMvc.perform(
+                                multipart("/license-plate/cameras/gate-1/frames")
+                                        .file(
+                                                new MockMultipartFile(
+                                                        "image",
+                                                        "frame.jpg",
+                                                        MediaType.IMAGE_JPEG_VALUE,
+                                                        "frame".getBytes())))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.license_plates[0].text").value("AB12345"))
+                .andExpect(jsonPath("$.event.text").value("AB12345"))
+                .andExpect(jsonPath("$.event.reads").value(3))
+                .andExpect(jsonPath("$.skipped").value(false));
+    }
+
+    @Test
+    void testRecognizeFrame_skipsFrameWithoutMotion() throws Exception {
+        when(motionGate.admit(eq("gate-1"), any(byte[].class))).thenReturn(false);
+
+        MvcResult result =
+                mockMvc.perform(
+                                multipart("/license-plate/cameras/gate-1/frames")
+                                        .file(
+                                                new MockMultipartFile(
+                                                        "image",
+                                                        "frame.jpg",
+                                                        MediaType.IMAGE_JPEG_VALUE,
+                                                        "frame".getBytes())))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.skipped").value(true))
+                .andExpect(jsonPath("$.license_plates").isEmpty());
+        verifyNoInteractions(computerVisionService, plateTracker);
+    }
+
+    @Test
+    void testRecognizePlates_batchKeyedByPartName() throws Exception {
+        Map<String, BatchItemDto> results = new LinkedHashMap<>();
+        results.put("gate-1", BatchItemDto.success(List.of(new PlateDto("AB12345", List.of()))));
+        results.put("gate-2", BatchItemDto.failure("Test error"));
+        when(computerVisionService.getLicensePlatesBatchAsync(anyMap(), any()))
+                .thenReturn(CompletableFuture.completedFuture(results));
+
+        MvcResult result =
+                mockMvc.perform(
+                                multipart("/license-plate/batch")
+                                        .file(image("gate-1"))
+                                        .file(image("gate-2")))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.license_plates[0]").value("AB12345"))
-                .andExpect(jsonPath("$.license_plates[1]").value("SD34567"));
+                .andExpect(jsonPath("$.results.gate-1.license_plates[0].text").value("AB12345"))
+                .andExpect(jsonPath("$.results.gate-2.error").value("Test error"));
+    }
+
+    @Test
+    void testRecognizePlates_emptyBatchIsRejected() throws Exception {
+        MvcResult result =
+                mockMvc.perform(multipart("/license-plate/batch"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
 
-        verify(computerVisionService, times(1)).getLicensePlates(any());
+        verify(computerVisionService, never()).getLicensePlatesBatchAsync(anyMap(), any());
     }
 
     @Test
     void testRecognizePlate_error() throws Exception {
-        when(computerVisionService.getLicensePlates(any()))
-                .thenThrow(new RuntimeException("Test error"));
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Test error")));
 
         MockMultipartFile mockFile =
                 new MockMultipartFile(
@@ -54,9 +236,54 @@ class LicensePlateControllerTest {
                         MediaType.IMAGE_JPEG_VALUE,
                         "fake-image-content".getBytes());
 
-        mockMvc.perform(multipart("/license-plate").file(mockFile))
-                .andExpect(status().is5xxServerError());
+        MvcResult result =
+                mockMvc.perform(multipart("/license-plate").file(mockFile))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().is5xxServerError());
+
+        verify(computerVisionService, times(1)).getLicensePlatesAsync(any(byte[].class), any());
+    }
+
+    @Test
+    void testRecognizePlate_shedRequestReturnsServiceUnavailable() throws Exception {
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(
+                        CompletableFuture.failedFuture(
+                                new AzureUnavailableException(
+                                        "circuit breaker is open", Duration.ofMillis(2500))));
+
+        MvcResult result =
+                mockMvc.perform(multipart("/license-plate").file(image("image")))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    void testRecognizePlate_overBudgetReturnsTooManyRequests() throws Exception {
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(
+                        CompletableFuture.failedFuture(
+                                new BudgetExhaustedException(
+                                        "Azure budget is spent", Duration.ofSeconds(60))));
+
+        MvcResult result =
+                mockMvc.perform(multipart("/license-plate").file(image("image")))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+    }
 
-        verify(computerVisionService, times(1)).getLicensePlates(any());
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile(
+                name, name + ".jpg", MediaType.IMAGE_JPEG_VALUE, "fake-image-content".getBytes());
     }
 }
@@ -0,0 +1,70 @@
+package no.bachelorgroup13.backend.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import no.bachelorgroup13.backend.common.config.SecurityConfig;
+import no.bachelorgroup13.backend.features.auth.security.JwtAuthEntryPoint;
+import no.bachelorgroup13.backend.features.auth.security.JwtAuthenticationFilter;
+import no.bachelorgroup13.backend.features.auth.security.JwtTokenProvider;
+import no.bachelorgroup13.backend.features.licenseplate.controller.LicensePlateController;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.service.PlateIdentificationService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(LicensePlateController.class)
+@Import({SecurityConfig.class, JwtAuthEntryPoint.class, JwtAuthenticationFilter.class})
+class LicensePlateSecurityTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private LicensePlateService computerVisionService;
+
+    @MockitoBean private PlateTracker plateTracker;
+
+    @MockitoBean private MotionGate motionGate;
+
+    @MockitoBean private PlateIdentificationService plateIdentificationService;
+
+    @MockitoBean private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean private UserDetailsService userDetailsService;
+
+    @Test
+    void testRecognizeFrame_rejectsAnonymousCallers() throws Exception {
+        mockMvc.perform(multipart("/license-plate/cameras/gate-1/frames").file(image()))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(motionGate, plateTracker, computerVisionService);
+    }
+
+    @Test
+    void testRecognizePlate_staysOpenToAnonymousCallers() throws Exception {
+        when(computerVisionService.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        mockMvc.perform(multipart("/license-plate").file(image()))
+                .andExpect(request().asyncStarted());
+    }
+
+    private static MockMultipartFile image() {
+        return new MockMultipartFile(
+                "image", "frame.jpg", MediaType.IMAGE_JPEG_VALUE, "frame".getBytes());
+    }
+}
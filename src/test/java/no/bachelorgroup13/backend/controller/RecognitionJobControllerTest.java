@@ -0,0 +1,128 @@
+package no.bachelorgroup13.backend.controller;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import no.bachelorgroup13.backend.features.auth.security.JwtAuthenticationFilter;
+import no.bachelorgroup13.backend.features.auth.security.JwtTokenProvider;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.controller.RecognitionJobController;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.RecognitionJobDto;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJob;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(RecognitionJobController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class RecognitionJobControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private RecognitionJobService jobService;
+
+    @MockitoBean private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    void testSubmitJob_acceptsImageWithLocation() throws Exception {
+        RecognitionJob job = new RecognitionJob();
+        job.setId(UUID.randomUUID());
+        when(jobService.submit(aryEq("car".getBytes()), any())).thenReturn(job);
+        when(jobService.toDto(job))
+                .thenReturn(
+                        new RecognitionJobDto(
+                                job.getId(), "queued", null, null, null, Instant.EPOCH, null));
+
+        mockMvc.perform(
+                        multipart("/license-plate/jobs")
+                                .file(
+                                        new MockMultipartFile(
+                                                "image",
+                                                "car.jpg",
+                                                MediaType.IMAGE_JPEG_VALUE,
+                                                "car".getBytes())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/license-plate/jobs/" + job.getId()))
+                .andExpect(jsonPath("$.id").value(job.getId().toString()))
+                .andExpect(jsonPath("$.status").value("queued"))
+                .andExpect(jsonPath("$.license_plates").doesNotExist());
+    }
+
+    @Test
+    void testSubmitJob_fullQueueIsTooManyRequests() throws Exception {
+        when(jobService.submit(any(), any()))
+                .thenThrow(
+                        new BudgetExhaustedException(
+                                "Recognition queue is full", Duration.ofMillis(500)));
+
+        mockMvc.perform(
+                        multipart("/license-plate/jobs")
+                                .file(
+                                        new MockMultipartFile(
+                                                "image",
+                                                "car.jpg",
+                                                MediaType.IMAGE_JPEG_VALUE,
+                                                "car".getBytes())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void testGetJob_waitsForResultWithinMaximum() throws Exception {
+        UUID id = UUID.randomUUID();
+        RecognitionJob job = new RecognitionJob();
+        job.setId(id);
+        when(jobService.await(id, Duration.ofSeconds(30)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(job)));
+        when(jobService.toDto(job))
+                .thenReturn(
+                        new RecognitionJobDto(
+                                id,
+                                "done",
+                                List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4))),
+                                null,
+                                null,
+                                Instant.EPOCH,
+                                Instant.EPOCH));
+        UUID unknown = UUID.randomUUID();
+        when(jobService.await(eq(unknown), any()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        MvcResult result =
+                mockMvc.perform(get("/license-plate/jobs/" + id).param("wait", "600"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("done"))
+                .andExpect(jsonPath("$.license_plates[0].text").value("AB12345"));
+
+        MvcResult missing =
+                mockMvc.perform(get("/license-plate/jobs/" + unknown))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+        mockMvc.perform(asyncDispatch(missing)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,131 @@
+package no.bachelorgroup13.backend.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBulkhead;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureReadPoller;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.AzureReadEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.HedgedEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.LocalOcrEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import no.bachelorgroup13.backend.features.licenseplate.engine.Recognition;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HedgedEngineTest {
+    private static final byte[] IMAGE = {1, 2, 3};
+
+    private AzureReadEngine azure;
+    private LocalOcrEngine local;
+    private HedgedEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        azure = mock(AzureReadEngine.class);
+        local = mock(LocalOcrEngine.class);
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getHedging().setDelay(Duration.ofMillis(50));
+        engine = new HedgedEngine(azure, local, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRecognize_fastAzureNeverStartsLocalRead() throws Exception {
+        Recognition fromAzure = recognition("AB12345", null);
+        when(azure.recognize(IMAGE)).thenReturn(CompletableFuture.completedFuture(fromAzure));
+
+        assertSame(fromAzure, engine.recognize(IMAGE).get(1, TimeUnit.SECONDS));
+        Thread.sleep(150);
+        verify(local, never()).recognize(any());
+    }
+
+    @Test
+    void testRecognize_slowAzureLosesToConfidentLocalRead() throws Exception {
+        CompletableFuture<Recognition> slowAzure = new CompletableFuture<>();
+        Recognition fromLocal = recognition("AB12345", 0.9);
+        when(azure.recognize(IMAGE)).thenReturn(slowAzure);
+        when(local.recognize(IMAGE)).thenReturn(CompletableFuture.completedFuture(fromLocal));
+
+        Recognition won = engine.recognize(IMAGE).get(1, TimeUnit.SECONDS);
+
+        assertEquals(fromLocal.plates(), won.plates());
+        assertFalse(won.cacheable());
+        assertTrue(slowAzure.isCancelled());
+    }
+
+    @Test
+    void testRecognize_unsureLocalReadWaitsForAzure() throws Exception {
+        CompletableFuture<Recognition> slowAzure = new CompletableFuture<>();
+        when(azure.recognize(IMAGE)).thenReturn(slowAzure);
+        when(local.recognize(IMAGE))
+                .thenReturn(CompletableFuture.completedFuture(recognition("AB12346", 0.5)));
+
+        CompletableFuture<Recognition> result = engine.recognize(IMAGE);
+        verify(local, timeout(1000)).recognize(IMAGE);
+        assertTrue(!result.isDone());
+        Recognition fromAzure = recognition("AB12345", null);
+        slowAzure.complete(fromAzure);
+
+        assertSame(fromAzure, result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRecognize_failedAzureFallsBackToLocalAtOnce() throws Exception {
+        when(azure.recognize(IMAGE))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("HTTP 503")));
+        Recognition fromLocal = recognition("AB12345", 0.7);
+        when(local.recognize(IMAGE)).thenReturn(CompletableFuture.completedFuture(fromLocal));
+
+        // Not confident enough to win, but better than no answer at all.
+        Recognition settled = engine.recognize(IMAGE).getNow(null);
+        assertEquals(fromLocal.plates(), settled.plates());
+        assertFalse(settled.cacheable());
+    }
+
+    @Test
+    void testRecognize_cancellingAzureReadStopsPolling() throws Exception {
+        AzureVisionClient client = mock(AzureVisionClient.class);
+        AzureReadPoller poller = mock(AzureReadPoller.class);
+        LicensePlateProperties properties = new LicensePlateProperties();
+        CompletableFuture<ReadResponse> polling = new CompletableFuture<>();
+        when(client.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(poller.await("op-1")).thenReturn(polling);
+        AzureReadEngine azureEngine =
+                new AzureReadEngine(
+                        client,
+                        poller,
+                        new AzureBulkhead(properties, new SimpleMeterRegistry()),
+                        new ImagePreprocessor(
+                                new PlateRegionDetector(properties),
+                                properties,
+                                new SimpleMeterRegistry()),
+                        new PlateMatcher(properties),
+                        Runnable::run);
+
+        CompletableFuture<Recognition> result = azureEngine.recognize(IMAGE);
+        result.cancel(true);
+
+        assertTrue(polling.isCancelled());
+    }
+
+    private static Recognition recognition(String text, Double confidence) {
+        return new Recognition(List.of(new PlateDto(text, List.of(1, 2, 3, 4), confidence)), true);
+    }
+}
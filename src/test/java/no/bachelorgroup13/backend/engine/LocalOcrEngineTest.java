@@ -0,0 +1,135 @@
+package no.bachelorgroup13.backend.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.LocalOcrEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import no.bachelorgroup13.backend.features.licenseplate.engine.Recognition;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LocalOcrEngineTest {
+    private static final Rectangle PLATE = new Rectangle(1100, 700, 260, 56);
+
+    private LocalOcrEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        PlateRegionDetector detector = new PlateRegionDetector(properties);
+        engine =
+                new LocalOcrEngine(
+                        detector,
+                        new ImagePreprocessor(detector, properties, new SimpleMeterRegistry()),
+                        new PlateMatcher(properties),
+                        properties,
+                        Runnable::run);
+    }
+
+    @Test
+    void testRecognize_readsPlateInGateCameraFrame() throws Exception {
+        byte[] frame = png(gateFrame("AB 12345"));
+
+        Recognition recognition = engine.recognize(frame).get(5, TimeUnit.SECONDS);
+
+        assertTrue(recognition.cacheable());
+        assertEquals(1, recognition.plates().size());
+        PlateDto plate = recognition.plates().get(0);
+        assertEquals("AB12345", plate.getText());
+        assertTrue(plate.getConfidence() >= 0.6, "confidence " + plate.getConfidence());
+        List<Integer> bbox = plate.getBbox();
+        assertTrue(
+                PLATE.contains(bbox.get(0), bbox.get(1))
+                        && PLATE.contains(bbox.get(4) - 1, bbox.get(5) - 1),
+                "bbox " + bbox + " outside " + PLATE);
+    }
+
+    @Test
+    void testRecognize_readsEveryDigit() throws Exception {
+        assertEquals(
+                "ZX90876",
+                engine.recognize(png(gateFrame("ZX 90876")))
+                        .get(5, TimeUnit.SECONDS)
+                        .plates()
+                        .get(0)
+                        .getText());
+    }
+
+    @Test
+    void testRecognize_findsNothingWithoutPlate() throws Exception {
+        BufferedImage flat = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        byte[] notAnImage = "fake-image-content".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(engine.recognize(png(flat)).get(5, TimeUnit.SECONDS).plates().isEmpty());
+        assertTrue(engine.recognize(notAnImage).get(5, TimeUnit.SECONDS).plates().isEmpty());
+    }
+
+    @Test
+    void testRecognize_fullExecutorFailsTheFuture() {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        PlateRegionDetector detector = new PlateRegionDetector(properties);
+        LocalOcrEngine rejecting =
+                new LocalOcrEngine(
+                        detector,
+                        new ImagePreprocessor(detector, properties, new SimpleMeterRegistry()),
+                        new PlateMatcher(properties),
+                        properties,
+                        command -> {
+                            throw new RejectedExecutionException("Executor is full");
+                        });
+
+        CompletableFuture<Recognition> recognition = rejecting.recognize(new byte[0]);
+
+        assertTrue(recognition.isCompletedExceptionally());
+    }
+
+    /**
+     * Draws a gate camera frame with one plate on a dark car body.
+     */
+    private static BufferedImage gateFrame(String text) {
+        BufferedImage frame = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                int grey = 110 + (y * 50 / frame.getHeight()) + random.nextInt(16);
+                frame.setRGB(x, y, (grey << 16) | (grey << 8) | grey);
+            }
+        }
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setColor(new Color(40, 45, 60));
+        graphics.fillRoundRect(900, 450, 660, 400, 60, 60);
+        graphics.setColor(new Color(235, 235, 235));
+        graphics.fillRect(PLATE.x, PLATE.y, PLATE.width, PLATE.height);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 42));
+        graphics.drawString(text, PLATE.x + 14, PLATE.y + 46);
+        graphics.dispose();
+        return frame;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
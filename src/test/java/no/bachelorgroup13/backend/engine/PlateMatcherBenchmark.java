@@ -0,0 +1,86 @@
+package no.bachelorgroup13.backend.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the grammar matcher with the regex matcher it replaced, over a mix of
+ * plate and non-plate lines like the ones Azure reads from gate cameras.
+ * Only compiled with the jmh profile. Run it with
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=no.bachelorgroup13.backend.engine.PlateMatcherBenchmark
+ * and add -prof gc to the JMH options to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlateMatcherBenchmark {
+    private static final Pattern LEGACY_PLATE = Pattern.compile("(?i)^[A-Z]{2}[- ]?\\d{5}$");
+    private static final List<String> LINES =
+            List.of(
+                    "AB 12345",
+                    "PARKERING FORBUDT",
+                    "Hotel Bristol",
+                    "el-12345",
+                    "Tlf: 22 33 44 55",
+                    "NORGE",
+                    "CD 12345",
+                    "www.easypark.no");
+    private static final int[] BBOX = {10, 20, 110, 20, 110, 50, 10, 50};
+
+    private final PlateMatcher matcher = new PlateMatcher(new LicensePlateProperties());
+
+    @Benchmark
+    public void grammars(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(matcher.match(line, BBOX, null));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String line : LINES) {
+            blackhole.consume(legacyMatch(line));
+        }
+    }
+
+    /**
+     * The regex matcher the grammars replaced.
+     */
+    private static PlateDto legacyMatch(String text) {
+        String candidate = text.replaceAll("\\s+", "").replaceAll("-", "").replaceAll(":", "");
+        if (LEGACY_PLATE.matcher(candidate).matches()) {
+            return new PlateDto(candidate, Arrays.stream(BBOX).boxed().toList(), null);
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(PlateMatcherBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,117 @@
+package no.bachelorgroup13.backend.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateGrammars;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateText;
+import org.junit.jupiter.api.Test;
+
+class PlateMatcherTest {
+    private static final int[] NO_BOX = new int[0];
+
+    private final PlateMatcher matcher = new PlateMatcher(new LicensePlateProperties());
+
+    @Test
+    void testMatch_normalizesAndNamesTheFormat() {
+        PlateDto plate = matcher.match("ab 12-345", new int[] {1, 2, 3, 4}, 0.9);
+
+        assertEquals("AB12345", plate.getText());
+        assertEquals(PlateGrammars.STANDARD, plate.getFormat());
+        assertEquals(List.of(1, 2, 3, 4), plate.getBbox());
+        assertEquals(0.9, plate.getConfidence());
+        assertEquals(PlateGrammars.ELECTRIC, matcher.match("EL 12345", NO_BOX, null).getFormat());
+        assertEquals(PlateGrammars.ELECTRIC, matcher.match("ek12345", NO_BOX, null).getFormat());
+        assertEquals(
+                PlateGrammars.DIPLOMATIC, matcher.match("CD 12345", List.of(), null).getFormat());
+    }
+
+    @Test
+    void testMatch_rejectsTextThatIsNotAPlate() {
+        assertNull(matcher.match("AB 1234", new int[0], null));
+        assertNull(matcher.match("AB 123456", new int[0], null));
+        assertNull(matcher.match("A% 12345", new int[0], null));
+        assertNull(matcher.match("AX 1X345", new int[0], null));
+        assertNull(matcher.match("PARKERING FORBUDT", new int[0], null));
+        assertNull(matcher.match("AB.12345", new int[0], null));
+        assertNull(matcher.match("", new int[0], null));
+        assertNull(matcher.match(null, new int[0], null));
+    }
+
+    @Test
+    void testMatch_correctsConfusedCharactersByPosition() {
+        PlateDto plate = matcher.match("A8 I2345", NO_BOX, 0.9);
+
+        assertEquals("AB12345", plate.getText());
+        assertEquals(PlateGrammars.STANDARD, plate.getFormat());
+        assertEquals(0.9, plate.getConfidence());
+        assertEquals(0.7, plate.getScore(), 1e-9);
+        assertEquals("EL12545", matcher.match("EL 12S45", NO_BOX, null).getText());
+        assertEquals(1.0, matcher.match("AB 12345", NO_BOX, null).getScore());
+        // A 0 where the grammar wants a D is read as D, not as the more common O.
+        PlateDto diplomatic = matcher.match("C0 12345", NO_BOX, null);
+        assertEquals("CD12345", diplomatic.getText());
+        assertEquals(PlateGrammars.DIPLOMATIC, diplomatic.getFormat());
+        assertEquals("CB12345", matcher.match("C8 12345", NO_BOX, null).getText());
+        assertTrue(PlateText.confusable(PlateText.symbolOf('0'), PlateText.symbolOf('Q')));
+        assertFalse(PlateText.confusable(PlateText.symbolOf('8'), PlateText.symbolOf('D')));
+        // Three repairs are too many to trust.
+        assertNull(matcher.match("A8 I23S5", NO_BOX, null));
+
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getPlates().setMaxCorrections(0);
+        assertNull(new PlateMatcher(properties).match("A8 12345", NO_BOX, null));
+    }
+
+    @Test
+    void testMatch_joinsTwoLinesWithoutConcatenating() {
+        PlateDto plate = matcher.match("AB", "I2345", new int[] {1, 2}, 0.8);
+
+        assertEquals("AB12345", plate.getText());
+        assertEquals(List.of(1, 2), plate.getBbox());
+        assertEquals(0.8, plate.getConfidence());
+        assertEquals(
+                PlateText.encode("AB 12-345"),
+                PlateText.join(PlateText.encode("ab"), PlateText.encode("12-345")));
+        assertEquals(
+                PlateText.INVALID,
+                PlateText.join(PlateText.encode("AB12345"), PlateText.encode("6789")));
+        assertNull(matcher.match("AB", "1234", NO_BOX, null));
+        assertNull(matcher.match(null, "12345", NO_BOX, null));
+        assertTrue(matcher.matches("EL", "12345"));
+        assertFalse(matcher.matches("PARKERING", "FORBUDT"));
+    }
+
+    @Test
+    void testMatch_optInGrammars() {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getPlates().setGrammars(List.of("standard", "eu", "personalised"));
+        PlateMatcher all = new PlateMatcher(properties);
+
+        assertEquals(PlateGrammars.EU, all.match("ABC 123", NO_BOX, null).getFormat());
+        assertEquals(PlateGrammars.EU, all.match("M-AB 1234", NO_BOX, null).getFormat());
+        assertEquals("ÅSE1", all.match("åse 1", NO_BOX, null).getText());
+        assertEquals(PlateGrammars.PERSONALISED, all.match("ÅSE 1", NO_BOX, null).getFormat());
+        assertNull(all.match("1234", NO_BOX, null));
+        assertNull(matcher.match("ABC 123", NO_BOX, null));
+        assertThrows(
+                IllegalArgumentException.class, () -> PlateGrammars.byName("martian", List.of()));
+    }
+
+    @Test
+    void testEncode_roundTripsNormalizedText() {
+        long plate = PlateText.encode(" æø-å 0:9\t");
+
+        assertEquals(5, PlateText.length(plate));
+        assertEquals("ÆØÅ09", PlateText.toString(plate));
+        assertEquals(PlateText.INVALID, PlateText.encode("ABCDEFGHIJK"));
+        assertEquals(PlateText.INVALID, PlateText.encode("AB_12345"));
+    }
+}
@@ -0,0 +1,213 @@
+package no.bachelorgroup13.backend.gate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.gate.GateSocketEndpoint;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class GateSocketEndpointTest {
+    private static final byte[] FRAME = {1, 2, 3};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<CompletableFuture<List<PlateDto>>> recognitions = new ArrayList<>();
+    private LicensePlateService service;
+    private GateSocketEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        PipelineProperties properties = new PipelineProperties();
+        properties.getMotion().setEnabled(false);
+        properties.getGate().setWindow(2);
+        properties.getGate().setCapacity(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = mock(LicensePlateService.class);
+        when(service.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenAnswer(
+                        invocation -> {
+                            CompletableFuture<List<PlateDto>> recognition =
+                                    new CompletableFuture<>();
+                            recognitions.add(recognition);
+                            return recognition;
+                        });
+        endpoint =
+                new GateSocketEndpoint(
+                        service,
+                        new MotionGate(properties, meterRegistry),
+                        new PlateTracker(properties, event -> {}, meterRegistry),
+                        objectMapper,
+                        properties,
+                        new LicensePlateProperties(),
+                        meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.shutdown();
+    }
+
+    @Test
+    void testCredits_areGrantedOnDemandFromOnePool() throws Exception {
+        Gate a = connect("gate-a");
+        Gate b = connect("gate-b");
+
+        // Connected gates hold no credit until they send a frame.
+        assertTrue(a.messages.isEmpty());
+        assertEquals(0, endpoint.getCreditsInUse());
+
+        // The first frame takes a credit from the pool and asks for the window.
+        a.send();
+        assertEquals(List.of("credit:1"), a.summary());
+        a.send();
+        a.send();
+        assertEquals("error:2:429", a.summary().get(1));
+        assertEquals(2, recognitions.size());
+        verify(service, times(2)).getLicensePlatesAsync(any(byte[].class), eq("gate:gate-a"));
+
+        // The last credit in the pool takes the second gate's frame, which then waits.
+        b.send();
+        assertTrue(b.messages.isEmpty());
+        assertEquals(3, endpoint.getCreditsInUse());
+
+        // The finished frame's credit goes to the gate that was waiting for one.
+        recognitions.get(0).complete(List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4))));
+        assertEquals("result:0", a.summary().get(2));
+        assertEquals(
+                "AB12345", a.messages.get(2).get("license_plates").get(0).get("text").asText());
+        assertEquals(3, a.messages.size());
+        assertEquals(List.of("credit:1"), b.summary());
+
+        // Closing gives back the unused credits, which tops the other gate up again.
+        endpoint.onClose(b.session, new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "bye"));
+        assertEquals("credit:1", a.summary().get(3));
+        assertEquals(3, endpoint.getCreditsInUse());
+    }
+
+    @Test
+    void testCredits_ofIdleGatesAreReclaimed() throws Exception {
+        Gate a = connect("gate-a");
+        a.send();
+        recognitions.get(0).complete(List.of());
+        assertEquals(List.of("credit:1", "result:0", "credit:1"), a.summary());
+        assertEquals(2, endpoint.getCreditsInUse());
+
+        assertEquals(0, endpoint.reclaimIdle(System.nanoTime()));
+        assertEquals(2, endpoint.reclaimIdle(System.nanoTime() + Duration.ofMinutes(1).toNanos()));
+        assertEquals("credit:-2", a.summary().get(3));
+        assertEquals(0, endpoint.getCreditsInUse());
+
+        // The next frame asks for credit again.
+        a.send();
+        assertEquals("credit:1", a.summary().get(4));
+        assertEquals(2, recognitions.size());
+    }
+
+    @Test
+    void testFrame_failedRecognitionIsReportedWithRetryAfter() throws Exception {
+        Gate a = connect("gate-a");
+        a.send();
+
+        recognitions
+                .get(0)
+                .completeExceptionally(
+                        new AzureUnavailableException("circuit open", Duration.ofMillis(1500)));
+
+        JsonNode error = a.messages.get(1);
+        assertEquals("error", error.get("type").asText());
+        assertEquals(0, error.get("frame").asLong());
+        assertEquals(503, error.get("status").asInt());
+        assertEquals(2, error.get("retryAfter").asLong());
+        assertTrue(error.get("error").asText().contains("circuit open"));
+        // The failed frame's credit is handed straight back.
+        assertEquals("credit:1", a.summary().get(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Gate connect(String camera) throws Exception {
+        Gate gate = new Gate();
+        gate.session = mock(Session.class);
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        doAnswer(
+                        invocation -> {
+                            gate.messages.add(
+                                    objectMapper.readTree((String) invocation.getArgument(0)));
+                            ((SendHandler) invocation.getArgument(1)).onResult(new SendResult());
+                            return null;
+                        })
+                .when(remote)
+                .sendText(any(String.class), any(SendHandler.class));
+        Map<String, Object> userProperties = new HashMap<>();
+        when(gate.session.isOpen()).thenReturn(true);
+        when(gate.session.getAsyncRemote()).thenReturn(remote);
+        when(gate.session.getPathParameters()).thenReturn(Map.of("camera", camera));
+        when(gate.session.getUserProperties()).thenReturn(userProperties);
+
+        endpoint.onOpen(gate.session, null);
+
+        ArgumentCaptor<MessageHandler.Whole<byte[]>> handler =
+                ArgumentCaptor.forClass(MessageHandler.Whole.class);
+        verify(gate.session).addMessageHandler(eq(byte[].class), handler.capture());
+        gate.handler = handler.getValue();
+        return gate;
+    }
+
+    private static class Gate {
+        private Session session;
+        private MessageHandler.Whole<byte[]> handler;
+        private final List<JsonNode> messages = new ArrayList<>();
+
+        private void send() {
+            handler.onMessage(FRAME);
+        }
+
+        private List<String> summary() {
+            List<String> summary = new ArrayList<>();
+            for (JsonNode message : messages) {
+                String type = message.get("type").asText();
+                summary.add(
+                        switch (type) {
+                            case "credit" -> type + ":" + message.get("credits").asInt();
+                            case "error" -> type
+                                    + ":"
+                                    + message.get("frame").asLong()
+                                    + ":"
+                                    + message.get("status").asInt();
+                            default -> type + ":" + message.get("frame").asLong();
+                        });
+            }
+            return summary;
+        }
+    }
+}
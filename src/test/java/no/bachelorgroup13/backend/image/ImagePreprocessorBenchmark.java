@@ -0,0 +1,123 @@
+package no.bachelorgroup13.backend.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.client.AzureReadStub;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureCircuitBreaker;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures a 4000x3000 phone photo from the moment it arrives until its read
+ * result is back, once uploaded as it is and once after the preprocessor has
+ * cropped and re-encoded it. The stub Read API sits behind a link with a
+ * capped upload bandwidth, so the size of the upload shows up in the latency.
+ * The bytes and images uploaded are reported next to the time.
+ * Only compiled with the jmh profile. Run it with
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=no.bachelorgroup13.backend.image.ImagePreprocessorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImagePreprocessorBenchmark {
+    /** Upload bandwidth of the link to the stub, 2.5 MB/s is a 20 Mbit/s uplink. */
+    @Param({"0", "2500000"})
+    public long uploadBytesPerSecond;
+
+    private AzureReadStub stub;
+    private AzureVisionClient client;
+    private ImagePreprocessor preprocessor;
+    private byte[] photo;
+
+    /**
+     * Bytes and images sent to the stub, reported by JMH next to the time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Upload {
+        public long bytes;
+        public long images;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            images = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        stub = new AzureReadStub(0, uploadBytesPerSecond);
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEndpoint(stub.endpoint());
+        properties.setKey("test-key");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        client =
+                new AzureVisionClient(
+                        properties,
+                        new AzureCircuitBreaker(properties, meterRegistry),
+                        new AzureBudget(properties, meterRegistry));
+        preprocessor =
+                new ImagePreprocessor(
+                        new PlateRegionDetector(properties), properties, meterRegistry);
+        photo =
+                ImagePreprocessorTest.encodeJpeg(
+                        ImagePreprocessorTest.syntheticPhoto(4000, 3000), 0.95f);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stub.close();
+    }
+
+    @Benchmark
+    public String original(Upload upload) throws InterruptedException, ExecutionException {
+        return read(photo, upload);
+    }
+
+    @Benchmark
+    public String preprocessed(Upload upload) throws InterruptedException, ExecutionException {
+        return read(preprocessor.prepare(photo).bytes(), upload);
+    }
+
+    private String read(byte[] image, Upload upload)
+            throws InterruptedException, ExecutionException {
+        upload.bytes += image.length;
+        upload.images++;
+        return client.submitAsync(image).thenCompose(client::fetchResultAsync).get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(ImagePreprocessorBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,133 @@
+package no.bachelorgroup13.backend.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import no.bachelorgroup13.backend.features.licenseplate.image.PreparedImage;
+import org.junit.jupiter.api.Test;
+
+class ImagePreprocessorTest {
+    @Test
+    void testPrepare_downscalesLargePhoto() throws Exception {
+        ImagePreprocessor preprocessor = preprocessor(new LicensePlateProperties());
+        byte[] photo = encodeJpeg(syntheticPhoto(4000, 3000), 0.95f);
+
+        PreparedImage prepared = preprocessor.prepare(photo);
+        BufferedImage uploaded = ImageIO.read(new ByteArrayInputStream(prepared.bytes()));
+
+        assertEquals(1600, uploaded.getWidth());
+        assertEquals(1200, uploaded.getHeight());
+        assertEquals(2.5, prepared.scale(), 0.001);
+        assertTrue(prepared.bytes().length * 4 < photo.length);
+    }
+
+    @Test
+    void testPrepare_keepsSmallOrUnreadableImagesUnchanged() throws Exception {
+        ImagePreprocessor preprocessor = preprocessor(new LicensePlateProperties());
+        byte[] small = encodeJpeg(syntheticPhoto(640, 480), 0.5f);
+        byte[] notAnImage = "fake-image-content".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(small, preprocessor.prepare(small).bytes());
+        assertSame(notAnImage, preprocessor.prepare(notAnImage).bytes());
+        assertEquals(1.0, preprocessor.prepare(notAnImage).scale());
+    }
+
+    @Test
+    void testDecode_refusesImagesOverThePixelLimit() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getPreprocessing().setMaxPixels(2000 * 1500);
+        ImagePreprocessor preprocessor = preprocessor(properties);
+        byte[] photo = encodeJpeg(syntheticPhoto(4000, 3000), 0.95f);
+        byte[] small = encodeJpeg(syntheticPhoto(2000, 1500), 0.95f);
+
+        assertNull(preprocessor.decode(photo));
+        assertSame(photo, preprocessor.prepare(photo).bytes());
+        assertEquals(2000, preprocessor.decode(small).getWidth());
+    }
+
+    @Test
+    void testPrepare_disabledSendsOriginal() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getPreprocessing().setEnabled(false);
+        byte[] photo = encodeJpeg(syntheticPhoto(4000, 3000), 0.95f);
+
+        assertSame(photo, preprocessor(properties).prepare(photo).bytes());
+    }
+
+    @Test
+    void testToOriginal_scalesBoundingBox() {
+        PreparedImage prepared = new PreparedImage(new byte[0], 2.5);
+
+        assertEquals(
+                List.of(25, 50, 75, 100, 125, 150, 175, 200),
+                prepared.toOriginal(List.of(10, 20, 30, 40, 50, 60, 70, 80)));
+    }
+
+    private static ImagePreprocessor preprocessor(LicensePlateProperties properties) {
+        return new ImagePreprocessor(
+                new PlateRegionDetector(properties), properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Draws a noisy scene with a plate in the middle, roughly like a phone photo.
+     */
+    static BufferedImage syntheticPhoto(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int base = 90 + (x * 60 / width) + (y * 40 / height);
+                int grey = Math.min(255, base + random.nextInt(24));
+                image.setRGB(x, y, (grey << 16) | (grey << 8) | grey);
+            }
+        }
+        Graphics2D graphics = image.createGraphics();
+        int plateWidth = width / 4;
+        int plateHeight = plateWidth / 4;
+        int left = (width - plateWidth) / 2;
+        int top = (height - plateHeight) / 2;
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(left, top, plateWidth, plateHeight);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, plateHeight * 3 / 4));
+        graphics.drawString("AB 12345", left + plateHeight / 4, top + plateHeight * 7 / 8);
+        graphics.dispose();
+        return image;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
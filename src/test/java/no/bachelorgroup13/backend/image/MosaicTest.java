@@ -0,0 +1,168 @@
+package no.bachelorgroup13.backend.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.image.Mosaic;
+import org.junit.jupiter.api.Test;
+
+class MosaicTest {
+
+    @Test
+    void testPack_placesTilesWithoutOverlapInsideMaxSide() {
+        List<Mosaic.Piece> pieces = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pieces.add(new Mosaic.Piece(i, new Rectangle(0, 0, 400 + i * 30, 300 + i * 20), 1.0));
+        }
+
+        List<Mosaic> mosaics = Mosaic.pack(pieces, 2000, 24);
+
+        int tiles = 0;
+        for (Mosaic mosaic : mosaics) {
+            assertTrue(mosaic.getWidth() <= 2000 && mosaic.getHeight() <= 2000);
+            List<Mosaic.Tile> placed = mosaic.getTiles();
+            for (int a = 0; a < placed.size(); a++) {
+                Mosaic.Tile tile = placed.get(a);
+                assertTrue(tile.x() + tile.width() <= mosaic.getWidth());
+                assertTrue(tile.y() + tile.height() <= mosaic.getHeight());
+                for (int b = a + 1; b < placed.size(); b++) {
+                    assertFalse(bounds(tile).intersects(bounds(placed.get(b))));
+                }
+            }
+            tiles += placed.size();
+        }
+        assertEquals(pieces.size(), tiles);
+        assertTrue(mosaics.size() > 1);
+    }
+
+    @Test
+    void testLocate_mapsBoxInScaledTileBackToItsFrame() {
+        Mosaic mosaic =
+                Mosaic.pack(
+                                List.of(
+                                        new Mosaic.Piece(0, new Rectangle(0, 0, 800, 600), 1.0),
+                                        new Mosaic.Piece(1, new Rectangle(0, 0, 2000, 1500), 2.0)),
+                                3200,
+                                24)
+                        .get(0);
+        Mosaic.Tile second = tileOf(mosaic, 1);
+        assertEquals(1000, second.width());
+        assertEquals(750, second.height());
+
+        Mosaic.Located located =
+                mosaic.locate(
+                        List.of(
+                                second.x() + 100,
+                                second.y() + 50,
+                                second.x() + 200,
+                                second.y() + 50,
+                                second.x() + 200,
+                                second.y() + 80,
+                                second.x() + 100,
+                                second.y() + 80));
+
+        assertEquals(1, located.source());
+        assertEquals(List.of(200, 100, 400, 100, 400, 160, 200, 160), located.bbox());
+    }
+
+    @Test
+    void testLocate_mapsRegionOfFrameToFrameCoordinates() {
+        Mosaic mosaic =
+                Mosaic.pack(
+                                List.of(
+                                        new Mosaic.Piece(3, new Rectangle(1100, 700, 300, 80), 1.0),
+                                        new Mosaic.Piece(5, new Rectangle(200, 40, 260, 70), 1.0)),
+                                3200,
+                                24)
+                        .get(0);
+        Mosaic.Tile tile = tileOf(mosaic, 5);
+
+        Mosaic.Located located =
+                mosaic.locate(List.of(tile.x() + 10, tile.y() + 5, tile.x() + 250, tile.y() + 60));
+
+        assertEquals(5, located.source());
+        assertEquals(List.of(210, 45, 450, 100), located.bbox());
+    }
+
+    @Test
+    void testLocate_rejectsBoxSpanningTwoTiles() {
+        Mosaic mosaic =
+                Mosaic.pack(
+                                List.of(
+                                        new Mosaic.Piece(0, new Rectangle(0, 0, 800, 600), 1.0),
+                                        new Mosaic.Piece(1, new Rectangle(0, 0, 800, 600), 1.0)),
+                                3200,
+                                24)
+                        .get(0);
+        List<Integer> across = List.of(700, 100, 900, 100, 900, 130, 700, 130);
+        // Azure often reports text a few pixels into the gap.
+        List<Integer> intoGap = List.of(700, 100, 808, 100, 808, 130, 700, 130);
+
+        assertNull(mosaic.locate(across));
+        assertEquals(0, mosaic.locate(intoGap).source());
+        assertEquals(
+                List.of(700, 100, 800, 100, 800, 130, 700, 130), mosaic.locate(intoGap).bbox());
+    }
+
+    @Test
+    void testPack_shrinksPiecesLargerThanMaxSide() {
+        List<Mosaic> mosaics =
+                Mosaic.pack(
+                        List.of(new Mosaic.Piece(0, new Rectangle(0, 0, 4000, 3000), 1.0)),
+                        2000,
+                        24);
+
+        assertEquals(1, mosaics.size());
+        Mosaic.Tile tile = mosaics.get(0).getTiles().get(0);
+        assertEquals(2000, tile.width());
+        assertEquals(1500, tile.height());
+        assertEquals(
+                List.of(2000, 1500, 4000, 3000),
+                mosaics.get(0).locate(List.of(1000, 750, 2000, 1500)).bbox());
+    }
+
+    @Test
+    void testRender_drawsEachSourceAtItsTile() {
+        BufferedImage red = filled(300, 200, 0xFF0000);
+        BufferedImage blue = filled(300, 200, 0x0000FF);
+        Mosaic mosaic =
+                Mosaic.pack(
+                                List.of(
+                                        new Mosaic.Piece(0, new Rectangle(0, 0, 300, 200), 1.0),
+                                        new Mosaic.Piece(1, new Rectangle(0, 0, 300, 200), 1.0)),
+                                3200,
+                                24)
+                        .get(0);
+
+        BufferedImage packed = mosaic.render(List.of(red, blue));
+
+        Mosaic.Tile redTile = tileOf(mosaic, 0);
+        Mosaic.Tile blueTile = tileOf(mosaic, 1);
+        assertEquals(0xFF0000, packed.getRGB(redTile.x() + 150, redTile.y() + 100) & 0xFFFFFF);
+        assertEquals(0x0000FF, packed.getRGB(blueTile.x() + 150, blueTile.y() + 100) & 0xFFFFFF);
+    }
+
+    private static Mosaic.Tile tileOf(Mosaic mosaic, int source) {
+        return mosaic.getTiles().stream().filter(t -> t.source() == source).findFirst().get();
+    }
+
+    private static Rectangle bounds(Mosaic.Tile tile) {
+        return new Rectangle(tile.x(), tile.y(), tile.width(), tile.height());
+    }
+
+    private static BufferedImage filled(int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,58 @@
+package no.bachelorgroup13.backend.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures what the motion gate costs per 1280x720 frame of an empty lane, to
+ * set against the time a recognition takes.
+ * Only compiled with the jmh profile. Run it with
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=no.bachelorgroup13.backend.image.MotionGateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotionGateBenchmark {
+    private final MotionGate gate =
+            new MotionGate(new PipelineProperties(), new SimpleMeterRegistry());
+    private byte[] empty;
+    private byte[] noisy;
+    private long frame;
+
+    @Setup
+    public void setUp() throws IOException {
+        empty = MotionGateTest.jpeg(MotionGateTest.lane(0, null));
+        noisy = MotionGateTest.jpeg(MotionGateTest.lane(6, null));
+    }
+
+    @Benchmark
+    public boolean admit() {
+        frame++;
+        return gate.admit("gate-1", frame % 2 == 0 ? empty : noisy, frame);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MotionGateBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
@@ -0,0 +1,127 @@
+package no.bachelorgroup13.backend.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import org.junit.jupiter.api.Test;
+
+class MotionGateTest {
+    private static final long SECOND = 1_000_000_000L;
+    private static final int FRAMES = 50;
+
+    @Test
+    void testAdmit_dropsUnchangedFramesAndPassesMovement() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MotionGate gate = new MotionGate(new PipelineProperties(), meterRegistry);
+        byte[] empty = jpeg(lane(0, null));
+        byte[] noisy = jpeg(lane(6, null));
+        byte[] brighter = jpeg(lane(20, null));
+        byte[] car = jpeg(lane(0, new Color(150, 20, 20)));
+
+        assertTrue(gate.admit("gate-1", empty, 0));
+        assertFalse(gate.admit("gate-1", noisy, SECOND));
+        assertFalse(gate.admit("gate-1", brighter, 2 * SECOND));
+        assertTrue(gate.admit("gate-1", car, 3 * SECOND));
+        assertFalse(gate.admit("gate-1", car, 4 * SECOND));
+        // Other cameras keep their own reference frame.
+        assertTrue(gate.admit("gate-2", car, 4 * SECOND));
+        // The heartbeat lets a frame through now and then even if nothing moved.
+        assertTrue(gate.admit("gate-1", car, 14 * SECOND));
+        assertTrue(gate.admit("gate-1", "not an image".getBytes(), 15 * SECOND));
+
+        assertEquals(3.0 / 8, gate.getDropRatio(), 1e-9);
+        assertEquals(8, meterRegistry.get("licenseplate.motion.latency").timer().count());
+    }
+
+    @Test
+    void testAdmit_passesCamerasOverTheLimitUntilQuietOnesAreSwept() throws Exception {
+        PipelineProperties properties = new PipelineProperties();
+        properties.getMotion().setMaxCameras(1);
+        properties.getMotion().setIdleTimeout(Duration.ofSeconds(30));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MotionGate gate = new MotionGate(properties, meterRegistry);
+        byte[] empty = jpeg(lane(0, null));
+
+        assertTrue(gate.admit("gate-1", empty, 0));
+        assertFalse(gate.admit("gate-1", empty, SECOND));
+        // gate-2 does not fit, so its frames pass unchecked.
+        assertTrue(gate.admit("gate-2", empty, SECOND));
+        assertTrue(gate.admit("gate-2", empty, 2 * SECOND));
+        assertEquals(
+                2,
+                meterRegistry
+                        .get("licenseplate.motion.frames")
+                        .tag("result", "untracked")
+                        .counter()
+                        .count());
+        assertEquals(1.0 / 2, gate.getDropRatio(), 1e-9);
+
+        // Dropped frames keep gate-1 from counting as quiet.
+        assertFalse(gate.admit("gate-1", empty, 5 * SECOND));
+        gate.sweep(30 * SECOND);
+        assertTrue(gate.admit("gate-2", empty, 31 * SECOND));
+        gate.sweep(35 * SECOND);
+        assertTrue(gate.admit("gate-2", empty, 36 * SECOND));
+        assertEquals(1, meterRegistry.get("licenseplate.motion.cameras").gauge().value());
+        assertFalse(gate.admit("gate-2", empty, 37 * SECOND));
+        gate.shutdown();
+    }
+
+    @Test
+    void testAdmit_dropsSensorNoiseAndBrightnessChanges() throws Exception {
+        MotionGate gate = new MotionGate(new PipelineProperties(), new SimpleMeterRegistry());
+        byte[] empty = jpeg(lane(0, null));
+        byte[] noisy = jpeg(lane(6, null));
+
+        int dropped = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            dropped += gate.admit("gate-1", i % 2 == 0 ? empty : noisy, i) ? 0 : 1;
+        }
+
+        assertEquals(FRAMES - 1, dropped);
+    }
+
+    /**
+     * Draws an empty gate lane, with sensor noise and a brightness offset, and
+     * optionally a car in it.
+     */
+    static BufferedImage lane(int offset, Color car) {
+        BufferedImage image = new BufferedImage(1280, 720, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(90 + offset, 90 + offset, 95 + offset));
+        g.fillRect(0, 0, 1280, 720);
+        g.setColor(new Color(200 + offset / 2, 200 + offset / 2, 200 + offset / 2));
+        g.fillRect(600, 0, 20, 720);
+        if (car != null) {
+            g.setColor(car);
+            g.fillRect(300, 250, 500, 300);
+        }
+        g.dispose();
+        Random random = new Random(offset);
+        for (int i = 0; i < 20_000; i++) {
+            int x = random.nextInt(1280);
+            int y = random.nextInt(720);
+            int grey = 84 + offset + random.nextInt(13);
+            image.setRGB(x, y, new Color(grey, grey, grey).getRGB());
+        }
+        return image;
+    }
+
+    static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
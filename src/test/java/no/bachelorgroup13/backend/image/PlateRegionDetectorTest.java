@@ -0,0 +1,120 @@
+package no.bachelorgroup13.backend.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.Mosaic;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import no.bachelorgroup13.backend.features.licenseplate.image.PreparedImage;
+import org.junit.jupiter.api.Test;
+
+class PlateRegionDetectorTest {
+    private static final Rectangle PLATE = new Rectangle(1100, 700, 260, 56);
+
+    @Test
+    void testDetect_findsPlateInGateCameraFrame() {
+        PlateRegionDetector detector = new PlateRegionDetector(new LicensePlateProperties());
+
+        List<Rectangle> regions = detector.detect(gateFrame());
+
+        assertFalse(regions.isEmpty());
+        assertTrue(
+                regions.get(0).contains(PLATE),
+                "best region " + regions.get(0) + " does not contain " + PLATE);
+    }
+
+    @Test
+    void testDetect_findsNothingInFlatFrame() {
+        PlateRegionDetector detector = new PlateRegionDetector(new LicensePlateProperties());
+        BufferedImage flat = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+
+        assertTrue(detector.detect(flat).isEmpty());
+    }
+
+    @Test
+    void testToSource_mapsBoxInSecondTileBackToFrame() {
+        Mosaic mosaic =
+                Mosaic.stack(
+                        List.of(new Rectangle(100, 200, 300, 80), new Rectangle(900, 500, 400, 90)),
+                        16);
+
+        // Second tile starts at y = 80 + 16 in the mosaic.
+        List<Integer> bbox = List.of(10, 110, 210, 110, 210, 150, 10, 150);
+
+        assertEquals(List.of(910, 514, 1110, 514, 1110, 554, 910, 554), mosaic.toSource(bbox));
+        assertEquals(400, mosaic.getWidth());
+        assertEquals(80 + 16 + 90, mosaic.getHeight());
+    }
+
+    @Test
+    void testPrepare_uploadsOnlyPlateRegions() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getDetection().setEnabled(true);
+        ImagePreprocessor preprocessor =
+                new ImagePreprocessor(
+                        new PlateRegionDetector(properties), properties, new SimpleMeterRegistry());
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        ImageIO.write(gateFrame(), "jpeg", frame);
+
+        PreparedImage cropped = preprocessor.prepare(frame.toByteArray());
+        PreparedImage full = preprocessor.prepareFullFrame(frame.toByteArray());
+
+        assertTrue(cropped.isCropped());
+        assertFalse(full.isCropped());
+        assertTrue(
+                cropped.bytes().length * 4 < full.bytes().length,
+                "cropped " + cropped.bytes().length + " bytes, full " + full.bytes().length);
+        assertTrue(preprocessor.shouldRetryFullFrame(cropped, 0));
+        assertFalse(preprocessor.shouldRetryFullFrame(cropped, 1));
+        assertFalse(preprocessor.shouldRetryFullFrame(full, 0));
+
+        Mosaic.Tile tile = cropped.mosaic().getTiles().get(0);
+        List<Integer> plateInMosaic =
+                List.of(
+                        tile.x() + PLATE.x - tile.region().x,
+                        tile.y() + PLATE.y - tile.region().y,
+                        tile.x() + PLATE.x - tile.region().x + PLATE.width,
+                        tile.y() + PLATE.y - tile.region().y + PLATE.height);
+        assertEquals(
+                List.of(PLATE.x, PLATE.y, PLATE.x + PLATE.width, PLATE.y + PLATE.height),
+                cropped.toOriginal(plateInMosaic));
+    }
+
+    /**
+     * Draws a wide-angle gate camera frame: a textured road, a dark car body and
+     * one plate with dark characters on a light background.
+     */
+    private static BufferedImage gateFrame() {
+        BufferedImage frame = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                int grey = 110 + (y * 50 / frame.getHeight()) + random.nextInt(16);
+                frame.setRGB(x, y, (grey << 16) | (grey << 8) | grey);
+            }
+        }
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setColor(new Color(40, 45, 60));
+        graphics.fillRoundRect(900, 450, 660, 400, 60, 60);
+        graphics.setColor(new Color(235, 235, 235));
+        graphics.fillRect(PLATE.x, PLATE.y, PLATE.width, PLATE.height);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 42));
+        graphics.drawString("AB 12345", PLATE.x + 14, PLATE.y + 46);
+        graphics.dispose();
+        return frame;
+    }
+}
@@ -0,0 +1,225 @@
+package no.bachelorgroup13.backend.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureUnavailableException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.RecognitionJobDto;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJob;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJobRepository;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJobService;
+import no.bachelorgroup13.backend.features.licenseplate.job.RecognitionJobWorker;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecognitionJobServiceTest {
+    private static final List<PlateDto> PLATES =
+            List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4)));
+
+    private PipelineProperties properties;
+    private RecognitionJobRepository repository;
+    private RecognitionJobService jobService;
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new PipelineProperties();
+        properties.getJobs().setMaxAttempts(2);
+        repository = mock(RecognitionJobRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        jobService =
+                new RecognitionJobService(
+                        repository, new ObjectMapper(), properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testClaim_leasesDueJobsAndFailsAbandonedOnes() {
+        RecognitionJob fresh = job(RecognitionJob.Status.QUEUED, 0);
+        RecognitionJob abandoned = job(RecognitionJob.Status.RUNNING, 2);
+        when(repository.findClaimable(any(), eq(5))).thenReturn(List.of(fresh, abandoned));
+
+        List<RecognitionJob> claimed = jobService.claim(5);
+
+        assertEquals(List.of(fresh), claimed);
+        assertEquals(RecognitionJob.Status.RUNNING, fresh.getStatus());
+        assertEquals(1, fresh.getAttempts());
+        assertNotNull(fresh.getLockedBy());
+        assertTrue(fresh.getAvailableAt().isAfter(Instant.now().plusSeconds(60)));
+        assertEquals(RecognitionJob.Status.FAILED, abandoned.getStatus());
+        assertEquals(500, abandoned.getErrorStatus());
+        assertNull(abandoned.getImage());
+        verify(repository).saveAll(List.of(fresh, abandoned));
+    }
+
+    @Test
+    void testComplete_storesPlatesOnlyWhileStillClaimed() {
+        RecognitionJob claimed = job(RecognitionJob.Status.RUNNING, 1);
+        RecognitionJob current = job(RecognitionJob.Status.RUNNING, 1);
+        current.setId(claimed.getId());
+        when(repository.findForUpdate(claimed.getId())).thenReturn(Optional.of(current));
+
+        jobService.complete(claimed, PLATES);
+
+        assertEquals(RecognitionJob.Status.DONE, current.getStatus());
+        assertNull(current.getImage());
+        RecognitionJobDto dto = jobService.toDto(current);
+        assertEquals("done", dto.getStatus());
+        assertEquals(PLATES, dto.getLicensePlates());
+
+        // Another replica took the job over after the lease ran out.
+        RecognitionJob late = job(RecognitionJob.Status.RUNNING, 1);
+        RecognitionJob retaken = job(RecognitionJob.Status.RUNNING, 2);
+        when(repository.findForUpdate(late.getId())).thenReturn(Optional.of(retaken));
+
+        jobService.complete(late, PLATES);
+
+        assertEquals(RecognitionJob.Status.RUNNING, retaken.getStatus());
+        verify(repository, never()).save(retaken);
+    }
+
+    @Test
+    void testFail_requeuesUnavailableAzureUntilAttemptsRunOut() {
+        RecognitionJob first = job(RecognitionJob.Status.RUNNING, 1);
+        when(repository.findForUpdate(first.getId())).thenReturn(Optional.of(first));
+
+        jobService.fail(first, new AzureUnavailableException("throttled", Duration.ofSeconds(30)));
+
+        assertEquals(RecognitionJob.Status.QUEUED, first.getStatus());
+        assertNull(first.getLockedBy());
+        assertTrue(first.getAvailableAt().isAfter(Instant.now().plusSeconds(20)));
+
+        RecognitionJob last = job(RecognitionJob.Status.RUNNING, 2);
+        when(repository.findForUpdate(last.getId())).thenReturn(Optional.of(last));
+
+        jobService.fail(last, new AzureUnavailableException("throttled", Duration.ofSeconds(30)));
+
+        assertEquals(RecognitionJob.Status.FAILED, last.getStatus());
+        assertEquals(503, last.getErrorStatus());
+        assertTrue(last.getError().contains("throttled"));
+    }
+
+    @Test
+    void testSubmit_refusesOnceTheQueueOrTheClientIsFull() throws Exception {
+        properties.getJobs().setMaxQueued(3);
+        properties.getJobs().setMaxQueuedPerClient(2);
+        jobService =
+                new RecognitionJobService(
+                        repository, new ObjectMapper(), properties, new SimpleMeterRegistry());
+        when(repository.countByStatus(RecognitionJob.Status.QUEUED)).thenReturn(2L);
+        when(repository.countByClientAndStatusIn(eq("gate-1"), any())).thenReturn(1L);
+        when(repository.countByClientAndStatusIn(eq("gate-2"), any())).thenReturn(2L);
+
+        assertEquals("gate-1", jobService.submit(new byte[] {1}, "gate-1").getClient());
+        assertThrows(
+                BudgetExhaustedException.class, () -> jobService.submit(new byte[] {1}, "gate-2"));
+
+        when(repository.countByStatus(RecognitionJob.Status.QUEUED)).thenReturn(3L);
+
+        BudgetExhaustedException full =
+                assertThrows(
+                        BudgetExhaustedException.class,
+                        () -> jobService.submit(new byte[] {1}, "gate-1"));
+        assertNotNull(full.getRetryAfter());
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void testAwait_pollsOnItsOwnThreadsAndCapsWaitingRequests() throws Exception {
+        properties.getJobs().setPollInterval(Duration.ofMillis(10));
+        properties.getJobs().setMaxWaiting(1);
+        jobService.shutdown();
+        jobService =
+                new RecognitionJobService(
+                        repository, new ObjectMapper(), properties, new SimpleMeterRegistry());
+        RecognitionJob queued = job(RecognitionJob.Status.QUEUED, 0);
+        RecognitionJob done = job(RecognitionJob.Status.DONE, 1);
+        done.setId(queued.getId());
+        AtomicInteger polls = new AtomicInteger();
+        when(repository.findById(queued.getId()))
+                .thenAnswer(
+                        invocation ->
+                                Optional.of(
+                                        Thread.currentThread().getName().equals("job-await")
+                                                        && polls.incrementAndGet() == 2
+                                                ? done
+                                                : queued));
+
+        CompletableFuture<Optional<RecognitionJob>> waited =
+                jobService.await(queued.getId(), Duration.ofSeconds(5));
+        // Only one request may wait, so a second one gets the job as it is.
+        Optional<RecognitionJob> other =
+                jobService.await(queued.getId(), Duration.ofSeconds(5)).getNow(null);
+
+        assertEquals(Optional.of(queued), other);
+        assertEquals(Optional.of(done), waited.get(5, TimeUnit.SECONDS));
+        assertEquals(2, polls.get());
+    }
+
+    @Test
+    void testWorker_claimsOnlyWhatItHasRoomFor() {
+        properties.getJobs().setConcurrency(2);
+        RecognitionJobService jobs = mock(RecognitionJobService.class);
+        LicensePlateService service = mock(LicensePlateService.class);
+        CompletableFuture<List<PlateDto>> recognition = new CompletableFuture<>();
+        when(service.getLicensePlatesAsync(any(byte[].class), any())).thenReturn(recognition);
+        RecognitionJob a = job(RecognitionJob.Status.RUNNING, 1);
+        RecognitionJob b = job(RecognitionJob.Status.RUNNING, 1);
+        when(jobs.claim(2)).thenReturn(List.of(a, b));
+        RecognitionJobWorker worker =
+                new RecognitionJobWorker(jobs, service, properties, new LicensePlateProperties());
+
+        assertEquals(2, worker.poll());
+        assertEquals(0, worker.poll());
+        verify(jobs, times(1)).claim(anyInt());
+
+        recognition.complete(PLATES);
+
+        verify(jobs).complete(a, PLATES);
+        verify(jobs).complete(b, PLATES);
+        when(jobs.claim(2)).thenReturn(List.of());
+        assertEquals(0, worker.poll());
+    }
+
+    private static RecognitionJob job(RecognitionJob.Status status, int attempts) {
+        RecognitionJob job = new RecognitionJob();
+        job.setId(UUID.randomUUID());
+        job.setStatus(status);
+        job.setImage(new byte[] {1, 2, 3});
+        job.setClient("gate-1");
+        job.setAttempts(attempts);
+        job.setAvailableAt(Instant.now());
+        job.setCreatedAt(Instant.now());
+        return job;
+    }
+}
@@ -0,0 +1,495 @@
+package no.bachelorgroup13.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import no.bachelorgroup13.backend.features.licenseplate.audit.PlateReadRecorder;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBudget;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureBulkhead;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureReadPoller;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.AzureVisionClient;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.BudgetExhaustedException;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.AnalyzeResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Line;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResponse;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.ReadResult;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.model.Word;
+import no.bachelorgroup13.backend.features.licenseplate.dto.BatchItemDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.engine.AzureReadEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.LocalOcrEngine;
+import no.bachelorgroup13.backend.features.licenseplate.engine.PlateMatcher;
+import no.bachelorgroup13.backend.features.licenseplate.engine.Recognition;
+import no.bachelorgroup13.backend.features.licenseplate.image.ImagePreprocessor;
+import no.bachelorgroup13.backend.features.licenseplate.image.PlateRegionDetector;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.service.MosaicRecognizer;
+import no.bachelorgroup13.backend.features.licenseplate.service.RecognitionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class LicensePlateServiceTest {
+    private static final int CONCURRENT_REQUESTS = 20;
+
+    @TempDir Path tempDir;
+
+    private AzureVisionClient azureVisionClient;
+    private AzureReadPoller azureReadPoller;
+    private LocalOcrEngine localEngine;
+    private PlateReadRecorder plateReadRecorder;
+    private LicensePlateService service;
+
+    @BeforeEach
+    void setUp() {
+        azureVisionClient = mock(AzureVisionClient.class);
+        azureReadPoller = mock(AzureReadPoller.class);
+        localEngine = mock(LocalOcrEngine.class);
+        plateReadRecorder = mock(PlateReadRecorder.class);
+        when(localEngine.getName()).thenReturn(LocalOcrEngine.NAME);
+        service = service(new LicensePlateProperties());
+    }
+
+    private LicensePlateService service(LicensePlateProperties properties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ImagePreprocessor preprocessor =
+                new ImagePreprocessor(
+                        new PlateRegionDetector(properties), properties, meterRegistry);
+        AzureBulkhead bulkhead = new AzureBulkhead(properties, meterRegistry);
+        return new LicensePlateService(
+                List.of(
+                        new AzureReadEngine(
+                                azureVisionClient,
+                                azureReadPoller,
+                                bulkhead,
+                                preprocessor,
+                                new PlateMatcher(properties),
+                                Runnable::run),
+                        localEngine),
+                new RecognitionCache(properties, meterRegistry),
+                preprocessor,
+                new MosaicRecognizer(
+                        azureVisionClient,
+                        azureReadPoller,
+                        bulkhead,
+                        preprocessor,
+                        new PlateMatcher(properties),
+                        properties,
+                        meterRegistry,
+                        Runnable::run),
+                new AzureBudget(properties, meterRegistry),
+                plateReadRecorder,
+                properties,
+                meterRegistry,
+                Runnable::run);
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_spentClientBudgetFallsBackToLocalEngine() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getBudget().setClientDailyLimit(1);
+        service = service(properties);
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+        when(localEngine.recognize(any()))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new Recognition(
+                                        List.of(new PlateDto("CD67890", List.of(), 0.9)), true)));
+
+        byte[] first = Files.readAllBytes(writeImage("frame-1").toPath());
+        byte[] second = Files.readAllBytes(writeImage("frame-2").toPath());
+        byte[] third = Files.readAllBytes(writeImage("frame-3").toPath());
+        assertEquals(
+                "AB12345", service.getLicensePlatesAsync(first, "gate-1").get().get(0).getText());
+        assertEquals(
+                "CD67890", service.getLicensePlatesAsync(second, "gate-1").get().get(0).getText());
+        assertEquals(
+                "AB12345", service.getLicensePlatesAsync(third, "gate-2").get().get(0).getText());
+        // The local read is not cached, so the frame is read again.
+        service.getLicensePlatesAsync(second, "gate-1").get();
+
+        verify(azureVisionClient, times(2)).submitAsync(any(byte[].class));
+        verify(localEngine, times(2)).recognize(second);
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_recordsEngineRunsAndCacheHits() throws Exception {
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+        byte[] image = Files.readAllBytes(writeImage("frame-1").toPath());
+
+        List<PlateDto> plates = service.getLicensePlatesAsync(image, "gate-1").get();
+        service.getLicensePlatesAsync(image, "gate-2").get();
+
+        verify(plateReadRecorder)
+                .record(eq("gate-1"), eq(AzureReadEngine.NAME), eq(false), anyLong(), eq(plates));
+        verify(plateReadRecorder).record(eq("gate-2"), isNull(), eq(true), anyLong(), eq(plates));
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_failedRecordingStillAnswersCaller() throws Exception {
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+        doThrow(new IllegalStateException("Recorder is broken"))
+                .when(plateReadRecorder)
+                .record(any(), any(), anyBoolean(), anyLong(), any());
+        byte[] image = Files.readAllBytes(writeImage("frame-1").toPath());
+
+        assertEquals(
+                "AB12345",
+                service.getLicensePlatesAsync(image).get(1, TimeUnit.SECONDS).get(0).getText());
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_cacheOnlyModeServesCacheHitsOverBudget() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getBudget().setClientDailyLimit(1);
+        properties.getBudget().setFallback("cache");
+        service = service(properties);
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+
+        byte[] first = Files.readAllBytes(writeImage("frame-1").toPath());
+        byte[] second = Files.readAllBytes(writeImage("frame-2").toPath());
+        service.getLicensePlatesAsync(first, "gate-1").get();
+
+        assertEquals(
+                "AB12345", service.getLicensePlatesAsync(first, "gate-1").get().get(0).getText());
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> service.getLicensePlatesAsync(second, "gate-1").get());
+        assertInstanceOf(BudgetExhaustedException.class, e.getCause());
+        verify(localEngine, never()).recognize(any());
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_coalescesConcurrentIdenticalImages() throws Exception {
+        File image = writeImage("same-frame");
+        CompletableFuture<String> operation = new CompletableFuture<>();
+        when(azureVisionClient.submitAsync(any(byte[].class))).thenReturn(operation);
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB 12345")));
+
+        List<CompletableFuture<List<PlateDto>>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            results.add(service.getLicensePlatesAsync(image));
+        }
+        results.forEach(result -> assertFalse(result.isDone()));
+        operation.complete("op-1");
+
+        for (CompletableFuture<List<PlateDto>> result : results) {
+            assertEquals("AB12345", result.get(1, TimeUnit.SECONDS).get(0).getText());
+        }
+        verify(azureVisionClient, times(1)).submitAsync(any(byte[].class));
+        verify(azureReadPoller, times(1)).await("op-1");
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_joinsSplitLinesAndCorrectsConfusedCharacters() throws Exception {
+        File image = writeImage("split-plate");
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                responseWith(
+                                        List.of(
+                                                line("NORGE", 10, 60, 60, 60, 60, 70, 10, 70),
+                                                line("A8", 10, 10, 40, 10, 40, 40, 10, 40),
+                                                line("I2345", 50, 10, 150, 10, 150, 40, 50, 40)))));
+
+        List<PlateDto> plates = service.getLicensePlatesAsync(image).get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, plates.size());
+        assertEquals("AB12345", plates.get(0).getText());
+        assertEquals(List.of(10, 10, 150, 10, 150, 40, 10, 40), plates.get(0).getBbox());
+        assertEquals(0.8, plates.get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_cancelledCallerDoesNotCancelOthers() throws Exception {
+        File image = writeImage("same-frame");
+        CompletableFuture<String> operation = new CompletableFuture<>();
+        when(azureVisionClient.submitAsync(any(byte[].class))).thenReturn(operation);
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+
+        CompletableFuture<List<PlateDto>> first = service.getLicensePlatesAsync(image);
+        CompletableFuture<List<PlateDto>> second = service.getLicensePlatesAsync(image);
+        first.cancel(true);
+        operation.complete("op-1");
+
+        assertTrue(first.isCancelled());
+        assertEquals("AB12345", second.get(1, TimeUnit.SECONDS).get(0).getText());
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_distinctImagesAreNotCoalesced() throws Exception {
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+
+        service.getLicensePlatesAsync(writeImage("frame-1")).get(1, TimeUnit.SECONDS);
+        service.getLicensePlatesAsync(writeImage("frame-2")).get(1, TimeUnit.SECONDS);
+
+        verify(azureVisionClient, times(2)).submitAsync(any(byte[].class));
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_failureIsSharedAndNotCached() throws Exception {
+        File image = writeImage("same-frame");
+        CompletableFuture<String> operation = new CompletableFuture<>();
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(operation)
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+
+        CompletableFuture<List<PlateDto>> first = service.getLicensePlatesAsync(image);
+        CompletableFuture<List<PlateDto>> second = service.getLicensePlatesAsync(image);
+        operation.completeExceptionally(new IOException("Azure unavailable"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(
+                "AB12345",
+                service.getLicensePlatesAsync(image).get(1, TimeUnit.SECONDS).get(0).getText());
+        verify(azureVisionClient, times(2)).submitAsync(any(byte[].class));
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_rejectedEngineRunFailsAndLeavesNoFlight() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.setEngine(LocalOcrEngine.NAME);
+        service = service(properties);
+        when(localEngine.recognize(any()))
+                .thenThrow(new RejectedExecutionException("Executor is full"))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new Recognition(
+                                        List.of(new PlateDto("AB12345", List.of())), true)));
+        byte[] image = Files.readAllBytes(writeImage("frame-1").toPath());
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> service.getLicensePlatesAsync(image).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(
+                "AB12345",
+                service.getLicensePlatesAsync(image).get(1, TimeUnit.SECONDS).get(0).getText());
+    }
+
+    @Test
+    void testGetLicensePlatesAsync_mapsBoundingBoxesBackToOriginalImage() throws Exception {
+        BufferedImage photo = new BufferedImage(3200, 2400, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < photo.getHeight(); y++) {
+            for (int x = 0; x < photo.getWidth(); x++) {
+                photo.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", original);
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+
+        List<PlateDto> plates =
+                service.getLicensePlatesAsync(original.toByteArray()).get(1, TimeUnit.SECONDS);
+
+        ArgumentCaptor<byte[]> uploaded = ArgumentCaptor.forClass(byte[].class);
+        verify(azureVisionClient).submitAsync(uploaded.capture());
+        assertEquals(1600, ImageIO.read(new ByteArrayInputStream(uploaded.getValue())).getWidth());
+        assertEquals(List.of(2, 4, 6, 8, 10, 12, 14, 16), plates.get(0).getBbox());
+    }
+
+    @Test
+    void testGetLicensePlatesBatchAsync_boundsParallelismAndKeysByName() throws Exception {
+        List<CompletableFuture<String>> operations = new ArrayList<>();
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenAnswer(
+                        invocation -> {
+                            CompletableFuture<String> operation = new CompletableFuture<>();
+                            operations.add(operation);
+                            return operation;
+                        });
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB12345")));
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            images.put("frame-" + i, ("frame-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        CompletableFuture<Map<String, BatchItemDto>> batch =
+                service.getLicensePlatesBatchAsync(images, "gate-1");
+
+        // Default parallelism is 4, the rest waits until an image finishes.
+        assertEquals(4, operations.size());
+        operations.get(0).completeExceptionally(new IOException("HTTP 429"));
+        assertEquals(5, operations.size());
+        for (int i = 1; i < 10; i++) {
+            operations.get(i).complete("op-1");
+        }
+
+        Map<String, BatchItemDto> results = batch.get(1, TimeUnit.SECONDS);
+        assertEquals(List.copyOf(images.keySet()), List.copyOf(results.keySet()));
+        assertEquals("HTTP 429", results.get("frame-0").getError());
+        assertEquals("AB12345", results.get("frame-9").getLicensePlates().get(0).getText());
+    }
+
+    @Test
+    void testGetLicensePlatesBatchAsync_mosaicSendsFramesInOneCall() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getBatch().setMosaic(true);
+        service = service(properties);
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture("op-m"));
+        // Three 800 px frames side by side, tiles start at x = 0, 824 and 1648.
+        Line inSecondFrame = line("CD 67890", 834, 10, 934, 40);
+        Line acrossFrames = line("AB 12345 EF 11111", 700, 100, 900, 130);
+        acrossFrames.setWords(
+                List.of(
+                        word("AB", 700, 100, 740, 130),
+                        word("12345", 745, 100, 790, 130),
+                        word("EF", 830, 100, 850, 130),
+                        word("11111", 855, 100, 900, 130)));
+        when(azureReadPoller.await("op-m"))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                responseWith(List.of(inSecondFrame, acrossFrames))));
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", frame);
+            frame.write(i);
+            images.put("frame-" + i, frame.toByteArray());
+        }
+
+        Map<String, BatchItemDto> results =
+                service.getLicensePlatesBatchAsync(images, "gate-1").get(1, TimeUnit.SECONDS);
+
+        verify(azureVisionClient, times(1)).submitAsync(any(byte[].class));
+        assertEquals(List.copyOf(images.keySet()), List.copyOf(results.keySet()));
+        List<PlateDto> first = results.get("frame-0").getLicensePlates();
+        assertEquals(1, first.size());
+        assertEquals("AB12345", first.get(0).getText());
+        assertEquals(List.of(700, 100, 790, 100, 790, 130, 700, 130), first.get(0).getBbox());
+        List<PlateDto> second = results.get("frame-1").getLicensePlates();
+        assertEquals(
+                List.of("CD67890", "EF11111"), second.stream().map(PlateDto::getText).toList());
+        assertEquals(List.of(10, 10, 110, 40), second.get(0).getBbox());
+        assertEquals(List.of(6, 100, 76, 100, 76, 130, 6, 130), second.get(1).getBbox());
+        assertTrue(results.get("frame-2").getLicensePlates().isEmpty());
+
+        // The frames are cached individually, the one without plates too.
+        service.getLicensePlatesAsync(images.get("frame-1")).get(1, TimeUnit.SECONDS);
+        service.getLicensePlatesAsync(images.get("frame-2")).get(1, TimeUnit.SECONDS);
+        verify(azureVisionClient, times(1)).submitAsync(any(byte[].class));
+    }
+
+    @Test
+    void testGetLicensePlatesBatchAsync_failedCompositeReadsFramesAlone() throws Exception {
+        LicensePlateProperties properties = new LicensePlateProperties();
+        properties.getBatch().setMosaic(true);
+        service = service(properties);
+        when(azureVisionClient.submitAsync(any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("HTTP 500")))
+                .thenReturn(CompletableFuture.completedFuture("op-1"));
+        when(azureReadPoller.await("op-1"))
+                .thenReturn(CompletableFuture.completedFuture(responseWith("AB 12345")));
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", frame);
+            frame.write(i);
+            images.put("frame-" + i, frame.toByteArray());
+        }
+
+        Map<String, BatchItemDto> results =
+                service.getLicensePlatesBatchAsync(images, "gate-1").get(1, TimeUnit.SECONDS);
+
+        verify(azureVisionClient, times(3)).submitAsync(any(byte[].class));
+        verify(azureVisionClient).submitAsync(images.get("frame-0"));
+        verify(azureVisionClient).submitAsync(images.get("frame-1"));
+        assertEquals("AB12345", results.get("frame-0").getLicensePlates().get(0).getText());
+        assertEquals("AB12345", results.get("frame-1").getLicensePlates().get(0).getText());
+    }
+
+    private static Line line(String text, int... bbox) {
+        Line line = new Line();
+        line.setText(text);
+        line.setBoundingBox(bbox);
+        return line;
+    }
+
+    private static Word word(String text, int left, int top, int right, int bottom) {
+        Word word = new Word();
+        word.setText(text);
+        word.setBoundingBox(new int[] {left, top, right, top, right, bottom, left, bottom});
+        return word;
+    }
+
+    private File writeImage(String content) throws Exception {
+        Path path = Files.createTempFile(tempDir, "image", ".jpg");
+        Files.writeString(path, content);
+        return path.toFile();
+    }
+
+    private static ReadResponse responseWith(String text) {
+        return responseWith(List.of(line(text, 1, 2, 3, 4, 5, 6, 7, 8)));
+    }
+
+    private static ReadResponse responseWith(List<Line> lines) {
+        ReadResult readResult = new ReadResult();
+        readResult.setLines(lines);
+        AnalyzeResult analyzeResult = new AnalyzeResult();
+        analyzeResult.setReadResults(List.of(readResult));
+        ReadResponse response = new ReadResponse();
+        response.setStatus("succeeded");
+        response.setAnalyzeResult(analyzeResult);
+        return response;
+    }
+}
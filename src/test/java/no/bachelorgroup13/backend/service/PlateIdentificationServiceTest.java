@@ -0,0 +1,100 @@
+package no.bachelorgroup13.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.bachelorgroup13.backend.features.licenseplate.dto.IdentifiedPlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.service.PlateIdentificationService;
+import no.bachelorgroup13.backend.features.reservation.entity.Reservation;
+import no.bachelorgroup13.backend.features.reservation.mapper.ReservationMapper;
+import no.bachelorgroup13.backend.features.reservation.service.ReservationService;
+import no.bachelorgroup13.backend.features.user.entity.User;
+import no.bachelorgroup13.backend.features.user.mapper.UserMapper;
+import no.bachelorgroup13.backend.features.user.service.UserService;
+import org.junit.jupiter.api.Test;
+
+class PlateIdentificationServiceTest {
+
+    @Test
+    void testIdentify_looksUpEveryDistinctPlateOnceSideBySide() {
+        UserService userService = mock(UserService.class);
+        ReservationService reservationService = mock(ReservationService.class);
+        User user = new User();
+        user.setName("Ola Nordmann");
+        user.setLicensePlate("AB12345");
+        Reservation reservation = new Reservation();
+        reservation.setSpotNumber("12A");
+        reservation.setLicensePlate("AB12345");
+        when(userService.getUserByLicensePlate("AB12345")).thenReturn(Optional.of(user));
+        when(userService.getUserByLicensePlate("CD67890")).thenReturn(Optional.empty());
+        when(reservationService.getReservationByLicensePlateAndDate(
+                        eq("AB12345"), eq(LocalDate.now())))
+                .thenReturn(Optional.of(reservation));
+        when(reservationService.getReservationByLicensePlateAndDate(eq("CD67890"), any()))
+                .thenReturn(Optional.empty());
+        AtomicInteger tasks = new AtomicInteger();
+        PlateIdentificationService service =
+                new PlateIdentificationService(
+                        userService,
+                        reservationService,
+                        new UserMapper(),
+                        new ReservationMapper(),
+                        task -> {
+                            tasks.incrementAndGet();
+                            task.run();
+                        });
+        PlateDto first = new PlateDto("AB12345", List.of(1, 2, 3, 4));
+        PlateDto unknown = new PlateDto("CD67890", List.of(5, 6, 7, 8));
+        PlateDto again = new PlateDto("AB12345", List.of(9, 10, 11, 12));
+
+        List<IdentifiedPlateDto> identified =
+                service.identify(List.of(first, unknown, again)).join();
+
+        assertEquals(3, identified.size());
+        assertEquals(first, identified.get(0).getPlate());
+        assertEquals("Ola Nordmann", identified.get(0).getUser().getName());
+        assertEquals("12A", identified.get(0).getReservation().getSpotNumber());
+        assertNull(identified.get(1).getUser());
+        assertNull(identified.get(1).getReservation());
+        assertEquals(again, identified.get(2).getPlate());
+        assertEquals("12A", identified.get(2).getReservation().getSpotNumber());
+        // One user and one reservation lookup per distinct plate, each its own task.
+        assertEquals(4, tasks.get());
+        verify(userService, times(1)).getUserByLicensePlate("AB12345");
+    }
+
+    @Test
+    void testIdentify_fullExecutorFailsTheFuture() {
+        PlateIdentificationService service =
+                new PlateIdentificationService(
+                        mock(UserService.class),
+                        mock(ReservationService.class),
+                        new UserMapper(),
+                        new ReservationMapper(),
+                        task -> {
+                            throw new RejectedExecutionException("full");
+                        });
+
+        CompletableFuture<List<IdentifiedPlateDto>> identified =
+                service.identify(List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4))));
+
+        CompletionException e = assertThrows(CompletionException.class, identified::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
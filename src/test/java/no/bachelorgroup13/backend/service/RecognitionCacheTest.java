@@ -0,0 +1,103 @@
+package no.bachelorgroup13.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.service.RecognitionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecognitionCacheTest {
+    private static final List<PlateDto> PLATES =
+            List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4, 5, 6, 7, 8)));
+
+    private LicensePlateProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LicensePlateProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testKeyOf_sameBytesGiveSameKey() {
+        byte[] image = "frame".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(RecognitionCache.keyOf(image), RecognitionCache.keyOf(image.clone()));
+        assertNotEquals(
+                RecognitionCache.keyOf(image),
+                RecognitionCache.keyOf("other".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testGet_countsHitsAndMisses() {
+        RecognitionCache cache = new RecognitionCache(properties, meterRegistry);
+
+        assertNull(cache.get("a"));
+        cache.put("a", PLATES);
+
+        assertEquals(PLATES, cache.get("a"));
+        assertEquals(1, meterRegistry.get("licenseplate.cache.hits").counter().count());
+        assertEquals(1, meterRegistry.get("licenseplate.cache.misses").counter().count());
+    }
+
+    @Test
+    void testPut_evictsLeastRecentlyUsedWhenFull() {
+        properties.getCache().setMaxSize(2);
+        RecognitionCache cache = new RecognitionCache(properties, meterRegistry);
+
+        cache.put("a", PLATES);
+        cache.put("b", PLATES);
+        cache.get("a");
+        cache.put("c", PLATES);
+
+        assertEquals(2, cache.size());
+        assertEquals(PLATES, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("licenseplate.cache.evictions")
+                        .tag("cause", "size")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testGet_dropsExpiredEntries() throws InterruptedException {
+        properties.getCache().setTtl(Duration.ofMillis(20));
+        RecognitionCache cache = new RecognitionCache(properties, meterRegistry);
+
+        cache.put("a", PLATES);
+        Thread.sleep(40);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("licenseplate.cache.evictions")
+                        .tag("cause", "expired")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testGet_disabledCacheNeverHits() {
+        properties.getCache().setEnabled(false);
+        RecognitionCache cache = new RecognitionCache(properties, meterRegistry);
+
+        cache.put("a", PLATES);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,106 @@
+package no.bachelorgroup13.backend.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import no.bachelorgroup13.backend.features.licenseplate.stream.MjpegReader;
+import org.junit.jupiter.api.Test;
+
+class MjpegReaderTest {
+    private static final int MAX_FRAME_BYTES = 1024 * 1024;
+
+    @Test
+    void testNext_splitsMultipartStreamIntoFrames() throws Exception {
+        byte[] first = jpeg(Color.RED);
+        byte[] second = withThumbnail(jpeg(Color.BLUE));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] frame : new byte[][] {first, second}) {
+            stream.write(
+                    ("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: "
+                                    + frame.length
+                                    + "\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+            stream.write(frame);
+            stream.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        // A recording cut off in the middle of a frame.
+        stream.write(Arrays.copyOf(first, first.length / 2));
+
+        MjpegReader reader =
+                new MjpegReader(new ByteArrayInputStream(stream.toByteArray()), MAX_FRAME_BYTES);
+
+        assertArrayEquals(first, reader.next());
+        byte[] read = reader.next();
+        assertArrayEquals(second, read);
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(read)));
+        assertNull(reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testNext_rejectsFramesOverTheLimit() throws Exception {
+        byte[] frame = jpeg(Color.GREEN);
+        MjpegReader reader = new MjpegReader(new ByteArrayInputStream(frame), 100);
+
+        assertThrows(IOException.class, reader::next);
+    }
+
+    @Test
+    void testNext_readsBareConcatenatedFrames() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (int i = 0; i < 10; i++) {
+            stream.write(jpeg(new Color(i * 20, 0, 0)));
+        }
+        MjpegReader reader =
+                new MjpegReader(new ByteArrayInputStream(stream.toByteArray()), MAX_FRAME_BYTES);
+
+        int frames = 0;
+        while (reader.next() != null) {
+            frames++;
+        }
+        assertEquals(10, frames);
+    }
+
+    static byte[] jpeg(Color color) throws IOException {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, 64, 48);
+        g.setColor(Color.WHITE);
+        g.fillRect(10, 10, 20, 10);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Adds an application segment holding a complete JPEG right after the start of
+     * image marker, as cameras do with EXIF thumbnails.
+     */
+    private static byte[] withThumbnail(byte[] jpeg) throws IOException {
+        byte[] thumbnail = jpeg(Color.BLACK);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        int length = thumbnail.length + 2;
+        out.write(length >> 8);
+        out.write(length);
+        out.write(thumbnail);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+}
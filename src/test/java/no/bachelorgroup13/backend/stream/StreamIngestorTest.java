@@ -0,0 +1,150 @@
+package no.bachelorgroup13.backend.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import no.bachelorgroup13.backend.features.licenseplate.azurecv.LicensePlateProperties;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.image.MotionGate;
+import no.bachelorgroup13.backend.features.licenseplate.service.LicensePlateService;
+import no.bachelorgroup13.backend.features.licenseplate.stream.StreamIngestor;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.junit.jupiter.api.Test;
+
+class StreamIngestorTest {
+    private static final int FRAMES = 20;
+
+    @Test
+    void testIngest_replaysRecordingAtSampleRateIntoPlateEvents() throws Exception {
+        PipelineProperties properties = new PipelineProperties();
+        properties.getMotion().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<Object> events = new ArrayList<>();
+        PlateTracker tracker = new PlateTracker(properties, events::add, meterRegistry);
+        LicensePlateService service = mock(LicensePlateService.class);
+        when(service.getLicensePlatesAsync(any(byte[].class), any()))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                List.of(new PlateDto("AB12345", List.of(1, 2, 3, 4)))));
+        StreamIngestor ingestor =
+                new StreamIngestor(
+                        service,
+                        new MotionGate(properties, meterRegistry),
+                        tracker,
+                        properties,
+                        new LicensePlateProperties(),
+                        meterRegistry);
+
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        for (int i = 0; i < FRAMES; i++) {
+            recording.write(MjpegReaderTest.jpeg(new Color(i * 10, 0, 0)));
+        }
+        PipelineProperties.Stream stream = new PipelineProperties.Stream();
+        stream.setCamera("gate-1");
+        stream.setFps(2);
+        stream.setSourceFps(10);
+
+        int sampled =
+                ingestor.ingest(stream, new ByteArrayInputStream(recording.toByteArray()), true);
+        tracker.shutdown();
+
+        // Two seconds of a 10 fps recording sampled at 2 fps.
+        assertEquals(4, sampled);
+        verify(service, times(4)).getLicensePlatesAsync(any(byte[].class), eq("stream:gate-1"));
+        assertEquals(1, events.size());
+        assertEquals("AB12345", ((PlateEvent) events.get(0)).text());
+        assertEquals(
+                FRAMES,
+                meterRegistry
+                        .get("licenseplate.stream.frames")
+                        .tag("result", "received")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void testExceedsBudget_comparesSampleRateWithStreamRate() {
+        PipelineProperties properties = new PipelineProperties();
+        LicensePlateProperties azure = new LicensePlateProperties();
+        azure.getBudget().setStreamRate(5);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StreamIngestor ingestor =
+                new StreamIngestor(
+                        mock(LicensePlateService.class),
+                        new MotionGate(properties, meterRegistry),
+                        new PlateTracker(properties, event -> {}, meterRegistry),
+                        properties,
+                        azure,
+                        meterRegistry);
+        PipelineProperties.Stream stream = new PipelineProperties.Stream();
+
+        stream.setFps(5);
+        assertFalse(ingestor.exceedsBudget(stream));
+        stream.setFps(10);
+        assertTrue(ingestor.exceedsBudget(stream));
+        // Every frame is sampled without a rate.
+        stream.setFps(0);
+        assertTrue(ingestor.exceedsBudget(stream));
+        azure.getBudget().setStreamRate(0);
+        assertFalse(ingestor.exceedsBudget(stream));
+    }
+
+    @Test
+    void testIngest_liveStreamShedsFramesWhileRecognitionIsBehind() throws Exception {
+        PipelineProperties properties = new PipelineProperties();
+        properties.getMotion().setEnabled(false);
+        properties.getIngestion().setMaxInFlight(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LicensePlateService service = mock(LicensePlateService.class);
+        CompletableFuture<List<PlateDto>> slow = new CompletableFuture<>();
+        when(service.getLicensePlatesAsync(any(byte[].class), any())).thenReturn(slow);
+        PlateTracker tracker = new PlateTracker(properties, event -> {}, meterRegistry);
+        StreamIngestor ingestor =
+                new StreamIngestor(
+                        service,
+                        new MotionGate(properties, meterRegistry),
+                        tracker,
+                        properties,
+                        new LicensePlateProperties(),
+                        meterRegistry);
+
+        ByteArrayOutputStream live = new ByteArrayOutputStream();
+        for (int i = 0; i < FRAMES; i++) {
+            live.write(MjpegReaderTest.jpeg(Color.GRAY));
+        }
+        PipelineProperties.Stream stream = new PipelineProperties.Stream();
+        stream.setCamera("gate-2");
+        stream.setFps(0);
+
+        CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS)
+                .execute(() -> slow.complete(List.of()));
+        int sampled = ingestor.ingest(stream, new ByteArrayInputStream(live.toByteArray()), false);
+        tracker.shutdown();
+
+        assertEquals(1, sampled);
+        assertEquals(
+                FRAMES - 1,
+                meterRegistry
+                        .get("licenseplate.stream.frames")
+                        .tag("result", "shed")
+                        .counter()
+                        .count());
+    }
+}
@@ -0,0 +1,88 @@
+package no.bachelorgroup13.backend.tracking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import no.bachelorgroup13.backend.features.licenseplate.config.PipelineProperties;
+import no.bachelorgroup13.backend.features.licenseplate.dto.PlateDto;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateEvent;
+import no.bachelorgroup13.backend.features.licenseplate.tracking.PlateTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PlateTrackerTest {
+    private static final long FRAME_NANOS = 100_000_000L;
+    private static final long IDLE_NANOS = 3_000_000_000L;
+
+    private final List<Object> published = new ArrayList<>();
+    private PlateTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker =
+                new PlateTracker(
+                        new PipelineProperties(), published::add, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+
+    @Test
+    void testObserve_votesPerCharacterAndPublishesOncePerPassage() {
+        assertNull(tracker.observe("gate-1", List.of(read("AB12345", 0.9)), 0));
+        assertNull(tracker.observe("gate-1", List.of(read("AB12846", 0.4)), FRAME_NANOS));
+        PlateEvent event =
+                tracker.observe("gate-1", List.of(read("AB12345", 0.8)), 2 * FRAME_NANOS);
+
+        assertNotNull(event);
+        assertEquals("gate-1", event.camera());
+        assertEquals("AB12345", event.text());
+        assertEquals("standard", event.format());
+        assertEquals(3, event.reads());
+        // The same vehicle in later frames does not publish again.
+        for (int i = 3; i < 20; i++) {
+            assertNull(tracker.observe("gate-1", List.of(read("AB12345", 0.9)), i * FRAME_NANOS));
+        }
+        tracker.sweep(20 * FRAME_NANOS);
+        assertEquals(List.of(event), published);
+    }
+
+    @Test
+    void testObserve_newVehicleAndIdleCameraEndPassages() {
+        tracker.observe("gate-1", List.of(read("AB12345", 0.9)), 0);
+        PlateEvent first = tracker.observe("gate-1", List.of(read("CD67890", 0.9)), FRAME_NANOS);
+
+        // The first vehicle was only read once, so it is published when the next arrives.
+        assertEquals("AB12345", first.text());
+        assertEquals(1, first.reads());
+
+        tracker.sweep(FRAME_NANOS + IDLE_NANOS / 2);
+        assertEquals(1, published.size());
+        tracker.sweep(FRAME_NANOS + IDLE_NANOS);
+        assertEquals(2, published.size());
+        assertEquals("CD67890", ((PlateEvent) published.get(1)).text());
+        // A frame without plates keeps nothing alive.
+        assertNull(tracker.observe("gate-1", List.of(), 2 * IDLE_NANOS));
+    }
+
+    @Test
+    void testObserve_camerasAreTrackedSeparately() {
+        for (int i = 0; i < 3; i++) {
+            tracker.observe("gate-1", List.of(read("AB12345", 0.9)), i * FRAME_NANOS);
+            tracker.observe("gate-2", List.of(read("AB12345", 0.9)), i * FRAME_NANOS);
+        }
+
+        assertEquals(2, published.size());
+    }
+
+    private static PlateDto read(String text, double score) {
+        return new PlateDto(text, List.of(1, 2, 3, 4), score, "standard", score);
+    }
+}